@@ -0,0 +1,33 @@
+#!/usr/bin/env bash
+#
+# Desmonta o fat jar do Spring Boot no layout que o CDS aceita: o arquivo de classes compartilhado só
+# registra classes de jars comuns do classpath, não dos jars aninhados em BOOT-INF/lib.
+#
+#   <destino>/lib/*.jar   dependências (camada que quase não muda na imagem)
+#   <destino>/app.jar     classes e recursos da aplicação, com Class-Path apontando para lib/
+#
+# O devtools já fica fora do fat jar, e portanto também fica fora daqui.
+#
+#   scripts/cds-layout.sh target/orcamento-api-0.0.1-SNAPSHOT.jar target/cds
+#
+set -euo pipefail
+
+JAR="$(realpath "$1")"
+DEST="$2"
+
+rm -rf "$DEST"
+mkdir -p "$DEST/lib" "$DEST/work"
+cd "$DEST"
+
+(cd work && jar xf "$JAR")
+mv work/BOOT-INF/lib/*.jar lib/
+
+main_class="$(sed -n 's/^Start-Class: *//p' work/META-INF/MANIFEST.MF | tr -d '\r')"
+# Linhas do manifesto têm no máximo 72 bytes; as continuações começam com um espaço
+{
+  echo "Main-Class: ${main_class}"
+  printf 'Class-Path: %s\n' "$(ls lib | sed 's|^|lib/|' | tr '\n' ' ')" | fold -w 70 | sed '2,$s/^/ /'
+} > work/MANIFEST.MF
+
+jar --create --file app.jar --manifest work/MANIFEST.MF -C work/BOOT-INF/classes .
+rm -rf work
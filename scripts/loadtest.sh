@@ -0,0 +1,67 @@
+#!/usr/bin/env bash
+#
+# Compara a API com threads de plataforma x threads virtuais sob a mesma carga.
+#
+# Sobe o jar duas vezes (spring.threads.virtual.enabled=false e true), roda o HttpLoadGenerator contra
+# cada instância e imprime uma linha de resultado por modo (vazão, p50/p90/p99, máximo). Na rodada com
+# threads virtuais a JVM roda com -Djdk.tracePinnedThreads=short; qualquer pinning aparece no log da API
+# e é resumido no final.
+#
+# Pré-requisitos: PostgreSQL e RabbitMQ no ar (docker compose up -d db rabbitmq) e a porta livre.
+#
+#   scripts/loadtest.sh
+#   CLIENTS=1000 DURATION=120 URL_PATH="/quote-requests?page=0&size=10" scripts/loadtest.sh
+#   APP_ARGS="--spring.datasource.hikari.maximum-pool-size=50" scripts/loadtest.sh
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PORT="${PORT:-8080}"
+CLIENTS="${CLIENTS:-1000}"
+WARMUP="${WARMUP:-15}"
+DURATION="${DURATION:-60}"
+URL_PATH="${URL_PATH:-/quote-requests/cursor?size=20}"
+APP_ARGS="${APP_ARGS:-}"
+OUT_DIR="target/loadtest"
+
+mkdir -p "$OUT_DIR"
+./mvnw -q -DskipTests package
+./mvnw -q -Ploadtest test-compile
+JAR="$(ls target/orcamento-api-*.jar | grep -v original | head -n 1)"
+
+wait_for_health() {
+  for _ in $(seq 1 120); do
+    if curl -fs "http://localhost:${PORT}/actuator/health" > /dev/null; then
+      return 0
+    fi
+    sleep 1
+  done
+  echo "API não respondeu em /actuator/health" >&2
+  return 1
+}
+
+run_mode() {
+  local label="$1" virtual="$2" jvm_opts="$3"
+  local log="$OUT_DIR/api-${label}.log"
+
+  # shellcheck disable=SC2086
+  java $jvm_opts -jar "$JAR" --server.port="$PORT" --spring.threads.virtual.enabled="$virtual" \
+      --spring.jpa.show-sql=false $APP_ARGS > "$log" 2>&1 &
+  local pid=$!
+  trap 'kill $pid 2> /dev/null || true' EXIT
+
+  wait_for_health
+  ./mvnw -q -Ploadtest exec:exec -Dloadtest.args="url=http://localhost:${PORT}${URL_PATH} \
+clients=${CLIENTS} warmup=${WARMUP} duration=${DURATION} label=${label}" | tee -a "$OUT_DIR/results.txt"
+
+  kill "$pid"
+  wait "$pid" 2> /dev/null || true
+  trap - EXIT
+}
+
+run_mode platform false ""
+run_mode virtual true "-Djdk.tracePinnedThreads=short"
+
+pinned="$(grep -c "<== monitors" "$OUT_DIR/api-virtual.log" || true)"
+echo "Pinning registrado na rodada com threads virtuais: ${pinned} ocorrência(s) (detalhes em $OUT_DIR/api-virtual.log)"
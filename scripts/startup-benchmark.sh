@@ -0,0 +1,81 @@
+#!/usr/bin/env bash
+#
+# Tempo até a primeira requisição respondida, em três modos de subida:
+#
+#   jar       java -jar do fat jar (como o Dockerfile fazia)
+#   aot       layout do CDS (scripts/cds-layout.sh) com -Dspring.aot.enabled=true
+#   aot-cds   idem, com o arquivo de classes gerado numa rodada de treino (-XX:SharedArchiveFile)
+#
+# Cada modo sobe RUNS vezes; o tempo vai do lançamento da JVM até /actuator/health devolver qualquer
+# status HTTP (503 conta: a API já está atendendo). Imprime a mediana e o mínimo de cada modo.
+#
+# Pré-requisitos: PostgreSQL e RabbitMQ no ar (docker compose up -d db rabbitmq) e a porta livre.
+# Sem banco, suba só o contexto com o perfil de treino:
+#
+#   scripts/startup-benchmark.sh
+#   RUNS=10 scripts/startup-benchmark.sh
+#   APP_ARGS="--spring.profiles.active=cds-training" scripts/startup-benchmark.sh
+#
+set -euo pipefail
+
+cd "$(dirname "$0")/.."
+
+PORT="${PORT:-8080}"
+RUNS="${RUNS:-5}"
+APP_ARGS="${APP_ARGS:-}"
+OUT_DIR="target/startup"
+CDS_DIR="$OUT_DIR/cds"
+
+mkdir -p "$OUT_DIR"
+./mvnw -q -Paot -DskipTests package
+JAR="$(ls target/orcamento-api-*.jar | grep -v original | head -n 1)"
+scripts/cds-layout.sh "$JAR" "$CDS_DIR"
+
+# Rodada de treino: sobe o contexto sem banco, sai ao fim do refresh e grava o arquivo
+(cd "$CDS_DIR" && java -XX:ArchiveClassesAtExit=app.jsa -Xlog:cds=error -Dspring.aot.enabled=true \
+    -Dspring.context.exit=onRefresh -Dspring.profiles.active=cds-training -jar app.jar > training.log 2>&1)
+
+now_ms() {
+  date +%s%3N
+}
+
+time_to_first_request() {
+  local start="$1" pid="$2"
+  while kill -0 "$pid" 2> /dev/null; do
+    if [ "$(curl -s -o /dev/null -w '%{http_code}' "http://localhost:${PORT}/actuator/health")" != "000" ]; then
+      echo $(( $(now_ms) - start ))
+      return 0
+    fi
+    sleep 0.05
+  done
+  echo "A API terminou antes de responder (ver $OUT_DIR/*.log)" >&2
+  return 1
+}
+
+# O CDS confere o classpath gravado no treino: os modos do layout rodam de dentro dele, com os mesmos caminhos
+run_mode() {
+  local label="$1" dir="$2"; shift 2
+  local log_dir times=()
+  log_dir="$(realpath "$OUT_DIR")"
+  for i in $(seq 1 "$RUNS"); do
+    local start pid
+    start="$(now_ms)"
+    # shellcheck disable=SC2086
+    (cd "$dir" && exec "$@" --server.port="$PORT" $APP_ARGS > "$log_dir/api-${label}-${i}.log" 2>&1) &
+    pid=$!
+    trap 'kill $pid 2> /dev/null || true' EXIT
+    times+=("$(time_to_first_request "$start" "$pid")")
+    kill "$pid"
+    wait "$pid" 2> /dev/null || true
+    trap - EXIT
+  done
+  local sorted
+  sorted="$(printf '%s\n' "${times[@]}" | sort -n)"
+  printf '%-8s mediana %6d ms   mínimo %6d ms   (%s)\n' "$label" \
+      "$(echo "$sorted" | sed -n "$(( (RUNS + 1) / 2 ))p")" "$(echo "$sorted" | head -n 1)" \
+      "$(echo "${times[*]}")" | tee -a "$OUT_DIR/results.txt"
+}
+
+run_mode jar . java -jar "$JAR"
+run_mode aot "$CDS_DIR" java -Dspring.aot.enabled=true -jar app.jar
+run_mode aot-cds "$CDS_DIR" java -XX:SharedArchiveFile=app.jsa -Xlog:cds=error -Dspring.aot.enabled=true -jar app.jar
@@ -0,0 +1,137 @@
+package com.orcamento.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.jdbc.datasource.DelegatingDataSource;
+import org.springframework.web.context.request.RequestAttributes;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import javax.sql.DataSource;
+import java.lang.reflect.InvocationHandler;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Proxy;
+import java.sql.Connection;
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Mede, por método de controller, quanto tempo cada requisição espera por uma conexão do pool
+ * ({@code db.connection.acquire}) e quanto tempo fica com ela ({@code db.connection.hold}).
+ * <p>
+ * As métricas do Hikari ({@code hikaricp.connections.*}) mostram o pool como um todo; estas mostram
+ * quem está segurando as conexões. Um endpoint com hold muito maior que o tempo das suas consultas está
+ * fazendo trabalho fora do banco com a conexão na mão (ex.: Open Session in View ligado, chamada
+ * externa dentro de {@code @Transactional}).
+ * <p>
+ * O endpoint vem do {@link HandlerMethod} que o Spring MVC guarda na requisição ({@code tag endpoint},
+ * ex.: {@code QuoteRequestController.create}). Conexões pegas fora de uma requisição (pipeline, relay
+ * do outbox, Flyway) ficam com {@code endpoint=none}.
+ */
+public class ConnectionMetricsDataSource extends DelegatingDataSource {
+
+    static final String ACQUIRE_METRIC = "db.connection.acquire";
+    static final String HOLD_METRIC = "db.connection.hold";
+    static final String NO_ENDPOINT = "none";
+
+    private final Supplier<MeterRegistry> meterRegistrySupplier;
+    private volatile MeterRegistry meterRegistry;
+
+    private final Map<String, Timer> acquireTimers = new ConcurrentHashMap<>();
+    private final Map<String, Timer> holdTimers = new ConcurrentHashMap<>();
+
+    public ConnectionMetricsDataSource(DataSource target, Supplier<MeterRegistry> meterRegistry) {
+        super(target);
+        this.meterRegistrySupplier = meterRegistry;
+    }
+
+    @Override
+    public Connection getConnection() throws SQLException {
+        long start = System.nanoTime();
+        return track(super.getConnection(), start);
+    }
+
+    @Override
+    public Connection getConnection(String username, String password) throws SQLException {
+        long start = System.nanoTime();
+        return track(super.getConnection(username, password), start);
+    }
+
+    private Connection track(Connection connection, long start) {
+        MeterRegistry registry = meterRegistry;
+        if (registry == null) {
+            registry = meterRegistry = meterRegistrySupplier.get();
+            if (registry == null) {
+                return connection;
+            }
+        }
+        long acquired = System.nanoTime();
+        String endpoint = currentEndpoint();
+        timer(acquireTimers, registry, ACQUIRE_METRIC, "Espera por uma conexão do pool", endpoint)
+                .record(acquired - start, TimeUnit.NANOSECONDS);
+        Timer hold = timer(holdTimers, registry, HOLD_METRIC, "Tempo com a conexão fora do pool", endpoint);
+        return (Connection) Proxy.newProxyInstance(Connection.class.getClassLoader(),
+                new Class<?>[] {Connection.class}, new HoldTimeHandler(connection, hold, acquired));
+    }
+
+    /*** Classe.método do controller da requisição atual, ou "none" fora do Spring MVC ***/
+    static String currentEndpoint() {
+        RequestAttributes attributes = RequestContextHolder.getRequestAttributes();
+        if (attributes != null && attributes.getAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                RequestAttributes.SCOPE_REQUEST) instanceof HandlerMethod handler) {
+            return handler.getBeanType().getSimpleName() + "." + handler.getMethod().getName();
+        }
+        return NO_ENDPOINT;
+    }
+
+    private static Timer timer(Map<String, Timer> timers, MeterRegistry registry, String name,
+                               String description, String endpoint) {
+        return timers.computeIfAbsent(endpoint, e -> Timer.builder(name)
+                .description(description)
+                .tag("endpoint", e)
+                .register(registry));
+    }
+
+    // Repassa tudo para a conexão do Hikari; no primeiro close registra o tempo desde o getConnection
+    private static final class HoldTimeHandler implements InvocationHandler {
+
+        private final Connection target;
+        private final Timer hold;
+        private final long acquiredAt;
+        private boolean closed;
+
+        HoldTimeHandler(Connection target, Timer hold, long acquiredAt) {
+            this.target = target;
+            this.hold = hold;
+            this.acquiredAt = acquiredAt;
+        }
+
+        @Override
+        public Object invoke(Object proxy, Method method, Object[] args) throws Throwable {
+            switch (method.getName()) {
+                case "equals":
+                    return proxy == args[0];
+                case "hashCode":
+                    return System.identityHashCode(proxy);
+                case "close":
+                    if (!closed) {
+                        closed = true;
+                        hold.record(System.nanoTime() - acquiredAt, TimeUnit.NANOSECONDS);
+                    }
+                    break;
+                default:
+                    break;
+            }
+            try {
+                return method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getTargetException();
+            }
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package com.orcamento.api.config;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import javax.sql.DataSource;
+
+@Configuration
+@ConditionalOnProperty(name = "db.connection-metrics.enabled", havingValue = "true", matchIfMissing = true)
+public class DataSourceMetricsConfig {
+
+    /*
+     * Envolve o DataSource do Hikari com o ConnectionMetricsDataSource. O MeterRegistry é buscado só no
+     * primeiro getConnection: o post-processor é criado antes dele. As métricas do próprio Hikari
+     * continuam funcionando, o Spring Boot desembrulha o DelegatingDataSource para registrá-las.
+     */
+    @Bean
+    public static BeanPostProcessor connectionMetricsPostProcessor(ObjectProvider<MeterRegistry> meterRegistry) {
+        return new BeanPostProcessor() {
+            @Override
+            public Object postProcessAfterInitialization(Object bean, String beanName) {
+                if (bean instanceof DataSource dataSource && !(bean instanceof ConnectionMetricsDataSource)) {
+                    return new ConnectionMetricsDataSource(dataSource, meterRegistry::getIfAvailable);
+                }
+                return bean;
+            }
+        };
+    }
+}
@@ -0,0 +1,18 @@
+package com.orcamento.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.util.concurrent.ForkJoinPool;
+
+@Configuration
+public class DocumentProcessingConfig {
+
+    // Pool dedicado à contagem de PDFs grandes, separado do commonPool usado por streams paralelas
+    @Bean(destroyMethod = "shutdown")
+    public ForkJoinPool documentCountingPool(@Value("${documents.pdf.parallelism:0}") int parallelism) {
+        int threads = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+        return new ForkJoinPool(threads);
+    }
+}
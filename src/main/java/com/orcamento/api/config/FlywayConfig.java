@@ -0,0 +1,22 @@
+package com.orcamento.api.config;
+
+import org.springframework.boot.autoconfigure.flyway.FlywayMigrationStrategy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.env.Environment;
+
+@Configuration
+public class FlywayConfig {
+
+    // No jar gerado com -Paot o @ConditionalOnProperty do Flyway é resolvido no build e
+    // spring.flyway.enabled=false deixaria de valer na subida. Lida aqui, a propriedade volta a desligar
+    // as migrações em tempo de execução (usado pela rodada de treino do CDS, que sobe sem banco)
+    @Bean
+    public FlywayMigrationStrategy flywayMigrationStrategy(Environment environment) {
+        return flyway -> {
+            if (environment.getProperty("spring.flyway.enabled", Boolean.class, true)) {
+                flyway.migrate();
+            }
+        };
+    }
+}
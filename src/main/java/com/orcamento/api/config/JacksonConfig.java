@@ -0,0 +1,20 @@
+package com.orcamento.api.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.databind.module.SimpleModule;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.core.NativeDetector;
+
+@Configuration
+public class JacksonConfig {
+
+    // Registrado no ObjectMapper do Spring Boot (todo bean Module entra): getters, setters e construtores
+    // dos DTOs passam a ser chamados por lambdas geradas em vez de Method.invoke.
+    // Na imagem nativa não há geração de classes em tempo de execução; lá fica a reflexão (já compilada)
+    @Bean
+    public Module blackbirdModule() {
+        return NativeDetector.inNativeImage() ? new SimpleModule() : new BlackbirdModule();
+    }
+}
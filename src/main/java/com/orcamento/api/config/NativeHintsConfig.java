@@ -0,0 +1,71 @@
+package com.orcamento.api.config;
+
+import com.orcamento.api.dto.BudgetTypeDTO;
+import com.orcamento.api.dto.CursorPageDTO;
+import com.orcamento.api.dto.NotificationEventDTO;
+import com.orcamento.api.dto.PageResponseDTO;
+import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.DocumentCountEntry;
+import com.orcamento.api.entity.OutboxMessage;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.QuoteRequestIdGenerator;
+import com.orcamento.api.entity.converter.BillingMethodConverter;
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.RuntimeHintsRegistrar;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBinding;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.ImportRuntimeHints;
+
+import java.sql.Connection;
+import java.util.List;
+
+/**
+ * Metadados de reflexão e recursos para a imagem nativa ({@code ./mvnw -Pnative native:compile}).
+ * <p>
+ * O AOT do Spring já cobre beans, repositórios e os corpos de requisição/resposta dos controllers.
+ * Aqui fica o que é lido por reflexão ou do classpath fora desse caminho: DTOs serializados direto pelo
+ * ObjectMapper (exportação, mensagens do RabbitMQ), entidades e conversor do Hibernate e os recursos que o
+ * PDFBox carrega durante a extração de texto. O DOCX é lido em fluxo (zip + StAX do JDK) e não precisa de nada;
+ * o modo {@code documents.docx.mode=dom} (XMLBeans) não é suportado na imagem nativa.
+ */
+@Configuration
+@ImportRuntimeHints(NativeHintsConfig.OrcamentoRuntimeHints.class)
+@RegisterReflectionForBinding({ QuoteRequestDTO.class, BudgetTypeDTO.class, CursorPageDTO.class,
+        PageResponseDTO.class, NotificationEventDTO.class })
+public class NativeHintsConfig {
+
+    static class OrcamentoRuntimeHints implements RuntimeHintsRegistrar {
+
+        @Override
+        public void registerHints(RuntimeHints hints, ClassLoader classLoader) {
+            // Hibernate instancia entidades, conversores e o gerador de ID pelo construtor sem argumentos
+            // e acessa os campos
+            for (Class<?> type : List.of(QuoteRequest.class, BudgetType.class, DocumentCountEntry.class,
+                    DocumentCountEntry.Key.class, OutboxMessage.class, BillingMethodConverter.class,
+                    QuoteRequestIdGenerator.class)) {
+                hints.reflection().registerType(type, MemberCategory.INVOKE_DECLARED_CONSTRUCTORS,
+                        MemberCategory.INVOKE_DECLARED_METHODS, MemberCategory.DECLARED_FIELDS);
+            }
+            // Enums gravados pelo nome (@Enumerated(STRING) e BillingMethodConverter)
+            for (Class<?> type : List.of(BillingMethod.class, QuoteStatus.class)) {
+                hints.reflection().registerType(type, MemberCategory.PUBLIC_FIELDS, MemberCategory.INVOKE_PUBLIC_METHODS);
+            }
+
+            // PDFBox: glyph lists, métricas das 14 fontes padrão, fonte de fallback e tabelas do texto bidirecional;
+            // FontBox: CMaps predefinidos e a tabela de scripts Unicode (substituição de glifos)
+            hints.resources().registerPattern("org/apache/pdfbox/resources/**");
+            hints.resources().registerPattern("org/apache/fontbox/cmap/*");
+            hints.resources().registerPattern("org/apache/fontbox/unicode/*");
+
+            // Templates de e-mail compilados na subida (TemplateEngine)
+            hints.resources().registerPattern("templates/*.html");
+
+            // ConnectionMetricsDataSource devolve um proxy JDK no lugar da Connection do pool
+            hints.proxies().registerJdkProxy(Connection.class);
+        }
+    }
+}
@@ -0,0 +1,36 @@
+package com.orcamento.api.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.annotation.EnableScheduling;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+@Configuration
+@EnableScheduling
+public class QuoteProcessingConfig {
+
+    /*
+     * Pool limitado do pipeline de orçamentos: fila cheia rejeita a tarefa (AbortPolicy) em vez de
+     * crescer sem limite. A solicitação rejeitada continua PENDING e é reenfileirada pela varredura.
+     * Com threads virtuais ligadas as workers passam a ser virtuais, mas o limite continua: pool-size é
+     * quantas solicitações usam conexões do banco ao mesmo tempo, não quantas threads existem.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor quoteProcessingExecutor(
+            @Value("${quotes.processing.pool-size:4}") int poolSize,
+            @Value("${quotes.processing.queue-capacity:200}") int queueCapacity,
+            @Value("${spring.threads.virtual.enabled:false}") boolean virtualThreads) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("quote-pipeline-");
+        if (virtualThreads) {
+            executor.setThreadFactory(Thread.ofVirtual().name("quote-pipeline-", 1).factory());
+        }
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+}
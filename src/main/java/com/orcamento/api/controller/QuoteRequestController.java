@@ -1,33 +1,57 @@
 package com.orcamento.api.controller;
 
+import com.orcamento.api.dto.CursorPageDTO;
+import com.orcamento.api.dto.PageResponseDTO;
 import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.dto.QuoteRequestFields;
+import com.orcamento.api.service.QuoteExportFormat;
 import com.orcamento.api.service.QuoteRequestService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
 import io.swagger.v3.oas.annotations.tags.Tag;
 import jakarta.validation.Valid;
+import jakarta.validation.constraints.NotNull;
+import jakarta.validation.constraints.Size;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
+import java.util.function.Function;
 
 @RestController
 @RequestMapping("/quote-requests")
 @Tag(name = "Solicitações de Orçamento", description = "Endpoints para gerenciar as solicitações de orçamento.")
 public class QuoteRequestController {
 
+    private static final Logger log = LoggerFactory.getLogger(QuoteRequestController.class);
+
+    private static final int MAX_CURSOR_PAGE_SIZE = 100;
+
+    private static final int MAX_BULK_SIZE = 10_000;
+
+    private static final String FIELDS_DESCRIPTION =
+            "Campos de cada item, separados por vírgula (ex: id,status,estimatedTotal); omitir para todos";
+
     @Autowired
     private QuoteRequestService service;
 
     @GetMapping("/all")
-    @Operation(summary = "Lista TODAS as solicitações de orçamento (sem paginação) - DEPRECATED")
+    @Operation(summary = "Lista TODAS as solicitações de orçamento (sem paginação) - DEPRECATED",
+            description = "Monta a lista inteira em memória. Para extrações completas use GET /quote-requests/export.")
     @Deprecated
     public ResponseEntity<List<QuoteRequestDTO>> getAll() {
         return ResponseEntity.ok(service.getAll());
@@ -35,7 +59,7 @@ public class QuoteRequestController {
 
     @GetMapping
     @Operation(summary = "Lista solicitações de orçamento com paginação")
-    public ResponseEntity<Page<QuoteRequestDTO>> getAllPaginated(
+    public ResponseEntity<PageResponseDTO<?>> getAllPaginated(
             @Parameter(description = "Número da página (começa em 0)")
             @RequestParam(defaultValue = "0") int page,
             @Parameter(description = "Quantidade de itens por página")
@@ -43,9 +67,12 @@ public class QuoteRequestController {
             @Parameter(description = "Campo para ordenação (ex: createdAt, requesterName)")
             @RequestParam(defaultValue = "createdAt") String sortBy,
             @Parameter(description = "Direção da ordenação (asc ou desc)")
-            @RequestParam(defaultValue = "desc") String direction
+            @RequestParam(defaultValue = "desc") String direction,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields
     ) {
-        System.out.println("getAllPaginated called with page=" + page + ", size=" + size + ", sortBy=" + sortBy + ", direction=" + direction);
+        log.debug("getAllPaginated page={}, size={}, sortBy={}, direction={}", page, size, sortBy, direction);
+        Function<QuoteRequestDTO, Map<String, Object>> selector = fieldSelector(fields);
         Sort.Direction sortDirection = direction.equalsIgnoreCase("asc")
                 ? Sort.Direction.ASC
                 : Sort.Direction.DESC;
@@ -53,20 +80,57 @@ public class QuoteRequestController {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
         Page<QuoteRequestDTO> result = service.getAllPaginated(pageable);
 
-        System.out.println("📊 Total de páginas: " + result.getTotalPages());
-        System.out.println("📊 Total de elementos: " + result.getTotalElements());
-        System.out.println("📊 Itens nesta página: " + result.getNumberOfElements());
-        return ResponseEntity.ok(result);
+        log.debug("getAllPaginated: {} página(s), {} elemento(s), {} nesta página",
+                result.getTotalPages(), result.getTotalElements(), result.getNumberOfElements());
+        return ResponseEntity.ok(toResponse(result, selector));
+    }
+
+    @GetMapping("/cursor")
+    @Operation(summary = "Lista solicitações de orçamento por cursor (mais recentes primeiro)",
+            description = "Paginação keyset sobre (createdAt, id): envie o nextCursor da resposta para buscar "
+                    + "a próxima página. Não calcula total de elementos, e o tempo de resposta não depende da "
+                    + "profundidade da página.")
+    public ResponseEntity<CursorPageDTO<QuoteRequestDTO>> getAllByCursor(
+            @Parameter(description = "Token nextCursor da página anterior (omitir na primeira página)")
+            @RequestParam(required = false) String cursor,
+            @Parameter(description = "Quantidade de itens por página (1 a " + MAX_CURSOR_PAGE_SIZE + ")")
+            @RequestParam(defaultValue = "10") int size
+    ) {
+        if (size < 1 || size > MAX_CURSOR_PAGE_SIZE) {
+            throw new IllegalArgumentException("size deve estar entre 1 e " + MAX_CURSOR_PAGE_SIZE);
+        }
+        return ResponseEntity.ok(service.getAllByCursor(cursor, size));
+    }
+
+    @GetMapping("/export")
+    @Operation(summary = "Exporta as solicitações não deletadas em NDJSON ou CSV",
+            description = "Escreve uma linha por solicitação direto na resposta, lendo do banco por cursor; "
+                    + "o consumo de memória não depende da quantidade de registros.")
+    public ResponseEntity<StreamingResponseBody> export(
+            @Parameter(description = "Formato: ndjson ou csv")
+            @RequestParam(defaultValue = "ndjson") String format
+    ) {
+        QuoteExportFormat exportFormat = QuoteExportFormat.fromParam(format);
+        StreamingResponseBody body = output -> service.exportActive(exportFormat, output);
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(exportFormat.getMediaType() + ";charset=UTF-8"))
+                .header(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                        .filename("quote-requests." + exportFormat.getExtension()).build().toString())
+                .body(body);
     }
 
     @GetMapping("/deleted")
     @Operation(summary = "Lista solicitações deletadas com paginação")
-    public ResponseEntity<Page<QuoteRequestDTO>> getDeletedPaginated(
+    public ResponseEntity<PageResponseDTO<?>> getDeletedPaginated(
             @RequestParam(defaultValue = "0") int page,
             @RequestParam(defaultValue = "10") int size,
             @RequestParam(defaultValue = "deletedAt") String sortBy,
-            @RequestParam(defaultValue = "desc") String direction
+            @RequestParam(defaultValue = "desc") String direction,
+            @Parameter(description = FIELDS_DESCRIPTION)
+            @RequestParam(required = false) String fields
     ) {
+        Function<QuoteRequestDTO, Map<String, Object>> selector = fieldSelector(fields);
         Sort.Direction sortDirection = direction.equalsIgnoreCase("asc")
                 ? Sort.Direction.ASC
                 : Sort.Direction.DESC;
@@ -74,7 +138,7 @@ public class QuoteRequestController {
         Pageable pageable = PageRequest.of(page, size, Sort.by(sortDirection, sortBy));
         Page<QuoteRequestDTO> result = service.getAllDeletedPaginated(pageable);
 
-        return ResponseEntity.ok(result);
+        return ResponseEntity.ok(toResponse(result, selector));
     }
 
     @GetMapping("/{id}")
@@ -84,10 +148,33 @@ public class QuoteRequestController {
     }
 
     @PostMapping
-    @Operation(summary = "Cria uma nova solicitação de orçamento")
+    @Operation(summary = "Cria uma nova solicitação de orçamento",
+            description = "Registra a solicitação como PENDING e retorna 202. A contagem do documento, o cálculo "
+                    + "do valor e a notificação são feitos em segundo plano; acompanhe pelo campo status.")
     public ResponseEntity<QuoteRequestDTO> create(@RequestBody @Valid QuoteRequestDTO dto) {
         QuoteRequestDTO created = service.create(dto);
-        return ResponseEntity.status(HttpStatus.CREATED).body(created);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(created);
+    }
+
+    @PostMapping("/bulk")
+    @Operation(summary = "Cria várias solicitações de orçamento de uma vez",
+            description = "Mesmo comportamento do POST /quote-requests para cada item (PENDING, processamento em "
+                    + "segundo plano), gravado numa transação só com INSERTs em lote. Até "
+                    + MAX_BULK_SIZE + " itens; se algum for inválido nada é gravado.")
+    public ResponseEntity<List<QuoteRequestDTO>> createAll(
+            @RequestBody @Size(min = 1, max = MAX_BULK_SIZE) List<@Valid QuoteRequestDTO> dtos) {
+        List<QuoteRequestDTO> created = service.createAll(dtos);
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(created);
+    }
+
+    @PostMapping("/bulk-delete")
+    @Operation(summary = "Faz a exclusão lógica (soft delete) de várias solicitações",
+            description = "Um único UPDATE para todos os IDs. IDs inexistentes ou já deletados são ignorados; "
+                    + "a resposta informa quantos foram deletados.")
+    public ResponseEntity<Map<String, Integer>> deleteAll(
+            @RequestBody @Size(min = 1, max = MAX_BULK_SIZE) List<@NotNull UUID> ids) {
+        int deleted = service.softDeleteAll(ids);
+        return ResponseEntity.ok(Map.of("requested", ids.size(), "deleted", deleted));
     }
 
     @PutMapping("/{id}")
@@ -103,4 +190,14 @@ public class QuoteRequestController {
         service.softDelete(id);
         return ResponseEntity.noContent().build();
     }
+
+    // Valida o fields antes de ir ao banco: nome desconhecido vira 400 sem executar a consulta
+    private static Function<QuoteRequestDTO, Map<String, Object>> fieldSelector(String fields) {
+        return fields == null || fields.isBlank() ? null : QuoteRequestFields.selector(fields);
+    }
+
+    private static PageResponseDTO<?> toResponse(Page<QuoteRequestDTO> page,
+            Function<QuoteRequestDTO, Map<String, Object>> selector) {
+        return selector == null ? PageResponseDTO.of(page) : PageResponseDTO.of(page, selector);
+    }
 }
@@ -0,0 +1,20 @@
+package com.orcamento.api.dto;
+
+import java.util.List;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Página da listagem por cursor. Não traz total de elementos/páginas: nenhum COUNT é executado.
+ */
+public record CursorPageDTO<T>(
+
+        List<T> content,
+
+        int size,
+
+        boolean hasNext,
+
+        @Schema(description = "Token para buscar a próxima página; nulo na última")
+        String nextCursor) {
+}
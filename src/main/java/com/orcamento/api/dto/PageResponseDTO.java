@@ -0,0 +1,43 @@
+package com.orcamento.api.dto;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+
+import org.springframework.data.domain.Page;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+/**
+ * Página da listagem por offset. Formato estável da API: só o conteúdo e os números da página, sem os
+ * objetos {@code pageable}/{@code sort} e flags redundantes que o Jackson escreveria a partir do PageImpl.
+ */
+public record PageResponseDTO<T>(
+
+        List<T> content,
+
+        @Schema(description = "Número da página (começa em 0)")
+        int number,
+
+        int size,
+
+        long totalElements,
+
+        int totalPages) {
+
+    public static <T> PageResponseDTO<T> of(Page<T> page) {
+        return new PageResponseDTO<>(page.getContent(), page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
+    }
+
+    /*** Mesma página com cada linha convertida (ex.: só os campos pedidos) ***/
+    public static <S, T> PageResponseDTO<T> of(Page<S> page, Function<? super S, ? extends T> converter) {
+        List<S> rows = page.getContent();
+        List<T> content = new ArrayList<>(rows.size());
+        for (S row : rows) {
+            content.add(converter.apply(row));
+        }
+        return new PageResponseDTO<>(content, page.getNumber(), page.getSize(),
+                page.getTotalElements(), page.getTotalPages());
+    }
+}
@@ -0,0 +1,73 @@
+package com.orcamento.api.dto;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Seleção de campos das listagens ({@code ?fields=id,status,estimatedTotal}): cada linha vira um mapa só
+ * com os campos pedidos, na ordem pedida. Os acessores são referências diretas aos componentes do record,
+ * sem reflexão.
+ */
+public final class QuoteRequestFields {
+
+    private static final Map<String, Function<QuoteRequestDTO, Object>> ACCESSORS = new LinkedHashMap<>();
+
+    static {
+        ACCESSORS.put("id", QuoteRequestDTO::id);
+        ACCESSORS.put("budgetTypeId", QuoteRequestDTO::budgetTypeId);
+        ACCESSORS.put("requesterName", QuoteRequestDTO::requesterName);
+        ACCESSORS.put("requesterEmail", QuoteRequestDTO::requesterEmail);
+        ACCESSORS.put("documentOriginalName", QuoteRequestDTO::documentOriginalName);
+        ACCESSORS.put("documentStorageKey", QuoteRequestDTO::documentStorageKey);
+        ACCESSORS.put("documentMimeType", QuoteRequestDTO::documentMimeType);
+        ACCESSORS.put("documentSizeBytes", QuoteRequestDTO::documentSizeBytes);
+        ACCESSORS.put("billingMethodUsed", QuoteRequestDTO::billingMethodUsed);
+        ACCESSORS.put("feeUsed", QuoteRequestDTO::feeUsed);
+        ACCESSORS.put("countedUnits", QuoteRequestDTO::countedUnits);
+        ACCESSORS.put("estimatedTotal", QuoteRequestDTO::estimatedTotal);
+        ACCESSORS.put("status", QuoteRequestDTO::status);
+        ACCESSORS.put("createdAt", QuoteRequestDTO::createdAt);
+        ACCESSORS.put("updatedAt", QuoteRequestDTO::updatedAt);
+        ACCESSORS.put("deletedAt", QuoteRequestDTO::deletedAt);
+    }
+
+    private QuoteRequestFields() {
+    }
+
+    /**
+     * @param fields nomes separados por vírgula, como no JSON do QuoteRequestDTO
+     * @throws IllegalArgumentException se algum nome não for um campo do QuoteRequestDTO
+     */
+    public static Function<QuoteRequestDTO, Map<String, Object>> selector(String fields) {
+        List<String> names = new ArrayList<>();
+        List<Function<QuoteRequestDTO, Object>> accessors = new ArrayList<>();
+        for (String part : fields.split(",")) {
+            String name = part.trim();
+            if (name.isEmpty() || names.contains(name)) {
+                continue;
+            }
+            Function<QuoteRequestDTO, Object> accessor = ACCESSORS.get(name);
+            if (accessor == null) {
+                throw new IllegalArgumentException("Campo desconhecido em fields: " + name
+                        + ". Campos disponíveis: " + String.join(",", ACCESSORS.keySet()));
+            }
+            names.add(name);
+            accessors.add(accessor);
+        }
+        if (names.isEmpty()) {
+            throw new IllegalArgumentException("fields deve ter ao menos um campo");
+        }
+
+        int count = names.size();
+        return dto -> {
+            Map<String, Object> row = new LinkedHashMap<>(count * 2);
+            for (int i = 0; i < count; i++) {
+                row.put(names.get(i), accessors.get(i).apply(dto));
+            }
+            return row;
+        };
+    }
+}
@@ -0,0 +1,95 @@
+package com.orcamento.api.entity;
+
+import java.io.Serializable;
+import java.time.OffsetDateTime;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.springframework.data.domain.Persistable;
+
+import jakarta.persistence.*;
+
+/**
+ * Contagem de um documento já processado, indexada pelo SHA-256 do conteúdo, pelo tipo detectado e pela
+ * versão dos contadores: os mesmos bytes contados como texto e como PDF são entradas diferentes, e uma
+ * mudança nos extratores não reaproveita contagens feitas pela versão anterior.
+ * As linhas só são inseridas (nunca atualizadas), por isso {@link #isNew()} é sempre verdadeiro:
+ * o save faz INSERT direto, sem o SELECT do merge.
+ */
+@Entity
+@Table(name = "document_counts")
+public class DocumentCountEntry implements Persistable<DocumentCountEntry.Key> {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "words", nullable = false)
+    private long words;
+
+    @Column(name = "paragraphs", nullable = false)
+    private long paragraphs;
+
+    @Column(name = "characters", nullable = false)
+    private long characters;
+
+    @Column(name = "pages", nullable = false)
+    private long pages;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private OffsetDateTime createdAt;
+
+    public DocumentCountEntry() {
+    }
+
+    public DocumentCountEntry(Key key, long words, long paragraphs, long characters, long pages) {
+        this.key = key;
+        this.words = words;
+        this.paragraphs = paragraphs;
+        this.characters = characters;
+        this.pages = pages;
+    }
+
+    @Override
+    public Key getId() {
+        return key;
+    }
+
+    @Override
+    public boolean isNew() {
+        return true;
+    }
+
+    public Key getKey() {
+        return key;
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getParagraphs() {
+        return paragraphs;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    public long getPages() {
+        return pages;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    @Embeddable
+    public record Key(
+            @Column(name = "content_sha256", length = 64, updatable = false, nullable = false)
+            String contentSha256,
+            @Column(name = "document_type", length = 100, updatable = false, nullable = false)
+            String documentType,
+            @Column(name = "counter_version", updatable = false, nullable = false)
+            int counterVersion) implements Serializable {
+    }
+}
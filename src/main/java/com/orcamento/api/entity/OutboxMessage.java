@@ -0,0 +1,99 @@
+package com.orcamento.api.entity;
+
+import java.time.OffsetDateTime;
+import java.util.UUID;
+
+import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.JdbcTypeCode;
+import org.hibernate.type.SqlTypes;
+
+import com.orcamento.api.dto.NotificationEventDTO;
+
+import jakarta.persistence.*;
+
+/**
+ * Notificação aguardando publicação no RabbitMQ (padrão transactional outbox).
+ * O payload é o próprio evento serializado em JSON; {@code availableAt} controla quando o relay
+ * pode pegar a linha de novo (lease enquanto publica, atraso depois de uma falha). Há no máximo uma linha
+ * por solicitação (índice único em {@code quote_request_id}). {@code quoteUpdatedAt} é o {@code updated_at} da
+ * solicitação quando a notificação foi gravada: o relay só a marca como SENT se ela ainda estiver nessa versão.
+ */
+@Entity
+@Table(name = "notification_outbox", uniqueConstraints =
+        @UniqueConstraint(name = "idx_notification_outbox_quote_request", columnNames = "quote_request_id"))
+public class OutboxMessage {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(name = "quote_request_id", nullable = false, updatable = false)
+    private UUID quoteRequestId;
+
+    @Column(name = "quote_updated_at", nullable = false, updatable = false)
+    private OffsetDateTime quoteUpdatedAt;
+
+    @JdbcTypeCode(SqlTypes.JSON)
+    @Column(name = "payload", nullable = false, updatable = false)
+    private NotificationEventDTO payload;
+
+    @Column(name = "attempts", nullable = false)
+    private int attempts;
+
+    @Column(name = "available_at", nullable = false)
+    private OffsetDateTime availableAt;
+
+    @CreationTimestamp
+    @Column(name = "created_at", updatable = false)
+    private OffsetDateTime createdAt;
+
+    public OutboxMessage() {
+    }
+
+    public OutboxMessage(UUID quoteRequestId, OffsetDateTime quoteUpdatedAt, NotificationEventDTO payload) {
+        this.quoteRequestId = quoteRequestId;
+        this.quoteUpdatedAt = quoteUpdatedAt;
+        this.payload = payload;
+        this.availableAt = OffsetDateTime.now();
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public void setId(Long id) {
+        this.id = id;
+    }
+
+    public UUID getQuoteRequestId() {
+        return quoteRequestId;
+    }
+
+    public OffsetDateTime getQuoteUpdatedAt() {
+        return quoteUpdatedAt;
+    }
+
+    public NotificationEventDTO getPayload() {
+        return payload;
+    }
+
+    public int getAttempts() {
+        return attempts;
+    }
+
+    public void setAttempts(int attempts) {
+        this.attempts = attempts;
+    }
+
+    public OffsetDateTime getAvailableAt() {
+        return availableAt;
+    }
+
+    public void setAvailableAt(OffsetDateTime availableAt) {
+        this.availableAt = availableAt;
+    }
+
+    public OffsetDateTime getCreatedAt() {
+        return createdAt;
+    }
+}
@@ -4,7 +4,7 @@ import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.UUID;
 
-import org.hibernate.annotations.CreationTimestamp;
+import org.hibernate.annotations.PartitionKey;
 import org.hibernate.annotations.UpdateTimestamp;
 
 import jakarta.persistence.*;
@@ -15,12 +15,14 @@ import com.orcamento.api.entity.enums.QuoteStatus;
 @Table(name = "quote_requests")
 public class QuoteRequest {
 
+    // UUID v7 com o instante do createdAt (preenchido junto pelo gerador): o ID diz a partição da linha
     @Id
-    @GeneratedValue
+    @QuoteRequestId
     @Column(name = "id", updatable = false, nullable = false)
     private UUID id;
 
-    @ManyToOne(fetch = FetchType.EAGER)
+    // LAZY: as leituras só precisam do budget_type_id (getBudgetType().getId() não inicializa o proxy)
+    @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "budget_type_id", nullable = false)
     private BudgetType budgetType;
 
@@ -55,10 +57,11 @@ public class QuoteRequest {
     private BigDecimal estimatedTotal;
 
     @Enumerated(EnumType.STRING)
-    @Column(name = "status", nullable = false, columnDefinition = "quote_status")
+    @Column(name = "status", nullable = false, length = 30)
     private QuoteStatus status;
 
-    @CreationTimestamp
+    // Chave das partições (V10): o Hibernate a inclui no WHERE dos UPDATE/DELETE da entidade
+    @PartitionKey
     @Column(name = "created_at", updatable = false)
     private OffsetDateTime createdAt;
 
@@ -69,6 +72,10 @@ public class QuoteRequest {
     @Column(name = "deleted_at")
     private OffsetDateTime deletedAt;
 
+    // Quando a notificação da solicitação foi publicada; depois disso um PUT não gera outro e-mail
+    @Column(name = "notified_at")
+    private OffsetDateTime notifiedAt;
+
     public QuoteRequest() {
 
     }
@@ -136,6 +143,14 @@ public class QuoteRequest {
         this.deletedAt = deletedAt;
     }
 
+    public OffsetDateTime getNotifiedAt() {
+        return notifiedAt;
+    }
+
+    public void setNotifiedAt(OffsetDateTime notifiedAt) {
+        this.notifiedAt = notifiedAt;
+    }
+
     public String getDocumentMimeType() {
         return documentMimeType;
     }
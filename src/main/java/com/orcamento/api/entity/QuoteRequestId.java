@@ -0,0 +1,15 @@
+package com.orcamento.api.entity;
+
+import org.hibernate.annotations.IdGeneratorType;
+
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+
+/*** ID gerado pelo {@link QuoteRequestIdGenerator}: UUID v7 junto com o createdAt da solicitação ***/
+@IdGeneratorType(QuoteRequestIdGenerator.class)
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ ElementType.FIELD, ElementType.METHOD })
+public @interface QuoteRequestId {
+}
@@ -0,0 +1,33 @@
+package com.orcamento.api.entity;
+
+import com.orcamento.api.util.QuoteRequestIds;
+
+import org.hibernate.engine.spi.SharedSessionContractImplementor;
+import org.hibernate.generator.BeforeExecutionGenerator;
+import org.hibernate.generator.EventType;
+import org.hibernate.generator.EventTypeSets;
+
+import java.time.OffsetDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.EnumSet;
+
+/**
+ * Gera o createdAt e o ID da solicitação a partir do mesmo instante, no persist, antes de o Hibernate ler o
+ * estado da entidade. O createdAt é truncado em microssegundos (a precisão do timestamptz), então o valor em
+ * memória é o gravado e fica dentro do milissegundo embutido no ID ({@link QuoteRequestIds}).
+ */
+public class QuoteRequestIdGenerator implements BeforeExecutionGenerator {
+
+    @Override
+    public Object generate(SharedSessionContractImplementor session, Object owner, Object currentValue,
+                           EventType eventType) {
+        OffsetDateTime createdAt = OffsetDateTime.now().truncatedTo(ChronoUnit.MICROS);
+        ((QuoteRequest) owner).setCreatedAt(createdAt);
+        return QuoteRequestIds.newId(createdAt);
+    }
+
+    @Override
+    public EnumSet<EventType> getEventTypes() {
+        return EventTypeSets.INSERT_ONLY;
+    }
+}
@@ -0,0 +1,19 @@
+package com.orcamento.api.exception;
+
+/**
+ * O backlog do pipeline não comporta o lote: a criação em lote é recusada antes de gravar qualquer item,
+ * com 503 e {@code Retry-After}.
+ */
+public class ProcessingBacklogFullException extends RuntimeException {
+
+    private final int retryAfterSeconds;
+
+    public ProcessingBacklogFullException(String message, int retryAfterSeconds) {
+        super(message);
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+    public int getRetryAfterSeconds() {
+        return retryAfterSeconds;
+    }
+}
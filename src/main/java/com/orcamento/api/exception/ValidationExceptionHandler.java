@@ -1,10 +1,16 @@
 package com.orcamento.api.exception;
 
+import org.springframework.context.MessageSourceResolvable;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.validation.FieldError;
+import org.springframework.validation.method.ParameterErrors;
+import org.springframework.validation.method.ParameterValidationResult;
 import org.springframework.web.bind.MethodArgumentNotValidException;
 import org.springframework.web.bind.annotation.ExceptionHandler;
 import org.springframework.web.bind.annotation.RestControllerAdvice;
+import org.springframework.web.method.annotation.HandlerMethodValidationException;
 
 import java.time.OffsetDateTime;
 import java.util.HashMap;
@@ -27,6 +33,44 @@ public class ValidationExceptionHandler {
         return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
     }
 
+    // Validação de parâmetros de método (ex.: listas dos endpoints em lote): "dtos[3].requesterName" -> mensagem
+    @ExceptionHandler(HandlerMethodValidationException.class)
+    public ResponseEntity<Map<String, String>> handleMethodValidationExceptions(
+            HandlerMethodValidationException ex) {
+
+        Map<String, String> errors = new LinkedHashMap<>();
+
+        for (ParameterValidationResult result : ex.getAllValidationResults()) {
+            String name = result.getMethodParameter().getParameterName();
+            if (result.getContainerIndex() != null) {
+                name += "[" + result.getContainerIndex() + "]";
+            }
+            if (result instanceof ParameterErrors parameterErrors) {
+                for (FieldError error : parameterErrors.getFieldErrors()) {
+                    errors.put(name + "." + error.getField(), error.getDefaultMessage());
+                }
+            } else {
+                for (MessageSourceResolvable error : result.getResolvableErrors()) {
+                    errors.put(name, error.getDefaultMessage());
+                }
+            }
+        }
+
+        return new ResponseEntity<>(errors, HttpStatus.BAD_REQUEST);
+    }
+
+    // Backlog do pipeline cheio (criação em lote): 503 com Retry-After, nada foi gravado
+    @ExceptionHandler(ProcessingBacklogFullException.class)
+    public ResponseEntity<Map<String, Object>> handleProcessingBacklogFull(ProcessingBacklogFullException ex) {
+        Map<String, Object> body = new LinkedHashMap<>();
+        body.put("timestamp", OffsetDateTime.now());
+        body.put("message", ex.getMessage());
+
+        return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(body);
+    }
+
     // ✅ Novo handler (exceções genéricas do Service)
     @ExceptionHandler(RuntimeException.class)
     public ResponseEntity<Map<String, Object>> handleRuntimeException(RuntimeException ex) {
@@ -0,0 +1,37 @@
+package com.orcamento.api.mapper;
+
+import com.orcamento.api.dto.BudgetTypeDTO;
+import com.orcamento.api.entity.BudgetType;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+
+import java.util.List;
+
+/**
+ * Conversões de BudgetType geradas pelo MapStruct na compilação (getters/setters diretos, sem reflexão).
+ * Campo novo na entidade ou no DTO sem mapeamento quebra o build ({@link ReportingPolicy#ERROR}).
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface BudgetTypeMapper {
+
+    BudgetTypeDTO toDTO(BudgetType entity);
+
+    // A implementação gerada já cria o ArrayList com o tamanho da entrada
+    List<BudgetTypeDTO> toDTOs(List<BudgetType> entities);
+
+    BudgetType toEntity(BudgetTypeDTO dto);
+
+    /*** Atualização: só os campos editáveis; ID e datas ficam com o service ***/
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "budgetTypeName", source = "budgetTypeName")
+    @Mapping(target = "billingMethod", source = "billingMethod")
+    @Mapping(target = "fee", source = "fee")
+    @Mapping(target = "description", source = "description")
+    @Mapping(target = "targetEmail", source = "targetEmail")
+    void updateEntity(BudgetTypeDTO dto, @MappingTarget BudgetType entity);
+}
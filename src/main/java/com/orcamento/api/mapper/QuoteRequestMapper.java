@@ -0,0 +1,33 @@
+package com.orcamento.api.mapper;
+
+import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.entity.QuoteRequest;
+
+import org.mapstruct.BeanMapping;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+import org.mapstruct.MappingConstants;
+import org.mapstruct.MappingTarget;
+import org.mapstruct.ReportingPolicy;
+
+/**
+ * Conversões de QuoteRequest geradas pelo MapStruct na compilação (getters/setters diretos, sem reflexão).
+ * Campo novo na entidade ou no DTO sem mapeamento quebra o build ({@link ReportingPolicy#ERROR}).
+ */
+@Mapper(componentModel = MappingConstants.ComponentModel.SPRING, unmappedTargetPolicy = ReportingPolicy.ERROR)
+public interface QuoteRequestMapper {
+
+    // budgetType.id sai do proxy LAZY sem inicializá-lo (nenhum SELECT em budget_types)
+    @Mapping(target = "budgetTypeId", source = "budgetType.id")
+    QuoteRequestDTO toDTO(QuoteRequest entity);
+
+    /*** Só os dados enviados pelo cliente: tipo, preço, status e datas ficam com o service e o pipeline ***/
+    @BeanMapping(ignoreByDefault = true)
+    @Mapping(target = "requesterName", source = "requesterName")
+    @Mapping(target = "requesterEmail", source = "requesterEmail")
+    @Mapping(target = "documentOriginalName", source = "documentOriginalName")
+    @Mapping(target = "documentStorageKey", source = "documentStorageKey")
+    @Mapping(target = "documentMimeType", source = "documentMimeType")
+    @Mapping(target = "documentSizeBytes", source = "documentSizeBytes")
+    void updateEntity(QuoteRequestDTO dto, @MappingTarget QuoteRequest entity);
+}
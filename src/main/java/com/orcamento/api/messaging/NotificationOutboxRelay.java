@@ -0,0 +1,186 @@
+package com.orcamento.api.messaging;
+
+import com.orcamento.api.entity.OutboxMessage;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.repository.OutboxMessageRepository;
+import com.orcamento.api.repository.QuoteRequestRepository;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Relay do outbox de notificações.
+ * <p>
+ * A cada ciclo trava um lote de {@code notification_outbox} com {@code FOR UPDATE SKIP LOCKED}, marca as
+ * linhas com um lease e confirma a transação logo em seguida — nenhuma conexão fica presa enquanto o
+ * broker responde, e várias instâncias da API dividem o trabalho sem disputar as mesmas linhas.
+ * Depois publica o lote pelo {@link NotificationProducerService} e, na volta das confirmações, remove as
+ * linhas publicadas e marca as solicitações como SENT — só as que ainda estão na versão gravada na linha:
+ * uma solicitação alterada por um PUT enquanto a notificação saía continua PENDING e recebe a sua própria
+ * notificação quando for contada de novo. Linhas que falharam voltam depois de
+ * {@code retry-delay-ms}; as que esgotaram {@code max-attempts} marcam a solicitação como FAILED. Linhas que
+ * não couberam no buffer do publicador voltam na hora, sem gastar tentativa, e o ciclo para até o próximo poll.
+ * <p>
+ * A entrega é "pelo menos uma vez": se a instância cair depois do ack e antes do DELETE, a linha volta
+ * quando o lease expirar. O consumidor deduplica pelo {@code externalReferenceId}.
+ */
+@Component
+public class NotificationOutboxRelay {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationOutboxRelay.class);
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private NotificationProducerService notificationProducerService;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${notifications.outbox.batch-size:100}")
+    private int batchSize;
+
+    @Value("${notifications.outbox.lease-ms:300000}")
+    private long leaseMs;
+
+    @Value("${notifications.outbox.confirm-wait-ms:60000}")
+    private long confirmWaitMs;
+
+    @Value("${notifications.outbox.retry-delay-ms:30000}")
+    private long retryDelayMs;
+
+    @Value("${notifications.outbox.max-attempts:10}")
+    private int maxAttempts;
+
+    /*** Esvazia o outbox enquanto houver lotes cheios ***/
+    @Scheduled(initialDelayString = "${notifications.outbox.poll-interval-ms:1000}",
+            fixedDelayString = "${notifications.outbox.poll-interval-ms:1000}")
+    public void relay() {
+        while (relayBatch() == batchSize) {
+            // próximo lote
+        }
+    }
+
+    /**
+     * Publica um lote do outbox.
+     *
+     * @return quantidade de linhas entregues ao publicador (menos que o lote quando o buffer dele encheu)
+     */
+    int relayBatch() {
+        List<OutboxMessage> claimed = transactionTemplate.execute(status -> claim());
+        if (claimed == null || claimed.isEmpty()) {
+            return 0;
+        }
+
+        Map<OutboxMessage, CompletableFuture<Void>> sends = new LinkedHashMap<>();
+        for (OutboxMessage message : claimed) {
+            try {
+                sends.put(message, notificationProducerService.sendNotification(message.getPayload()));
+            } catch (RejectedExecutionException e) {
+                // Buffer do publicador cheio: o restante é devolvido ao outbox sem contar tentativa
+                log.warn("Buffer de notificações cheio; {} mensagem(ns) do outbox adiadas", claimed.size() - sends.size());
+                break;
+            }
+        }
+
+        awaitConfirms(sends.values());
+
+        List<Long> publishedIds = new ArrayList<>();
+        List<UUID> publishedQuotes = new ArrayList<>();
+        List<Long> failedIds = new ArrayList<>();
+        sends.forEach((message, future) -> {
+            if (!future.isDone()) {
+                return; // ainda sem confirmação: o lease cobre
+            }
+            if (future.isCompletedExceptionally()) {
+                failedIds.add(message.getId());
+            } else {
+                publishedIds.add(message.getId());
+                publishedQuotes.add(message.getQuoteRequestId());
+            }
+        });
+
+        List<Long> unsentIds = claimed.stream()
+                .filter(message -> !sends.containsKey(message))
+                .map(OutboxMessage::getId)
+                .toList();
+
+        OffsetDateTime now = OffsetDateTime.now();
+        transactionTemplate.executeWithoutResult(status -> {
+            if (!publishedIds.isEmpty()) {
+                quoteRequestRepository.markNotified(
+                        publishedQuotes, publishedIds, QuoteStatus.PENDING, QuoteStatus.SENT, now);
+                outboxMessageRepository.deleteAllByIdInBatch(publishedIds);
+            }
+            if (!failedIds.isEmpty()) {
+                outboxMessageRepository.reschedule(failedIds, now.plusNanos(retryDelayMs * 1_000_000));
+            }
+            if (!unsentIds.isEmpty()) {
+                outboxMessageRepository.release(unsentIds, now);
+            }
+        });
+        return sends.size();
+    }
+
+    // Trava o lote, descarta as linhas que esgotaram as tentativas e aplica o lease no restante
+    private List<OutboxMessage> claim() {
+        OffsetDateTime now = OffsetDateTime.now();
+        List<OutboxMessage> locked = outboxMessageRepository.lockAvailable(now, batchSize);
+
+        List<OutboxMessage> ready = new ArrayList<>(locked.size());
+        List<OutboxMessage> exhausted = new ArrayList<>();
+        for (OutboxMessage message : locked) {
+            (message.getAttempts() >= maxAttempts ? exhausted : ready).add(message);
+        }
+
+        if (!exhausted.isEmpty()) {
+            List<UUID> quotes = exhausted.stream().map(OutboxMessage::getQuoteRequestId).toList();
+            List<Long> exhaustedIds = exhausted.stream().map(OutboxMessage::getId).toList();
+            log.error("Notificações de {} solicitação(ões) descartadas após {} tentativas: {}",
+                    quotes.size(), maxAttempts, quotes);
+            quoteRequestRepository.transitionStatusForOutbox(
+                    quotes, exhaustedIds, QuoteStatus.PENDING, QuoteStatus.FAILED, now);
+            outboxMessageRepository.deleteAllByIdInBatch(exhaustedIds);
+        }
+        if (!ready.isEmpty()) {
+            outboxMessageRepository.lease(ready.stream().map(OutboxMessage::getId).toList(),
+                    now.plusNanos(leaseMs * 1_000_000));
+        }
+        return ready;
+    }
+
+    private void awaitConfirms(Iterable<CompletableFuture<Void>> futures) {
+        List<CompletableFuture<Void>> all = new ArrayList<>();
+        futures.forEach(all::add);
+        try {
+            CompletableFuture.allOf(all.toArray(CompletableFuture[]::new)).get(confirmWaitMs, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            // falhas individuais são tratadas pelo chamador
+        } catch (TimeoutException e) {
+            log.warn("Confirmações do outbox não chegaram em {} ms", confirmWaitMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
@@ -1,23 +1,253 @@
 package com.orcamento.api.messaging;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.ConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.SmartLifecycle;
 import org.springframework.stereotype.Service;
 
 import com.orcamento.api.dto.NotificationEventDTO;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Publicação assíncrona das notificações no RabbitMQ.
+ * <p>
+ * {@link #sendNotification} só coloca o evento num buffer limitado e devolve um future; uma thread
+ * dedicada esvazia o buffer em lotes (ao atingir {@code batch-size} ou depois de {@code linger-ms}),
+ * publicando o lote inteiro no mesmo canal sem esperar confirmação mensagem a mensagem.
+ * Cada mensagem leva um {@link CorrelationData}: o ack do broker completa o future; nack, timeout
+ * ou erro de publicação recoloca a mensagem no buffer até {@code max-attempts} tentativas.
+ * <p>
+ * Métricas: profundidade do buffer, tamanho dos lotes, latência de confirmação, retentativas e falhas.
+ */
 @Service
-public class NotificationProducerService {
+public class NotificationProducerService implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(NotificationProducerService.class);
+
+    static final String METRIC_PREFIX = "notifications.publisher";
+
     private final RabbitTemplate rabbitTemplate;
+    private final BlockingQueue<PendingNotification> buffer;
+
+    private final DistributionSummary batchSizes;
+    private final Timer confirmLatency;
+    private final Counter published;
+    private final Counter retries;
+    private final Counter failures;
 
     @Value("${rabbitmq.notification.queue:notifications}")
     private String notificationQueue;
 
-    public NotificationProducerService(RabbitTemplate rabbitTemplate) {
+    @Value("${rabbitmq.publisher.batch-size:100}")
+    private int batchSize = 100;
+
+    @Value("${rabbitmq.publisher.linger-ms:5}")
+    private long lingerMs = 5;
+
+    @Value("${rabbitmq.publisher.confirm-timeout-ms:10000}")
+    private long confirmTimeoutMs = 10000;
+
+    @Value("${rabbitmq.publisher.max-attempts:5}")
+    private int maxAttempts = 5;
+
+    @Value("${rabbitmq.publisher.retry-backoff-ms:1000}")
+    private long retryBackoffMs = 1000;
+
+    private volatile boolean running;
+    private Thread flusher;
+
+    public NotificationProducerService(RabbitTemplate rabbitTemplate,
+                                       MeterRegistry meterRegistry,
+                                       @Value("${rabbitmq.publisher.buffer-capacity:10000}") int bufferCapacity) {
         this.rabbitTemplate = rabbitTemplate;
+        this.buffer = new ArrayBlockingQueue<>(bufferCapacity);
+
+        Gauge.builder(METRIC_PREFIX + ".queue.depth", buffer, BlockingQueue::size)
+                .description("Notificações aguardando publicação").register(meterRegistry);
+        this.batchSizes = DistributionSummary.builder(METRIC_PREFIX + ".batch.size")
+                .description("Mensagens publicadas por lote").register(meterRegistry);
+        this.confirmLatency = Timer.builder(METRIC_PREFIX + ".confirm.latency")
+                .description("Tempo entre a publicação e o ack do broker").register(meterRegistry);
+        this.published = Counter.builder(METRIC_PREFIX + ".published")
+                .description("Notificações confirmadas pelo broker").register(meterRegistry);
+        this.retries = Counter.builder(METRIC_PREFIX + ".retries").register(meterRegistry);
+        this.failures = Counter.builder(METRIC_PREFIX + ".failures")
+                .description("Notificações descartadas após esgotar as tentativas").register(meterRegistry);
+    }
+
+    /**
+     * Enfileira a notificação para publicação.
+     *
+     * @return future completado quando o broker confirmar a mensagem (ou com erro depois de esgotar as tentativas)
+     * @throws RejectedExecutionException se o buffer estiver cheio
+     */
+    public CompletableFuture<Void> sendNotification(NotificationEventDTO event) {
+        PendingNotification pending = new PendingNotification(event);
+        if (!buffer.offer(pending)) {
+            throw new RejectedExecutionException("Buffer de notificações cheio");
+        }
+        return pending.result;
+    }
+
+    @Override
+    public void start() {
+        running = true;
+        flusher = new Thread(this::flushLoop, "notification-publisher");
+        flusher.setDaemon(true);
+        flusher.start();
     }
 
-    public void sendNotification(NotificationEventDTO event) {
-        rabbitTemplate.convertAndSend(notificationQueue, event);
+    @Override
+    public void stop() {
+        running = false;
+        if (flusher != null) {
+            try {
+                // O laço publica o que restou no buffer antes de terminar
+                flusher.join(TimeUnit.SECONDS.toMillis(30));
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            }
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void flushLoop() {
+        List<PendingNotification> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                collectBatch(batch);
+                if (!batch.isEmpty() && !publishBatch(batch)) {
+                    // Broker indisponível: espera antes de tentar de novo para não girar em falso
+                    Thread.sleep(retryBackoffMs);
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("Erro inesperado no publicador de notificações", e);
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    // Espera a primeira mensagem e junta as seguintes até encher o lote ou passar o linger
+    void collectBatch(List<PendingNotification> batch) throws InterruptedException {
+        PendingNotification first = buffer.poll(100, TimeUnit.MILLISECONDS);
+        if (first == null) {
+            return;
+        }
+        batch.add(first);
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(lingerMs);
+        while (batch.size() < batchSize) {
+            buffer.drainTo(batch, batchSize - batch.size());
+            long remaining = deadline - System.nanoTime();
+            if (batch.size() >= batchSize || remaining <= 0) {
+                return;
+            }
+            PendingNotification next = buffer.poll(remaining, TimeUnit.NANOSECONDS);
+            if (next == null) {
+                return;
+            }
+            batch.add(next);
+        }
+    }
+
+    /**
+     * Publica o lote num único canal; as confirmações chegam de forma assíncrona.
+     *
+     * @return false se alguma mensagem não pôde nem ser enviada
+     */
+    boolean publishBatch(List<PendingNotification> batch) {
+        batchSizes.record(batch.size());
+        boolean confirms = publisherConfirmsEnabled();
+        int[] sent = {0};
+        try {
+            rabbitTemplate.invoke(operations -> {
+                for (PendingNotification pending : batch) {
+                    CorrelationData correlation = new CorrelationData(UUID.randomUUID().toString());
+                    long publishedAt = System.nanoTime();
+                    operations.convertAndSend(notificationQueue, pending.event, correlation);
+                    sent[0]++;
+                    if (confirms) {
+                        correlation.getFuture()
+                                .orTimeout(confirmTimeoutMs, TimeUnit.MILLISECONDS)
+                                .whenComplete((confirm, error) -> {
+                                    if (error != null) {
+                                        retry(pending, error);
+                                    } else if (confirm.isAck()) {
+                                        confirmLatency.record(System.nanoTime() - publishedAt, TimeUnit.NANOSECONDS);
+                                        published.increment();
+                                        pending.result.complete(null);
+                                    } else {
+                                        retry(pending, new AmqpException("nack do broker: " + confirm.getReason()));
+                                    }
+                                });
+                    } else {
+                        published.increment();
+                        pending.result.complete(null);
+                    }
+                }
+                return null;
+            });
+            return true;
+        } catch (AmqpException e) {
+            log.warn("Falha ao publicar lote de {} notificações: {}", batch.size(), e.getMessage());
+            for (PendingNotification pending : batch.subList(sent[0], batch.size())) {
+                retry(pending, e);
+            }
+            return false;
+        }
+    }
+
+    private void retry(PendingNotification pending, Throwable cause) {
+        if (++pending.attempts >= maxAttempts || !buffer.offer(pending)) {
+            failures.increment();
+            log.error("Notificação {} descartada após {} tentativa(s)",
+                    pending.event.getExternalReferenceId(), pending.attempts, cause);
+            pending.result.completeExceptionally(new RuntimeException(
+                    "Falha ao publicar a notificação " + pending.event.getExternalReferenceId(), cause));
+            return;
+        }
+        retries.increment();
+    }
+
+    // Sem publisher confirms configurados, as confirmações nunca chegariam: o envio vale como ack
+    private boolean publisherConfirmsEnabled() {
+        ConnectionFactory connectionFactory = rabbitTemplate.getConnectionFactory();
+        return connectionFactory != null && connectionFactory.isPublisherConfirms();
+    }
+
+    static final class PendingNotification {
+
+        final NotificationEventDTO event;
+        final CompletableFuture<Void> result = new CompletableFuture<>();
+        volatile int attempts;
+
+        PendingNotification(NotificationEventDTO event) {
+            this.event = event;
+        }
     }
 }
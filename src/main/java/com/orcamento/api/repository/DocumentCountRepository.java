@@ -0,0 +1,17 @@
+package com.orcamento.api.repository;
+
+import com.orcamento.api.entity.DocumentCountEntry;
+import org.springframework.data.repository.Repository;
+
+import java.util.Optional;
+
+/*
+ * Só as duas operações do nível persistente do DocumentCountCache: ler pela chave e gravar uma contagem nova.
+ * O resto do CRUD não é exposto (o Spring Data implementa as assinaturas declaradas aqui).
+ */
+public interface DocumentCountRepository extends Repository<DocumentCountEntry, DocumentCountEntry.Key> {
+
+    Optional<DocumentCountEntry> findById(DocumentCountEntry.Key key);
+
+    <S extends DocumentCountEntry> S save(S entry);
+}
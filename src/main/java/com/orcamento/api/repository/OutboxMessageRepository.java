@@ -0,0 +1,47 @@
+package com.orcamento.api.repository;
+
+import com.orcamento.api.entity.OutboxMessage;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.OffsetDateTime;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+public interface OutboxMessageRepository extends JpaRepository<OutboxMessage, Long> {
+
+    /*
+     * Trava as próximas linhas disponíveis; SKIP LOCKED faz cada instância da API pegar um lote
+     * diferente em vez de esperar pelas linhas que outra já travou. Precisa de transação ativa.
+     */
+    @Query(value = "SELECT * FROM notification_outbox WHERE available_at <= :now "
+            + "ORDER BY id LIMIT :limit FOR UPDATE SKIP LOCKED", nativeQuery = true)
+    List<OutboxMessage> lockAvailable(@Param("now") OffsetDateTime now, @Param("limit") int limit);
+
+    /*
+     * PUT: a notificação ainda não publicada é da versão anterior e sai do outbox; o pipeline grava outra
+     * com os dados novos. flushAutomatically grava antes o UPDATE da solicitação, na mesma ordem de locks do
+     * pipeline e do relay (solicitação, depois outbox).
+     */
+    @Modifying(flushAutomatically = true)
+    @Query("DELETE FROM OutboxMessage o WHERE o.quoteRequestId = :quoteRequestId")
+    int deleteByQuoteRequestId(@Param("quoteRequestId") UUID quoteRequestId);
+
+    /*** Conta a tentativa e esconde as linhas das outras instâncias até o fim do lease ***/
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxMessage o SET o.attempts = o.attempts + 1, o.availableAt = :until WHERE o.id IN :ids")
+    int lease(@Param("ids") Collection<Long> ids, @Param("until") OffsetDateTime until);
+
+    /*** Devolve linhas do lease que nem chegaram ao publicador: a tentativa não conta ***/
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxMessage o SET o.attempts = o.attempts - 1, o.availableAt = :at WHERE o.id IN :ids")
+    int release(@Param("ids") Collection<Long> ids, @Param("at") OffsetDateTime at);
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE OutboxMessage o SET o.availableAt = :at WHERE o.id IN :ids")
+    int reschedule(@Param("ids") Collection<Long> ids, @Param("at") OffsetDateTime at);
+}
@@ -1,21 +1,245 @@
 package com.orcamento.api.repository;
 
+import com.orcamento.api.dto.QuoteRequestDTO;
 import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.util.QuoteRequestIds;
+import com.orcamento.api.util.QuoteRequestIds.CreatedAtRange;
+
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Collection;
 import java.util.UUID;
 import java.util.List;
+import java.util.Optional;
+import java.util.stream.Stream;
 
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Slice;
 public interface QuoteRequestRepository extends JpaRepository<QuoteRequest, UUID> {
     List<QuoteRequest> findAllByDeletedAtIsNotNull();
     List<QuoteRequest> findAllByDeletedAtIsNull();
 
     Page<QuoteRequest> findAllByDeletedAtIsNull(Pageable pageable);
-    
+
     // NOVO: Também pode ter paginação para deletados
     Page<QuoteRequest> findAllByDeletedAtIsNotNull(Pageable pageable);
 
+    /*
+     * Projeções de leitura: montam o QuoteRequestDTO direto no SELECT. budgetType.id vem da própria
+     * coluna budget_type_id (sem JOIN em budget_types) e nenhuma entidade entra no contexto de persistência.
+     */
+    String DTO_PROJECTION = "SELECT new com.orcamento.api.dto.QuoteRequestDTO("
+            + "q.id, q.budgetType.id, q.requesterName, q.requesterEmail, q.documentOriginalName, "
+            + "q.documentStorageKey, q.documentMimeType, q.documentSizeBytes, q.billingMethodUsed, q.feeUsed, "
+            + "q.countedUnits, q.estimatedTotal, q.status, q.createdAt, q.updatedAt, q.deletedAt) "
+            + "FROM QuoteRequest q ";
+
+    @Query(DTO_PROJECTION + "WHERE q.deletedAt IS NULL")
+    List<QuoteRequestDTO> findAllActiveAsDTO();
+
+    @Query(DTO_PROJECTION + "WHERE q.deletedAt IS NOT NULL")
+    List<QuoteRequestDTO> findAllDeletedAsDTO();
+
+    /*
+     * Buscas por ID: quote_requests é particionada por created_at e a PK é (id, created_at), então um filtro
+     * só pelo id visita todas as partições. Os IDs levam o instante de criação (QuoteRequestIds) e as consultas
+     * por ID levam a faixa de created_at dele; o PostgreSQL descarta as outras partições na execução.
+     */
+    String CREATED_IN_RANGE = "AND q.createdAt >= :createdFrom AND q.createdAt < :createdTo ";
+
+    @Query("SELECT q FROM QuoteRequest q WHERE q.id = :id " + CREATED_IN_RANGE)
+    Optional<QuoteRequest> findByIdCreatedIn(@Param("id") UUID id,
+                                             @Param("createdFrom") OffsetDateTime createdFrom,
+                                             @Param("createdTo") OffsetDateTime createdTo);
+
+    /*** O findById do JpaRepository filtra só pelo id; este leva a faixa de created_at do ID ***/
+    @Override
+    default Optional<QuoteRequest> findById(UUID id) {
+        CreatedAtRange created = QuoteRequestIds.createdAtRange(id);
+        return findByIdCreatedIn(id, created.from(), created.to());
+    }
+
+    @Query(DTO_PROJECTION + "WHERE q.id = :id AND q.deletedAt IS NULL " + CREATED_IN_RANGE)
+    Optional<QuoteRequestDTO> findActiveDTOByIdCreatedIn(@Param("id") UUID id,
+                                                         @Param("createdFrom") OffsetDateTime createdFrom,
+                                                         @Param("createdTo") OffsetDateTime createdTo);
+
+    default Optional<QuoteRequestDTO> findActiveDTOById(UUID id) {
+        CreatedAtRange created = QuoteRequestIds.createdAtRange(id);
+        return findActiveDTOByIdCreatedIn(id, created.from(), created.to());
+    }
+
+    @Query(value = DTO_PROJECTION + "WHERE q.deletedAt IS NULL",
+            countQuery = "SELECT count(q) FROM QuoteRequest q WHERE q.deletedAt IS NULL")
+    Page<QuoteRequestDTO> findActiveAsDTO(Pageable pageable);
+
+    @Query(value = DTO_PROJECTION + "WHERE q.deletedAt IS NOT NULL",
+            countQuery = "SELECT count(q) FROM QuoteRequest q WHERE q.deletedAt IS NOT NULL")
+    Page<QuoteRequestDTO> findDeletedAsDTO(Pageable pageable);
+
+    /*
+     * Exportação: cursor do JDBC em vez de List. O fetch size faz o driver buscar as linhas em blocos
+     * (no PostgreSQL só vale dentro de transação) e o read-only dispensa o snapshot de dirty checking.
+     * O Stream precisa ser fechado e consumido dentro da transação.
+     */
+    @QueryHints({
+            @QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"),
+            @QueryHint(name = HibernateHints.HINT_READ_ONLY, value = "true")
+    })
+    @Query("SELECT q FROM QuoteRequest q WHERE q.deletedAt IS NULL ORDER BY q.createdAt, q.id")
+    Stream<QuoteRequest> streamAllActive();
+
+    /*
+     * Listagem por cursor (keyset): ordem (createdAt, id) decrescente, servida pelo índice parcial
+     * idx_quote_requests_active_created_id. Retorna Slice, então não há COUNT — o Spring Data busca
+     * size + 1 linhas só para saber se existe próxima página. O createdAt <= :createdAt é redundante com a
+     * comparação de tuplas, mas é ele que o PostgreSQL usa para descartar as partições mais novas que o cursor.
+     */
+    @Query(DTO_PROJECTION + "WHERE q.deletedAt IS NULL ORDER BY q.createdAt DESC, q.id DESC")
+    Slice<QuoteRequestDTO> findActiveFirst(Pageable pageable);
+
+    @Query(DTO_PROJECTION + "WHERE q.deletedAt IS NULL "
+            + "AND q.createdAt <= :createdAt AND (q.createdAt, q.id) < (:createdAt, :id) "
+            + "ORDER BY q.createdAt DESC, q.id DESC")
+    Slice<QuoteRequestDTO> findActiveBefore(@Param("createdAt") OffsetDateTime createdAt,
+                                            @Param("id") UUID id,
+                                            Pageable pageable);
+
+    /*
+     * Transição de status condicional: só altera se a solicitação ainda estiver no status e na versão
+     * (updatedAt) lidos antes — uma falha ao processar a versão anterior não derruba a que chegou por um PUT.
+     * O createdAt da entidade lida vai junto para o PostgreSQL ir direto à partição.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE QuoteRequest q SET q.status = :to, q.updatedAt = :now "
+            + "WHERE q.id = :id AND q.createdAt = :createdAt AND q.status = :from AND q.updatedAt = :seen")
+    int transitionStatus(@Param("id") UUID id,
+                         @Param("createdAt") OffsetDateTime createdAt,
+                         @Param("from") QuoteStatus from,
+                         @Param("to") QuoteStatus to,
+                         @Param("seen") OffsetDateTime seen,
+                         @Param("now") OffsetDateTime now);
+
+    /*
+     * Resultado do pipeline: grava só a contagem, o total e o status seguinte (sem merge da entidade inteira)
+     * e só se a solicitação ainda for a que foi contada — no status esperado, não deletada e com o mesmo
+     * updatedAt lido antes da contagem (um PUT no meio muda o updatedAt). Sob READ COMMITTED, um segundo
+     * processamento concorrente da mesma solicitação espera o lock da linha, reavalia o WHERE e não encontra
+     * mais o updatedAt antigo: só um deles grava. Precisa de transação ativa (a notificação vai no outbox na
+     * mesma transação).
+     */
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE QuoteRequest q SET q.countedUnits = :units, q.estimatedTotal = :total, q.status = :to, "
+            + "q.updatedAt = :now "
+            + "WHERE q.id = :id AND q.createdAt = :createdAt AND q.status = :from AND q.deletedAt IS NULL "
+            + "AND q.updatedAt = :seen")
+    int applyCountedPricing(@Param("id") UUID id,
+                            @Param("createdAt") OffsetDateTime createdAt,
+                            @Param("from") QuoteStatus from,
+                            @Param("to") QuoteStatus to,
+                            @Param("seen") OffsetDateTime seen,
+                            @Param("units") int units,
+                            @Param("total") BigDecimal total,
+                            @Param("now") OffsetDateTime now);
+
+    // Versão gravada de fato: no PostgreSQL o trigger set_updated_at troca o updatedAt enviado pelo now() do banco
+    @Query("SELECT q.updatedAt FROM QuoteRequest q WHERE q.id = :id AND q.createdAt = :createdAt")
+    OffsetDateTime findUpdatedAtById(@Param("id") UUID id, @Param("createdAt") OffsetDateTime createdAt);
+
+    /*
+     * Transições do relay do outbox: só valem para a solicitação que ainda está na versão gravada na linha
+     * do outbox. Uma notificação publicada depois de um PUT não tira a nova versão de PENDING. Os IDs das
+     * solicitações vão junto para o banco achar as linhas pelo índice; o EXISTS confere a versão.
+     * Precisam de transação ativa e rodam antes de as linhas do outbox serem removidas.
+     */
+    String OUTBOX_VERSION_MATCHES = "AND EXISTS (SELECT 1 FROM OutboxMessage o WHERE o.id IN :outboxIds "
+            + "AND o.quoteRequestId = q.id AND o.quoteUpdatedAt = q.updatedAt)";
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE QuoteRequest q SET q.status = :to, q.notifiedAt = :now, q.updatedAt = :now "
+            + "WHERE q.id IN :ids AND q.status = :from " + CREATED_IN_RANGE + OUTBOX_VERSION_MATCHES)
+    int markNotifiedCreatedIn(@Param("ids") Collection<UUID> ids,
+                              @Param("createdFrom") OffsetDateTime createdFrom,
+                              @Param("createdTo") OffsetDateTime createdTo,
+                              @Param("outboxIds") Collection<Long> outboxIds,
+                              @Param("from") QuoteStatus from,
+                              @Param("to") QuoteStatus to,
+                              @Param("now") OffsetDateTime now);
+
+    default int markNotified(Collection<UUID> ids, Collection<Long> outboxIds, QuoteStatus from, QuoteStatus to,
+                             OffsetDateTime now) {
+        CreatedAtRange created = QuoteRequestIds.createdAtRange(ids);
+        return markNotifiedCreatedIn(ids, created.from(), created.to(), outboxIds, from, to, now);
+    }
+
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE QuoteRequest q SET q.status = :to, q.updatedAt = :now "
+            + "WHERE q.id IN :ids AND q.status = :from " + CREATED_IN_RANGE + OUTBOX_VERSION_MATCHES)
+    int transitionStatusForOutboxCreatedIn(@Param("ids") Collection<UUID> ids,
+                                           @Param("createdFrom") OffsetDateTime createdFrom,
+                                           @Param("createdTo") OffsetDateTime createdTo,
+                                           @Param("outboxIds") Collection<Long> outboxIds,
+                                           @Param("from") QuoteStatus from,
+                                           @Param("to") QuoteStatus to,
+                                           @Param("now") OffsetDateTime now);
+
+    default int transitionStatusForOutbox(Collection<UUID> ids, Collection<Long> outboxIds, QuoteStatus from,
+                                          QuoteStatus to, OffsetDateTime now) {
+        CreatedAtRange created = QuoteRequestIds.createdAtRange(ids);
+        return transitionStatusForOutboxCreatedIn(ids, created.from(), created.to(), outboxIds, from, to, now);
+    }
+
+    /*
+     * Soft delete em lote: um UPDATE com o array de IDs num único parâmetro (= ANY), então o comando
+     * preparado é o mesmo para qualquer quantidade de IDs. updated_at também é mantido pelo trigger.
+     * A faixa de created_at é a menor que cobre todos os IDs.
+     */
+    @Transactional
+    @Modifying(clearAutomatically = true)
+    @Query(value = "UPDATE quote_requests SET deleted_at = now(), updated_at = now() "
+            + "WHERE id = ANY(:ids) AND created_at >= :createdFrom AND created_at < :createdTo "
+            + "AND deleted_at IS NULL", nativeQuery = true)
+    int softDeleteAllCreatedIn(@Param("ids") UUID[] ids,
+                               @Param("createdFrom") OffsetDateTime createdFrom,
+                               @Param("createdTo") OffsetDateTime createdTo);
+
+    default int softDeleteAll(UUID[] ids) {
+        CreatedAtRange created = QuoteRequestIds.createdAtRange(List.of(ids));
+        return softDeleteAllCreatedIn(ids, created.from(), created.to());
+    }
+
+    // Solicitações paradas em um status há mais tempo que o limite (usado para reenfileirar PENDING).
+    // As que já têm notificação no outbox estão só esperando o relay e ficam de fora.
+    @Query("SELECT q.id FROM QuoteRequest q WHERE q.status = :status AND q.deletedAt IS NULL "
+            + "AND q.updatedAt < :before "
+            + "AND NOT EXISTS (SELECT 1 FROM OutboxMessage o WHERE o.quoteRequestId = q.id) "
+            + "ORDER BY q.updatedAt")
+    List<UUID> findStaleIds(@Param("status") QuoteStatus status,
+                            @Param("before") OffsetDateTime before,
+                            Pageable pageable);
+
+    /*** Solicitações ativas por status (gauges quotes.status) ***/
+    @Query("SELECT q.status AS status, COUNT(q) AS total FROM QuoteRequest q "
+            + "WHERE q.deletedAt IS NULL GROUP BY q.status")
+    List<StatusCount> countActiveByStatus();
+
+    interface StatusCount {
+        QuoteStatus getStatus();
+
+        long getTotal();
+    }
+
 }
@@ -0,0 +1,112 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.repository.BudgetTypeRepository;
+
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Cache em memória (read-through) dos tipos de orçamento ativos.
+ * <p>
+ * {@code budget_types} é uma tabela de configuração pequena e quase estática: a primeira leitura
+ * carrega todos os ativos em um snapshot imutável, trocado atomicamente. Leituras não usam lock nem
+ * vão ao banco. Gravações chamam {@link #invalidate()} (depois do commit, se houver transação) e o
+ * {@link BudgetTypeChangeListener} faz o mesmo quando outra instância altera a tabela.
+ * <p>
+ * As entidades do snapshot são compartilhadas entre threads e estão desanexadas: devem ser tratadas
+ * como somente leitura. Para associar a outra entidade use {@code getReferenceById}.
+ */
+@Component
+public class BudgetTypeCache {
+
+    private final BudgetTypeRepository budgetTypeRepository;
+
+    private final AtomicReference<Snapshot> snapshot = new AtomicReference<>();
+
+    // Incrementada a cada invalidação; impede que uma carga iniciada antes dela publique dados velhos
+    private final AtomicLong generation = new AtomicLong();
+
+    public BudgetTypeCache(BudgetTypeRepository budgetTypeRepository) {
+        this.budgetTypeRepository = budgetTypeRepository;
+    }
+
+    /**
+     * Busca pelo ID. Tipos fora do snapshot (deletados, ou criados em outra instância antes da
+     * notificação chegar) caem no banco.
+     */
+    public Optional<BudgetType> get(UUID id) {
+        BudgetType cached = current().byId().get(id);
+        if (cached != null) {
+            return Optional.of(cached);
+        }
+        return budgetTypeRepository.findById(id);
+    }
+
+    /*** Tipos ativos (não deletados), na ordem em que o banco os devolveu ***/
+    public List<BudgetType> getAllActive() {
+        return current().active();
+    }
+
+    /*** Descarta o snapshot; a próxima leitura recarrega do banco ***/
+    public void invalidate() {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    doInvalidate();
+                }
+            });
+        } else {
+            doInvalidate();
+        }
+    }
+
+    private void doInvalidate() {
+        generation.incrementAndGet();
+        snapshot.set(null);
+    }
+
+    private Snapshot current() {
+        Snapshot loaded = snapshot.get();
+        if (loaded != null) {
+            return loaded;
+        }
+        long loadGeneration = generation.get();
+        Snapshot fresh = Snapshot.of(budgetTypeRepository.findAllByDeletedAtIsNull());
+        // Só publica se ninguém invalidou durante a carga; senão serve esta leitura e deixa a próxima recarregar
+        if (generation.get() == loadGeneration) {
+            snapshot.compareAndSet(null, fresh);
+        }
+        return fresh;
+    }
+
+    private record Snapshot(Map<UUID, BudgetType> byId, List<BudgetType> active) {
+
+        // Copia as entidades: a carga pode acontecer dentro da transação de quem chamou,
+        // e o snapshot não pode guardar instâncias gerenciadas por aquele EntityManager
+        static Snapshot of(List<BudgetType> loaded) {
+            List<BudgetType> active = new ArrayList<>(loaded.size());
+            Map<UUID, BudgetType> byId = new HashMap<>();
+            for (BudgetType budgetType : loaded) {
+                BudgetType copy = new BudgetType(budgetType.getId(), budgetType.getBudgetTypeName(),
+                        budgetType.getBillingMethod(), budgetType.getFee(), budgetType.getDescription(),
+                        budgetType.getTargetEmail(), budgetType.getCreatedAt(), budgetType.getUpdatedAt(),
+                        budgetType.getDeletedAt());
+                active.add(copy);
+                byId.put(copy.getId(), copy);
+            }
+            return new Snapshot(Map.copyOf(byId), List.copyOf(active));
+        }
+    }
+}
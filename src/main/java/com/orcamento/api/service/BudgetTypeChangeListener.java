@@ -0,0 +1,112 @@
+package com.orcamento.api.service;
+
+import org.postgresql.PGConnection;
+import org.postgresql.PGNotification;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.context.SmartLifecycle;
+import org.springframework.stereotype.Component;
+
+import java.sql.Connection;
+import java.sql.DriverManager;
+import java.sql.SQLException;
+import java.sql.Statement;
+
+/**
+ * Mantém o {@link BudgetTypeCache} coerente entre instâncias da API.
+ * <p>
+ * O trigger {@code trg_budget_types_notify} (V5) faz {@code pg_notify('budget_types_changed')} a cada
+ * alteração em {@code budget_types}. Esta thread fica em LISTEN numa conexão própria (fora do pool,
+ * para não ocupar uma conexão do Hikari para sempre) e invalida o cache a cada notificação.
+ * Se a conexão cair, invalida também (notificações podem ter se perdido) e reconecta.
+ * Com um datasource que não é PostgreSQL a thread não é iniciada.
+ */
+@Component
+@ConditionalOnProperty(name = "budget-types.cache.notify.enabled", havingValue = "true")
+public class BudgetTypeChangeListener implements SmartLifecycle {
+
+    private static final Logger log = LoggerFactory.getLogger(BudgetTypeChangeListener.class);
+
+    static final String CHANNEL = "budget_types_changed";
+
+    @Autowired
+    private BudgetTypeCache budgetTypeCache;
+
+    @Autowired
+    private DataSourceProperties dataSourceProperties;
+
+    @Value("${budget-types.cache.notify.poll-timeout-ms:10000}")
+    private int pollTimeoutMs;
+
+    @Value("${budget-types.cache.notify.reconnect-delay-ms:5000}")
+    private long reconnectDelayMs;
+
+    private volatile boolean running;
+    private Thread thread;
+
+    @Override
+    public void start() {
+        // LISTEN/NOTIFY é do PostgreSQL; com outro banco (H2 nos testes) não há thread nem reconexão em loop
+        String url = dataSourceProperties.determineUrl();
+        if (url == null || !url.startsWith("jdbc:postgresql:")) {
+            log.info("Datasource não é PostgreSQL: LISTEN {} desligado", CHANNEL);
+            return;
+        }
+        running = true;
+        thread = new Thread(this::listenLoop, "budget-types-listener");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    @Override
+    public void stop() {
+        running = false;
+        if (thread != null) {
+            thread.interrupt();
+        }
+    }
+
+    @Override
+    public boolean isRunning() {
+        return running;
+    }
+
+    private void listenLoop() {
+        while (running) {
+            try (Connection connection = DriverManager.getConnection(
+                    dataSourceProperties.determineUrl(),
+                    dataSourceProperties.determineUsername(),
+                    dataSourceProperties.determinePassword())) {
+                try (Statement statement = connection.createStatement()) {
+                    statement.execute("LISTEN " + CHANNEL);
+                }
+                // Alterações feitas enquanto não estávamos escutando
+                budgetTypeCache.invalidate();
+
+                PGConnection pgConnection = connection.unwrap(PGConnection.class);
+                while (running) {
+                    PGNotification[] notifications = pgConnection.getNotifications(pollTimeoutMs);
+                    if (notifications != null && notifications.length > 0) {
+                        budgetTypeCache.invalidate();
+                    }
+                }
+            } catch (SQLException e) {
+                if (!running) {
+                    return;
+                }
+                log.warn("Conexão de LISTEN {} perdida, reconectando em {} ms: {}", CHANNEL, reconnectDelayMs, e.getMessage());
+                budgetTypeCache.invalidate();
+                try {
+                    Thread.sleep(reconnectDelayMs);
+                } catch (InterruptedException interrupted) {
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+    }
+}
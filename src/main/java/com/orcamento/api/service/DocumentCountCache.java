@@ -0,0 +1,173 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.entity.DocumentCountEntry;
+import com.orcamento.api.repository.DocumentCountRepository;
+import com.orcamento.api.service.document.DocumentCounts;
+import com.orcamento.api.util.LruCache;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataAccessException;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+/**
+ * Cache das contagens de documentos indexado pelo SHA-256 do conteúdo, pelo tipo detectado e pela versão
+ * dos contadores ({@link #COUNTER_VERSION}), em dois níveis:
+ * LRU em memória (limitado por {@code documents.count-cache.max-entries}) e a tabela
+ * {@code document_counts} no Postgres, que sobrevive a reinícios e é compartilhada entre instâncias.
+ * <p>
+ * O mesmo arquivo reenviado (mesma chave ou bytes idênticos com outra chave) não é lido de novo
+ * pelos extratores. Como as quatro unidades ficam juntas, trocar o tipo de orçamento também não.
+ * O hash de uma chave é memorizado por tamanho + data de modificação para não reler o arquivo.
+ */
+@Component
+public class DocumentCountCache {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentCountCache.class);
+
+    static final String METRIC_NAME = "documents.count.cache";
+
+    // Versão dos extratores de DocumentProcessingService: incrementar quando uma mudança alterar as contagens,
+    // para que as gravadas pela versão anterior deixem de ser usadas
+    public static final int COUNTER_VERSION = 1;
+
+    private final DocumentCountRepository documentCountRepository;
+
+    private final LruCache<DocumentCountEntry.Key, DocumentCounts> countsByKey;
+    private final LruCache<FileVersion, String> hashByFile;
+
+    private final Counter memoryHits;
+    private final Counter databaseHits;
+    private final Counter misses;
+
+    public DocumentCountCache(DocumentCountRepository documentCountRepository,
+                              MeterRegistry meterRegistry,
+                              @Value("${documents.count-cache.max-entries:10000}") int maxEntries) {
+        this.documentCountRepository = documentCountRepository;
+        this.countsByKey = new LruCache<>(maxEntries);
+        this.hashByFile = new LruCache<>(maxEntries);
+
+        this.memoryHits = Counter.builder(METRIC_NAME).tag("result", "hit").tag("tier", "memory")
+                .description("Consultas ao cache de contagem de documentos").register(meterRegistry);
+        this.databaseHits = Counter.builder(METRIC_NAME).tag("result", "hit").tag("tier", "database")
+                .description("Consultas ao cache de contagem de documentos").register(meterRegistry);
+        this.misses = Counter.builder(METRIC_NAME).tag("result", "miss").tag("tier", "none")
+                .description("Consultas ao cache de contagem de documentos").register(meterRegistry);
+        Gauge.builder(METRIC_NAME + ".size", countsByKey, LruCache::size)
+                .description("Entradas no nível em memória").register(meterRegistry);
+    }
+
+    /**
+     * Devolve a contagem do arquivo, executando {@code counter} só se o conteúdo nunca foi contado como
+     * {@code type} pela versão atual dos contadores.
+     *
+     * @param storageKey chave de armazenamento, usada para memorizar o hash do arquivo
+     * @param type       tipo detectado do documento (o extrator que {@code counter} vai usar)
+     */
+    public DocumentCounts getOrCount(String storageKey, Path path, String type, Supplier<DocumentCounts> counter) {
+        DocumentCountEntry.Key key = new DocumentCountEntry.Key(contentHash(storageKey, path), type, COUNTER_VERSION);
+
+        DocumentCounts cached = countsByKey.get(key);
+        if (cached != null) {
+            memoryHits.increment();
+            return cached;
+        }
+
+        Optional<DocumentCounts> stored = findStored(key);
+        if (stored.isPresent()) {
+            databaseHits.increment();
+            countsByKey.put(key, stored.get());
+            return stored.get();
+        }
+
+        misses.increment();
+        DocumentCounts counts = counter.get();
+        countsByKey.put(key, counts);
+        store(key, counts);
+        return counts;
+    }
+
+    // Falha no banco não impede a contagem: o nível persistente é só uma otimização
+    private Optional<DocumentCounts> findStored(DocumentCountEntry.Key key) {
+        try {
+            return documentCountRepository.findById(key).map(entry -> new DocumentCounts(
+                    entry.getWords(), entry.getParagraphs(), entry.getCharacters(), entry.getPages()));
+        } catch (DataAccessException e) {
+            log.warn("Cache persistente de contagens indisponível: {}", e.getMessage());
+            return Optional.empty();
+        }
+    }
+
+    private void store(DocumentCountEntry.Key key, DocumentCounts counts) {
+        try {
+            documentCountRepository.save(new DocumentCountEntry(key,
+                    counts.getWords(), counts.getParagraphs(), counts.getCharacters(), counts.getPages()));
+        } catch (DataIntegrityViolationException e) {
+            // Outra instância gravou o mesmo conteúdo ao mesmo tempo; a contagem é a mesma
+            log.debug("Contagem {} já gravada por outra requisição", key);
+        } catch (DataAccessException e) {
+            log.warn("Não foi possível gravar a contagem {} no cache persistente: {}", key, e.getMessage());
+        }
+    }
+
+    /*** SHA-256 do conteúdo, memorizado por chave + tamanho + data de modificação ***/
+    String contentHash(String storageKey, Path path) {
+        try {
+            BasicFileAttributes attributes = Files.readAttributes(path, BasicFileAttributes.class);
+            FileVersion version = new FileVersion(storageKey, attributes.size(), attributes.lastModifiedTime().toMillis());
+            String hash = hashByFile.get(version);
+            if (hash == null) {
+                hash = sha256(path);
+                hashByFile.put(version, hash);
+            }
+            return hash;
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao ler o documento " + path.getFileName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    private static String sha256(Path path) throws IOException {
+        MessageDigest digest = newSha256();
+        try (InputStream in = Files.newInputStream(path)) {
+            byte[] buffer = new byte[64 * 1024];
+            int read;
+            while ((read = in.read(buffer)) != -1) {
+                digest.update(buffer, 0, read);
+            }
+        }
+        return HexFormat.of().formatHex(digest.digest());
+    }
+
+    private static MessageDigest newSha256() {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponível na JVM", e);
+        }
+    }
+
+    /*** Limpa o nível em memória (o persistente continua valendo) ***/
+    public void clearMemory() {
+        countsByKey.clear();
+        hashByFile.clear();
+    }
+
+    private record FileVersion(String storageKey, long size, long lastModifiedMillis) {
+    }
+}
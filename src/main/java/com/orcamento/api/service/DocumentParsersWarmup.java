@@ -0,0 +1,128 @@
+package com.orcamento.api.service;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+import org.springframework.util.FileSystemUtils;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Aquece os leitores de documento depois que a API já está no ar.
+ * <p>
+ * Nada do PDFBox nem do leitor de DOCX é carregado na subida: as classes e as tabelas estáticas (glyph list,
+ * métricas das fontes padrão, fábrica StAX; no modo "dom", os tipos do XMLBeans) só são montadas no primeiro
+ * documento contado. Sem aquecimento esse custo cai na primeira contagem real.
+ * <p>
+ * Com {@code documents.warmup.enabled=true}, uma thread de baixa prioridade conta um PDF e um DOCX mínimos
+ * logo após o {@code ApplicationReadyEvent}. A prontidão da API não espera por ela. Instâncias que não contam
+ * documentos (ex.: só servem {@code /budget-types}) desligam e não pagam nada.
+ */
+@Component
+public class DocumentParsersWarmup {
+
+    private static final Logger log = LoggerFactory.getLogger(DocumentParsersWarmup.class);
+
+    private static final String WORD_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+
+    @Autowired
+    private DocumentProcessingService documentProcessingService;
+
+    // Lida aqui e não em @ConditionalOnProperty: no jar AOT a condição ficaria fixada no build
+    @Value("${documents.warmup.enabled:true}")
+    private boolean enabled;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Thread thread = new Thread(this::warmUp, "document-parsers-warmup");
+        thread.setDaemon(true);
+        thread.setPriority(Thread.MIN_PRIORITY);
+        thread.start();
+    }
+
+    /*** Conta um PDF e um DOCX mínimos pelos mesmos caminhos das contagens reais ***/
+    boolean warmUp() {
+        long start = System.nanoTime();
+        Path dir = null;
+        try {
+            dir = Files.createTempDirectory("documents-warmup");
+            documentProcessingService.count(writePdf(dir.resolve("warmup.pdf")), DocumentProcessingService.MIME_PDF);
+            documentProcessingService.count(writeDocx(dir.resolve("warmup.docx")), DocumentProcessingService.MIME_DOCX);
+            log.info("Leitores de documento aquecidos em {} ms", (System.nanoTime() - start) / 1_000_000);
+            return true;
+        } catch (IOException | RuntimeException e) {
+            // Só perde o aquecimento: a primeira contagem real monta tudo, como sem ele
+            log.warn("Falha no aquecimento dos leitores de documento: {}", e.getMessage());
+            return false;
+        } finally {
+            if (dir != null) {
+                try {
+                    FileSystemUtils.deleteRecursively(dir);
+                } catch (IOException e) {
+                    log.debug("Diretório do aquecimento não removido: {}", dir, e);
+                }
+            }
+        }
+    }
+
+    // Texto numa fonte padrão: a extração carrega as métricas da fonte e a glyph list
+    private static Path writePdf(Path path) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDPage page = new PDPage();
+            document.addPage(page);
+            try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                content.beginText();
+                content.setFont(new PDType1Font(Standard14Fonts.FontName.HELVETICA), 12);
+                content.newLineAtOffset(72, 720);
+                content.showText("Aquecimento dos leitores de documento");
+                content.endText();
+            }
+            document.save(path.toFile());
+        }
+        return path;
+    }
+
+    // Pacote OPC mínimo: válido tanto para a leitura em fluxo quanto para o XWPFDocument (modo "dom")
+    private static Path writeDocx(Path path) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(path))) {
+            putEntry(zip, "[Content_Types].xml",
+                    "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                            + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                            + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                            + "<Override PartName=\"/word/document.xml\" ContentType=\"application/"
+                            + "vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/></Types>");
+            putEntry(zip, "_rels/.rels",
+                    "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                            + "<Relationship Id=\"rId1\" Target=\"word/document.xml\" Type=\""
+                            + "http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\"/>"
+                            + "</Relationships>");
+            putEntry(zip, "word/document.xml",
+                    "<w:document xmlns:w=\"" + WORD_NS + "\"><w:body><w:p><w:r>"
+                            + "<w:t>Aquecimento dos leitores de documento</w:t></w:r></w:p></w:body></w:document>");
+        }
+        return path;
+    }
+
+    private static void putEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+}
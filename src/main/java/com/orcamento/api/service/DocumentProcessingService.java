@@ -1,5 +1,201 @@
 package com.orcamento.api.service;
 
+import com.orcamento.api.service.document.DocumentCounts;
+import com.orcamento.api.service.document.DocxStreamingCounter;
+import com.orcamento.api.service.document.PdfPageRangeTask;
+import com.orcamento.api.service.document.UnitCounter;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.poi.openxml4j.exceptions.InvalidFormatException;
+import org.apache.poi.openxml4j.opc.OPCPackage;
+import org.apache.poi.openxml4j.opc.PackageAccess;
+import org.apache.poi.xwpf.usermodel.IBodyElement;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFParagraph;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.apache.poi.xwpf.usermodel.XWPFTableCell;
+import org.apache.poi.xwpf.usermodel.XWPFTableRow;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.Reader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Motor de contagem de unidades (palavras, parágrafos, caracteres e páginas) dos documentos enviados.
+ * <p>
+ * Os documentos são lidos em fluxo: PDF página a página, DOCX evento a evento (StAX) e texto puro
+ * em blocos, alimentando um {@link UnitCounter}. O texto completo nunca vira uma única String.
+ * PDFs grandes são divididos em intervalos de páginas contados em paralelo no {@code documentCountingPool}.
+ * Documentos armazenados passam pelo {@link DocumentCountCache}: o mesmo conteúdo é contado uma vez só.
+ */
+@Service
 public class DocumentProcessingService {
-    
+
+    public static final String MIME_PDF = "application/pdf";
+    public static final String MIME_DOCX = "application/vnd.openxmlformats-officedocument.wordprocessingml.document";
+    public static final String MIME_TEXT = "text/plain";
+
+    public static final String DOCX_MODE_DOM = "dom";
+
+    // Usado para estimar páginas quando o formato não tem paginação (texto puro ou DOCX sem docProps/app.xml)
+    private static final long WORDS_PER_ESTIMATED_PAGE = 250;
+
+    @Value("${documents.storage.base-path:storage}")
+    private String storageBasePath;
+
+    // PDFs com menos páginas que o limite são contados na thread atual
+    @Value("${documents.pdf.parallel-threshold-pages:64}")
+    private int pdfParallelThresholdPages;
+
+    @Value("${documents.pdf.pages-per-task:16}")
+    private int pdfPagesPerTask;
+
+    @Autowired
+    private ForkJoinPool documentCountingPool;
+
+    @Autowired
+    private DocumentCountCache documentCountCache;
+
+    // "streaming" (StAX, padrão) ou "dom" (XWPFDocument)
+    @Value("${documents.docx.mode:streaming}")
+    private String docxMode;
+
+    /*** Conta as unidades de um documento já armazenado, a partir da chave de armazenamento ***/
+    public DocumentCounts countStoredDocument(String storageKey, String mimeType) {
+        Path path = resolveStoragePath(storageKey);
+        if (!Files.isRegularFile(path)) {
+            throw new RuntimeException("Documento não encontrado no armazenamento: " + storageKey);
+        }
+        // Tipo validado antes do cache: formato não suportado falha mesmo que o conteúdo já tenha sido contado
+        String type = detectType(path, mimeType);
+        return documentCountCache.getOrCount(storageKey, path, type, () -> count(path, type));
+    }
+
+    /*** Conta as unidades de um arquivo local ***/
+    public DocumentCounts count(Path path, String mimeType) {
+        String type = detectType(path, mimeType);
+        try {
+            return switch (type) {
+                case MIME_PDF -> countPdf(path);
+                case MIME_DOCX -> countDocx(path);
+                default -> countText(path);
+            };
+        } catch (IOException e) {
+            throw new RuntimeException("Falha ao processar o documento " + path.getFileName() + ": " + e.getMessage(), e);
+        }
+    }
+
+    // Resolve a chave dentro do diretório base, bloqueando tentativas de sair dele (ex.: "../")
+    Path resolveStoragePath(String storageKey) {
+        Path base = Path.of(storageBasePath).toAbsolutePath().normalize();
+        Path resolved = base.resolve(storageKey).normalize();
+        if (!resolved.startsWith(base)) {
+            throw new IllegalArgumentException("Chave de armazenamento inválida: " + storageKey);
+        }
+        return resolved;
+    }
+
+    private String detectType(Path path, String mimeType) {
+        if (mimeType != null) {
+            String normalized = mimeType.toLowerCase(Locale.ROOT);
+            if (normalized.startsWith(MIME_PDF)) return MIME_PDF;
+            if (normalized.startsWith(MIME_DOCX)) return MIME_DOCX;
+            if (normalized.startsWith(MIME_TEXT)) return MIME_TEXT;
+        }
+
+        String fileName = path.getFileName().toString().toLowerCase(Locale.ROOT);
+        if (fileName.endsWith(".pdf")) return MIME_PDF;
+        if (fileName.endsWith(".docx")) return MIME_DOCX;
+        if (fileName.endsWith(".txt")) return MIME_TEXT;
+
+        throw new IllegalArgumentException("Tipo de documento não suportado: " + (mimeType != null ? mimeType : fileName));
+    }
+
+    /*** PDF: a extração escreve direto no contador, página a página; documentos grandes são divididos em intervalos ***/
+    private DocumentCounts countPdf(Path path) throws IOException {
+        int pages;
+        // Cache em arquivo temporário para não manter os streams do PDF na heap
+        try (PDDocument document = Loader.loadPDF(path.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+            pages = document.getNumberOfPages();
+            if (pages < pdfParallelThresholdPages) {
+                return PdfPageRangeTask.countRange(document, 1, pages).toCounts(pages);
+            }
+        }
+
+        // Cada intervalo reabre o PDF, então não vale dividir em mais que ~2 intervalos por thread
+        int targetRanges = documentCountingPool.getParallelism() * 2;
+        int pagesPerTask = Math.max(pdfPagesPerTask, (pages + targetRanges - 1) / targetRanges);
+        try {
+            return documentCountingPool.invoke(new PdfPageRangeTask(path, 1, pages, pagesPerTask)).toCounts(pages);
+        } catch (UncheckedIOException e) {
+            throw e.getCause();
+        }
+    }
+
+    /*** DOCX: por padrão em fluxo (StAX); o modo "dom" mantém a leitura via XWPFDocument ***/
+    private DocumentCounts countDocx(Path path) throws IOException {
+        if (DOCX_MODE_DOM.equalsIgnoreCase(docxMode)) {
+            return countDocxDom(path);
+        }
+        UnitCounter counter = new UnitCounter(false);
+        long pages = DocxStreamingCounter.count(path, counter);
+        return counter.toCounts(pages > 0 ? pages : estimatePages(counter));
+    }
+
+    // Monta a árvore inteira do documento: mais lento e com heap proporcional ao tamanho do DOCX
+    private DocumentCounts countDocxDom(Path path) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(OPCPackage.open(path.toFile(), PackageAccess.READ))) {
+            UnitCounter counter = new UnitCounter(false);
+            countBodyElements(document.getBodyElements(), counter);
+
+            int pages = document.getProperties().getExtendedProperties().getPages();
+            return counter.toCounts(pages > 0 ? pages : estimatePages(counter));
+        } catch (InvalidFormatException e) {
+            throw new IOException("DOCX inválido", e);
+        }
+    }
+
+    private void countBodyElements(List<IBodyElement> elements, UnitCounter counter) {
+        for (IBodyElement element : elements) {
+            if (element instanceof XWPFParagraph paragraph) {
+                counter.write(paragraph.getText());
+                counter.endParagraph();
+            } else if (element instanceof XWPFTable table) {
+                for (XWPFTableRow row : table.getRows()) {
+                    for (XWPFTableCell cell : row.getTableCells()) {
+                        countBodyElements(cell.getBodyElements(), counter);
+                    }
+                }
+            }
+        }
+    }
+
+    /*** Texto puro: leitura em blocos de 8 KB ***/
+    private DocumentCounts countText(Path path) throws IOException {
+        UnitCounter counter = new UnitCounter();
+        try (Reader reader = Files.newBufferedReader(path, StandardCharsets.UTF_8)) {
+            char[] buffer = new char[8192];
+            int read;
+            while ((read = reader.read(buffer)) != -1) {
+                counter.write(buffer, 0, read);
+            }
+        }
+        return counter.toCounts(estimatePages(counter));
+    }
+
+    private long estimatePages(UnitCounter counter) {
+        long words = counter.getWords();
+        return Math.max(1, (words + WORDS_PER_ESTIMATED_PAGE - 1) / WORDS_PER_ESTIMATED_PAGE);
+    }
 }
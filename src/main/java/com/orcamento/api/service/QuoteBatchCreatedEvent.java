@@ -0,0 +1,21 @@
+package com.orcamento.api.service;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Publicado quando várias solicitações são gravadas como PENDING de uma vez (criação em lote).
+ * Assim como o {@link QuoteCreatedEvent}, o pipeline só o recebe depois do commit.
+ */
+public class QuoteBatchCreatedEvent {
+
+    private final List<UUID> quoteRequestIds;
+
+    public QuoteBatchCreatedEvent(List<UUID> quoteRequestIds) {
+        this.quoteRequestIds = List.copyOf(quoteRequestIds);
+    }
+
+    public List<UUID> getQuoteRequestIds() {
+        return quoteRequestIds;
+    }
+}
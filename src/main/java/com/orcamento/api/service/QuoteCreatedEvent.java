@@ -0,0 +1,20 @@
+package com.orcamento.api.service;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando uma solicitação é gravada como PENDING.
+ * O pipeline só a recebe depois do commit, para nunca processar uma linha que ainda não existe.
+ */
+public class QuoteCreatedEvent {
+
+    private final UUID quoteRequestId;
+
+    public QuoteCreatedEvent(UUID quoteRequestId) {
+        this.quoteRequestId = quoteRequestId;
+    }
+
+    public UUID getQuoteRequestId() {
+        return quoteRequestId;
+    }
+}
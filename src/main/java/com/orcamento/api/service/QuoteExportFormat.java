@@ -0,0 +1,37 @@
+package com.orcamento.api.service;
+
+import java.util.Locale;
+
+/*** Formatos da exportação de solicitações: uma linha por registro, sem montar a lista em memória ***/
+public enum QuoteExportFormat {
+
+    NDJSON("application/x-ndjson", "ndjson"),
+    CSV("text/csv", "csv");
+
+    private final String mediaType;
+    private final String extension;
+
+    QuoteExportFormat(String mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public String getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+    /**
+     * @throws IllegalArgumentException se o formato não for suportado
+     */
+    public static QuoteExportFormat fromParam(String value) {
+        try {
+            return valueOf(value.trim().toUpperCase(Locale.ROOT));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Formato de exportação inválido: " + value + " (use ndjson ou csv)");
+        }
+    }
+}
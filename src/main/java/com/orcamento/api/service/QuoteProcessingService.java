@@ -0,0 +1,327 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.dto.NotificationEventDTO;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.OutboxMessage;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.exception.ProcessingBacklogFullException;
+import com.orcamento.api.repository.OutboxMessageRepository;
+import com.orcamento.api.repository.QuoteRequestRepository;
+import com.orcamento.api.service.document.DocumentCounts;
+import com.orcamento.api.template.HtmlEscaper;
+import com.orcamento.api.template.TemplateEngine;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.transaction.event.TransactionPhase;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.OffsetDateTime;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Pipeline assíncrono das solicitações de orçamento: contagem do documento → preço → notificação.
+ * <p>
+ * Roda no pool limitado {@code quoteProcessingExecutor}. O preço e a notificação são gravados na mesma
+ * transação (solicitação + linha em {@code notification_outbox}); o pipeline não fala com o broker.
+ * A tarifa e o método de cobrança são os gravados na criação (ou no último PUT); aqui só entram as
+ * unidades contadas e o total.
+ * A máquina de estados é PENDING → SENT (feita pelo {@code NotificationOutboxRelay} depois do ack do
+ * RabbitMQ) ou PENDING → FAILED (erro em qualquer etapa); as transições são condicionais ao status e à
+ * versão (updatedAt), então uma solicitação só sai de PENDING uma vez por versão. Um PUT a devolve para
+ * PENDING e ela passa pelo pipeline de novo: se a notificação ainda não tinha sido publicada, ela é trocada
+ * pela da versão nova; se já tinha, não há outro e-mail e o recálculo a leva direto para SENT.
+ * Quando a fila do pool está cheia a solicitação fica PENDING e a varredura periódica a reenfileira; nos
+ * lotes, o que não coube espera num backlog em memória, limitado, que os workers esvaziam ao terminar. Um lote
+ * que não cabe no backlog é recusado pelo endpoint antes de ser gravado (503); o que o backlog perde num
+ * reinício continua PENDING no banco e volta pela varredura.
+ */
+@Service
+public class QuoteProcessingService {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteProcessingService.class);
+
+    static final String TEMPLATE_NAME = "orcamento_criado.html";
+
+    // Limites das colunas counted_units (integer) e estimated_total (numeric(12,2))
+    static final long MAX_UNITS = Integer.MAX_VALUE;
+    static final BigDecimal MAX_TOTAL = new BigDecimal("9999999999.99");
+
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private DocumentProcessingService documentProcessingService;
+
+    @Autowired
+    private BudgetTypeCache budgetTypeCache;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private TaskExecutor quoteProcessingExecutor;
+
+    @Autowired
+    private TemplateEngine templateEngine;
+
+    @Value("${quotes.processing.stale-after-ms:60000}")
+    private long staleAfterMs;
+
+    @Value("${quotes.processing.sweep-batch-size:100}")
+    private int sweepBatchSize;
+
+    @Value("${quotes.processing.backlog-capacity:20000}")
+    private int backlogCapacity;
+
+    @Value("${quotes.processing.backlog-retry-after-seconds:30}")
+    private int backlogRetryAfterSeconds;
+
+    // Evita que a mesma solicitação entre duas vezes na fila desta instância (evento + varredura); entre
+    // instâncias, quem grava o resultado é o UPDATE condicional do process
+    private final Set<UUID> inFlight = ConcurrentHashMap.newKeySet();
+
+    // Solicitações alteradas (PUT) enquanto estavam na fila: são enfileiradas de novo ao sair dela
+    private final Set<UUID> rerun = ConcurrentHashMap.newKeySet();
+
+    // Restante dos lotes que não coube na fila do pool (os IDs já contam em inFlight). Só em memória:
+    // num reinício, o que sobrar volta pela varredura
+    private final Deque<UUID> backlog = new ConcurrentLinkedDeque<>();
+
+    // Tamanho do backlog (o size() do deque percorre a lista inteira)
+    private final AtomicInteger backlogSize = new AtomicInteger();
+
+    /*** Dispara o pipeline só depois do commit que gravou a solicitação ***/
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onQuoteCreated(QuoteCreatedEvent event) {
+        submit(event.getQuoteRequestId());
+    }
+
+    /**
+     * PUT: a solicitação voltou para PENDING. Se a versão anterior ainda está sendo contada, o resultado dela
+     * é descartado pelo UPDATE condicional e a nova contagem entra assim que a anterior terminar.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onQuoteUpdated(QuoteUpdatedEvent event) {
+        UUID id = event.getQuoteRequestId();
+        if (!submit(id) && inFlight.contains(id)) {
+            rerun.add(id);
+        }
+    }
+
+    /**
+     * Chamado pela criação em lote antes de gravar: recusa o lote se ele não cabe no backlog.
+     *
+     * @throws ProcessingBacklogFullException com o Retry-After configurado
+     */
+    public void checkBacklogCapacity(int count) {
+        int queued = backlogSize.get();
+        if (queued + count > backlogCapacity) {
+            throw new ProcessingBacklogFullException(String.format(
+                    "Pipeline de orçamentos ocupado: %d solicitação(ões) aguardando, limite de %d",
+                    queued, backlogCapacity), backlogRetryAfterSeconds);
+        }
+    }
+
+    /**
+     * Criação em lote: os IDs vão para o backlog e são passados ao pool enquanto ele aceitar. O restante
+     * sai do backlog conforme os workers terminam, sem esperar a janela da varredura nem gerar uma
+     * rejeição (e um log) por solicitação. Se lotes simultâneos passaram juntos pelo
+     * {@link #checkBacklogCapacity}, o que exceder o limite fica PENDING para a varredura.
+     */
+    @TransactionalEventListener(phase = TransactionPhase.AFTER_COMMIT, fallbackExecution = true)
+    public void onQuoteBatchCreated(QuoteBatchCreatedEvent event) {
+        int overflow = 0;
+        for (UUID id : event.getQuoteRequestIds()) {
+            if (backlogSize.get() >= backlogCapacity) {
+                overflow++;
+            } else if (inFlight.add(id)) {
+                backlog.addLast(id);
+                backlogSize.incrementAndGet();
+            }
+        }
+        drainBacklog();
+        if (overflow > 0) {
+            log.warn("Backlog do pipeline cheio; {} solicitação(ões) do lote continuam PENDING até a varredura",
+                    overflow);
+        }
+        if (backlogSize.get() > 0) {
+            log.info("{} solicitação(ões) aguardam vaga no pool do pipeline", backlogSize.get());
+        }
+    }
+
+    /**
+     * Enfileira a solicitação no pool do pipeline.
+     *
+     * @return false se já estava na fila ou se o pool recusou (backpressure)
+     */
+    public boolean submit(UUID quoteRequestId) {
+        if (!inFlight.add(quoteRequestId)) {
+            return false;
+        }
+        if (execute(quoteRequestId)) {
+            return true;
+        }
+        inFlight.remove(quoteRequestId);
+        log.warn("Fila do pipeline cheia; solicitação {} continua PENDING até a próxima varredura", quoteRequestId);
+        return false;
+    }
+
+    // Passa a solicitação ao pool; quem chama já a registrou em inFlight. Ao terminar, o worker puxa o backlog
+    private boolean execute(UUID quoteRequestId) {
+        try {
+            quoteProcessingExecutor.execute(() -> {
+                try {
+                    process(quoteRequestId);
+                } finally {
+                    inFlight.remove(quoteRequestId);
+                    if (rerun.remove(quoteRequestId)) {
+                        submit(quoteRequestId);
+                    }
+                    drainBacklog();
+                }
+            });
+            return true;
+        } catch (TaskRejectedException e) {
+            return false;
+        }
+    }
+
+    // Passa o backlog ao pool até ele recusar; a recusada volta para o início
+    private void drainBacklog() {
+        UUID id;
+        while ((id = backlog.pollFirst()) != null) {
+            backlogSize.decrementAndGet();
+            if (!execute(id)) {
+                backlog.addFirst(id);
+                backlogSize.incrementAndGet();
+                return;
+            }
+        }
+    }
+
+    /*** Reenfileira solicitações PENDING paradas (fila cheia, reinício da aplicação, etc.) ***/
+    @Scheduled(initialDelayString = "${quotes.processing.sweep-interval-ms:30000}",
+            fixedDelayString = "${quotes.processing.sweep-interval-ms:30000}")
+    public void resubmitStalePending() {
+        // Um ID devolvido ao backlog depois que o último worker já passou por ele não ficaria parado
+        drainBacklog();
+        OffsetDateTime before = OffsetDateTime.now().minusNanos(staleAfterMs * 1_000_000);
+        List<UUID> stale = quoteRequestRepository.findStaleIds(
+                QuoteStatus.PENDING, before, PageRequest.of(0, sweepBatchSize));
+        for (UUID id : stale) {
+            submit(id);
+        }
+    }
+
+    /*** Executa as etapas do pipeline para uma solicitação ***/
+    void process(UUID quoteRequestId) {
+        QuoteRequest entity = quoteRequestRepository.findById(quoteRequestId)
+                .filter(qr -> qr.getDeletedAt() == null && qr.getStatus() == QuoteStatus.PENDING)
+                .orElse(null);
+        if (entity == null) {
+            return; // deletada ou já processada
+        }
+
+        try {
+            // A associação é LAZY e aqui não há sessão aberta: o tipo (nome no e-mail) vem do cache pelo ID do proxy
+            UUID budgetTypeId = entity.getBudgetType().getId();
+            BudgetType budgetType = budgetTypeCache.get(budgetTypeId)
+                    .orElseThrow(() -> new RuntimeException("Tipo de orçamento " + budgetTypeId + " não encontrado."));
+
+            // Etapa 1: contagem do documento (fora de transação: não segura conexão enquanto conta)
+            DocumentCounts counts = documentProcessingService.countStoredDocument(
+                    entity.getDocumentStorageKey(), entity.getDocumentMimeType());
+
+            // Etapa 2: preço com a tarifa gravada na criação; mudar a tarifa depois não reprecifica a solicitação
+            long units = counts.unitsFor(BillingMethod.valueOf(entity.getBillingMethodUsed()));
+            BigDecimal total = entity.getFeeUsed()
+                    .multiply(BigDecimal.valueOf(units))
+                    .setScale(2, RoundingMode.HALF_UP);
+            if (units > MAX_UNITS || total.compareTo(MAX_TOTAL) > 0) {
+                log.warn("Solicitação {} recusada: {} unidades ({}) e total {} passam do limite de {} unidades "
+                                + "e total {}", quoteRequestId, units, entity.getBillingMethodUsed(), total.toPlainString(),
+                        MAX_UNITS, MAX_TOTAL.toPlainString());
+                quoteRequestRepository.transitionStatus(quoteRequestId, entity.getCreatedAt(), QuoteStatus.PENDING,
+                        QuoteStatus.FAILED, entity.getUpdatedAt(), OffsetDateTime.now());
+                return;
+            }
+
+            // Quem já recebeu a notificação (PUT depois do SENT) não recebe outra: o novo preço fica na
+            // solicitação e ela volta direto para SENT
+            boolean notified = entity.getNotifiedAt() != null;
+            NotificationEventDTO notification = notified ? null : buildNotification(entity, budgetType);
+
+            // Etapa 3: preço + notificação no outbox, na mesma transação. A contagem pode levar segundos:
+            // o UPDATE condicional descarta o resultado se a solicitação foi deletada, alterada por um PUT
+            // ou gravada por outro processamento nesse meio tempo
+            boolean written = Boolean.TRUE.equals(transactionTemplate.execute(status -> {
+                int updated = quoteRequestRepository.applyCountedPricing(quoteRequestId, entity.getCreatedAt(),
+                        QuoteStatus.PENDING, notified ? QuoteStatus.SENT : QuoteStatus.PENDING, entity.getUpdatedAt(),
+                        (int) units, total, OffsetDateTime.now());
+                if (updated == 0) {
+                    return false;
+                }
+                // O PUT removeu a notificação da versão anterior, então não há outra linha desta solicitação.
+                // A linha leva a versão recém-gravada, que o relay confere antes de marcar SENT
+                if (!notified) {
+                    OffsetDateTime version = quoteRequestRepository.findUpdatedAtById(quoteRequestId,
+                            entity.getCreatedAt());
+                    outboxMessageRepository.save(new OutboxMessage(quoteRequestId, version, notification));
+                }
+                return true;
+            }));
+            if (!written) {
+                log.info("Solicitação {} mudou durante o processamento; resultado descartado", quoteRequestId);
+            }
+        } catch (RuntimeException e) {
+            log.error("Falha ao processar a solicitação {}", quoteRequestId, e);
+            quoteRequestRepository.transitionStatus(quoteRequestId, entity.getCreatedAt(), QuoteStatus.PENDING,
+                    QuoteStatus.FAILED, entity.getUpdatedAt(), OffsetDateTime.now());
+        }
+    }
+
+    // Monta o BODY HTML a partir do template compilado na inicialização
+    private NotificationEventDTO buildNotification(QuoteRequest entity, BudgetType budgetType) {
+        String bodyHtml;
+        if (templateEngine.contains(TEMPLATE_NAME)) {
+            bodyHtml = templateEngine.render(TEMPLATE_NAME, Map.of(
+                    "NOME_CLIENTE", entity.getRequesterName(),
+                    "TIPO_ORCAMENTO", budgetType.getBudgetTypeName(),
+                    "ID_ORCAMENTO", entity.getId().toString()));
+        } else {
+            log.warn("Template {} indisponível, usando corpo padrão", TEMPLATE_NAME);
+            bodyHtml = "<h1>Olá, " + HtmlEscaper.escape(entity.getRequesterName())
+                    + "!</h1><p>Seu orçamento foi criado com sucesso!</p>";
+        }
+
+        return new NotificationEventDTO(
+                entity.getId(),
+                entity.getRequesterEmail(),
+                entity.getRequesterName(),
+                "Seu orçamento foi criado!",
+                bodyHtml);
+    }
+}
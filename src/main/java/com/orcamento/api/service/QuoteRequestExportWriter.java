@@ -0,0 +1,119 @@
+package com.orcamento.api.service;
+
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.orcamento.api.dto.QuoteRequestDTO;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Escreve as solicitações da exportação uma a uma no stream da resposta.
+ * Nada é acumulado aqui: cada registro vira uma linha e pode ser descartado em seguida.
+ * <p>
+ * NDJSON usa um único {@link JsonGenerator} UTF-8 sobre o próprio OutputStream (bytes direto, sem passar
+ * por um Writer de caracteres nem criar um gerador por linha); CSV escreve texto num Writer com buffer.
+ */
+class QuoteRequestExportWriter {
+
+    static final String CSV_HEADER = "id,budgetTypeId,requesterName,requesterEmail,documentOriginalName,"
+            + "documentStorageKey,documentMimeType,documentSizeBytes,billingMethodUsed,feeUsed,countedUnits,"
+            + "estimatedTotal,status,createdAt,updatedAt";
+
+    private static final int BUFFER_SIZE = 64 * 1024;
+
+    private final QuoteExportFormat format;
+    private final Writer out;
+    private final JsonGenerator generator;
+    private final ObjectWriter json;
+
+    QuoteRequestExportWriter(QuoteExportFormat format, OutputStream output, ObjectMapper objectMapper) throws IOException {
+        this.format = format;
+        if (format == QuoteExportFormat.NDJSON) {
+            this.out = null;
+            // O stream é da resposta: nem fechar nem dar flush a cada registro
+            this.generator = objectMapper.getFactory().createGenerator(output)
+                    .disable(JsonGenerator.Feature.AUTO_CLOSE_TARGET);
+            this.json = objectMapper.writerFor(QuoteRequestDTO.class)
+                    .without(SerializationFeature.FLUSH_AFTER_WRITE_VALUE);
+        } else {
+            this.out = new BufferedWriter(new OutputStreamWriter(output, StandardCharsets.UTF_8), BUFFER_SIZE);
+            this.generator = null;
+            this.json = null;
+        }
+    }
+
+    void writeHeader() throws IOException {
+        if (format == QuoteExportFormat.CSV) {
+            out.write(CSV_HEADER);
+            out.write('\n');
+        }
+    }
+
+    void write(QuoteRequestDTO dto) throws IOException {
+        if (format == QuoteExportFormat.NDJSON) {
+            json.writeValue(generator, dto);
+            generator.writeRaw('\n');
+        } else {
+            writeCsvRow(dto);
+            out.write('\n');
+        }
+    }
+
+    /*** Esvazia o buffer no stream da resposta (sem fechá-lo) ***/
+    void flush() throws IOException {
+        if (generator != null) {
+            generator.flush();
+        } else {
+            out.flush();
+        }
+    }
+
+    private void writeCsvRow(QuoteRequestDTO dto) throws IOException {
+        Object[] values = {dto.id(), dto.budgetTypeId(), dto.requesterName(), dto.requesterEmail(),
+                dto.documentOriginalName(), dto.documentStorageKey(), dto.documentMimeType(),
+                dto.documentSizeBytes(), dto.billingMethodUsed(), dto.feeUsed(), dto.countedUnits(),
+                dto.estimatedTotal(), dto.status(), dto.createdAt(), dto.updatedAt()};
+        for (int i = 0; i < values.length; i++) {
+            if (i > 0) {
+                out.write(',');
+            }
+            writeCsvValue(values[i]);
+        }
+    }
+
+    // RFC 4180: aspas só quando o valor tem separador, aspas ou quebra de linha
+    private void writeCsvValue(Object value) throws IOException {
+        if (value == null) {
+            return;
+        }
+        String text = value instanceof BigDecimal decimal ? decimal.toPlainString() : value.toString();
+        // Texto vindo do cliente que o Excel/Sheets leria como fórmula ganha um ' na frente (números não)
+        if (value instanceof String && !text.isEmpty() && isFormulaStart(text.charAt(0))) {
+            text = "'" + text;
+        }
+        boolean quote = false;
+        for (int i = 0; i < text.length() && !quote; i++) {
+            char c = text.charAt(i);
+            quote = c == ',' || c == '"' || c == '\n' || c == '\r';
+        }
+        if (!quote) {
+            out.write(text);
+            return;
+        }
+        out.write('"');
+        out.write(text.replace("\"", "\"\""));
+        out.write('"');
+    }
+
+    private static boolean isFormulaStart(char c) {
+        return c == '=' || c == '+' || c == '-' || c == '@' || c == '\t' || c == '\r';
+    }
+}
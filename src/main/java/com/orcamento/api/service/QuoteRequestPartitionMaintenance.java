@@ -0,0 +1,167 @@
+package com.orcamento.api.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Manutenção das partições mensais de {@code quote_requests} (V10).
+ * <p>
+ * Na subida e uma vez por dia ({@code quote-requests.partitions.cron}):
+ * <ul>
+ *   <li>cria as partições do mês atual e dos próximos {@code months-ahead} meses (UTC). Não há partição
+ *   DEFAULT, então um INSERT num mês sem partição falharia; a folga de meses cobre a API ficar parada;</li>
+ *   <li>com {@code retention-months} &gt; 0, desanexa as partições que terminam antes do início do mês de
+ *   corte com {@code DETACH PARTITION ... CONCURRENTLY}, que não bloqueia leituras nem escritas. A tabela
+ *   desanexada fica no banco como arquivo, ou é removida com {@code drop-detached=true}. A
+ *   {@code quote_requests_legacy} (linhas de antes do particionamento) sai do mesmo jeito, inteira, quando o
+ *   fim dela passar do corte. A retenção vale para todas as linhas do mês, deletadas ou não.</li>
+ * </ul>
+ * Um DETACH interrompido deixa a partição pendente; a rodada seguinte conclui com {@code FINALIZE}.
+ * Várias instâncias: um advisory lock de sessão faz só uma executar por vez.
+ */
+@Component
+public class QuoteRequestPartitionMaintenance {
+
+    private static final Logger log = LoggerFactory.getLogger(QuoteRequestPartitionMaintenance.class);
+
+    private static final String LOCK_NAME = "quote_requests_partitions";
+
+    // Lidas aqui e não em @ConditionalOnProperty: no jar AOT a condição ficaria fixada no build
+    @Value("${quote-requests.partitions.enabled:true}")
+    private boolean enabled;
+
+    @Value("${quote-requests.partitions.months-ahead:3}")
+    private int monthsAhead;
+
+    @Value("${quote-requests.partitions.retention-months:0}")
+    private int retentionMonths;
+
+    @Value("${quote-requests.partitions.drop-detached:false}")
+    private boolean dropDetached;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        maintain();
+    }
+
+    @Scheduled(cron = "${quote-requests.partitions.cron:0 30 3 * * *}", zone = "UTC")
+    public void scheduledMaintenance() {
+        maintain();
+    }
+
+    /*** Uma rodada de manutenção; falhas só são registradas (a próxima rodada tenta de novo) ***/
+    public void maintain() {
+        if (!enabled) {
+            return;
+        }
+        try {
+            // Uma conexão só: o advisory lock é da sessão e o DETACH CONCURRENTLY precisa de autocommit
+            jdbcTemplate.execute((ConnectionCallback<Void>) connection -> {
+                maintain(new JdbcTemplate(new SingleConnectionDataSource(connection, true)), YearMonth.now(ZoneOffset.UTC));
+                return null;
+            });
+        } catch (DataAccessException e) {
+            log.warn("Falha na manutenção das partições de quote_requests: {}", e.getMessage());
+        }
+    }
+
+    void maintain(JdbcTemplate session, YearMonth current) {
+        Boolean locked = session.queryForObject("SELECT pg_try_advisory_lock(hashtext(?))", Boolean.class, LOCK_NAME);
+        if (!Boolean.TRUE.equals(locked)) {
+            log.debug("Manutenção das partições já em andamento em outra instância");
+            return;
+        }
+        try {
+            List<Partition> partitions = session.query(
+                    "SELECT name, range_from, range_to, detach_pending FROM quote_requests_partitions",
+                    (rs, rowNum) -> new Partition(rs.getString("name"),
+                            rs.getObject("range_from", OffsetDateTime.class),
+                            rs.getObject("range_to", OffsetDateTime.class),
+                            rs.getBoolean("detach_pending")));
+
+            for (YearMonth month : monthsToCreate(partitions, current, monthsAhead)) {
+                String created = session.queryForObject("SELECT create_quote_requests_partition(?)", String.class,
+                        month.atDay(1));
+                if (created != null) {
+                    log.info("Partição {} criada", created);
+                }
+            }
+
+            for (Partition partition : toDetach(partitions, current, retentionMonths)) {
+                String table = quote(partition.name());
+                session.execute("ALTER TABLE quote_requests DETACH PARTITION " + table
+                        + (partition.detachPending() ? " FINALIZE" : " CONCURRENTLY"));
+                if (dropDetached) {
+                    session.execute("DROP TABLE " + table);
+                    log.info("Partição {} desanexada e removida", partition.name());
+                } else {
+                    log.info("Partição {} desanexada (mantida como arquivo)", partition.name());
+                }
+            }
+        } finally {
+            session.queryForObject("SELECT pg_advisory_unlock(hashtext(?))", Boolean.class, LOCK_NAME);
+        }
+    }
+
+    // ===== PLANEJAMENTO (sem banco) =====
+
+    /*** Meses entre o atual e current + monthsAhead cujo primeiro instante nenhuma partição cobre ***/
+    static List<YearMonth> monthsToCreate(List<Partition> partitions, YearMonth current, int monthsAhead) {
+        List<YearMonth> missing = new ArrayList<>();
+        for (int i = 0; i <= monthsAhead; i++) {
+            YearMonth month = current.plusMonths(i);
+            OffsetDateTime start = startOf(month);
+            boolean covered = partitions.stream().anyMatch(p -> !p.detachPending()
+                    && (p.from() == null || !p.from().isAfter(start))
+                    && p.to() != null && p.to().isAfter(start));
+            if (!covered) {
+                missing.add(month);
+            }
+        }
+        return missing;
+    }
+
+    /*** Partições com DETACH pendente e, com retenção, as que terminam antes do mês de corte ***/
+    static List<Partition> toDetach(List<Partition> partitions, YearMonth current, int retentionMonths) {
+        OffsetDateTime cutoff = retentionMonths > 0 ? startOf(current.minusMonths(retentionMonths)) : null;
+        List<Partition> result = new ArrayList<>();
+        for (Partition partition : partitions) {
+            if (partition.detachPending()
+                    || (cutoff != null && partition.to() != null && !partition.to().isAfter(cutoff))) {
+                result.add(partition);
+            }
+        }
+        return result;
+    }
+
+    private static OffsetDateTime startOf(YearMonth month) {
+        return month.atDay(1).atStartOfDay().atOffset(ZoneOffset.UTC);
+    }
+
+    private static String quote(String identifier) {
+        return '"' + identifier.replace("\"", "\"\"") + '"';
+    }
+
+    /*** Linha da view quote_requests_partitions; from nulo = MINVALUE ***/
+    record Partition(String name, OffsetDateTime from, OffsetDateTime to, boolean detachPending) {
+    }
+}
@@ -1,101 +1,104 @@
 package com.orcamento.api.service;
 
-import com.orcamento.api.dto.NotificationEventDTO;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orcamento.api.dto.CursorPageDTO;
 import com.orcamento.api.dto.QuoteRequestDTO;
 import com.orcamento.api.entity.BudgetType;
 import com.orcamento.api.entity.QuoteRequest;
 import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.mapper.QuoteRequestMapper;
 import com.orcamento.api.repository.BudgetTypeRepository;
+import com.orcamento.api.repository.OutboxMessageRepository;
 import com.orcamento.api.repository.QuoteRequestRepository;
-import com.orcamento.api.util.TemplateUtils;
-import com.orcamento.api.messaging.NotificationProducerService;
+import com.orcamento.api.util.KeysetCursor;
 
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import io.micrometer.core.annotation.Timed;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.ApplicationEventPublisher;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Slice;
 
 import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
 import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 @Service
+@Timed(value = "service.method", histogram = true)
 public class QuoteRequestService {
 
     @Autowired
     private QuoteRequestRepository quoteRequestRepository;
 
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Value("${spring.jpa.properties.hibernate.jdbc.batch_size:100}")
+    private int jdbcBatchSize = 100;
+
     @Autowired
     private BudgetTypeRepository budgetTypeRepository;
 
     @Autowired
-    private NotificationProducerService notificationProducerService; // <--- AQUI!
-
-    // Conversão Entity -> DTO
-    private QuoteRequestDTO toDTO(QuoteRequest entity) {
-        QuoteRequestDTO dto = new QuoteRequestDTO();
-        dto.setId(entity.getId());
-        dto.setRequesterName(entity.getRequesterName());
-        dto.setRequesterEmail(entity.getRequesterEmail());
-        dto.setDocumentOriginalName(entity.getDocumentOriginalName());
-        dto.setDocumentStorageKey(entity.getDocumentStorageKey());
-        dto.setDocumentMimeType(entity.getDocumentMimeType());
-        dto.setDocumentSizeBytes(entity.getDocumentSizeBytes());
-        if (entity.getBillingMethodUsed() != null) {
-            dto.setBillingMethodUsed(entity.getBillingMethodUsed());
-        }
-        dto.setFeeUsed(entity.getFeeUsed());
-        dto.setCountedUnits(entity.getCountedUnits());
-        dto.setEstimatedTotal(entity.getEstimatedTotal());
-        dto.setStatus(entity.getStatus());
-        if (entity.getBudgetType() != null) {
-            dto.setBudgetTypeId(entity.getBudgetType().getId());
-        }
-        dto.setCreatedAt(entity.getCreatedAt());
-        dto.setUpdatedAt(entity.getUpdatedAt());
-        dto.setDeletedAt(entity.getDeletedAt());
-        return dto;
+    private BudgetTypeCache budgetTypeCache;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Autowired
+    private QuoteRequestMapper quoteRequestMapper;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private QuoteProcessingService quoteProcessingService;
+
+    // Tipo de orçamento vem do cache; a associação usa só a referência (sem SELECT em budget_types)
+    private BudgetType findBudgetType(UUID budgetTypeId) {
+        return budgetTypeCache.get(budgetTypeId)
+                .orElseThrow(() -> new RuntimeException(
+                        "Tipo de orçamento com ID " + budgetTypeId + " não encontrado."));
     }
 
     // Conversão DTO -> Entity (criação)
     private void mapDtoToEntity(QuoteRequestDTO dto, QuoteRequest entity, BudgetType budgetType) {
-        entity.setBudgetType(budgetType);
-        entity.setRequesterName(dto.getRequesterName());
-        entity.setRequesterEmail(dto.getRequesterEmail());
-        entity.setDocumentOriginalName(dto.getDocumentOriginalName());
-        entity.setDocumentStorageKey(dto.getDocumentStorageKey());
-        entity.setDocumentMimeType(dto.getDocumentMimeType());
-        entity.setDocumentSizeBytes(dto.getDocumentSizeBytes());
-        if (dto.getBillingMethodUsed() != null) {
-            // Se precisar parse customizado, adapte aqui!
-            entity.setBillingMethodUsed(dto.getBillingMethodUsed());
-        }
-        entity.setFeeUsed(dto.getFeeUsed());
-        entity.setCountedUnits(dto.getCountedUnits());
-        entity.setEstimatedTotal(dto.getEstimatedTotal());
-        entity.setStatus(dto.getStatus());
-
+        entity.setBudgetType(budgetTypeRepository.getReferenceById(budgetType.getId()));
+        quoteRequestMapper.updateEntity(dto, entity);
+        // O status é controlado pelo pipeline (PENDING → SENT/FAILED), nunca pelo cliente
     }
 
     /*** Listar todos (não deletados) ***/
     public List<QuoteRequestDTO> getAll() {
-        return quoteRequestRepository.findAllByDeletedAtIsNull()
-                .stream().map(this::toDTO).collect(Collectors.toList());
+        return quoteRequestRepository.findAllActiveAsDTO();
     }
 
     /*** Listar deletados ***/
     public List<QuoteRequestDTO> getAllDeleted() {
-        return quoteRequestRepository.findAllByDeletedAtIsNotNull()
-                .stream().map(this::toDTO).collect(Collectors.toList());
+        return quoteRequestRepository.findAllDeletedAsDTO();
     }
 
     /*** Buscar por ID ***/
     public QuoteRequestDTO getById(UUID id) {
-        return quoteRequestRepository.findById(id)
-                .filter(qr -> qr.getDeletedAt() == null)
-                .map(this::toDTO)
+        return quoteRequestRepository.findActiveDTOById(id)
                 .orElseThrow(() -> new RuntimeException("Solicitação não encontrada ou foi deletada."));
     }
 
@@ -103,74 +106,153 @@ public class QuoteRequestService {
      * Lista todas as quotes não deletadas COM PAGINAÇÃO
      */
     public Page<QuoteRequestDTO> getAllPaginated(Pageable pageable) {
-        Page<QuoteRequest> page = quoteRequestRepository.findAllByDeletedAtIsNull(pageable);
-        return page.map(this::toDTO);
+        return quoteRequestRepository.findActiveAsDTO(pageable);
+    }
+
+    /**
+     * Lista as quotes não deletadas por cursor: busca direto a partir da última linha entregue
+     * (sem OFFSET nem COUNT), então o custo não cresce com a profundidade da página.
+     *
+     * @param cursor token devolvido na página anterior; nulo ou vazio para a primeira página
+     * @throws IllegalArgumentException se o cursor for inválido
+     */
+    public CursorPageDTO<QuoteRequestDTO> getAllByCursor(String cursor, int size) {
+        Pageable pageable = PageRequest.of(0, size);
+        Slice<QuoteRequestDTO> slice;
+        if (cursor == null || cursor.isBlank()) {
+            slice = quoteRequestRepository.findActiveFirst(pageable);
+        } else {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            slice = quoteRequestRepository.findActiveBefore(position.createdAt(), position.id(), pageable);
+        }
+
+        List<QuoteRequestDTO> rows = slice.getContent();
+        String nextCursor = null;
+        if (slice.hasNext()) {
+            QuoteRequestDTO last = rows.get(rows.size() - 1);
+            nextCursor = new KeysetCursor(last.createdAt(), last.id()).encode();
+        }
+        return new CursorPageDTO<>(rows, size, slice.hasNext(), nextCursor);
+    }
+
+    /**
+     * Exporta as quotes não deletadas direto no stream da resposta, uma linha por registro.
+     * As entidades vêm de um cursor do banco e são desanexadas do contexto de persistência logo depois
+     * de escritas, então o heap fica constante qualquer que seja o número de linhas.
+     */
+    @Transactional(readOnly = true)
+    public long exportActive(QuoteExportFormat format, OutputStream output) throws IOException {
+        QuoteRequestExportWriter exportWriter = new QuoteRequestExportWriter(format, output, objectMapper);
+        exportWriter.writeHeader();
+
+        long rows = 0;
+        try (Stream<QuoteRequest> stream = quoteRequestRepository.streamAllActive()) {
+            Iterator<QuoteRequest> iterator = stream.iterator();
+            while (iterator.hasNext()) {
+                QuoteRequest entity = iterator.next();
+                exportWriter.write(quoteRequestMapper.toDTO(entity));
+                entityManager.detach(entity);
+                rows++;
+            }
+        }
+        exportWriter.flush();
+        return rows;
     }
 
     /**
      * Lista todas as quotes deletadas COM PAGINAÇÃO
      */
     public Page<QuoteRequestDTO> getAllDeletedPaginated(Pageable pageable) {
-        Page<QuoteRequest> page = quoteRequestRepository.findAllByDeletedAtIsNotNull(pageable);
-        return page.map(this::toDTO);
+        return quoteRequestRepository.findDeletedAsDTO(pageable);
     }
 
-    /*** Criar nova solicitação ***/
+    /**
+     * Criar nova solicitação: grava como PENDING e retorna na hora.
+     * Contagem, preço e notificação rodam depois no {@link QuoteProcessingService}.
+     */
+    @Transactional
     public QuoteRequestDTO create(QuoteRequestDTO dto) {
-        BudgetType budgetType = budgetTypeRepository.findById(dto.getBudgetTypeId())
-                .orElseThrow(() -> new RuntimeException(
-                        "Tipo de orçamento com ID " + dto.getBudgetTypeId() + " não encontrado."));
+        BudgetType budgetType = findBudgetType(dto.budgetTypeId());
+        QuoteRequest saved = quoteRequestRepository.save(newPendingQuote(dto, budgetType));
+        eventPublisher.publishEvent(new QuoteCreatedEvent(saved.getId()));
+        return quoteRequestMapper.toDTO(saved);
+    }
+
+    /**
+     * Cria várias solicitações numa transação só. O ID é gerado em memória pelo Hibernate (sem
+     * SELECT prévio nem IDENTITY), então os INSERTs saem em lotes do JDBC; o contexto de persistência
+     * é esvaziado a cada lote para não crescer com o tamanho da lista. Se o backlog do pipeline não
+     * comporta o lote, nada é gravado ({@link com.orcamento.api.exception.ProcessingBacklogFullException}).
+     */
+    @Transactional
+    public List<QuoteRequestDTO> createAll(List<QuoteRequestDTO> dtos) {
+        quoteProcessingService.checkBacklogCapacity(dtos.size());
+        Map<UUID, BudgetType> budgetTypes = new HashMap<>();
+        List<QuoteRequestDTO> created = new ArrayList<>(dtos.size());
+        List<UUID> ids = new ArrayList<>(dtos.size());
+
+        for (QuoteRequestDTO dto : dtos) {
+            BudgetType budgetType = budgetTypes.computeIfAbsent(dto.budgetTypeId(), this::findBudgetType);
+            QuoteRequest saved = quoteRequestRepository.save(newPendingQuote(dto, budgetType));
+            created.add(quoteRequestMapper.toDTO(saved));
+            ids.add(saved.getId());
+            if (ids.size() % jdbcBatchSize == 0) {
+                entityManager.flush();
+                entityManager.clear();
+            }
+        }
+
+        eventPublisher.publishEvent(new QuoteBatchCreatedEvent(ids));
+        return created;
+    }
+
+    // Solicitação nova, PENDING
+    private QuoteRequest newPendingQuote(QuoteRequestDTO dto, BudgetType budgetType) {
         QuoteRequest entity = new QuoteRequest();
         mapDtoToEntity(dto, entity, budgetType);
-        entity.setId(UUID.randomUUID());
+        resetToPending(entity, budgetType);
+        // Sem ID: o save vira persist direto (um ID preenchido faria o Spring Data tentar merge com SELECT)
         entity.setCreatedAt(OffsetDateTime.now());
-        entity.setUpdatedAt(OffsetDateTime.now());
         entity.setDeletedAt(null);
+        return entity;
+    }
 
-        QuoteRequest saved = quoteRequestRepository.save(entity);
-        QuoteRequestDTO savedDTO = toDTO(saved);
-
-        // Monta o BODY HTML via template externo DO CLASSPATH!
-        String templateHtml;
-        String bodyHtml;
-        try {
-            templateHtml = TemplateUtils.loadTemplateFromClasspath("templates/orcamento_criado.html");
-            bodyHtml = TemplateUtils.processTemplate(
-                    templateHtml,
-                    savedDTO.getRequesterName(),
-                    budgetType.getBudgetTypeName(),
-                    savedDTO.getId().toString());
-        } catch (IOException e) {
-            // Fallback em caso de erro – recomenda-se logar o erro!
-            bodyHtml = "<h1>Olá, " + savedDTO.getRequesterName() + "!</h1><p>Seu orçamento foi criado com sucesso!</p>";
-        }
-
-        NotificationEventDTO event = new NotificationEventDTO(
-                savedDTO.getId(),
-                savedDTO.getRequesterEmail(),
-                savedDTO.getRequesterName(),
-                "Seu orçamento foi criado!",
-                bodyHtml);
-        notificationProducerService.sendNotification(event);
-
-        return savedDTO;
+    // Tarifa e método de cobrança do tipo de orçamento neste momento; unidades e total são preenchidos pelo pipeline
+    private static void resetToPending(QuoteRequest entity, BudgetType budgetType) {
+        entity.setBillingMethodUsed(budgetType.getBillingMethod().name());
+        entity.setFeeUsed(budgetType.getFee());
+        entity.setCountedUnits(0);
+        entity.setEstimatedTotal(BigDecimal.ZERO);
+        entity.setStatus(QuoteStatus.PENDING);
+        entity.setUpdatedAt(OffsetDateTime.now());
     }
 
-    /*** Atualizar solicitação ***/
+    /**
+     * Atualizar solicitação: volta para PENDING com a tarifa atual do tipo de orçamento e é contada de novo
+     * pelo {@link QuoteProcessingService}, como na criação (nada de contagem na thread da requisição).
+     * A notificação ainda não publicada é descartada e o pipeline grava outra com os dados novos; quem já
+     * foi notificado não recebe outro e-mail por causa do PUT.
+     */
+    @Transactional
     public QuoteRequestDTO update(UUID id, QuoteRequestDTO dto) {
         QuoteRequest entity = quoteRequestRepository.findById(id)
                 .filter(qr -> qr.getDeletedAt() == null)
                 .orElseThrow(() -> new RuntimeException("Solicitação não encontrada ou foi deletada."));
-        BudgetType budgetType = budgetTypeRepository.findById(dto.getBudgetTypeId())
-                .orElseThrow(() -> new RuntimeException(
-                        "Tipo de orçamento com ID " + dto.getBudgetTypeId() + " não encontrado."));
+        // SENT gravado antes de notified_at existir também conta como notificado
+        if (entity.getStatus() == QuoteStatus.SENT && entity.getNotifiedAt() == null) {
+            entity.setNotifiedAt(entity.getUpdatedAt());
+        }
+        BudgetType budgetType = findBudgetType(dto.budgetTypeId());
         mapDtoToEntity(dto, entity, budgetType);
-        entity.setUpdatedAt(OffsetDateTime.now());
+        resetToPending(entity, budgetType);
         QuoteRequest updated = quoteRequestRepository.save(entity);
-        return toDTO(updated);
+        outboxMessageRepository.deleteByQuoteRequestId(id);
+        eventPublisher.publishEvent(new QuoteUpdatedEvent(updated.getId()));
+        return quoteRequestMapper.toDTO(updated);
     }
 
-    /*** Soft Delete ***/
+    /*** Soft Delete (na transação da leitura: o UPDATE da entidade gerenciada leva o created_at da partição) ***/
+    @Transactional
     public void softDelete(UUID id) {
         QuoteRequest entity = quoteRequestRepository.findById(id)
                 .filter(qr -> qr.getDeletedAt() == null)
@@ -178,4 +260,14 @@ public class QuoteRequestService {
         entity.setDeletedAt(OffsetDateTime.now());
         quoteRequestRepository.save(entity);
     }
+
+    /**
+     * Soft delete em lote: um único UPDATE para todos os IDs, sem carregar as entidades.
+     *
+     * @return quantas solicitações foram deletadas (IDs inexistentes ou já deletados são ignorados)
+     */
+    @Transactional
+    public int softDeleteAll(Collection<UUID> ids) {
+        return quoteRequestRepository.softDeleteAll(ids.toArray(UUID[]::new));
+    }
 }
\ No newline at end of file
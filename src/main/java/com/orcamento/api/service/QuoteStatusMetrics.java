@@ -0,0 +1,53 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.repository.QuoteRequestRepository;
+import com.orcamento.api.repository.QuoteRequestRepository.StatusCount;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gauges {@code quotes.status{status=...}}: quantas solicitações ativas (não deletadas) estão em cada
+ * {@link QuoteStatus}. PENDING crescendo sem parar indica pipeline ou relay do outbox parados.
+ * <p>
+ * O valor vem de um GROUP BY em intervalo fixo ({@code metrics.quotes.status-refresh-ms}), não de uma
+ * consulta por scrape: a carga no banco não depende de quantos Prometheus raspam quantas instâncias.
+ */
+@Component
+public class QuoteStatusMetrics {
+
+    static final String METRIC_NAME = "quotes.status";
+
+    private final QuoteRequestRepository quoteRequestRepository;
+
+    private final Map<QuoteStatus, AtomicLong> counts = new EnumMap<>(QuoteStatus.class);
+
+    public QuoteStatusMetrics(QuoteRequestRepository quoteRequestRepository, MeterRegistry meterRegistry) {
+        this.quoteRequestRepository = quoteRequestRepository;
+        for (QuoteStatus status : QuoteStatus.values()) {
+            AtomicLong count = new AtomicLong();
+            counts.put(status, count);
+            Gauge.builder(METRIC_NAME, count, AtomicLong::get)
+                    .description("Solicitações ativas por status")
+                    .tag("status", status.name())
+                    .register(meterRegistry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${metrics.quotes.status-refresh-ms:30000}")
+    public void refresh() {
+        Map<QuoteStatus, Long> latest = new EnumMap<>(QuoteStatus.class);
+        for (StatusCount row : quoteRequestRepository.countActiveByStatus()) {
+            latest.put(row.getStatus(), row.getTotal());
+        }
+        // Status sem nenhuma linha voltam a zero
+        counts.forEach((status, count) -> count.set(latest.getOrDefault(status, 0L)));
+    }
+}
@@ -0,0 +1,20 @@
+package com.orcamento.api.service;
+
+import java.util.UUID;
+
+/**
+ * Publicado quando um PUT devolve a solicitação para PENDING (novo documento, tipo ou dados do cliente).
+ * Assim como o {@link QuoteCreatedEvent}, o pipeline só o recebe depois do commit.
+ */
+public class QuoteUpdatedEvent {
+
+    private final UUID quoteRequestId;
+
+    public QuoteUpdatedEvent(UUID quoteRequestId) {
+        this.quoteRequestId = quoteRequestId;
+    }
+
+    public UUID getQuoteRequestId() {
+        return quoteRequestId;
+    }
+}
@@ -0,0 +1,58 @@
+package com.orcamento.api.service.document;
+
+import com.orcamento.api.entity.enums.BillingMethod;
+
+/**
+ * Resultado imutável da contagem de um documento.
+ * Guarda as quatro unidades juntas para que trocar o método de faturamento não exija nova leitura.
+ */
+public final class DocumentCounts {
+
+    private final long words;
+    private final long paragraphs;
+    private final long characters;
+    private final long pages;
+
+    public DocumentCounts(long words, long paragraphs, long characters, long pages) {
+        this.words = words;
+        this.paragraphs = paragraphs;
+        this.characters = characters;
+        this.pages = pages;
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getParagraphs() {
+        return paragraphs;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    public long getPages() {
+        return pages;
+    }
+
+    /*** Quantidade de unidades cobráveis para o método informado ***/
+    public long unitsFor(BillingMethod billingMethod) {
+        return switch (billingMethod) {
+            case WORD -> words;
+            case PARAGRAPH -> paragraphs;
+            case CHARACTER -> characters;
+            case PAGE -> pages;
+        };
+    }
+
+    @Override
+    public String toString() {
+        return "DocumentCounts{" +
+                "words=" + words +
+                ", paragraphs=" + paragraphs +
+                ", characters=" + characters +
+                ", pages=" + pages +
+                '}';
+    }
+}
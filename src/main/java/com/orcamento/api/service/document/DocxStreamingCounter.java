@@ -0,0 +1,160 @@
+package com.orcamento.api.service.document;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.file.Path;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipFile;
+
+/**
+ * Contagem de DOCX orientada a eventos: lê {@code word/document.xml} direto do zip com StAX,
+ * sem montar a árvore do {@code XWPFDocument}. A heap usada depende só do buffer do parser,
+ * não do tamanho do documento.
+ * <p>
+ * Conta o texto dos elementos {@code w:t}, trata {@code w:tab}/{@code w:br} como espaço em branco
+ * e encerra um parágrafo a cada {@code </w:p>} do corpo. O número de páginas vem de {@code docProps/app.xml}.
+ * <p>
+ * Caixas de texto e formas vêm duas vezes em {@code mc:AlternateContent} (o {@code mc:Choice} do Word 2010+
+ * e o {@code mc:Fallback} em VML): só o {@code mc:Choice} é lido. Os parágrafos de dentro da caixa
+ * ({@code w:txbxContent}) ficam aninhados no parágrafo que a ancora; o texto deles conta uma vez, separado
+ * por espaço, e só o {@code </w:p>} mais externo encerra o parágrafo — a mesma quantidade de parágrafos do
+ * {@code XWPFDocument}, que ignora o texto das caixas.
+ */
+public final class DocxStreamingCounter {
+
+    private static final String WORD_NS = "http://schemas.openxmlformats.org/wordprocessingml/2006/main";
+    private static final String MARKUP_COMPATIBILITY_NS = "http://schemas.openxmlformats.org/markup-compatibility/2006";
+    private static final String DOCUMENT_ENTRY = "word/document.xml";
+    private static final String APP_PROPERTIES_ENTRY = "docProps/app.xml";
+
+    private static final XMLInputFactory XML_INPUT_FACTORY = createInputFactory();
+
+    private DocxStreamingCounter() {
+    }
+
+    /**
+     * Alimenta o contador com o texto do documento.
+     *
+     * @return número de páginas registrado pelo editor em docProps/app.xml, ou 0 se não houver
+     */
+    public static long count(Path path, UnitCounter counter) throws IOException {
+        try (ZipFile zip = new ZipFile(path.toFile())) {
+            ZipEntry document = zip.getEntry(DOCUMENT_ENTRY);
+            if (document == null) {
+                throw new IOException("DOCX inválido: " + DOCUMENT_ENTRY + " não encontrado");
+            }
+            try (InputStream in = zip.getInputStream(document)) {
+                countDocumentXml(in, counter);
+            }
+
+            ZipEntry appProperties = zip.getEntry(APP_PROPERTIES_ENTRY);
+            if (appProperties == null) {
+                return 0;
+            }
+            try (InputStream in = zip.getInputStream(appProperties)) {
+                return readPages(in);
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("DOCX inválido: " + e.getMessage(), e);
+        }
+    }
+
+    private static void countDocumentXml(InputStream in, UnitCounter counter) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            boolean inText = false;
+            int paragraphDepth = 0;
+            while (reader.hasNext()) {
+                switch (reader.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> {
+                        if (WORD_NS.equals(reader.getNamespaceURI())) {
+                            switch (reader.getLocalName()) {
+                                case "t" -> inText = true;
+                                case "tab" -> counter.write(' ');
+                                case "br", "cr" -> counter.write('\n');
+                                case "p" -> {
+                                    if (paragraphDepth++ > 0) {
+                                        counter.write(' ');
+                                    }
+                                }
+                                default -> { }
+                            }
+                        } else if (MARKUP_COMPATIBILITY_NS.equals(reader.getNamespaceURI())
+                                && "Fallback".equals(reader.getLocalName())) {
+                            skipElement(reader);
+                        }
+                    }
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> {
+                        if (inText) {
+                            // Lê direto do buffer do parser, sem criar String por trecho
+                            counter.write(reader.getTextCharacters(), reader.getTextStart(), reader.getTextLength());
+                        }
+                    }
+                    case XMLStreamConstants.END_ELEMENT -> {
+                        if (WORD_NS.equals(reader.getNamespaceURI())) {
+                            switch (reader.getLocalName()) {
+                                case "t" -> inText = false;
+                                case "p" -> {
+                                    if (--paragraphDepth > 0) {
+                                        counter.write(' '); // fim de parágrafo de caixa de texto
+                                    } else {
+                                        paragraphDepth = 0;
+                                        counter.endParagraph();
+                                    }
+                                }
+                                default -> { }
+                            }
+                        }
+                    }
+                    default -> { }
+                }
+            }
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Avança até o fim do elemento atual (o reader está no START_ELEMENT dele)
+    private static void skipElement(XMLStreamReader reader) throws XMLStreamException {
+        int depth = 1;
+        while (depth > 0) {
+            switch (reader.next()) {
+                case XMLStreamConstants.START_ELEMENT -> depth++;
+                case XMLStreamConstants.END_ELEMENT -> depth--;
+                default -> { }
+            }
+        }
+    }
+
+    private static long readPages(InputStream in) throws XMLStreamException {
+        XMLStreamReader reader = XML_INPUT_FACTORY.createXMLStreamReader(in);
+        try {
+            while (reader.hasNext()) {
+                if (reader.next() == XMLStreamConstants.START_ELEMENT && "Pages".equals(reader.getLocalName())) {
+                    String value = reader.getElementText().trim();
+                    try {
+                        return Long.parseLong(value);
+                    } catch (NumberFormatException e) {
+                        return 0;
+                    }
+                }
+            }
+            return 0;
+        } finally {
+            reader.close();
+        }
+    }
+
+    // Sem DTD nem entidades externas: o XML vem do cliente (proteção contra XXE)
+    private static XMLInputFactory createInputFactory() {
+        XMLInputFactory factory = XMLInputFactory.newDefaultFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        factory.setProperty(XMLInputFactory.IS_COALESCING, false);
+        return factory;
+    }
+}
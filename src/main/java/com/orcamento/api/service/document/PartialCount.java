@@ -0,0 +1,102 @@
+package com.orcamento.api.service.document;
+
+/**
+ * Contagem parcial de um trecho do documento (ex.: um intervalo de páginas de um PDF),
+ * com o estado das bordas necessário para juntar trechos vizinhos contados em paralelo.
+ * <p>
+ * {@link #merge(PartialCount)} é associativo e produz exatamente o mesmo resultado da contagem
+ * sequencial: uma palavra que atravessa a borda (ex.: "contra-" no fim de uma página e "to" no
+ * início da seguinte) ou um parágrafo que continua na próxima página não são contados duas vezes.
+ */
+public final class PartialCount {
+
+    static final PartialCount EMPTY = new PartialCount(0, 0, 0, true, false,
+            false, false, false, false, false, false, false);
+
+    private final long words;
+    private final long characters;
+    private final long closedParagraphs;
+
+    // Borda inicial
+    private final boolean empty;
+    private final boolean onlyNewlines;
+    private final boolean joinsOpenWord;       // continua uma palavra aberta (primeiro char é texto)
+    private final boolean joinsHyphenatedWord; // continua uma palavra hifenizada (só quebras de linha antes do texto)
+    private final boolean hasParagraphBreak;
+    private final boolean headHasText;         // há texto antes da primeira quebra de parágrafo
+
+    // Borda final
+    private final boolean endsInWord;
+    private final boolean endsHyphenated;
+    private final boolean endsWithOpenParagraph;
+
+    PartialCount(long words, long characters, long closedParagraphs,
+                 boolean empty, boolean onlyNewlines, boolean joinsOpenWord, boolean joinsHyphenatedWord,
+                 boolean hasParagraphBreak, boolean headHasText,
+                 boolean endsInWord, boolean endsHyphenated, boolean endsWithOpenParagraph) {
+        this.words = words;
+        this.characters = characters;
+        this.closedParagraphs = closedParagraphs;
+        this.empty = empty;
+        this.onlyNewlines = onlyNewlines;
+        this.joinsOpenWord = joinsOpenWord;
+        this.joinsHyphenatedWord = joinsHyphenatedWord;
+        this.hasParagraphBreak = hasParagraphBreak;
+        this.headHasText = headHasText;
+        this.endsInWord = endsInWord;
+        this.endsHyphenated = endsHyphenated;
+        this.endsWithOpenParagraph = endsWithOpenParagraph;
+    }
+
+    /*** Junta este trecho com o trecho imediatamente seguinte ***/
+    public PartialCount merge(PartialCount next) {
+        if (empty) return next;
+        if (next.empty) return this;
+
+        boolean wordContinues = endsHyphenated
+                ? next.joinsHyphenatedWord
+                : endsInWord && next.joinsOpenWord;
+
+        // Sem quebra no início do próximo trecho, o primeiro parágrafo dele só é contado se tiver texto próprio
+        boolean paragraphContinues = next.hasParagraphBreak && !next.headHasText && endsWithOpenParagraph;
+
+        boolean mergedEndsInWord;
+        boolean mergedEndsHyphenated;
+        if (next.onlyNewlines) {
+            // Quebras de linha preservam apenas a palavra hifenizada
+            mergedEndsHyphenated = endsHyphenated;
+            mergedEndsInWord = endsHyphenated;
+        } else {
+            mergedEndsHyphenated = next.endsHyphenated;
+            mergedEndsInWord = next.endsInWord;
+        }
+
+        return new PartialCount(
+                words + next.words - (wordContinues ? 1 : 0),
+                characters + next.characters,
+                closedParagraphs + next.closedParagraphs + (paragraphContinues ? 1 : 0),
+                false,
+                onlyNewlines && next.onlyNewlines,
+                joinsOpenWord,
+                onlyNewlines ? next.joinsHyphenatedWord : joinsHyphenatedWord,
+                hasParagraphBreak || next.hasParagraphBreak,
+                hasParagraphBreak ? headHasText : (headHasText || next.headHasText),
+                mergedEndsInWord,
+                mergedEndsHyphenated,
+                next.hasParagraphBreak ? next.endsWithOpenParagraph : (endsWithOpenParagraph || next.endsWithOpenParagraph));
+    }
+
+    /*** Fecha o último parágrafo pendente e devolve o resultado final ***/
+    public DocumentCounts toCounts(long pages) {
+        long paragraphs = closedParagraphs + (endsWithOpenParagraph ? 1 : 0);
+        return new DocumentCounts(words, paragraphs, characters, pages);
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+}
@@ -0,0 +1,99 @@
+package com.orcamento.api.service.document;
+
+import org.apache.pdfbox.Loader;
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.text.PDFTextStripper;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.util.concurrent.RecursiveTask;
+
+/**
+ * Conta um intervalo de páginas de um PDF, dividindo-o ao meio no fork-join pool enquanto
+ * o intervalo for maior que {@code pagesPerTask}.
+ * <p>
+ * Cada folha abre a sua própria instância de {@link PDDocument} (que não é thread-safe);
+ * os resultados parciais são juntados por {@link PartialCount#merge(PartialCount)} respeitando as bordas.
+ */
+public class PdfPageRangeTask extends RecursiveTask<PartialCount> {
+
+    private final Path path;
+    private final int startPage;
+    private final int endPage;
+    private final int pagesPerTask;
+
+    public PdfPageRangeTask(Path path, int startPage, int endPage, int pagesPerTask) {
+        this.path = path;
+        this.startPage = startPage;
+        this.endPage = endPage;
+        this.pagesPerTask = Math.max(1, pagesPerTask);
+    }
+
+    @Override
+    protected PartialCount compute() {
+        int pages = endPage - startPage + 1;
+        if (pages <= pagesPerTask) {
+            try (PDDocument document = Loader.loadPDF(path.toFile(), IOUtils.createTempFileOnlyStreamCache())) {
+                return countRange(document, startPage, endPage);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        }
+
+        int middle = startPage + pages / 2 - 1;
+        PdfPageRangeTask left = new PdfPageRangeTask(path, startPage, middle, pagesPerTask);
+        PdfPageRangeTask right = new PdfPageRangeTask(path, middle + 1, endPage, pagesPerTask);
+        left.fork();
+        PartialCount rightCount = right.compute();
+        return left.join().merge(rightCount);
+    }
+
+    /*** Extrai as páginas [startPage, endPage] uma a uma, direto para o contador ***/
+    public static PartialCount countRange(PDDocument document, int startPage, int endPage) throws IOException {
+        UnitCounter counter = new UnitCounter(false);
+        PDFTextStripper stripper = new CountingTextStripper();
+        for (int page = startPage; page <= endPage; page++) {
+            stripper.setStartPage(page);
+            stripper.setEndPage(page);
+            stripper.writeText(document, counter);
+        }
+        return counter.toPartial();
+    }
+
+    /**
+     * Marca os fins de parágrafo para o {@link UnitCounter}. O último parágrafo de cada página recebe
+     * o separador fraco, para que uma palavra hifenizada na virada de página não seja contada duas vezes.
+     */
+    private static final class CountingTextStripper extends PDFTextStripper {
+
+        private boolean paragraphEndPending;
+
+        @Override
+        protected void writeParagraphStart() throws IOException {
+            writePendingParagraphEnd(UnitCounter.PARAGRAPH_SEPARATOR);
+            super.writeParagraphStart();
+        }
+
+        @Override
+        protected void writeParagraphEnd() throws IOException {
+            writePendingParagraphEnd(UnitCounter.PARAGRAPH_SEPARATOR);
+            super.writeParagraphEnd();
+            paragraphEndPending = true;
+        }
+
+        @Override
+        protected void writePageEnd() throws IOException {
+            writePendingParagraphEnd(UnitCounter.SOFT_PARAGRAPH_SEPARATOR);
+            super.writePageEnd();
+        }
+
+        private void writePendingParagraphEnd(char separator) throws IOException {
+            if (paragraphEndPending) {
+                paragraphEndPending = false;
+                output.write(separator);
+            }
+        }
+    }
+}
@@ -0,0 +1,200 @@
+package com.orcamento.api.service.document;
+
+import java.io.Writer;
+
+/**
+ * Contador incremental de palavras, caracteres e parágrafos.
+ * <p>
+ * Recebe o texto em pedaços (como um {@link Writer}) e mantém apenas o estado da posição atual,
+ * então o documento nunca precisa ser materializado inteiro em uma String.
+ * <ul>
+ *   <li>Caractere: todo code point que não seja espaço em branco (contagem "sem espaços").</li>
+ *   <li>Palavra: sequência contínua de caracteres que não são espaço em branco. Uma palavra
+ *       terminada em hífen seguida de quebra de linha continua na linha seguinte ("contra-\nto").</li>
+ *   <li>Parágrafo: bloco com texto terminado por {@link #PARAGRAPH_SEPARATOR} ou, quando habilitado,
+ *       por uma linha em branco.</li>
+ * </ul>
+ */
+public class UnitCounter extends Writer {
+
+    /** Separador de parágrafo Unicode, usado pelos extratores para marcar o fim de um parágrafo. */
+    public static final char PARAGRAPH_SEPARATOR = '\u2029';
+
+    /**
+     * Fim de parágrafo "fraco", usado no fim de uma página: encerra o parágrafo, a menos que a última
+     * palavra esteja hifenizada (nesse caso a palavra e o parágrafo continuam na página seguinte).
+     * Deve vir depois de texto do mesmo trecho, nunca como primeiro caractere de uma contagem parcial.
+     */
+    public static final char SOFT_PARAGRAPH_SEPARATOR = '\u2028';
+
+    private final boolean blankLineEndsParagraph;
+
+    private long words;
+    private long characters;
+    private long paragraphs;
+
+    private boolean inWord;
+    private boolean hyphenated;
+    private boolean paragraphHasText;
+    private int consecutiveNewlines;
+
+    // Estado da borda inicial, usado por toPartial()
+    private boolean empty = true;
+    private boolean onlyNewlines = true;
+    private boolean prefixResolved;
+    private boolean leadingLineBreak;
+    private boolean joinsOpenWord;
+    private boolean joinsHyphenatedWord;
+    private boolean hasParagraphBreak;
+    private boolean headHasText;
+
+    public UnitCounter() {
+        this(true);
+    }
+
+    /**
+     * @param blankLineEndsParagraph se uma linha em branco também encerra o parágrafo (texto puro).
+     *                               Extratores que marcam parágrafos com {@link #PARAGRAPH_SEPARATOR}
+     *                               (PDF, DOCX) desabilitam, o que permite usar {@link #toPartial()}.
+     */
+    public UnitCounter(boolean blankLineEndsParagraph) {
+        this.blankLineEndsParagraph = blankLineEndsParagraph;
+    }
+
+    @Override
+    public void write(char[] buffer, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            accept(buffer[i]);
+        }
+    }
+
+    @Override
+    public void write(String text) {
+        write(text, 0, text.length());
+    }
+
+    @Override
+    public void write(String text, int offset, int length) {
+        int end = offset + length;
+        for (int i = offset; i < end; i++) {
+            accept(text.charAt(i));
+        }
+    }
+
+    @Override
+    public void write(int c) {
+        accept((char) c);
+    }
+
+    /*** Encerra explicitamente o parágrafo atual (ex.: fim de um w:p no DOCX) ***/
+    public void endParagraph() {
+        empty = false;
+        onlyNewlines = false;
+        resolvePrefix(false);
+        if (paragraphHasText) {
+            paragraphs++;
+        }
+        if (!hasParagraphBreak) {
+            hasParagraphBreak = true;
+            headHasText = paragraphHasText;
+        }
+        paragraphHasText = false;
+        inWord = false;
+        hyphenated = false;
+        consecutiveNewlines = 0;
+    }
+
+    private void accept(char c) {
+        empty = false;
+
+        if (c == '\n' || c == '\r') {
+            leadingLineBreak |= !prefixResolved;
+            // Só a palavra hifenizada sobrevive à quebra de linha
+            inWord = hyphenated;
+            if (c == '\n' && blankLineEndsParagraph && ++consecutiveNewlines >= 2) {
+                endParagraph();
+            }
+            return;
+        }
+
+        onlyNewlines = false;
+        if (c == PARAGRAPH_SEPARATOR || (c == SOFT_PARAGRAPH_SEPARATOR && !hyphenated)) {
+            endParagraph();
+            return;
+        }
+        if (c == SOFT_PARAGRAPH_SEPARATOR) {
+            return;
+        }
+        if (isBlank(c)) {
+            resolvePrefix(false);
+            inWord = false;
+            hyphenated = false;
+            return;
+        }
+
+        resolvePrefix(true);
+        consecutiveNewlines = 0;
+        paragraphHasText = true;
+        if (!inWord) {
+            words++;
+            inWord = true;
+        }
+        hyphenated = c == '-';
+        // O segundo char de um par surrogate não é um novo caractere
+        if (!Character.isLowSurrogate(c)) {
+            characters++;
+        }
+    }
+
+    // Registra como o trecho começa: texto logo no início (ou só depois de quebras de linha) continua a palavra anterior
+    private void resolvePrefix(boolean text) {
+        if (!prefixResolved) {
+            prefixResolved = true;
+            joinsHyphenatedWord = text;
+            joinsOpenWord = text && !leadingLineBreak;
+        }
+    }
+
+    private static boolean isBlank(char c) {
+        return Character.isWhitespace(c) || Character.isSpaceChar(c);
+    }
+
+    /*** Fecha o parágrafo pendente e devolve o resultado, usando o número de páginas informado ***/
+    public DocumentCounts toCounts(long pages) {
+        endParagraph();
+        return new DocumentCounts(words, paragraphs, characters, pages);
+    }
+
+    /*** Estado parcial deste trecho, para ser combinado com trechos vizinhos contados em paralelo ***/
+    public PartialCount toPartial() {
+        if (blankLineEndsParagraph) {
+            throw new IllegalStateException("Contagem parcial exige parágrafos marcados explicitamente.");
+        }
+        if (empty) {
+            return PartialCount.EMPTY;
+        }
+        return new PartialCount(words, characters, paragraphs,
+                false, onlyNewlines, joinsOpenWord, joinsHyphenatedWord,
+                hasParagraphBreak, hasParagraphBreak ? headHasText : paragraphHasText,
+                inWord, hyphenated, paragraphHasText);
+    }
+
+    public long getWords() {
+        return words;
+    }
+
+    public long getCharacters() {
+        return characters;
+    }
+
+    @Override
+    public void flush() {
+        // Nada a descarregar: o contador não tem buffer
+    }
+
+    @Override
+    public void close() {
+        // Nada a liberar
+    }
+}
@@ -0,0 +1,106 @@
+package com.orcamento.api.template;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Template já dividido em segmentos: trechos literais intercalados com placeholders {@code {{NOME}}}.
+ * <p>
+ * O parse acontece uma vez; renderizar é só percorrer os segmentos anexando ao {@link StringBuilder},
+ * sem as cópias intermediárias de uma cadeia de {@code String.replace}. Os valores são escapados
+ * para HTML. Um placeholder sem valor no mapa é mantido como está no texto (mesmo comportamento do
+ * {@code String.replace}); valor nulo vira texto vazio.
+ */
+public final class CompiledTemplate {
+
+    private static final String OPEN = "{{";
+    private static final String CLOSE = "}}";
+
+    // literals.length == placeholders.length + 1
+    private final String[] literals;
+    private final String[] placeholders;
+    private final int literalLength;
+
+    private CompiledTemplate(String[] literals, String[] placeholders) {
+        this.literals = literals;
+        this.placeholders = placeholders;
+        int length = 0;
+        for (String literal : literals) {
+            length += literal.length();
+        }
+        this.literalLength = length;
+    }
+
+    /*** Divide o texto em segmentos; marcações inválidas ou não fechadas ficam como texto literal ***/
+    public static CompiledTemplate compile(String source) {
+        List<String> literals = new ArrayList<>();
+        List<String> placeholders = new ArrayList<>();
+        StringBuilder literal = new StringBuilder();
+
+        int position = 0;
+        while (position < source.length()) {
+            int open = source.indexOf(OPEN, position);
+            if (open < 0) {
+                break;
+            }
+            int close = source.indexOf(CLOSE, open + OPEN.length());
+            if (close < 0) {
+                break;
+            }
+            String name = source.substring(open + OPEN.length(), close).trim();
+            literal.append(source, position, open);
+            if (isValidName(name)) {
+                literals.add(literal.toString());
+                literal.setLength(0);
+                placeholders.add(name);
+            } else {
+                literal.append(source, open, close + CLOSE.length());
+            }
+            position = close + CLOSE.length();
+        }
+        literal.append(source, position, source.length());
+        literals.add(literal.toString());
+
+        return new CompiledTemplate(literals.toArray(String[]::new), placeholders.toArray(String[]::new));
+    }
+
+    private static boolean isValidName(String name) {
+        if (name.isEmpty()) {
+            return false;
+        }
+        for (int i = 0; i < name.length(); i++) {
+            char c = name.charAt(i);
+            if (!(Character.isLetterOrDigit(c) || c == '_' || c == '.' || c == '-')) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /*** Anexa o resultado ao buffer informado ***/
+    public void render(Map<String, ?> values, StringBuilder out) {
+        out.append(literals[0]);
+        for (int i = 0; i < placeholders.length; i++) {
+            String name = placeholders[i];
+            if (values.containsKey(name)) {
+                Object value = values.get(name);
+                if (value != null) {
+                    HtmlEscaper.escape(value.toString(), out);
+                }
+            } else {
+                out.append(OPEN).append(name).append(CLOSE);
+            }
+            out.append(literals[i + 1]);
+        }
+    }
+
+    /*** Tamanho do texto fixo, usado para dimensionar o buffer ***/
+    public int literalLength() {
+        return literalLength;
+    }
+
+    public List<String> placeholders() {
+        return List.of(placeholders);
+    }
+}
@@ -0,0 +1,37 @@
+package com.orcamento.api.template;
+
+/**
+ * Escape de texto para conteúdo e atributos HTML ({@code & < > " '}).
+ */
+public final class HtmlEscaper {
+
+    private HtmlEscaper() {
+    }
+
+    public static void escape(CharSequence text, StringBuilder out) {
+        int length = text.length();
+        int start = 0;
+        for (int i = 0; i < length; i++) {
+            String replacement = switch (text.charAt(i)) {
+                case '&' -> "&amp;";
+                case '<' -> "&lt;";
+                case '>' -> "&gt;";
+                case '"' -> "&quot;";
+                case '\'' -> "&#39;";
+                default -> null;
+            };
+            if (replacement != null) {
+                // Copia em bloco o trecho que não precisa de escape
+                out.append(text, start, i).append(replacement);
+                start = i + 1;
+            }
+        }
+        out.append(text, start, length);
+    }
+
+    public static String escape(CharSequence text) {
+        StringBuilder out = new StringBuilder(text.length() + 16);
+        escape(text, out);
+        return out.toString();
+    }
+}
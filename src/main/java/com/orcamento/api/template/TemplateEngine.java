@@ -0,0 +1,87 @@
+package com.orcamento.api.template;
+
+import jakarta.annotation.PostConstruct;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.support.PathMatchingResourcePatternResolver;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Templates HTML compilados na inicialização.
+ * <p>
+ * Cada arquivo em {@code templates.location} é lido e dividido em segmentos uma única vez
+ * ({@link CompiledTemplate}); renderizar não toca no classpath. Os {@link StringBuilder} usados na
+ * renderização vêm de um pool pequeno e são devolvidos depois, então o custo por e-mail é uma
+ * única cópia para a String final.
+ */
+@Component
+public class TemplateEngine {
+
+    private static final Logger log = LoggerFactory.getLogger(TemplateEngine.class);
+
+    // Buffers que cresceram além disso (valores enormes) não voltam para o pool
+    private static final int MAX_POOLED_CAPACITY = 64 * 1024;
+
+    private final Map<String, CompiledTemplate> templates = new ConcurrentHashMap<>();
+
+    private final BlockingQueue<StringBuilder> buffers = new ArrayBlockingQueue<>(16);
+
+    @Value("${templates.location:classpath*:templates/*.html}")
+    private String location;
+
+    /*** Compila todos os templates do classpath; chamado na inicialização ***/
+    @PostConstruct
+    public void loadTemplates() throws IOException {
+        Resource[] resources = new PathMatchingResourcePatternResolver().getResources(location);
+        for (Resource resource : resources) {
+            try (InputStream in = resource.getInputStream()) {
+                register(resource.getFilename(), new String(in.readAllBytes(), StandardCharsets.UTF_8));
+            }
+        }
+        log.info("{} template(s) compilado(s) de {}", templates.size(), location);
+    }
+
+    public void register(String name, String source) {
+        templates.put(name, CompiledTemplate.compile(source));
+    }
+
+    public boolean contains(String name) {
+        return templates.containsKey(name);
+    }
+
+    /**
+     * Renderiza o template com os valores informados (escapados para HTML).
+     *
+     * @throws IllegalArgumentException se o template não existir
+     */
+    public String render(String name, Map<String, ?> values) {
+        CompiledTemplate template = templates.get(name);
+        if (template == null) {
+            throw new IllegalArgumentException("Template não encontrado: " + name);
+        }
+
+        StringBuilder buffer = buffers.poll();
+        if (buffer == null) {
+            buffer = new StringBuilder(template.literalLength() + 256);
+        }
+        try {
+            template.render(values, buffer);
+            return buffer.toString();
+        } finally {
+            if (buffer.capacity() <= MAX_POOLED_CAPACITY) {
+                buffer.setLength(0);
+                buffers.offer(buffer);
+            }
+        }
+    }
+}
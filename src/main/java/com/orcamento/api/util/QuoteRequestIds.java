@@ -0,0 +1,69 @@
+package com.orcamento.api.util;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * IDs das solicitações de orçamento: UUID versão 7 (RFC 9562), com o created_at da linha em milissegundos
+ * nos 48 bits iniciais.
+ * <p>
+ * quote_requests é particionada por created_at e a PK é {@code (id, created_at)}: um filtro só pelo id visita
+ * todas as partições. Com o instante embutido no ID, as buscas por ID levam a faixa de created_at e o
+ * PostgreSQL descarta as outras partições. IDs gerados pelo banco (UUID v4 do {@code gen_random_uuid()}, linhas
+ * anteriores a esta geração) não têm instante: a faixa deles é a tabela inteira.
+ * <p>
+ * O banco não garante mais a unicidade do id sozinho (só do par com created_at); ela depende apenas da geração:
+ * 74 bits aleatórios por milissegundo no v7, 122 no v4.
+ */
+public final class QuoteRequestIds {
+
+    // Faixa dos IDs sem instante; limites que o PostgreSQL e o H2 aceitam como timestamptz
+    static final OffsetDateTime EARLIEST = OffsetDateTime.of(1, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    static final OffsetDateTime LATEST = OffsetDateTime.of(9999, 12, 31, 0, 0, 0, 0, ZoneOffset.UTC);
+
+    private static final CreatedAtRange ANY = new CreatedAtRange(EARLIEST, LATEST);
+
+    /*** Faixa [from, to) de created_at ***/
+    public record CreatedAtRange(OffsetDateTime from, OffsetDateTime to) {
+    }
+
+    private QuoteRequestIds() {
+    }
+
+    /*** UUID v7 com o instante de createdAt; o resto vem de um UUID aleatório (SecureRandom) ***/
+    public static UUID newId(OffsetDateTime createdAt) {
+        UUID random = UUID.randomUUID();
+        long msb = (createdAt.toInstant().toEpochMilli() << 16)
+                | 0x7000L
+                | (random.getMostSignificantBits() & 0x0FFFL);
+        // Os 2 bits de variante já vêm certos no UUID aleatório
+        return new UUID(msb, random.getLeastSignificantBits());
+    }
+
+    /*** Milissegundo de criação embutido no ID, ou a tabela inteira para IDs que não são v7 ***/
+    public static CreatedAtRange createdAtRange(UUID id) {
+        if (id.version() != 7) {
+            return ANY;
+        }
+        OffsetDateTime from = Instant.ofEpochMilli(id.getMostSignificantBits() >>> 16).atOffset(ZoneOffset.UTC);
+        return new CreatedAtRange(from, from.plusNanos(1_000_000));
+    }
+
+    /*** Menor faixa que cobre todos os IDs (operações em lote) ***/
+    public static CreatedAtRange createdAtRange(Collection<UUID> ids) {
+        OffsetDateTime from = null;
+        OffsetDateTime to = null;
+        for (UUID id : ids) {
+            CreatedAtRange range = createdAtRange(id);
+            if (range == ANY) {
+                return ANY;
+            }
+            from = from == null || range.from().isBefore(from) ? range.from() : from;
+            to = to == null || range.to().isAfter(to) ? range.to() : to;
+        }
+        return from == null ? ANY : new CreatedAtRange(from, to);
+    }
+}
@@ -4,6 +4,11 @@ import java.io.IOException;
 import java.io.InputStream;
 import java.nio.charset.StandardCharsets;
 
+/**
+ * @deprecated relê o arquivo a cada chamada e copia o template a cada {@code replace}, sem escapar os valores.
+ * Use {@link com.orcamento.api.template.TemplateEngine}. Mantido como referência no TemplateBenchmark.
+ */
+@Deprecated
 public class TemplateUtils {
 
     // Lê o arquivo do classpath (src/main/resources)
@@ -0,0 +1,121 @@
+-- ========================================
+-- quote_requests particionada por mês (RANGE em created_at, meses em UTC).
+-- Uma transação só, com lock exclusivo curto: nenhuma linha é copiada e nenhum índice é construído.
+--   * a tabela atual vira a partição quote_requests_legacy (MINVALUE até o corte da V9);
+--   * os índices da nova tabela são criados vazios e o ATTACH adota os índices equivalentes da legacy;
+--   * o CHECK validado na V9 dispensa a varredura do ATTACH.
+-- As partições futuras são criadas pelo QuoteRequestPartitionMaintenance (create_quote_requests_partition);
+-- a legacy sai inteira quando o corte passar da retenção.
+-- ========================================
+
+ALTER TABLE quote_requests RENAME TO quote_requests_legacy;
+
+-- PK (id) -> PK (id, created_at), aproveitando o índice da V9
+ALTER TABLE quote_requests_legacy DROP CONSTRAINT quote_requests_pkey;
+ALTER TABLE quote_requests_legacy
+  ADD CONSTRAINT quote_requests_legacy_pkey PRIMARY KEY USING INDEX quote_requests_id_created_at_key;
+
+-- Os nomes originais (índices e FK) passam para a tabela particionada
+ALTER INDEX idx_quote_requests_budget_type_id RENAME TO quote_requests_legacy_budget_type_id_idx;
+ALTER INDEX idx_quote_requests_active_created_id RENAME TO quote_requests_legacy_active_created_id_idx;
+ALTER INDEX idx_quote_requests_deleted_deleted_at RENAME TO quote_requests_legacy_deleted_deleted_at_idx;
+ALTER INDEX idx_quote_requests_active_status_updated RENAME TO quote_requests_legacy_active_status_updated_idx;
+
+ALTER TABLE quote_requests_legacy
+  RENAME CONSTRAINT quote_requests_budget_type_id_fkey TO quote_requests_legacy_budget_type_id_fkey;
+
+-- O trigger passa a ser da tabela particionada (e é clonado para cada partição)
+DROP TRIGGER IF EXISTS trg_quote_requests_updated_at ON quote_requests_legacy;
+
+CREATE TABLE quote_requests (
+  id uuid NOT NULL DEFAULT gen_random_uuid(),
+  budget_type_id uuid NOT NULL REFERENCES budget_types(id),
+
+  requester_name varchar(150) NOT NULL,
+  requester_email varchar(254) NULL,
+
+  document_original_name varchar(255) NOT NULL,
+  document_storage_key varchar(500) NOT NULL,
+  document_mime_type varchar(100) NULL,
+  document_size_bytes bigint NULL,
+
+  billing_method_used VARCHAR(30) NOT NULL DEFAULT 'WORD',
+
+  fee_used numeric(12,2) NOT NULL DEFAULT 0.00,
+
+  counted_units integer NOT NULL DEFAULT 0,
+  estimated_total numeric(12,2) NOT NULL DEFAULT 0.00,
+
+  status VARCHAR(30) NOT NULL DEFAULT 'PENDING',
+
+  created_at timestamptz NOT NULL DEFAULT now(),
+  updated_at timestamptz NOT NULL DEFAULT now(),
+  deleted_at timestamptz NULL,
+
+  PRIMARY KEY (id, created_at)
+) PARTITION BY RANGE (created_at);
+
+-- Mesmas definições da V1/V7/V8
+CREATE INDEX idx_quote_requests_budget_type_id ON quote_requests (budget_type_id);
+CREATE INDEX idx_quote_requests_active_created_id
+  ON quote_requests (created_at DESC, id DESC)
+  WHERE deleted_at IS NULL;
+CREATE INDEX idx_quote_requests_deleted_deleted_at
+  ON quote_requests (deleted_at DESC, id DESC)
+  WHERE deleted_at IS NOT NULL;
+CREATE INDEX idx_quote_requests_active_status_updated
+  ON quote_requests (status, updated_at) INCLUDE (id)
+  WHERE deleted_at IS NULL;
+
+CREATE TRIGGER trg_quote_requests_updated_at
+BEFORE UPDATE ON quote_requests
+FOR EACH ROW
+EXECUTE FUNCTION set_updated_at();
+
+DO $$
+BEGIN
+  EXECUTE format('ALTER TABLE quote_requests ATTACH PARTITION quote_requests_legacy '
+                 'FOR VALUES FROM (MINVALUE) TO (%L)',
+                 quote_requests_partitioning_cutover()::timestamp AT TIME ZONE 'UTC');
+END $$;
+
+ALTER TABLE quote_requests_legacy DROP CONSTRAINT quote_requests_before_partitioning;
+
+-- ========================================
+-- Cria a partição do mês de p_month (UTC), se ainda não existir. Devolve o nome criado ou NULL.
+-- CREATE TABLE ... PARTITION OF trava a tabela-mãe: o lock_timeout evita enfileirar as consultas
+-- atrás de uma transação longa (a manutenção tenta de novo na próxima rodada).
+-- ========================================
+CREATE OR REPLACE FUNCTION create_quote_requests_partition(p_month date)
+RETURNS text AS $$
+DECLARE
+  v_start date := date_trunc('month', p_month)::date;
+  v_name text := 'quote_requests_p' || to_char(v_start, 'YYYY_MM');
+BEGIN
+  IF to_regclass(v_name) IS NOT NULL THEN
+    RETURN NULL;
+  END IF;
+  EXECUTE format('CREATE TABLE %I PARTITION OF quote_requests FOR VALUES FROM (%L) TO (%L)',
+                 v_name,
+                 v_start::timestamp AT TIME ZONE 'UTC',
+                 (v_start + interval '1 month')::timestamp AT TIME ZONE 'UTC');
+  RETURN v_name;
+END;
+$$ LANGUAGE plpgsql
+SET lock_timeout = '5s';
+
+-- Partições atuais com os limites já convertidos (range_from NULL = MINVALUE)
+CREATE OR REPLACE VIEW quote_requests_partitions AS
+SELECT c.relname::text AS name,
+       substring(pg_get_expr(c.relpartbound, c.oid) FROM $$FROM \('([^']+)'\)$$)::timestamptz AS range_from,
+       substring(pg_get_expr(c.relpartbound, c.oid) FROM $$TO \('([^']+)'\)$$)::timestamptz AS range_to,
+       i.inhdetachpending AS detach_pending
+FROM pg_inherits i
+JOIN pg_class c ON c.oid = i.inhrelid
+WHERE i.inhparent = 'quote_requests'::regclass;
+
+-- Mês do corte e os dois seguintes
+SELECT create_quote_requests_partition((quote_requests_partitioning_cutover() + make_interval(months => m))::date)
+FROM generate_series(0, 2) AS m;
+
+DROP FUNCTION quote_requests_partitioning_cutover();
@@ -0,0 +1,19 @@
+-- ========================================
+-- Versão da solicitação em cada notificação do outbox e data em que a solicitação foi notificada.
+-- O relay só marca SENT a solicitação que ainda está no updated_at que gerou a notificação: um PUT
+-- depois da gravação no outbox a devolve para PENDING, e a notificação da versão anterior não a tira de lá.
+-- ========================================
+ALTER TABLE notification_outbox ADD COLUMN IF NOT EXISTS quote_updated_at timestamptz;
+
+-- Linhas gravadas antes desta versão valem para o estado atual da solicitação (o outbox é pequeno)
+UPDATE notification_outbox o SET quote_updated_at = q.updated_at
+FROM quote_requests q
+WHERE q.id = o.quote_request_id AND o.quote_updated_at IS NULL;
+
+-- Sem solicitação correspondente: a notificação ainda sai, mas não marca nada
+UPDATE notification_outbox SET quote_updated_at = created_at WHERE quote_updated_at IS NULL;
+
+ALTER TABLE notification_outbox ALTER COLUMN quote_updated_at SET NOT NULL;
+
+-- Sem DEFAULT: só altera o catálogo, sem reescrever as partições
+ALTER TABLE quote_requests ADD COLUMN IF NOT EXISTS notified_at timestamptz;
@@ -0,0 +1,14 @@
+-- ========================================
+-- Cache de contagens indexado também pelo tipo detectado e pela versão dos contadores: os mesmos bytes
+-- enviados como text/plain e como application/pdf passam por extratores diferentes, e uma mudança nos
+-- extratores (DocumentCountCache.COUNTER_VERSION) não pode reaproveitar as contagens antigas.
+-- ========================================
+
+-- As linhas existentes não dizem com que tipo foram contadas; é só cache, elas são refeitas sob demanda
+TRUNCATE document_counts;
+
+ALTER TABLE document_counts
+  ADD COLUMN document_type varchar(100) NOT NULL,
+  ADD COLUMN counter_version integer NOT NULL,
+  DROP CONSTRAINT document_counts_pkey,
+  ADD PRIMARY KEY (content_sha256, document_type, counter_version);
@@ -0,0 +1,8 @@
+-- ========================================
+-- Desde a V10 a PK é (id, created_at): o banco não garante mais a unicidade do id sozinho.
+-- Ela depende só da geração do UUID. A aplicação grava UUID v7 com o instante do created_at
+-- (QuoteRequestIds), o que permite às buscas por id levar a faixa de created_at e podar as partições;
+-- o DEFAULT gen_random_uuid() (v4) continua valendo para inserções fora da aplicação.
+-- ========================================
+COMMENT ON COLUMN quote_requests.id IS
+  'UUID v7 com o instante de created_at (v4 nas linhas antigas). Unicidade garantida só pela geração: a PK é (id, created_at).';
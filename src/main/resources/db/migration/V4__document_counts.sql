@@ -0,0 +1,12 @@
+-- ========================================
+-- Cache persistente da contagem de documentos, indexado pelo SHA-256 do conteúdo.
+-- Guarda as quatro unidades juntas: trocar o método de cobrança não exige nova contagem.
+-- ========================================
+CREATE TABLE IF NOT EXISTS document_counts (
+  content_sha256 varchar(64) PRIMARY KEY,
+  words bigint NOT NULL,
+  paragraphs bigint NOT NULL,
+  characters bigint NOT NULL,
+  pages bigint NOT NULL,
+  created_at timestamptz NOT NULL DEFAULT now()
+);
@@ -0,0 +1,18 @@
+-- ========================================
+-- Notifica as instâncias da API quando budget_types muda, para invalidarem o cache em memória.
+-- FOR EACH STATEMENT: um UPDATE em várias linhas gera uma notificação só
+-- (e o Postgres já junta notificações iguais dentro da mesma transação).
+-- ========================================
+CREATE OR REPLACE FUNCTION notify_budget_types_changed()
+RETURNS trigger AS $$
+BEGIN
+  PERFORM pg_notify('budget_types_changed', TG_OP);
+  RETURN NULL;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS trg_budget_types_notify ON budget_types;
+CREATE TRIGGER trg_budget_types_notify
+AFTER INSERT OR UPDATE OR DELETE OR TRUNCATE ON budget_types
+FOR EACH STATEMENT
+EXECUTE FUNCTION notify_budget_types_changed();
@@ -0,0 +1,19 @@
+-- ========================================
+-- Outbox das notificações: a linha é gravada na mesma transação que atualiza quote_requests
+-- e um relay em segundo plano a publica no RabbitMQ (entrega pelo menos uma vez).
+-- Sem FK para quote_requests de propósito: a tabela de solicitações poderá ser particionada.
+-- ========================================
+CREATE TABLE IF NOT EXISTS notification_outbox (
+  id bigserial PRIMARY KEY,
+  quote_request_id uuid NOT NULL,
+  payload jsonb NOT NULL,
+  attempts integer NOT NULL DEFAULT 0,
+  available_at timestamptz NOT NULL DEFAULT now(),
+  created_at timestamptz NOT NULL DEFAULT now()
+);
+
+-- Varredura do relay: linhas disponíveis em ordem de chegada
+CREATE INDEX IF NOT EXISTS idx_notification_outbox_available ON notification_outbox (available_at, id);
+-- No máximo uma notificação pendente por solicitação: duas instâncias (ou uma contagem mais lenta que a
+-- janela da varredura) processando a mesma solicitação não geram dois e-mails
+CREATE UNIQUE INDEX IF NOT EXISTS idx_notification_outbox_quote_request ON notification_outbox (quote_request_id);
@@ -0,0 +1,12 @@
+-- ========================================
+-- Índice da listagem por cursor (GET /quote-requests/cursor): mesma ordem do ORDER BY
+-- (created_at DESC, id DESC) e só as linhas ativas, então cada página é uma busca no índice
+-- seguida de LIMIT, independente da profundidade.
+--
+-- CONCURRENTLY não bloqueia escritas durante a criação, mas não roda dentro de transação
+-- (executeInTransaction=false no .conf ao lado). Se a criação falhar no meio, o índice fica
+-- INVALID e o IF NOT EXISTS passaria por cima dele: remova-o antes de rodar de novo.
+-- ========================================
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quote_requests_active_created_id
+  ON quote_requests (created_at DESC, id DESC)
+  WHERE deleted_at IS NULL;
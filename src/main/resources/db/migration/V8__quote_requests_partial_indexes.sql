@@ -0,0 +1,26 @@
+-- ========================================
+-- Índices parciais no formato das consultas dos repositórios. O índice simples em deleted_at
+-- quase não serve: a maioria das linhas tem deleted_at NULL e nenhuma listagem ordena por ele
+-- junto com o filtro. A listagem de ativas por createdAt (paginada e por cursor) já é servida
+-- pelo idx_quote_requests_active_created_id (V7), que o Postgres percorre nos dois sentidos.
+--
+-- CONCURRENTLY não bloqueia escritas durante a criação, mas não roda dentro de transação
+-- (executeInTransaction=false no .conf ao lado). Se a criação falhar no meio, o índice fica
+-- INVALID e o IF NOT EXISTS passaria por cima dele: remova-o antes de rodar de novo.
+-- ========================================
+
+-- GET /quote-requests/deleted: ORDER BY deleted_at (padrão desc) só sobre as deletadas,
+-- e o COUNT da página vira index-only scan
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quote_requests_deleted_deleted_at
+  ON quote_requests (deleted_at DESC, id DESC)
+  WHERE deleted_at IS NOT NULL;
+
+-- findStaleIds: status = ? AND updated_at < ? ORDER BY updated_at, devolvendo só o id
+-- (INCLUDE deixa a busca index-only). Também atende o GROUP BY status dos gauges.
+CREATE INDEX CONCURRENTLY IF NOT EXISTS idx_quote_requests_active_status_updated
+  ON quote_requests (status, updated_at) INCLUDE (id)
+  WHERE deleted_at IS NULL;
+
+-- Substituídos pelos índices parciais acima
+DROP INDEX CONCURRENTLY IF EXISTS idx_quote_requests_deleted_at;
+DROP INDEX CONCURRENTLY IF EXISTS idx_quote_requests_status;
@@ -0,0 +1,32 @@
+-- ========================================
+-- Preparação do particionamento mensal de quote_requests (V10), sem bloquear a tabela:
+-- tudo aqui roda fora de transação (executeInTransaction=false no .conf ao lado).
+--
+-- A tabela atual não é copiada: na V10 ela vira a partição quote_requests_legacy, com as linhas
+-- anteriores ao corte; dali em diante cada mês tem a sua partição. Para o ATTACH PARTITION da V10
+-- ser instantâneo, a tabela precisa já ter:
+--   * um índice único (id, created_at), que vira a PK (a PK de uma tabela particionada inclui a chave);
+--   * um CHECK validado que prove que todas as linhas ficam antes do corte.
+-- ========================================
+
+-- Primeiro dia (UTC) do mês em que começam as partições mensais: o mês seguinte, ou o outro se
+-- faltar menos de um dia para a virada (o CHECK abaixo já vale para os INSERTs até a V10 rodar)
+CREATE OR REPLACE FUNCTION quote_requests_partitioning_cutover()
+RETURNS date AS $$
+  SELECT (date_trunc('month', (now() + interval '1 day') AT TIME ZONE 'UTC') + interval '1 month')::date
+$$ LANGUAGE sql STABLE;
+
+CREATE UNIQUE INDEX CONCURRENTLY IF NOT EXISTS quote_requests_id_created_at_key
+  ON quote_requests (id, created_at);
+
+-- NOT VALID: só um lock curto para criar; o VALIDATE varre a tabela sem bloquear leituras nem escritas
+DO $$
+BEGIN
+  IF NOT EXISTS (SELECT 1 FROM pg_constraint WHERE conname = 'quote_requests_before_partitioning') THEN
+    EXECUTE format('ALTER TABLE quote_requests ADD CONSTRAINT quote_requests_before_partitioning '
+                   'CHECK (created_at < %L) NOT VALID',
+                   quote_requests_partitioning_cutover()::timestamp AT TIME ZONE 'UTC');
+  END IF;
+END $$;
+
+ALTER TABLE quote_requests VALIDATE CONSTRAINT quote_requests_before_partitioning;
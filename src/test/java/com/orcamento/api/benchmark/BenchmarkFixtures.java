@@ -0,0 +1,176 @@
+package com.orcamento.api.benchmark;
+
+import org.apache.pdfbox.io.IOUtils;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+
+import java.io.FilterOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.Random;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Documentos de tamanho fixo (1, 10, 100 MB...) para os benchmarks de contagem.
+ * <p>
+ * Gerar 100 MB leva bem mais que a medição, então os arquivos ficam em {@code target/jmh-fixtures} e são
+ * reaproveitados entre execuções ({@code mvn clean} apaga). O texto vem de um {@link Random} com semente fixa:
+ * o mesmo tamanho gera sempre o mesmo documento, e as palavras aleatórias não se comprimem a quase nada
+ * no zip do DOCX como um parágrafo repetido.
+ */
+final class BenchmarkFixtures {
+
+    private static final Path DIRECTORY = Paths.get("target", "jmh-fixtures");
+
+    private static final long MB = 1024L * 1024L;
+
+    // Página de PDF com o content stream sem compressão: ~52 linhas de ~90 caracteres
+    private static final int PDF_LINES_PER_PAGE = 52;
+    private static final long PDF_BYTES_PER_PAGE = 5_600;
+
+    private BenchmarkFixtures() {
+    }
+
+    static Path pdf(int megabytes) throws IOException {
+        Path path = DIRECTORY.resolve("contrato-" + megabytes + "mb.pdf");
+        if (!Files.exists(path)) {
+            generate(path, tmp -> writePdf(tmp, megabytes * MB));
+        }
+        return path;
+    }
+
+    static Path docx(int megabytes) throws IOException {
+        Path path = DIRECTORY.resolve("contrato-" + megabytes + "mb.docx");
+        if (!Files.exists(path)) {
+            generate(path, tmp -> writeDocx(tmp, megabytes * MB));
+        }
+        return path;
+    }
+
+    private static void writePdf(Path path, long targetBytes) throws IOException {
+        long pages = Math.max(1, targetBytes / PDF_BYTES_PER_PAGE);
+        Random random = new Random(42);
+        try (PDDocument document = new PDDocument(IOUtils.createTempFileOnlyStreamCache())) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN);
+            for (long p = 0; p < pages; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page,
+                        PDPageContentStream.AppendMode.OVERWRITE, false)) {
+                    content.beginText();
+                    content.setFont(font, 9);
+                    content.setLeading(13);
+                    content.newLineAtOffset(40, 740);
+                    for (int line = 0; line < PDF_LINES_PER_PAGE; line++) {
+                        content.showText(sentence(random, 90));
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(path.toFile());
+        }
+    }
+
+    // DOCX mínimo (content types, rels e document.xml) escrito em streaming, até o zip chegar ao tamanho
+    private static void writeDocx(Path path, long targetBytes) throws IOException {
+        Random random = new Random(42);
+        try (CountingOutputStream counter = new CountingOutputStream(Files.newOutputStream(path));
+             ZipOutputStream zip = new ZipOutputStream(counter)) {
+            zip.putNextEntry(new ZipEntry("[Content_Types].xml"));
+            zip.write(("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/word/document.xml\" ContentType=\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/>"
+                    + "</Types>").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("_rels/.rels"));
+            zip.write(("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Type=\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\" Target=\"word/document.xml\"/>"
+                    + "</Relationships>").getBytes(StandardCharsets.UTF_8));
+            zip.closeEntry();
+
+            zip.putNextEntry(new ZipEntry("word/document.xml"));
+            Writer xml = new OutputStreamWriter(zip, StandardCharsets.UTF_8);
+            xml.write("<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\"><w:body>");
+            while (counter.count < targetBytes) {
+                for (int i = 0; i < 100; i++) {
+                    xml.write("<w:p><w:r><w:t xml:space=\"preserve\">");
+                    xml.write(sentence(random, 400));
+                    xml.write("</w:t></w:r></w:p>");
+                }
+                xml.flush();
+            }
+            xml.write("</w:body></w:document>");
+            xml.flush();
+            zip.closeEntry();
+        }
+    }
+
+    private static String sentence(Random random, int length) {
+        StringBuilder text = new StringBuilder(length + 12);
+        while (text.length() < length) {
+            int wordLength = 2 + random.nextInt(9);
+            for (int i = 0; i < wordLength; i++) {
+                text.append((char) ('a' + random.nextInt(26)));
+            }
+            text.append(random.nextInt(12) == 0 ? ". " : " ");
+        }
+        return text.toString();
+    }
+
+    // Gera num arquivo temporário e só então move: uma execução interrompida não deixa fixture pela metade
+    private static void generate(Path path, FixtureWriter writer) throws IOException {
+        Files.createDirectories(DIRECTORY);
+        Path tmp = path.resolveSibling(path.getFileName() + ".tmp");
+        Files.deleteIfExists(tmp);
+        try {
+            writer.write(tmp);
+            Files.move(tmp, path, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(tmp);
+        }
+        System.err.printf("Fixture %s gerada (%.1f MB)%n", path, Files.size(path) / (double) MB);
+    }
+
+    @FunctionalInterface
+    private interface FixtureWriter {
+        void write(Path path) throws IOException;
+    }
+
+    private static final class CountingOutputStream extends FilterOutputStream {
+
+        long count;
+
+        CountingOutputStream(OutputStream out) {
+            super(out);
+        }
+
+        @Override
+        public void write(int b) throws IOException {
+            out.write(b);
+            count++;
+        }
+
+        @Override
+        public void write(byte[] b, int off, int len) throws IOException {
+            out.write(b, off, len);
+            count += len;
+        }
+    }
+}
@@ -0,0 +1,72 @@
+package com.orcamento.api.benchmark;
+
+import com.orcamento.api.service.DocumentProcessingService;
+import com.orcamento.api.service.document.DocumentCounts;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Tempo de contagem por tamanho de arquivo (1, 10 e 100 MB), com a configuração padrão do serviço
+ * (PDF paralelo acima de 64 páginas, DOCX em fluxo). Cada medição é uma contagem completa do arquivo:
+ * com 100 MB uma operação leva segundos, então o modo é SingleShotTime com várias repetições.
+ * <p>
+ * Os arquivos vêm de {@link BenchmarkFixtures}; a primeira execução gera os de 100 MB e demora mais.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="DocumentSizeBenchmark -p sizeMb=1,10"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.SingleShotTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class DocumentSizeBenchmark {
+
+    @Param({"pdf", "docx"})
+    public String type;
+
+    @Param({"1", "10", "100"})
+    public int sizeMb;
+
+    private Path document;
+    private String mimeType;
+    private ForkJoinPool pool;
+    private DocumentProcessingService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        if ("pdf".equals(type)) {
+            document = BenchmarkFixtures.pdf(sizeMb);
+            mimeType = DocumentProcessingService.MIME_PDF;
+        } else {
+            document = BenchmarkFixtures.docx(sizeMb);
+            mimeType = DocumentProcessingService.MIME_DOCX;
+        }
+
+        pool = new ForkJoinPool(Runtime.getRuntime().availableProcessors());
+        service = new DocumentProcessingService();
+        ReflectionTestUtils.setField(service, "storageBasePath", document.getParent().toString());
+        ReflectionTestUtils.setField(service, "pdfParallelThresholdPages", 64);
+        ReflectionTestUtils.setField(service, "pdfPagesPerTask", 16);
+        ReflectionTestUtils.setField(service, "documentCountingPool", pool);
+        ReflectionTestUtils.setField(service, "docxMode", "streaming");
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        pool.shutdown();
+    }
+
+    @Benchmark
+    public DocumentCounts count() {
+        return service.count(document, mimeType);
+    }
+}
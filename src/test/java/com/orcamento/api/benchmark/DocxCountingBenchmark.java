@@ -0,0 +1,82 @@
+package com.orcamento.api.benchmark;
+
+import com.orcamento.api.service.DocumentProcessingService;
+import com.orcamento.api.service.document.DocumentCounts;
+
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Leitura DOM (XWPFDocument) x leitura em fluxo (StAX) de um DOCX com texto e tabelas.
+ * Rodar com {@code -prof gc} para comparar a alocação por operação:
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="DocxCountingBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(value = 1, jvmArgs = {"-Xmx1g"})
+public class DocxCountingBenchmark {
+
+    @Param({"streaming", "dom"})
+    public String mode;
+
+    @Param({"2000"})
+    public int sections;
+
+    private Path storageDir;
+    private DocumentProcessingService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storageDir = Files.createTempDirectory("docx-bench");
+        writeContractDocx(storageDir.resolve("contrato.docx"), sections);
+
+        service = new DocumentProcessingService();
+        ReflectionTestUtils.setField(service, "storageBasePath", storageDir.toString());
+        ReflectionTestUtils.setField(service, "docxMode", mode);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(storageDir.resolve("contrato.docx"));
+        Files.deleteIfExists(storageDir);
+    }
+
+    @Benchmark
+    public DocumentCounts countDocx() {
+        // Direto pelo caminho: mede a extração, sem o cache de contagens
+        return service.count(storageDir.resolve("contrato.docx"), DocumentProcessingService.MIME_DOCX);
+    }
+
+    static void writeContractDocx(Path path, int sections) throws IOException {
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = Files.newOutputStream(path)) {
+            for (int i = 0; i < sections; i++) {
+                document.createParagraph().createRun().setText("Cláusula " + i
+                        + ". O contratante se obriga a pagar ao contratado o valor ajustado, em parcelas mensais,"
+                        + " corrigidas pelo índice oficial, sob pena de multa e juros de mora.");
+                if (i % 10 == 0) {
+                    XWPFTable table = document.createTable(4, 3);
+                    for (int row = 0; row < 4; row++) {
+                        for (int col = 0; col < 3; col++) {
+                            table.getRow(row).getCell(col).setText("Item " + row + "-" + col + " valor unitário");
+                        }
+                    }
+                }
+            }
+            document.write(out);
+        }
+    }
+}
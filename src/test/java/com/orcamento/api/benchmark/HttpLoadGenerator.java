@@ -0,0 +1,144 @@
+package com.orcamento.api.benchmark;
+
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Gerador de carga HTTP em malha fechada: N clientes simultâneos, cada um mandando a próxima requisição
+ * assim que a anterior responde. Usado para comparar a API com threads de plataforma x threads virtuais
+ * ({@code spring.threads.virtual.enabled}) sob o mesmo número de clientes.
+ * <p>
+ * Os clientes são threads virtuais, então 1000 clientes não custam 1000 threads do SO no gerador.
+ * A latência é medida por requisição, só depois do aquecimento, e os percentis são calculados sobre
+ * todas as amostras (sem histograma aproximado).
+ *
+ * <pre>
+ * ./mvnw -Ploadtest test-compile exec:exec -Dloadtest.args="url=http://localhost:8080/quote-requests/cursor?size=20 clients=1000 duration=60"
+ * </pre>
+ *
+ * Ou {@code scripts/loadtest.sh}, que sobe a API nos dois modos e roda esta classe contra cada um.
+ */
+public class HttpLoadGenerator {
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        URI uri = URI.create(options.getOrDefault("url", "http://localhost:8080/quote-requests/cursor?size=20"));
+        int clients = Integer.parseInt(options.getOrDefault("clients", "1000"));
+        Duration warmup = Duration.ofSeconds(Long.parseLong(options.getOrDefault("warmup", "15")));
+        Duration duration = Duration.ofSeconds(Long.parseLong(options.getOrDefault("duration", "60")));
+        String label = options.getOrDefault("label", "-");
+
+        Result result = run(uri, clients, warmup, duration);
+        System.out.println(result.format(label, clients));
+    }
+
+    static Result run(URI uri, int clients, Duration warmup, Duration duration) throws InterruptedException {
+        HttpClient http = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofSeconds(10))
+                .executor(Executors.newVirtualThreadPerTaskExecutor())
+                .build();
+        HttpRequest request = HttpRequest.newBuilder(uri).timeout(Duration.ofSeconds(30)).GET().build();
+
+        long measureFrom = System.nanoTime() + warmup.toNanos();
+        long measureUntil = measureFrom + duration.toNanos();
+        Samples[] samples = new Samples[clients];
+        AtomicLong errors = new AtomicLong();
+
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < clients; i++) {
+                Samples own = samples[i] = new Samples();
+                executor.execute(() -> {
+                    long now;
+                    while ((now = System.nanoTime()) < measureUntil) {
+                        boolean ok;
+                        try {
+                            HttpResponse<Void> response = http.send(request, HttpResponse.BodyHandlers.discarding());
+                            ok = response.statusCode() < 400;
+                        } catch (Exception e) {
+                            ok = false;
+                        }
+                        long end = System.nanoTime();
+                        if (now >= measureFrom) {
+                            if (ok) {
+                                own.add(end - now);
+                            } else {
+                                errors.incrementAndGet();
+                            }
+                        }
+                    }
+                });
+            }
+        }
+
+        long total = 0;
+        for (Samples s : samples) {
+            total += s.size;
+        }
+        long[] all = new long[(int) total];
+        int offset = 0;
+        for (Samples s : samples) {
+            System.arraycopy(s.values, 0, all, offset, s.size);
+            offset += s.size;
+        }
+        Arrays.sort(all);
+        return new Result(all, errors.get(), duration);
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int eq = arg.indexOf('=');
+            if (eq < 0) {
+                throw new IllegalArgumentException("Argumento deve ser chave=valor: " + arg);
+            }
+            options.put(arg.substring(0, eq).replaceFirst("^--", ""), arg.substring(eq + 1));
+        }
+        return options;
+    }
+
+    // Latências de um cliente; cada instância só é escrita pela sua própria thread
+    private static final class Samples {
+        long[] values = new long[1024];
+        int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+
+    record Result(long[] sortedNanos, long errors, Duration duration) {
+
+        double throughput() {
+            return sortedNanos.length / (duration.toNanos() / 1e9);
+        }
+
+        double percentileMillis(double p) {
+            if (sortedNanos.length == 0) {
+                return Double.NaN;
+            }
+            int index = (int) Math.ceil(p / 100.0 * sortedNanos.length) - 1;
+            return sortedNanos[Math.max(0, index)] / 1e6;
+        }
+
+        String format(String label, int clients) {
+            return String.format(Locale.ROOT,
+                    "%s clients=%d requests=%d errors=%d throughput=%.1f/s p50=%.2fms p90=%.2fms p99=%.2fms max=%.2fms",
+                    label, clients, sortedNanos.length, errors, throughput(),
+                    percentileMillis(50), percentileMillis(90), percentileMillis(99), percentileMillis(100));
+        }
+    }
+}
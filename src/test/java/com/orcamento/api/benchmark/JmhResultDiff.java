@@ -0,0 +1,94 @@
+package com.orcamento.api.benchmark;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.StringJoiner;
+
+/**
+ * Compara dois resultados do JMH em JSON ({@code -rf json}, gerado pelo profile {@code benchmark})
+ * e imprime, por benchmark + parâmetros, o score das duas versões e a variação percentual.
+ * <p>
+ * Regressão é piora acima do limite (%): em throughput, queda do score; nos modos de tempo
+ * (avgt, sample, ss), aumento. Havendo regressão, termina com código 1 para o CI poder falhar o job.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark-diff test-compile exec:exec -Djmh.baseline=jmh-0.0.1.json -Djmh.current=target/jmh-0.0.2.json -Djmh.threshold=10
+ * </pre>
+ */
+public class JmhResultDiff {
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    public static void main(String[] args) throws IOException {
+        if (args.length < 2) {
+            System.err.println("Uso: JmhResultDiff <baseline.json> <atual.json> [limite %]");
+            System.exit(2);
+        }
+        Map<String, JsonNode> baseline = read(Paths.get(args[0]));
+        Map<String, JsonNode> current = read(Paths.get(args[1]));
+        double threshold = args.length > 2 ? Double.parseDouble(args[2]) : 10.0;
+
+        int regressions = 0;
+        System.out.printf(Locale.ROOT, "%-70s %6s %14s %14s %9s%n", "Benchmark", "Modo", "Baseline", "Atual", "Delta");
+        for (Map.Entry<String, JsonNode> entry : current.entrySet()) {
+            JsonNode now = entry.getValue();
+            JsonNode before = baseline.get(entry.getKey());
+            String mode = now.path("mode").asText();
+            String unit = now.path("primaryMetric").path("scoreUnit").asText();
+            double score = now.path("primaryMetric").path("score").asDouble();
+            if (before == null) {
+                System.out.printf(Locale.ROOT, "%-70s %6s %14s %14.3f %9s  %s%n", entry.getKey(), mode, "-", score, "novo", unit);
+                continue;
+            }
+            double previous = before.path("primaryMetric").path("score").asDouble();
+            double delta = previous == 0 ? 0 : (score - previous) / previous * 100;
+            // Em throughput maior é melhor; nos demais modos o score é tempo
+            double worsening = "thrpt".equals(mode) ? -delta : delta;
+            boolean regression = worsening > threshold;
+            if (regression) {
+                regressions++;
+            }
+            System.out.printf(Locale.ROOT, "%-70s %6s %14.3f %14.3f %+8.1f%%  %s%s%n", entry.getKey(), mode,
+                    previous, score, delta, unit, regression ? "  <== REGRESSÃO" : "");
+        }
+        for (String removed : baseline.keySet()) {
+            if (!current.containsKey(removed)) {
+                System.out.printf(Locale.ROOT, "%-70s %6s %14s %14s %9s%n", removed, "", "", "-", "removido");
+            }
+        }
+
+        System.out.printf(Locale.ROOT, "%n%d regressão(ões) acima de %.1f%%%n", regressions, threshold);
+        if (regressions > 0) {
+            System.exit(1);
+        }
+    }
+
+    // Chave: nome curto do benchmark + parâmetros, ex. "DocumentSizeBenchmark.count:sizeMb=10,type=pdf"
+    static Map<String, JsonNode> read(Path path) throws IOException {
+        Map<String, JsonNode> results = new LinkedHashMap<>();
+        for (JsonNode result : MAPPER.readTree(path.toFile())) {
+            String benchmark = result.path("benchmark").asText();
+            String key = benchmark.substring(benchmark.lastIndexOf('.', benchmark.lastIndexOf('.') - 1) + 1);
+            JsonNode params = result.path("params");
+            if (params.size() > 0) {
+                StringJoiner joiner = new StringJoiner(",", ":", "");
+                Iterator<Map.Entry<String, JsonNode>> fields = params.fields();
+                while (fields.hasNext()) {
+                    Map.Entry<String, JsonNode> param = fields.next();
+                    joiner.add(param.getKey() + "=" + param.getValue().asText());
+                }
+                key += joiner;
+            }
+            results.put(key, result);
+        }
+        return results;
+    }
+}
@@ -0,0 +1,107 @@
+package com.orcamento.api.benchmark;
+
+import com.orcamento.api.dto.BudgetTypeDTO;
+import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.mapper.BudgetTypeMapper;
+import com.orcamento.api.mapper.BudgetTypeMapperImpl;
+import com.orcamento.api.mapper.QuoteRequestMapper;
+import com.orcamento.api.mapper.QuoteRequestMapperImpl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Alocação por linha mapeada: conversões escritas à mão (como eram nos services, listas por
+ * {@code stream().map().collect()}) x mappers gerados pelo MapStruct (lista pré-dimensionada).
+ * Cada operação mapeia {@value #ROWS} linhas; com {@code -prof gc}, {@code gc.alloc.rate.norm}
+ * sai em bytes por linha.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="MappingAllocationBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@OperationsPerInvocation(MappingAllocationBenchmark.ROWS)
+public class MappingAllocationBenchmark {
+
+    static final int ROWS = 100;
+
+    private final BudgetTypeMapper budgetTypeMapper = new BudgetTypeMapperImpl();
+    private final QuoteRequestMapper quoteRequestMapper = new QuoteRequestMapperImpl();
+
+    private List<BudgetType> budgetTypes;
+    private List<QuoteRequest> quotes;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        OffsetDateTime now = OffsetDateTime.now();
+        budgetTypes = new ArrayList<>(ROWS);
+        quotes = new ArrayList<>(ROWS);
+        for (int i = 0; i < ROWS; i++) {
+            BudgetType budgetType = new BudgetType(UUID.randomUUID(), "Tipo " + i, BillingMethod.WORD,
+                    new BigDecimal("0.25"), "Descrição " + i, "tipo" + i + "@empresa.com", now, now, null);
+            budgetTypes.add(budgetType);
+            quotes.add(new QuoteRequest(UUID.randomUUID(), budgetType, "Cliente " + i, "cliente" + i + "@email.com",
+                    "documento-" + i + ".pdf", "2024/05/documento-" + i + ".pdf", "application/pdf", 250_000L + i,
+                    "WORD", new BigDecimal("0.25"), 4_000 + i, new BigDecimal("1000.00"), QuoteStatus.SENT,
+                    now, now, null));
+        }
+    }
+
+    @Benchmark
+    public List<BudgetTypeDTO> budgetTypesManual() {
+        return budgetTypes.stream().map(MappingAllocationBenchmark::manualToDTO).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<BudgetTypeDTO> budgetTypesMapper() {
+        return budgetTypeMapper.toDTOs(budgetTypes);
+    }
+
+    @Benchmark
+    public List<QuoteRequestDTO> quotesManual() {
+        return quotes.stream().map(MappingAllocationBenchmark::manualToDTO).collect(Collectors.toList());
+    }
+
+    @Benchmark
+    public List<QuoteRequestDTO> quotesMapper() {
+        List<QuoteRequestDTO> result = new ArrayList<>(quotes.size());
+        for (QuoteRequest quote : quotes) {
+            result.add(quoteRequestMapper.toDTO(quote));
+        }
+        return result;
+    }
+
+    // ===== CONVERSÕES ANTERIORES (referência) =====
+
+    private static BudgetTypeDTO manualToDTO(BudgetType entity) {
+        return new BudgetTypeDTO(entity.getId(), entity.getBudgetTypeName(), entity.getBillingMethod(), entity.getFee(),
+                entity.getDescription(), entity.getTargetEmail(), entity.getCreatedAt(), entity.getUpdatedAt(),
+                entity.getDeletedAt());
+    }
+
+    private static QuoteRequestDTO manualToDTO(QuoteRequest entity) {
+        return new QuoteRequestDTO(entity.getId(),
+                entity.getBudgetType() != null ? entity.getBudgetType().getId() : null,
+                entity.getRequesterName(), entity.getRequesterEmail(), entity.getDocumentOriginalName(),
+                entity.getDocumentStorageKey(), entity.getDocumentMimeType(), entity.getDocumentSizeBytes(),
+                entity.getBillingMethodUsed(), entity.getFeeUsed(), entity.getCountedUnits(), entity.getEstimatedTotal(),
+                entity.getStatus(), entity.getCreatedAt(), entity.getUpdatedAt(), entity.getDeletedAt());
+    }
+}
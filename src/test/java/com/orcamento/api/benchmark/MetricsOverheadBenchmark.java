@@ -0,0 +1,71 @@
+package com.orcamento.api.benchmark;
+
+import io.micrometer.core.annotation.Timed;
+import io.micrometer.core.aop.TimedAspect;
+import io.micrometer.prometheus.PrometheusConfig;
+import io.micrometer.prometheus.PrometheusMeterRegistry;
+import org.openjdk.jmh.annotations.*;
+import org.openjdk.jmh.infra.Blackhole;
+import org.springframework.aop.aspectj.annotation.AspectJProxyFactory;
+import org.springframework.aop.framework.ProxyFactory;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Custo do {@code @Timed} (TimedAspect + PrometheusMeterRegistry com histograma) por chamada de método
+ * de service. A referência é o mesmo alvo atrás de um proxy sem advice, como os services já são por causa
+ * do {@code @Transactional}: a diferença entre os dois é só o timer.
+ * <p>
+ * {@code work} simula o corpo do método sem banco (0 = só o custo fixo). Para o percentual no caminho real,
+ * divida a diferença em ns/op pelo p50 do endpoint ({@code http.server.requests}, em ms): com um timer na
+ * casa de centenas de ns e endpoints de alguns ms com banco, fica bem abaixo de 1%.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="MetricsOverheadBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class MetricsOverheadBenchmark {
+
+    @Param({"0", "1000"})
+    public int work;
+
+    private Target plain;
+    private Target timed;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        ProxyFactory plainFactory = new ProxyFactory(new Target());
+        plainFactory.setProxyTargetClass(true);
+        plain = (Target) plainFactory.getProxy();
+
+        AspectJProxyFactory timedFactory = new AspectJProxyFactory(new Target());
+        timedFactory.setProxyTargetClass(true);
+        timedFactory.addAspect(new TimedAspect(new PrometheusMeterRegistry(PrometheusConfig.DEFAULT)));
+        timed = timedFactory.getProxy();
+    }
+
+    @Benchmark
+    public long semTimer() {
+        return plain.call(work);
+    }
+
+    @Benchmark
+    public long comTimed() {
+        return timed.call(work);
+    }
+
+    @Timed(value = "service.method", histogram = true)
+    public static class Target {
+
+        public long call(int work) {
+            Blackhole.consumeCPU(work);
+            return work;
+        }
+    }
+}
@@ -0,0 +1,106 @@
+package com.orcamento.api.benchmark;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.ObjectWriter;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.orcamento.api.dto.PageResponseDTO;
+import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.dto.QuoteRequestFields;
+import com.orcamento.api.entity.enums.QuoteStatus;
+
+import org.openjdk.jmh.annotations.*;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+
+/**
+ * Vazão da serialização da resposta de {@code GET /quote-requests} ({@code Page<QuoteRequestDTO>}) com um
+ * ObjectMapper configurado como o do Spring Boot (JavaTimeModule, datas ISO-8601), escrevendo num
+ * OutputStream como o conversor HTTP faz. {@code accessors=blackbird} é a configuração da aplicação
+ * ({@code JacksonConfig}); {@code reflection} é o Jackson sem o módulo.
+ * <p>
+ * {@code serializePage} é o {@code PageImpl} que o endpoint devolvia (referência); {@code serializeEnvelope}
+ * e {@code serializeEnvelopeFields} são a resposta atual, com e sem {@code ?fields=id,status,estimatedTotal},
+ * incluindo a montagem do envelope feita no controller.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="PageSerializationBenchmark -p pageSize=1000 -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class PageSerializationBenchmark {
+
+    @Param({"10", "100", "1000"})
+    public int pageSize;
+
+    @Param({"reflection", "blackbird"})
+    public String accessors;
+
+    private ObjectWriter writer;
+    private Page<QuoteRequestDTO> page;
+    private final Function<QuoteRequestDTO, Map<String, Object>> selector =
+            QuoteRequestFields.selector("id,status,estimatedTotal");
+    private final ByteArrayOutputStream output = new ByteArrayOutputStream(512 * 1024);
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        Jackson2ObjectMapperBuilder builder = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        if ("blackbird".equals(accessors)) {
+            builder.modulesToInstall(new BlackbirdModule());
+        }
+        ObjectMapper objectMapper = builder.build();
+        writer = objectMapper.writer();
+
+        List<QuoteRequestDTO> content = new ArrayList<>(pageSize);
+        UUID budgetTypeId = UUID.randomUUID();
+        OffsetDateTime now = OffsetDateTime.now();
+        for (int i = 0; i < pageSize; i++) {
+            content.add(new QuoteRequestDTO(UUID.randomUUID(), budgetTypeId, "Cliente " + i, "cliente" + i + "@email.com",
+                    "documento-" + i + ".pdf", "2024/05/documento-" + i + ".pdf", "application/pdf", 250_000L + i,
+                    "WORD", new BigDecimal("0.25"), 4_000 + i, new BigDecimal("1000.00").add(BigDecimal.valueOf(i)),
+                    QuoteStatus.SENT, now.minusMinutes(i), now.minusMinutes(i), null));
+        }
+        page = new PageImpl<>(content, PageRequest.of(3, pageSize, Sort.by(Sort.Direction.DESC, "createdAt")), 10_000);
+    }
+
+    @Benchmark
+    public int serializePage() throws IOException {
+        output.reset();
+        writer.writeValue(output, page);
+        return output.size();
+    }
+
+    @Benchmark
+    public int serializeEnvelope() throws IOException {
+        output.reset();
+        writer.writeValue(output, PageResponseDTO.of(page));
+        return output.size();
+    }
+
+    @Benchmark
+    public int serializeEnvelopeFields() throws IOException {
+        output.reset();
+        writer.writeValue(output, PageResponseDTO.of(page, selector));
+        return output.size();
+    }
+}
@@ -0,0 +1,93 @@
+package com.orcamento.api.benchmark;
+
+import com.orcamento.api.service.DocumentProcessingService;
+import com.orcamento.api.service.document.DocumentCounts;
+
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Vazão da contagem de um PDF de 400 páginas com diferentes graus de paralelismo.
+ * parallelism=1 usa o caminho sequencial (abaixo do limite), os demais dividem em intervalos de 16 páginas.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="PdfCountingBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MINUTES)
+@Warmup(iterations = 2, time = 5)
+@Measurement(iterations = 3, time = 10)
+@Fork(1)
+public class PdfCountingBenchmark {
+
+    private static final int PAGES = 400;
+
+    @Param({"1", "2", "4", "8"})
+    public int parallelism;
+
+    private Path storageDir;
+    private ForkJoinPool pool;
+    private DocumentProcessingService service;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        storageDir = Files.createTempDirectory("pdf-bench");
+        writeContractPdf(storageDir.resolve("contrato.pdf"));
+
+        pool = new ForkJoinPool(parallelism);
+        service = new DocumentProcessingService();
+        ReflectionTestUtils.setField(service, "storageBasePath", storageDir.toString());
+        ReflectionTestUtils.setField(service, "pdfParallelThresholdPages", parallelism == 1 ? Integer.MAX_VALUE : 64);
+        ReflectionTestUtils.setField(service, "pdfPagesPerTask", 16);
+        ReflectionTestUtils.setField(service, "documentCountingPool", pool);
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() throws IOException {
+        pool.shutdown();
+        Files.deleteIfExists(storageDir.resolve("contrato.pdf"));
+        Files.deleteIfExists(storageDir);
+    }
+
+    @Benchmark
+    public DocumentCounts countPdf() {
+        // Direto pelo caminho: mede a extração, sem o cache de contagens
+        return service.count(storageDir.resolve("contrato.pdf"), "application/pdf");
+    }
+
+    static void writeContractPdf(Path path) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.TIMES_ROMAN);
+            for (int p = 0; p < PAGES; p++) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 10);
+                    content.setLeading(13);
+                    content.newLineAtOffset(50, 740);
+                    for (int line = 0; line < 52; line++) {
+                        content.showText("Clausula " + p + "." + line
+                                + " O contratante se obriga a pagar ao contratado o valor ajustado no prazo.");
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(path.toFile());
+        }
+    }
+}
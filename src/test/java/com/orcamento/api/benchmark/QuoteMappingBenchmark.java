@@ -0,0 +1,82 @@
+package com.orcamento.api.benchmark;
+
+import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.converter.BillingMethodConverter;
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.mapper.QuoteRequestMapper;
+import com.orcamento.api.mapper.QuoteRequestMapperImpl;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Conversões do caminho de leitura/gravação de solicitações: {@link QuoteRequestMapper} (toDTO e
+ * updateEntity) e o round-trip do {@link BillingMethodConverter} (coluna billing_method).
+ * A comparação com as conversões escritas à mão está no {@link MappingAllocationBenchmark}.
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="QuoteMappingBenchmark"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class QuoteMappingBenchmark {
+
+    private static final BillingMethod[] BILLING_METHODS = BillingMethod.values();
+
+    private final BillingMethodConverter converter = new BillingMethodConverter();
+
+    private final QuoteRequestMapper mapper = new QuoteRequestMapperImpl();
+
+    private BudgetType budgetType;
+    private QuoteRequest entity;
+    private QuoteRequestDTO dto;
+    private int billingIndex;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        budgetType = new BudgetType();
+        budgetType.setId(UUID.randomUUID());
+        budgetType.setBudgetTypeName("Tradução Juramentada");
+        budgetType.setBillingMethod(BillingMethod.WORD);
+        budgetType.setFee(new BigDecimal("0.25"));
+
+        OffsetDateTime now = OffsetDateTime.now();
+        entity = new QuoteRequest(UUID.randomUUID(), budgetType, "Maria Aparecida de Souza", "maria@email.com",
+                "contrato-prestacao-servicos.pdf", "2024/05/contrato-prestacao-servicos.pdf", "application/pdf",
+                1_048_576L, "WORD", new BigDecimal("0.25"), 12_345, new BigDecimal("3086.25"), QuoteStatus.SENT,
+                now, now, null);
+        dto = mapper.toDTO(entity);
+    }
+
+    @Benchmark
+    public QuoteRequestDTO toDTO() {
+        return mapper.toDTO(entity);
+    }
+
+    @Benchmark
+    public QuoteRequest updateEntity() {
+        QuoteRequest target = new QuoteRequest();
+        target.setBudgetType(budgetType);
+        mapper.updateEntity(dto, target);
+        return target;
+    }
+
+    /*** Gravação e leitura da coluna, passando por todos os valores do enum ***/
+    @Benchmark
+    public BillingMethod billingMethodRoundTrip() {
+        BillingMethod value = BILLING_METHODS[(billingIndex++ & Integer.MAX_VALUE) % BILLING_METHODS.length];
+        return converter.convertToEntityAttribute(converter.convertToDatabaseColumn(value));
+    }
+}
@@ -0,0 +1,65 @@
+package com.orcamento.api.benchmark;
+
+import com.orcamento.api.template.TemplateEngine;
+import com.orcamento.api.util.TemplateUtils;
+
+import org.openjdk.jmh.annotations.*;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Renderização do e-mail de orçamento criado: TemplateUtils (lê o classpath e faz três
+ * {@code String.replace} a cada chamada) x TemplateEngine (template compilado uma vez, buffer do pool).
+ *
+ * <pre>
+ * ./mvnw -Pbenchmark test-compile exec:exec -Djmh.args="TemplateBenchmark -prof gc"
+ * </pre>
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings("deprecation")
+public class TemplateBenchmark {
+
+    private static final String TEMPLATE_NAME = "orcamento_benchmark.html";
+    private static final String TEMPLATE_PATH = "templates/" + TEMPLATE_NAME;
+
+    private static final String NOME_CLIENTE = "Maria Aparecida de Souza";
+    private static final String TIPO_ORCAMENTO = "Tradução Juramentada";
+    private static final String ID_ORCAMENTO = "f9e8d7c6-b5a4-3210-9876-543210fedcba";
+
+    private TemplateEngine engine;
+    private String source;
+    private Map<String, String> values;
+
+    @Setup(Level.Trial)
+    public void setUp() throws IOException {
+        source = TemplateUtils.loadTemplateFromClasspath(TEMPLATE_PATH);
+        engine = new TemplateEngine();
+        engine.register(TEMPLATE_NAME, source);
+        values = Map.of("NOME_CLIENTE", NOME_CLIENTE, "TIPO_ORCAMENTO", TIPO_ORCAMENTO, "ID_ORCAMENTO", ID_ORCAMENTO);
+    }
+
+    /*** Como era feito a cada criação de orçamento: leitura do classpath + replace ***/
+    @Benchmark
+    public String templateUtilsLoadAndReplace() throws IOException {
+        String template = TemplateUtils.loadTemplateFromClasspath(TEMPLATE_PATH);
+        return TemplateUtils.processTemplate(template, NOME_CLIENTE, TIPO_ORCAMENTO, ID_ORCAMENTO);
+    }
+
+    /*** Só a cadeia de replace, com o template já em memória ***/
+    @Benchmark
+    public String templateUtilsReplaceOnly() {
+        return TemplateUtils.processTemplate(source, NOME_CLIENTE, TIPO_ORCAMENTO, ID_ORCAMENTO);
+    }
+
+    @Benchmark
+    public String compiledTemplate() {
+        return engine.render(TEMPLATE_NAME, values);
+    }
+}
@@ -0,0 +1,125 @@
+package com.orcamento.api.config;
+
+import com.orcamento.api.controller.QuoteRequestController;
+import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.h2.jdbc.JdbcSQLSyntaxErrorException;
+import org.h2.jdbcx.JdbcDataSource;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.web.context.request.RequestContextHolder;
+import org.springframework.web.context.request.ServletRequestAttributes;
+import org.springframework.web.method.HandlerMethod;
+import org.springframework.web.servlet.HandlerMapping;
+
+import java.lang.reflect.Method;
+import java.sql.Connection;
+import java.sql.ResultSet;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do ConnectionMetricsDataSource")
+class ConnectionMetricsDataSourceTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private ConnectionMetricsDataSource dataSource;
+
+    @BeforeEach
+    void setUp() {
+        // H2 em memória no lugar do Hikari: o proxy da Connection também roda no nativeTest
+        JdbcDataSource target = new JdbcDataSource();
+        target.setURL("jdbc:h2:mem:connection-metrics");
+        meterRegistry = new SimpleMeterRegistry();
+        dataSource = new ConnectionMetricsDataSource(target, () -> meterRegistry);
+    }
+
+    @AfterEach
+    void tearDown() {
+        RequestContextHolder.resetRequestAttributes();
+    }
+
+    @Test
+    @DisplayName("Deve medir espera e uso da conexão com o método do controller como tag")
+    void deveMedirPorMetodoDoController() throws Exception {
+        // Given
+        requisicaoPara(QuoteRequestController.class.getMethod("create", QuoteRequestDTO.class));
+
+        // When
+        Connection acquired = dataSource.getConnection();
+        int result;
+        try (ResultSet rs = acquired.prepareStatement("SELECT 1").executeQuery()) {
+            rs.next();
+            result = rs.getInt(1);
+        }
+        acquired.close();
+
+        // Then
+        assertThat(result).isEqualTo(1);
+        assertThat(acquired.isClosed()).isTrue();
+        assertThat(timer(ConnectionMetricsDataSource.ACQUIRE_METRIC, "QuoteRequestController.create").count()).isEqualTo(1);
+        assertThat(timer(ConnectionMetricsDataSource.HOLD_METRIC, "QuoteRequestController.create").count()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve usar endpoint=none fora de uma requisição")
+    void deveUsarNoneForaDeRequisicao() throws Exception {
+        // When
+        dataSource.getConnection().close();
+
+        // Then
+        assertThat(timer(ConnectionMetricsDataSource.HOLD_METRIC, ConnectionMetricsDataSource.NO_ENDPOINT).count())
+                .isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve registrar o uso só no primeiro close")
+    void deveRegistrarUsoUmaVez() throws Exception {
+        // Given
+        Connection acquired = dataSource.getConnection();
+
+        // When
+        acquired.close();
+        acquired.close();
+
+        // Then
+        assertThat(timer(ConnectionMetricsDataSource.HOLD_METRIC, ConnectionMetricsDataSource.NO_ENDPOINT).count())
+                .isEqualTo(1);
+        assertThat(acquired.isClosed()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve repassar exceções da conexão sem embrulhar")
+    void deveRepassarExcecoesDaConexao() throws Exception {
+        // Given
+        Connection acquired = dataSource.getConnection();
+
+        // When & Then - coluna x não existe
+        try (acquired) {
+            assertThatThrownBy(() -> acquired.prepareStatement("SELECT x"))
+                    .isExactlyInstanceOf(JdbcSQLSyntaxErrorException.class)
+                    .hasMessageContaining("\"X\"");
+        }
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private void requisicaoPara(Method method) {
+        MockHttpServletRequest request = new MockHttpServletRequest();
+        request.setAttribute(HandlerMapping.BEST_MATCHING_HANDLER_ATTRIBUTE,
+                new HandlerMethod(new QuoteRequestController(), method));
+        RequestContextHolder.setRequestAttributes(new ServletRequestAttributes(request));
+    }
+
+    private Timer timer(String name, String endpoint) {
+        return meterRegistry.get(name).tag("endpoint", endpoint).timer();
+    }
+}
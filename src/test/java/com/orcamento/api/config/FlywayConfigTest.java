@@ -0,0 +1,60 @@
+package com.orcamento.api.config;
+
+import com.orcamento.api.extension.MemoryMonitorExtension;
+
+import org.flywaydb.core.Flyway;
+import org.flywaydb.core.api.output.MigrateResult;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.mock.env.MockEnvironment;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do FlywayConfig")
+class FlywayConfigTest {
+
+    @Test
+    @DisplayName("Deve migrar quando spring.flyway.enabled não está definido")
+    void deveMigrarPorPadrao() {
+        // Given
+        RecordingFlyway flyway = new RecordingFlyway();
+
+        // When
+        new FlywayConfig().flywayMigrationStrategy(new MockEnvironment()).migrate(flyway);
+
+        // Then
+        assertThat(flyway.migrations).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve pular a migração quando spring.flyway.enabled=false na subida")
+    void devePularMigracaoQuandoDesligado() {
+        // Given
+        RecordingFlyway flyway = new RecordingFlyway();
+        MockEnvironment environment = new MockEnvironment().withProperty("spring.flyway.enabled", "false");
+
+        // When
+        new FlywayConfig().flywayMigrationStrategy(environment).migrate(flyway);
+
+        // Then
+        assertThat(flyway.migrations).isZero();
+    }
+
+    // Sem Mockito (roda também no nativeTest): só conta as chamadas, sem DataSource
+    private static class RecordingFlyway extends Flyway {
+
+        private int migrations;
+
+        RecordingFlyway() {
+            super(Flyway.configure());
+        }
+
+        @Override
+        public MigrateResult migrate() {
+            migrations++;
+            return null;
+        }
+    }
+}
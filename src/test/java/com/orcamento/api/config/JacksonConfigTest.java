@@ -0,0 +1,90 @@
+package com.orcamento.api.config;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.orcamento.api.dto.CursorPageDTO;
+import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.http.converter.json.Jackson2ObjectMapperBuilder;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do JacksonConfig")
+class JacksonConfigTest {
+
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp() {
+        // Mesmo caminho do Spring Boot: o bean Module entra no builder do ObjectMapper
+        objectMapper = Jackson2ObjectMapperBuilder.json()
+                .featuresToDisable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                .modulesToInstall(new JacksonConfig().blackbirdModule())
+                .build();
+    }
+
+    @Test
+    @DisabledInNativeImage
+    @DisplayName("Deve registrar o módulo Blackbird no ObjectMapper")
+    void deveRegistrarBlackbird() {
+        assertThat(objectMapper.getRegisteredModuleIds()).contains(new BlackbirdModule().getTypeId());
+    }
+
+    @Test
+    @DisplayName("Deve serializar o record com os mesmos nomes de campo dos antigos getters")
+    void deveSerializarRecordComNomesDeCampo() throws Exception {
+        // Given
+        QuoteRequestDTO dto = quote();
+        CursorPageDTO<QuoteRequestDTO> page = new CursorPageDTO<>(List.of(dto), 20, true, "abc");
+
+        // When
+        JsonNode json = objectMapper.readTree(objectMapper.writeValueAsBytes(page));
+
+        // Then
+        assertThat(json.get("hasNext").asBoolean()).isTrue();
+        assertThat(json.get("nextCursor").asText()).isEqualTo("abc");
+        JsonNode row = json.get("content").get(0);
+        assertThat(row.get("requesterName").asText()).isEqualTo("João Silva");
+        assertThat(row.get("budgetTypeId").asText()).isEqualTo(dto.budgetTypeId().toString());
+        assertThat(row.get("createdAt").asText()).isEqualTo("2024-05-10T14:30:00Z");
+        assertThat(row.get("deletedAt").isNull()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve desserializar o corpo da requisição pelo construtor do record")
+    void deveDesserializarRecord() throws Exception {
+        // Given
+        QuoteRequestDTO dto = quote();
+
+        // When
+        QuoteRequestDTO read = objectMapper.readValue(objectMapper.writeValueAsBytes(dto), QuoteRequestDTO.class);
+
+        // Then
+        assertThat(read).isEqualTo(dto);
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private QuoteRequestDTO quote() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2024, 5, 10, 14, 30, 0, 0, ZoneOffset.UTC);
+        return new QuoteRequestDTO(UUID.randomUUID(), UUID.randomUUID(), "João Silva", "joao@email.com",
+                "contrato.pdf", "storage/key/123", "application/pdf", 1024L, "WORD", new BigDecimal("0.25"), 1000,
+                new BigDecimal("250.00"), QuoteStatus.SENT, createdAt, createdAt, null);
+    }
+}
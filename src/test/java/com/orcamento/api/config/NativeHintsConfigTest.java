@@ -0,0 +1,76 @@
+package com.orcamento.api.config;
+
+import com.orcamento.api.dto.NotificationEventDTO;
+import com.orcamento.api.dto.PageResponseDTO;
+import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.converter.BillingMethodConverter;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.aot.hint.MemberCategory;
+import org.springframework.aot.hint.RuntimeHints;
+import org.springframework.aot.hint.annotation.RegisterReflectionForBindingProcessor;
+import org.springframework.aot.hint.predicate.RuntimeHintsPredicates;
+
+import java.sql.Connection;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do NativeHintsConfig")
+class NativeHintsConfigTest {
+
+    private RuntimeHints hints;
+
+    @BeforeEach
+    void setUp() {
+        // Mesmo registro feito pelo process-aot: o registrar e o @RegisterReflectionForBinding da classe
+        hints = new RuntimeHints();
+        new NativeHintsConfig.OrcamentoRuntimeHints().registerHints(hints, getClass().getClassLoader());
+        new RegisterReflectionForBindingProcessor().registerReflectionHints(hints.reflection(), NativeHintsConfig.class);
+    }
+
+    @Test
+    @DisplayName("Deve registrar entidades e conversor para o Hibernate instanciar por reflexão")
+    void deveRegistrarEntidadesEConversor() {
+        for (Class<?> type : new Class<?>[] { QuoteRequest.class, BudgetType.class, BillingMethodConverter.class }) {
+            assertThat(RuntimeHintsPredicates.reflection().onType(type)
+                    .withMemberCategory(MemberCategory.INVOKE_DECLARED_CONSTRUCTORS)).accepts(hints);
+            assertThat(RuntimeHintsPredicates.reflection().onType(type)
+                    .withMemberCategory(MemberCategory.DECLARED_FIELDS)).accepts(hints);
+        }
+    }
+
+    @Test
+    @DisplayName("Deve registrar os DTOs serializados fora dos controllers para o Jackson")
+    void deveRegistrarDTOsParaBinding() throws Exception {
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(QuoteRequestDTO.class.getMethod("estimatedTotal")))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(PageResponseDTO.class.getMethod("totalElements")))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.reflection().onMethod(NotificationEventDTO.class.getMethod("getSubject")))
+                .accepts(hints);
+    }
+
+    @Test
+    @DisplayName("Deve incluir os recursos do PDFBox/FontBox e os templates de e-mail")
+    void deveRegistrarRecursos() {
+        assertThat(RuntimeHintsPredicates.resource().forResource("org/apache/pdfbox/resources/glyphlist/glyphlist.txt"))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("org/apache/fontbox/cmap/Identity-H"))
+                .accepts(hints);
+        assertThat(RuntimeHintsPredicates.resource().forResource("templates/orcamento_criado.html"))
+                .accepts(hints);
+    }
+
+    @Test
+    @DisplayName("Deve registrar o proxy JDK da Connection usado nas métricas de conexão")
+    void deveRegistrarProxyDaConnection() {
+        assertThat(RuntimeHintsPredicates.proxies().forInterfaces(Connection.class)).accepts(hints);
+    }
+}
@@ -0,0 +1,166 @@
+package com.orcamento.api.config;
+
+import com.orcamento.api.dto.NotificationEventDTO;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.messaging.NotificationProducerService;
+import com.orcamento.api.template.TemplateEngine;
+import com.orcamento.api.util.LruCache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jdk.jfr.Recording;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.DisabledInNativeImage;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do modo de threads virtuais")
+class VirtualThreadsTest {
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+
+    @TempDir
+    Path tempDir;
+
+    @Test
+    @DisplayName("Deve usar threads virtuais no pool do pipeline quando o modo estiver ligado")
+    void deveUsarThreadsVirtuaisNoPipeline() throws Exception {
+        // Given
+        ThreadPoolTaskExecutor executor = new QuoteProcessingConfig().quoteProcessingExecutor(2, 10, true);
+        executor.initialize();
+
+        try {
+            // When
+            Thread worker = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            // Then - continua limitado pelo pool-size, só o tipo de thread muda
+            assertThat(worker.isVirtual()).isTrue();
+            assertThat(worker.getName()).startsWith("quote-pipeline-");
+            assertThat(executor.getMaxPoolSize()).isEqualTo(2);
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve manter threads de plataforma no pipeline com o modo desligado")
+    void deveManterThreadsDePlataformaNoPipeline() throws Exception {
+        // Given
+        ThreadPoolTaskExecutor executor = new QuoteProcessingConfig().quoteProcessingExecutor(2, 10, false);
+        executor.initialize();
+
+        try {
+            // When
+            Thread worker = executor.submit(Thread::currentThread).get(5, TimeUnit.SECONDS);
+
+            // Then
+            assertThat(worker.isVirtual()).isFalse();
+        } finally {
+            executor.shutdown();
+        }
+    }
+
+    @Test
+    @DisabledInNativeImage
+    @DisplayName("Não deve prender a thread virtual ao carrier nas estruturas compartilhadas do caminho da requisição")
+    void naoDevePrenderThreadVirtualNoCaminhoDaRequisicao() throws Exception {
+        // Given
+        NotificationProducerService producer =
+                new NotificationProducerService(new RabbitTemplate(), new SimpleMeterRegistry(), 100);
+        LruCache<Integer, String> cache = new LruCache<>(64);
+        TemplateEngine templates = new TemplateEngine();
+        templates.register("teste", "<p>Olá {{NOME}}</p>");
+
+        // When - 1000 threads virtuais disputando buffer do publicador, LRU e pool de buffers do template
+        List<RecordedEvent> pinned = recordPinning(() -> runOnVirtualThreads(1000, i -> {
+            cache.put(i % 128, "v" + i);
+            cache.get((i + 1) % 128);
+            templates.render("teste", Map.of("NOME", "Cliente " + i));
+            try {
+                producer.sendNotification(new NotificationEventDTO(UUID.randomUUID(), "a@b.com", "A", "S", "<p/>"));
+            } catch (RejectedExecutionException e) {
+                // buffer cheio é esperado: ninguém está drenando
+            }
+        }));
+
+        // Then
+        assertThat(pinned).isEmpty();
+    }
+
+    @Test
+    @DisabledInNativeImage
+    @DisplayName("Deve detectar pinning quando uma thread virtual bloqueia dentro de synchronized")
+    void deveDetectarPinning() throws Exception {
+        // Given - garante que a verificação acima não passa só porque o evento nunca é gravado
+        Object monitor = new Object();
+
+        // When
+        List<RecordedEvent> pinned = recordPinning(() -> runOnVirtualThreads(1, i -> {
+            synchronized (monitor) {
+                sleep(20);
+            }
+        }));
+
+        // Then
+        assertThat(pinned).isNotEmpty();
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private List<RecordedEvent> recordPinning(Runnable workload) throws IOException {
+        Path file = tempDir.resolve("pinning-" + UUID.randomUUID() + ".jfr");
+        try (Recording recording = new Recording()) {
+            recording.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            recording.start();
+            workload.run();
+            recording.stop();
+            recording.dump(file);
+        }
+        return RecordingFile.readAllEvents(file).stream()
+                .filter(event -> event.getEventType().getName().equals(PINNED_EVENT))
+                .toList();
+    }
+
+    private void runOnVirtualThreads(int tasks, IntTask task) {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            CompletableFuture<?>[] futures = new CompletableFuture<?>[tasks];
+            for (int i = 0; i < tasks; i++) {
+                int index = i;
+                futures[i] = CompletableFuture.runAsync(() -> task.run(index), executor);
+            }
+            CompletableFuture.allOf(futures).join();
+        }
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @FunctionalInterface
+    private interface IntTask {
+        void run(int index);
+    }
+}
@@ -2,30 +2,44 @@ package com.orcamento.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.orcamento.api.dto.BudgetTypeDTO;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.mapper.BudgetTypeMapperImpl;
+import com.orcamento.api.repository.BudgetTypeRepository;
+import com.orcamento.api.repository.OutboxMessageRepository;
+import com.orcamento.api.repository.QuoteRequestRepository;
+import com.orcamento.api.service.BudgetTypeCache;
 import com.orcamento.api.service.BudgetTypeService;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.context.annotation.Import;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
 import org.springframework.test.web.servlet.MockMvc;
-import com.orcamento.api.entity.enums.BillingMethod;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
-import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+/**
+ * Controller com o serviço, o cache e o mapper de verdade sobre o H2; cada requisição confirma a própria
+ * transação, como em produção.
+ */
 @WebMvcTest(BudgetTypeController.class)
+@AutoConfigureDataJpa
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Import({BudgetTypeService.class, BudgetTypeCache.class, BudgetTypeMapperImpl.class})
 @DisplayName("Testes do BudgetTypeController")
 class BudgetTypeControllerTest {
 
@@ -35,72 +49,77 @@ class BudgetTypeControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
-    @MockBean
-    private BudgetTypeService service;
+    @Autowired
+    private BudgetTypeCache budgetTypeCache;
+
+    @Autowired
+    private BudgetTypeRepository budgetTypeRepository;
+
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
 
     private UUID budgetTypeId;
-    private BudgetTypeDTO budgetTypeDTO;
+    private BudgetType budgetType;
 
     @BeforeEach
     void setUp() {
+        // Limpa o banco e o snapshot do cache de tipos, compartilhado entre os testes do contexto
+        outboxMessageRepository.deleteAll();
+        quoteRequestRepository.deleteAll();
+        budgetTypeRepository.deleteAll();
+        budgetTypeCache.invalidate();
+
+        budgetType = new BudgetType();
+        budgetType.setBudgetTypeName("Tradução Juramentada");
+        budgetType.setBillingMethod(BillingMethod.WORD);
+        budgetType.setFee(BigDecimal.valueOf(0.30));
+        budgetType.setDescription("Tradução oficial com validade legal");
+        budgetType.setTargetEmail("contato@empresa.com");
+
+        // ID de um tipo que não existe; os testes que gravam o BudgetType trocam pelo ID gerado
         budgetTypeId = UUID.randomUUID();
-
-        budgetTypeDTO = new BudgetTypeDTO();
-        budgetTypeDTO.setId(budgetTypeId);
-        budgetTypeDTO.setBudgetTypeName("Tradução Juramentada");
-        budgetTypeDTO.setBillingMethod(BillingMethod.WORD);
-        budgetTypeDTO.setFee(BigDecimal.valueOf(0.30));
-        budgetTypeDTO.setDescription("Tradução oficial com validade legal");
-        budgetTypeDTO.setTargetEmail("contato@empresa.com");
-        budgetTypeDTO.setCreatedAt(OffsetDateTime.now());
-        budgetTypeDTO.setUpdatedAt(OffsetDateTime.now());
     }
 
     @Test
     @DisplayName("GET /budget-types - Deve retornar 200 e lista de budget types")
     void deveRetornar200QuandoListar() throws Exception {
         // Given
-        BudgetTypeDTO budgetType2 = new BudgetTypeDTO();
-        budgetType2.setId(UUID.randomUUID());
+        salvar();
+        BudgetType budgetType2 = new BudgetType();
         budgetType2.setBudgetTypeName("Tradução Técnica");
         budgetType2.setBillingMethod(BillingMethod.PAGE);
         budgetType2.setFee(BigDecimal.valueOf(15.0));
         budgetType2.setDescription("Tradução de documentos técnicos");
         budgetType2.setTargetEmail("tecnica@empresa.com");
-
-        when(service.getAll()).thenReturn(List.of(budgetTypeDTO, budgetType2));
+        budgetTypeRepository.save(budgetType2);
 
         // When & Then
         mockMvc.perform(get("/budget-types")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(2)))
-                .andExpect(jsonPath("$[0].budgetTypeName", is("Tradução Juramentada")))
-                .andExpect(jsonPath("$[1].budgetTypeName", is("Tradução Técnica")));
-
-        verify(service, times(1)).getAll();
+                .andExpect(jsonPath("$[*].budgetTypeName",
+                        containsInAnyOrder("Tradução Juramentada", "Tradução Técnica")));
     }
 
     @Test
     @DisplayName("GET /budget-types - Deve retornar 200 e lista vazia")
     void deveRetornar200ComListaVazia() throws Exception {
-        // Given
-        when(service.getAll()).thenReturn(List.of());
-
         // When & Then
         mockMvc.perform(get("/budget-types")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(0)));
-
-        verify(service, times(1)).getAll();
     }
 
     @Test
     @DisplayName("GET /budget-types/{id} - Deve retornar 200 e o budget type")
     void deveRetornar200QuandoBuscarPorId() throws Exception {
         // Given
-        when(service.getById(budgetTypeId)).thenReturn(budgetTypeDTO);
+        salvar();
 
         // When & Then
         mockMvc.perform(get("/budget-types/{id}", budgetTypeId)
@@ -110,30 +129,24 @@ class BudgetTypeControllerTest {
                 .andExpect(jsonPath("$.budgetTypeName", is("Tradução Juramentada")))
                 .andExpect(jsonPath("$.billingMethod", is("WORD")))
                 .andExpect(jsonPath("$.fee", is(0.30)));
-
-        verify(service, times(1)).getById(budgetTypeId);
     }
 
     @Test
-    @DisplayName("GET /budget-types/{id} - Deve retornar 404 quando não encontrar")
-    void deveRetornar404QuandoNaoEncontrar() throws Exception {
-        // Given
-        when(service.getById(budgetTypeId)).thenReturn(null);
-
-        // When & Then
+    @DisplayName("GET /budget-types/{id} - Deve retornar 500 quando não encontrar")
+    void deveRetornar500QuandoNaoEncontrar() throws Exception {
+        // When & Then - o serviço lança em vez de devolver null, como no DELETE
         mockMvc.perform(get("/budget-types/{id}", budgetTypeId)
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isNotFound());
-
-        verify(service, times(1)).getById(budgetTypeId);
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message", containsString("não encontrado")));
     }
 
     @Test
     @DisplayName("GET /budget-types/deleted - Deve retornar 200 e budget types deletados")
     void deveRetornar200QuandoListarDeletados() throws Exception {
         // Given
-        budgetTypeDTO.setDeletedAt(OffsetDateTime.now());
-        when(service.getAllDeleted()).thenReturn(List.of(budgetTypeDTO));
+        budgetType.setDeletedAt(OffsetDateTime.now());
+        salvar();
 
         // When & Then
         mockMvc.perform(get("/budget-types/deleted")
@@ -141,32 +154,14 @@ class BudgetTypeControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].deletedAt", notNullValue()));
-
-        verify(service, times(1)).getAllDeleted();
     }
 
     @Test
     @DisplayName("POST /budget-types - Deve retornar 201 ao criar")
     void deveRetornar201QuandoCriar() throws Exception {
         // Given
-        BudgetTypeDTO inputDTO = new BudgetTypeDTO();
-        inputDTO.setBudgetTypeName("Nova Tradução");
-        inputDTO.setBillingMethod(BillingMethod.PARAGRAPH);
-        inputDTO.setFee(BigDecimal.valueOf(5.0));
-        inputDTO.setDescription("Descrição teste");
-        inputDTO.setTargetEmail("novo@empresa.com");
-
-        BudgetTypeDTO createdDTO = new BudgetTypeDTO();
-        createdDTO.setId(UUID.randomUUID());
-        createdDTO.setBudgetTypeName("Nova Tradução");
-        createdDTO.setBillingMethod(BillingMethod.PARAGRAPH);
-        createdDTO.setFee(BigDecimal.valueOf(5.0));
-        createdDTO.setDescription("Descrição teste");
-        createdDTO.setTargetEmail("novo@empresa.com");
-        createdDTO.setCreatedAt(OffsetDateTime.now());
-        createdDTO.setUpdatedAt(OffsetDateTime.now());
-
-        when(service.create(any(BudgetTypeDTO.class))).thenReturn(createdDTO);
+        BudgetTypeDTO inputDTO = new BudgetTypeDTO(null, "Nova Tradução", BillingMethod.PARAGRAPH,
+                BigDecimal.valueOf(5.0), "Descrição teste", "novo@empresa.com", null, null, null);
 
         // When & Then
         mockMvc.perform(post("/budget-types")
@@ -178,15 +173,16 @@ class BudgetTypeControllerTest {
                 .andExpect(jsonPath("$.billingMethod", is("PARAGRAPH")))
                 .andExpect(jsonPath("$.fee", is(5.0)));
 
-        verify(service, times(1)).create(any(BudgetTypeDTO.class));
+        assertThat(budgetTypeRepository.findAll()).extracting(BudgetType::getBudgetTypeName)
+                .containsExactly("Nova Tradução");
     }
 
     @Test
     @DisplayName("POST /budget-types - Deve retornar 400 com dados inválidos")
     void deveRetornar400QuandoDadosInvalidos() throws Exception {
         // Given - DTO sem campos obrigatórios
-        BudgetTypeDTO invalidDTO = new BudgetTypeDTO();
-        // Não seta nada
+        BudgetTypeDTO invalidDTO = new BudgetTypeDTO(null, null, null, null, null, null, null, null, null);
+        // Todos os campos nulos
 
         // When & Then
         mockMvc.perform(post("/budget-types")
@@ -194,19 +190,32 @@ class BudgetTypeControllerTest {
                         .content(objectMapper.writeValueAsString(invalidDTO)))
                 .andExpect(status().isBadRequest());
 
-        verify(service, never()).create(any(BudgetTypeDTO.class));
+        assertThat(budgetTypeRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("POST /budget-types - Deve retornar 400 sem método de faturamento")
+    void deveRetornar400SemMetodoDeFaturamento() throws Exception {
+        // Given
+        BudgetTypeDTO invalidDTO = new BudgetTypeDTO(null, "Teste", null, BigDecimal.valueOf(0.25),
+                "Descrição", "contato@empresa.com", null, null, null);
+
+        // When & Then
+        mockMvc.perform(post("/budget-types")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(invalidDTO)))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.billingMethod", containsString("obrigatório")));
+
+        assertThat(budgetTypeRepository.count()).isZero();
     }
 
     @Test
     @DisplayName("POST /budget-types - Deve retornar 400 com email inválido")
     void deveRetornar400QuandoEmailInvalido() throws Exception {
         // Given
-        BudgetTypeDTO invalidDTO = new BudgetTypeDTO();
-        invalidDTO.setBudgetTypeName("Teste");
-        invalidDTO.setBillingMethod(BillingMethod.WORD);
-        invalidDTO.setFee(BigDecimal.valueOf(0.25));
-        invalidDTO.setDescription("Descrição");
-        invalidDTO.setTargetEmail("email-invalido"); // ← Email inválido
+        BudgetTypeDTO invalidDTO = new BudgetTypeDTO(null, "Teste", BillingMethod.WORD, BigDecimal.valueOf(0.25),
+                "Descrição", "email-invalido", null, null, null); // ← Email inválido
 
         // When & Then
         mockMvc.perform(post("/budget-types")
@@ -215,31 +224,16 @@ class BudgetTypeControllerTest {
                 .andExpect(status().isBadRequest())
                 .andExpect(jsonPath("$.targetEmail", containsString("e-mail")));
 
-        verify(service, never()).create(any(BudgetTypeDTO.class));
+        assertThat(budgetTypeRepository.count()).isZero();
     }
 
     @Test
     @DisplayName("PUT /budget-types/{id} - Deve retornar 200 ao atualizar")
     void deveRetornar200QuandoAtualizar() throws Exception {
         // Given
-        BudgetTypeDTO updateDTO = new BudgetTypeDTO();
-        updateDTO.setBudgetTypeName("Tradução Juramentada Atualizada");
-        updateDTO.setBillingMethod(BillingMethod.PAGE);
-        updateDTO.setFee(BigDecimal.valueOf(20.0));
-        updateDTO.setDescription("Nova descrição");
-        updateDTO.setTargetEmail("atualizado@empresa.com");
-
-        BudgetTypeDTO updatedDTO = new BudgetTypeDTO();
-        updatedDTO.setId(budgetTypeId);
-        updatedDTO.setBudgetTypeName("Tradução Juramentada Atualizada");
-        updatedDTO.setBillingMethod(BillingMethod.PAGE);
-        updatedDTO.setFee(BigDecimal.valueOf(20.0));
-        updatedDTO.setDescription("Nova descrição");
-        updatedDTO.setTargetEmail("atualizado@empresa.com");
-        updatedDTO.setCreatedAt(OffsetDateTime.now());
-        updatedDTO.setUpdatedAt(OffsetDateTime.now());
-
-        when(service.update(eq(budgetTypeId), any(BudgetTypeDTO.class))).thenReturn(updatedDTO);
+        salvar();
+        BudgetTypeDTO updateDTO = new BudgetTypeDTO(null, "Tradução Juramentada Atualizada", BillingMethod.PAGE,
+                BigDecimal.valueOf(20.0), "Nova descrição", "atualizado@empresa.com", null, null, null);
 
         // When & Then
         mockMvc.perform(put("/budget-types/{id}", budgetTypeId)
@@ -250,36 +244,32 @@ class BudgetTypeControllerTest {
                 .andExpect(jsonPath("$.billingMethod", is("PAGE")))
                 .andExpect(jsonPath("$.fee", is(20.0)));
 
-        verify(service, times(1)).update(eq(budgetTypeId), any(BudgetTypeDTO.class));
+        assertThat(budgetTypeRepository.findById(budgetTypeId).orElseThrow().getBillingMethod())
+                .isEqualTo(BillingMethod.PAGE);
     }
 
     @Test
-    @DisplayName("PUT /budget-types/{id} - Deve retornar 404 quando não encontrar")
-    void deveRetornar404QuandoAtualizarInexistente() throws Exception {
+    @DisplayName("PUT /budget-types/{id} - Deve retornar 500 quando não encontrar")
+    void deveRetornar500QuandoAtualizarInexistente() throws Exception {
         // Given
-        BudgetTypeDTO updateDTO = new BudgetTypeDTO();
-        updateDTO.setBudgetTypeName("Teste");
-        updateDTO.setBillingMethod(BillingMethod.WORD);
-        updateDTO.setFee(BigDecimal.valueOf(0.25));
-        updateDTO.setDescription("Descrição");
-        updateDTO.setTargetEmail("teste@empresa.com");
-
-        when(service.update(eq(budgetTypeId), any(BudgetTypeDTO.class))).thenReturn(null);
+        BudgetTypeDTO updateDTO = new BudgetTypeDTO(null, "Teste", BillingMethod.WORD, BigDecimal.valueOf(0.25),
+                "Descrição", "teste@empresa.com", null, null, null);
 
-        // When & Then
+        // When & Then - o serviço lança em vez de devolver null, como no DELETE
         mockMvc.perform(put("/budget-types/{id}", budgetTypeId)
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(updateDTO)))
-                .andExpect(status().isNotFound());
+                .andExpect(status().isInternalServerError());
 
-        verify(service, times(1)).update(eq(budgetTypeId), any(BudgetTypeDTO.class));
+        assertThat(budgetTypeRepository.count()).isZero();
     }
 
     @Test
     @DisplayName("PUT /budget-types/{id} - Deve retornar 400 com dados inválidos")
     void deveRetornar400QuandoAtualizarComDadosInvalidos() throws Exception {
         // Given - DTO inválido
-        BudgetTypeDTO invalidDTO = new BudgetTypeDTO();
+        salvar();
+        BudgetTypeDTO invalidDTO = new BudgetTypeDTO(null, null, null, null, null, null, null, null, null);
 
         // When & Then
         mockMvc.perform(put("/budget-types/{id}", budgetTypeId)
@@ -287,35 +277,37 @@ class BudgetTypeControllerTest {
                         .content(objectMapper.writeValueAsString(invalidDTO)))
                 .andExpect(status().isBadRequest());
 
-        verify(service, never()).update(any(UUID.class), any(BudgetTypeDTO.class));
+        assertThat(budgetTypeRepository.findById(budgetTypeId).orElseThrow().getBudgetTypeName())
+                .isEqualTo("Tradução Juramentada");
     }
 
     @Test
     @DisplayName("DELETE /budget-types/{id} - Deve retornar 204 ao deletar")
     void deveRetornar204QuandoDeletar() throws Exception {
         // Given
-        doNothing().when(service).softDelete(budgetTypeId);
+        salvar();
 
         // When & Then
         mockMvc.perform(delete("/budget-types/{id}", budgetTypeId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
-        verify(service, times(1)).softDelete(budgetTypeId);
+        assertThat(budgetTypeRepository.findById(budgetTypeId).orElseThrow().getDeletedAt()).isNotNull();
     }
 
     @Test
     @DisplayName("DELETE /budget-types/{id} - Deve retornar 500 quando não encontrar")
     void deveRetornar500QuandoDeletarInexistente() throws Exception {
-        // Given
-        doThrow(new RuntimeException("BudgetType não encontrado ou já deletado."))
-                .when(service).softDelete(budgetTypeId);
-
         // When & Then
         mockMvc.perform(delete("/budget-types/{id}", budgetTypeId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isInternalServerError());
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
 
-        verify(service, times(1)).softDelete(budgetTypeId);
+    private void salvar() {
+        budgetType = budgetTypeRepository.save(budgetType);
+        budgetTypeId = budgetType.getId();
     }
-}
\ No newline at end of file
+}
@@ -1,35 +1,66 @@
 package com.orcamento.api.controller;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orcamento.api.config.DocumentProcessingConfig;
 import com.orcamento.api.dto.QuoteRequestDTO;
-import com.orcamento.api.service.QuoteRequestService;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.enums.BillingMethod;
 import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.mapper.QuoteRequestMapperImpl;
+import com.orcamento.api.repository.BudgetTypeRepository;
+import com.orcamento.api.repository.OutboxMessageRepository;
+import com.orcamento.api.repository.QuoteRequestRepository;
+import com.orcamento.api.service.BudgetTypeCache;
+import com.orcamento.api.service.DocumentCountCache;
+import com.orcamento.api.service.DocumentProcessingService;
+import com.orcamento.api.service.QuoteProcessingService;
+import com.orcamento.api.service.QuoteRequestService;
+import com.orcamento.api.template.TemplateEngine;
+import com.jayway.jsonpath.JsonPath;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.AutoConfigureDataJpa;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
-import org.springframework.boot.test.mock.mockito.MockBean;
-import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Pageable;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.MediaType;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
 import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.MvcResult;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
 import java.util.UUID;
 
+import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.*;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.ArgumentMatchers.eq;
-import static org.mockito.Mockito.*;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.*;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
 
+/**
+ * Controller com os serviços, o cache de tipos e o mapper de verdade sobre o H2; cada requisição confirma a
+ * própria transação, como em produção. O pool do pipeline não executa nada: as solicitações ficam PENDING.
+ */
 @WebMvcTest(QuoteRequestController.class)
+@AutoConfigureDataJpa
+@AutoConfigureTestDatabase
+@ActiveProfiles("test")
+@Import({QuoteRequestService.class, QuoteProcessingService.class, BudgetTypeCache.class,
+        DocumentProcessingService.class, DocumentCountCache.class, DocumentProcessingConfig.class,
+        TemplateEngine.class, QuoteRequestMapperImpl.class, QuoteRequestControllerTest.ControllerConfig.class})
 @DisplayName("Testes do QuoteRequestController")
 class QuoteRequestControllerTest {
 
@@ -39,44 +70,59 @@ class QuoteRequestControllerTest {
     @Autowired
     private ObjectMapper objectMapper;
 
-    @MockBean
-    private QuoteRequestService service;
+    @Autowired
+    private QuoteProcessingService quoteProcessingService;
+
+    @Autowired
+    private BudgetTypeCache budgetTypeCache;
+
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private BudgetTypeRepository budgetTypeRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     private UUID quoteRequestId;
     private UUID budgetTypeId;
+    private BudgetType budgetType;
     private QuoteRequestDTO quoteRequestDTO;
 
     @BeforeEach
     void setUp() {
+        // Limpa o banco e o snapshot do cache de tipos, compartilhado entre os testes do contexto
+        outboxMessageRepository.deleteAll();
+        quoteRequestRepository.deleteAll();
+        budgetTypeRepository.deleteAll();
+        budgetTypeCache.invalidate();
+
+        budgetType = new BudgetType();
+        budgetType.setBudgetTypeName("Tradução por Palavra");
+        budgetType.setBillingMethod(BillingMethod.WORD);
+        budgetType.setFee(BigDecimal.valueOf(0.25));
+        budgetType.setDescription("Teste");
+        budgetType.setTargetEmail("teste@email.com");
+        budgetType = budgetTypeRepository.save(budgetType);
+        budgetTypeId = budgetType.getId();
+
+        // ID de uma solicitação que não existe; os testes que gravam uma trocam pelo ID gerado
         quoteRequestId = UUID.randomUUID();
-        budgetTypeId = UUID.randomUUID();
-
-        quoteRequestDTO = new QuoteRequestDTO();
-        quoteRequestDTO.setId(quoteRequestId);
-        quoteRequestDTO.setBudgetTypeId(budgetTypeId);
-        quoteRequestDTO.setRequesterName("João Silva");
-        quoteRequestDTO.setRequesterEmail("joao@email.com");
-        quoteRequestDTO.setDocumentOriginalName("contrato.pdf");
-        quoteRequestDTO.setDocumentStorageKey("storage/key/123");
-        quoteRequestDTO.setDocumentMimeType("application/pdf");
-        quoteRequestDTO.setDocumentSizeBytes(1024L);
-        quoteRequestDTO.setBillingMethodUsed("WORD");
-        quoteRequestDTO.setFeeUsed(BigDecimal.valueOf(0.25));
-        quoteRequestDTO.setCountedUnits(1000);
-        quoteRequestDTO.setEstimatedTotal(BigDecimal.valueOf(250.0));
-        quoteRequestDTO.setStatus(QuoteStatus.PENDING);
-        quoteRequestDTO.setCreatedAt(OffsetDateTime.now());
-        quoteRequestDTO.setUpdatedAt(OffsetDateTime.now());
+
+        quoteRequestDTO = new QuoteRequestDTO(null, budgetTypeId, "João Silva", "joao@email.com",
+                "contrato.pdf", "storage/key/123", "application/pdf", 1024L, "WORD", BigDecimal.valueOf(0.25), 1000,
+                BigDecimal.valueOf(250.0), QuoteStatus.PENDING, null, null, null);
     }
 
     @Test
     @DisplayName("GET /quote-requests - Deve retornar 200 e página de quotes")
     void deveRetornar200QuandoListarComPaginacao() throws Exception {
         // Given
-        Pageable pageable = PageRequest.of(0, 10);
-        Page<QuoteRequestDTO> page = new PageImpl<>(List.of(quoteRequestDTO), pageable, 1);
-        
-        when(service.getAllPaginated(any(Pageable.class))).thenReturn(page);
+        salvar(null);
 
         // When & Then
         mockMvc.perform(get("/quote-requests")
@@ -91,35 +137,158 @@ class QuoteRequestControllerTest {
                 .andExpect(jsonPath("$.totalElements", is(1)))
                 .andExpect(jsonPath("$.totalPages", is(1)))
                 .andExpect(jsonPath("$.size", is(10)));
+    }
 
-        verify(service, times(1)).getAllPaginated(any(Pageable.class));
+    @Test
+    @DisplayName("GET /quote-requests - Deve retornar só os metadados do envelope, sem pageable e sort do PageImpl")
+    void deveRetornarEnvelopeCompactoDaPagina() throws Exception {
+        // Given
+        for (int i = 0; i < 21; i++) {
+            salvar(null);
+        }
+
+        // When & Then
+        mockMvc.perform(get("/quote-requests")
+                        .param("page", "2")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.number", is(2)))
+                .andExpect(jsonPath("$.size", is(10)))
+                .andExpect(jsonPath("$.totalElements", is(21)))
+                .andExpect(jsonPath("$.totalPages", is(3)))
+                .andExpect(jsonPath("$.pageable").doesNotExist())
+                .andExpect(jsonPath("$.sort").doesNotExist())
+                .andExpect(jsonPath("$.first").doesNotExist());
     }
 
     @Test
-    @DisplayName("GET /quote-requests - Deve usar valores padrão de paginação")
-    void deveUsarValoresPadraoDePaginacao() throws Exception {
+    @DisplayName("GET /quote-requests?fields= - Deve retornar só os campos pedidos, na ordem pedida")
+    void deveRetornarSomenteCamposSelecionados() throws Exception {
         // Given
-        Page<QuoteRequestDTO> emptyPage = new PageImpl<>(List.of(), PageRequest.of(0, 10), 0);
-        when(service.getAllPaginated(any(Pageable.class))).thenReturn(emptyPage);
+        salvar(null);
 
+        // When & Then
+        mockMvc.perform(get("/quote-requests")
+                        .param("fields", "id, status,estimatedTotal")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content[0].*", hasSize(3)))
+                .andExpect(jsonPath("$.content[0].id", is(quoteRequestId.toString())))
+                .andExpect(jsonPath("$.content[0].status", is("PENDING")))
+                .andExpect(jsonPath("$.content[0].estimatedTotal", is(250.0)))
+                .andExpect(jsonPath("$.content[0].requesterName").doesNotExist())
+                .andExpect(jsonPath("$.totalElements", is(1)));
+    }
+
+    @Test
+    @DisplayName("GET /quote-requests?fields= - Deve retornar 400 para campo desconhecido sem consultar o banco")
+    void deveRetornar400QuandoCampoDesconhecido() throws Exception {
+        // Given
+        Statistics statistics = statistics();
+
+        // When & Then
+        mockMvc.perform(get("/quote-requests/deleted")
+                        .param("fields", "id,senha")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("senha")));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /quote-requests/cursor - Deve retornar 200 com o token da próxima página e sem totais")
+    void deveRetornar200QuandoListarPorCursor() throws Exception {
+        // Given - três solicitações; o token vem da primeira página
+        salvar(null);
+        salvar(null);
+        salvar(null);
+        MvcResult first = mockMvc.perform(get("/quote-requests/cursor").param("size", "1"))
+                .andExpect(status().isOk())
+                .andReturn();
+        String cursor = JsonPath.read(first.getResponse().getContentAsString(), "$.nextCursor");
+        String firstId = JsonPath.read(first.getResponse().getContentAsString(), "$.content[0].id");
+
+        // When & Then
+        mockMvc.perform(get("/quote-requests/cursor")
+                        .param("cursor", cursor)
+                        .param("size", "1")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.content", hasSize(1)))
+                .andExpect(jsonPath("$.content[0].id", not(firstId)))
+                .andExpect(jsonPath("$.hasNext", is(true)))
+                .andExpect(jsonPath("$.nextCursor", notNullValue()))
+                .andExpect(jsonPath("$.totalElements").doesNotExist());
+    }
+
+    @Test
+    @DisplayName("GET /quote-requests/cursor - Deve retornar 400 para size fora do limite")
+    void deveRetornar400QuandoSizeDoCursorForaDoLimite() throws Exception {
+        // Given
+        Statistics statistics = statistics();
+
+        // When & Then
+        mockMvc.perform(get("/quote-requests/cursor")
+                        .param("size", "500")
+                        .contentType(MediaType.APPLICATION_JSON))
+                .andExpect(status().isBadRequest());
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /quote-requests/export - Deve transmitir o CSV como anexo")
+    void deveExportarCsvEmStreaming() throws Exception {
+        // Given
+        salvar(null);
+
+        // When
+        MvcResult started = mockMvc.perform(get("/quote-requests/export").param("format", "csv"))
+                .andExpect(request().asyncStarted())
+                .andReturn();
+
+        // Then
+        mockMvc.perform(asyncDispatch(started))
+                .andExpect(status().isOk())
+                .andExpect(header().string("Content-Type", containsString("text/csv")))
+                .andExpect(header().string("Content-Disposition", containsString("quote-requests.csv")))
+                .andExpect(content().string(startsWith("id,budgetTypeId,requesterName,")))
+                .andExpect(content().string(containsString(quoteRequestId + "," + budgetTypeId + ",João Silva,")));
+    }
+
+    @Test
+    @DisplayName("GET /quote-requests/export - Deve retornar 400 para formato desconhecido")
+    void deveRetornar400QuandoFormatoDeExportacaoInvalido() throws Exception {
+        // Given
+        Statistics statistics = statistics();
+
+        // When & Then
+        mockMvc.perform(get("/quote-requests/export").param("format", "xlsx"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.message", containsString("xlsx")));
+
+        assertThat(statistics.getPrepareStatementCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("GET /quote-requests - Deve usar valores padrão de paginação")
+    void deveUsarValoresPadraoDePaginacao() throws Exception {
         // When & Then
         mockMvc.perform(get("/quote-requests")
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(0)))
+                .andExpect(jsonPath("$.size", is(10)))
                 .andExpect(jsonPath("$.totalElements", is(0)));
-
-        verify(service, times(1)).getAllPaginated(any(Pageable.class));
     }
 
     @Test
     @DisplayName("GET /quote-requests/deleted - Deve retornar 200 e quotes deletadas")
     void deveRetornar200QuandoListarDeletadas() throws Exception {
         // Given
-        quoteRequestDTO.setDeletedAt(OffsetDateTime.now());
-        Page<QuoteRequestDTO> page = new PageImpl<>(List.of(quoteRequestDTO), PageRequest.of(0, 10), 1);
-        
-        when(service.getAllDeletedPaginated(any(Pageable.class))).thenReturn(page);
+        salvar(OffsetDateTime.now());
 
         // When & Then
         mockMvc.perform(get("/quote-requests/deleted")
@@ -129,15 +298,13 @@ class QuoteRequestControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$.content", hasSize(1)))
                 .andExpect(jsonPath("$.content[0].deletedAt", notNullValue()));
-
-        verify(service, times(1)).getAllDeletedPaginated(any(Pageable.class));
     }
 
     @Test
     @DisplayName("GET /quote-requests/{id} - Deve retornar 200 e a quote")
     void deveRetornar200QuandoBuscarPorId() throws Exception {
         // Given
-        when(service.getById(quoteRequestId)).thenReturn(quoteRequestDTO);
+        salvar(null);
 
         // When & Then
         mockMvc.perform(get("/quote-requests/{id}", quoteRequestId)
@@ -146,78 +313,47 @@ class QuoteRequestControllerTest {
                 .andExpect(jsonPath("$.id", is(quoteRequestId.toString())))
                 .andExpect(jsonPath("$.requesterName", is("João Silva")))
                 .andExpect(jsonPath("$.requesterEmail", is("joao@email.com")));
-
-        verify(service, times(1)).getById(quoteRequestId);
     }
 
     @Test
     @DisplayName("GET /quote-requests/{id} - Deve retornar 500 quando não encontrar")
     void deveRetornar500QuandoNaoEncontrar() throws Exception {
-        // Given
-        when(service.getById(quoteRequestId))
-                .thenThrow(new RuntimeException("Solicitação não encontrada ou foi deletada."));
-
         // When & Then
         mockMvc.perform(get("/quote-requests/{id}", quoteRequestId)
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError());
-
-        verify(service, times(1)).getById(quoteRequestId);
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message", containsString("Solicitação não encontrada")));
     }
 
     @Test
-    @DisplayName("POST /quote-requests - Deve retornar 201 ao criar")
-    void deveRetornar201QuandoCriar() throws Exception {
+    @DisplayName("POST /quote-requests - Deve retornar 202 ao criar")
+    void deveRetornar202QuandoCriar() throws Exception {
         // Given
-        QuoteRequestDTO inputDTO = new QuoteRequestDTO();
-        inputDTO.setBudgetTypeId(budgetTypeId);
-        inputDTO.setRequesterName("Maria Santos");
-        inputDTO.setRequesterEmail("maria@email.com");
-        inputDTO.setDocumentOriginalName("documento.pdf");
-        inputDTO.setDocumentStorageKey("storage/key/456");
-        inputDTO.setDocumentMimeType("application/pdf");
-        inputDTO.setDocumentSizeBytes(2048L);
-        inputDTO.setBillingMethodUsed("WORD");
-        inputDTO.setFeeUsed(BigDecimal.valueOf(0.25));
-        inputDTO.setCountedUnits(500);
-        inputDTO.setEstimatedTotal(BigDecimal.valueOf(125.0));
-        inputDTO.setStatus(QuoteStatus.PENDING);
-
-        QuoteRequestDTO createdDTO = new QuoteRequestDTO();
-        createdDTO.setId(UUID.randomUUID());
-        createdDTO.setBudgetTypeId(budgetTypeId);
-        createdDTO.setRequesterName("Maria Santos");
-        createdDTO.setRequesterEmail("maria@email.com");
-        createdDTO.setDocumentOriginalName("documento.pdf");
-        createdDTO.setDocumentStorageKey("storage/key/456");
-        createdDTO.setDocumentMimeType("application/pdf");
-        createdDTO.setDocumentSizeBytes(2048L);
-        createdDTO.setBillingMethodUsed("WORD");
-        createdDTO.setFeeUsed(BigDecimal.valueOf(0.25));
-        createdDTO.setCountedUnits(500);
-        createdDTO.setEstimatedTotal(BigDecimal.valueOf(125.0));
-        createdDTO.setStatus(QuoteStatus.PENDING);
-
-        when(service.create(any(QuoteRequestDTO.class))).thenReturn(createdDTO);
+        QuoteRequestDTO inputDTO = new QuoteRequestDTO(null, budgetTypeId, "Maria Santos", "maria@email.com",
+                "documento.pdf", "storage/key/456", "application/pdf", 2048L, "WORD", BigDecimal.valueOf(0.25), 500,
+                BigDecimal.valueOf(125.0), QuoteStatus.PENDING, null, null, null);
 
         // When & Then
         mockMvc.perform(post("/quote-requests")
                         .contentType(MediaType.APPLICATION_JSON)
                         .content(objectMapper.writeValueAsString(inputDTO)))
-                .andExpect(status().isCreated())
+                .andExpect(status().isAccepted())
                 .andExpect(jsonPath("$.id", notNullValue()))
                 .andExpect(jsonPath("$.requesterName", is("Maria Santos")))
-                .andExpect(jsonPath("$.requesterEmail", is("maria@email.com")));
+                .andExpect(jsonPath("$.requesterEmail", is("maria@email.com")))
+                .andExpect(jsonPath("$.status", is("PENDING")));
 
-        verify(service, times(1)).create(any(QuoteRequestDTO.class));
+        assertThat(quoteRequestRepository.findAll()).extracting(QuoteRequest::getRequesterName)
+                .containsExactly("Maria Santos");
     }
 
     @Test
     @DisplayName("POST /quote-requests - Deve retornar 400 com dados inválidos")
     void deveRetornar400QuandoDadosInvalidos() throws Exception {
         // Given - DTO sem campos obrigatórios
-        QuoteRequestDTO invalidDTO = new QuoteRequestDTO();
-        // Não seta nada (todos os campos obrigatórios faltando)
+        QuoteRequestDTO invalidDTO = new QuoteRequestDTO(null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null);
+        // Todos os campos nulos (obrigatórios faltando)
 
         // When & Then
         mockMvc.perform(post("/quote-requests")
@@ -225,43 +361,99 @@ class QuoteRequestControllerTest {
                         .content(objectMapper.writeValueAsString(invalidDTO)))
                 .andExpect(status().isBadRequest());
 
-        verify(service, never()).create(any(QuoteRequestDTO.class));
+        assertThat(quoteRequestRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("POST /quote-requests/bulk - Deve retornar 202 ao criar em lote")
+    void deveRetornar202QuandoCriarEmLote() throws Exception {
+        // When & Then
+        mockMvc.perform(post("/quote-requests/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(quoteRequestDTO, quoteRequestDTO))))
+                .andExpect(status().isAccepted())
+                .andExpect(jsonPath("$", hasSize(2)))
+                .andExpect(jsonPath("$[0].status", is("PENDING")));
+
+        assertThat(quoteRequestRepository.count()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("POST /quote-requests/bulk - Deve retornar 503 com Retry-After quando o backlog estiver cheio")
+    void deveRetornar503QuandoBacklogCheio() throws Exception {
+        // Given - backlog para 1
+        ReflectionTestUtils.setField(quoteProcessingService, "backlogCapacity", 1);
+
+        try {
+            // When & Then
+            mockMvc.perform(post("/quote-requests/bulk")
+                            .contentType(MediaType.APPLICATION_JSON)
+                            .content(objectMapper.writeValueAsString(List.of(quoteRequestDTO, quoteRequestDTO))))
+                    .andExpect(status().isServiceUnavailable())
+                    .andExpect(header().string("Retry-After", "30"))
+                    .andExpect(jsonPath("$.message", startsWith("Pipeline de orçamentos ocupado")));
+        } finally {
+            ReflectionTestUtils.setField(quoteProcessingService, "backlogCapacity", 20000);
+        }
+        assertThat(quoteRequestRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("POST /quote-requests/bulk - Deve retornar 400 apontando o item inválido")
+    void deveRetornar400QuandoItemDoLoteInvalido() throws Exception {
+        // Given
+        QuoteRequestDTO invalidDTO = new QuoteRequestDTO(null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null);
+
+        // When & Then
+        mockMvc.perform(post("/quote-requests/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(List.of(quoteRequestDTO, invalidDTO))))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$['dtos[1].requesterName']", notNullValue()))
+                .andExpect(jsonPath("$['dtos[0].requesterName']").doesNotExist());
+
+        assertThat(quoteRequestRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("POST /quote-requests/bulk - Deve retornar 400 com lista vazia")
+    void deveRetornar400QuandoLoteVazio() throws Exception {
+        mockMvc.perform(post("/quote-requests/bulk")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content("[]"))
+                .andExpect(status().isBadRequest())
+                .andExpect(jsonPath("$.dtos", notNullValue()));
+
+        assertThat(quoteRequestRepository.count()).isZero();
+    }
+
+    @Test
+    @DisplayName("POST /quote-requests/bulk-delete - Deve retornar 200 com a quantidade deletada")
+    void deveRetornar200QuandoDeletarEmLote() throws Exception {
+        // Given
+        salvar(null);
+        List<UUID> ids = List.of(quoteRequestId, UUID.randomUUID());
+
+        // When & Then
+        mockMvc.perform(post("/quote-requests/bulk-delete")
+                        .contentType(MediaType.APPLICATION_JSON)
+                        .content(objectMapper.writeValueAsString(ids)))
+                .andExpect(status().isOk())
+                .andExpect(jsonPath("$.requested", is(2)))
+                .andExpect(jsonPath("$.deleted", is(1)));
+
+        assertThat(quoteRequestRepository.findById(quoteRequestId).orElseThrow().getDeletedAt()).isNotNull();
     }
 
     @Test
     @DisplayName("PUT /quote-requests/{id} - Deve retornar 200 ao atualizar")
     void deveRetornar200QuandoAtualizar() throws Exception {
         // Given
-        QuoteRequestDTO updateDTO = new QuoteRequestDTO();
-        updateDTO.setBudgetTypeId(budgetTypeId);
-        updateDTO.setRequesterName("João Silva Atualizado");
-        updateDTO.setRequesterEmail("joao.novo@email.com");
-        updateDTO.setDocumentOriginalName("contrato.pdf");
-        updateDTO.setDocumentStorageKey("storage/key/123");
-        updateDTO.setDocumentMimeType("application/pdf");
-        updateDTO.setDocumentSizeBytes(1024L);
-        updateDTO.setBillingMethodUsed("WORD");
-        updateDTO.setFeeUsed(BigDecimal.valueOf(0.25));
-        updateDTO.setCountedUnits(1000);
-        updateDTO.setEstimatedTotal(BigDecimal.valueOf(250.0));
-        updateDTO.setStatus(QuoteStatus.PENDING);
-
-        QuoteRequestDTO updatedDTO = new QuoteRequestDTO();
-        updatedDTO.setId(quoteRequestId);
-        updatedDTO.setBudgetTypeId(budgetTypeId);
-        updatedDTO.setRequesterName("João Silva Atualizado");
-        updatedDTO.setRequesterEmail("joao.novo@email.com");
-        updatedDTO.setDocumentOriginalName("contrato.pdf");
-        updatedDTO.setDocumentStorageKey("storage/key/123");
-        updatedDTO.setDocumentMimeType("application/pdf");
-        updatedDTO.setDocumentSizeBytes(1024L);
-        updatedDTO.setBillingMethodUsed("WORD");
-        updatedDTO.setFeeUsed(BigDecimal.valueOf(0.25));
-        updatedDTO.setCountedUnits(1000);
-        updatedDTO.setEstimatedTotal(BigDecimal.valueOf(250.0));
-        updatedDTO.setStatus(QuoteStatus.PENDING);
-
-        when(service.update(eq(quoteRequestId), any(QuoteRequestDTO.class))).thenReturn(updatedDTO);
+        salvar(null);
+        QuoteRequestDTO updateDTO = new QuoteRequestDTO(null, budgetTypeId, "João Silva Atualizado",
+                "joao.novo@email.com", "contrato.pdf", "storage/key/123", "application/pdf", 1024L, "WORD",
+                BigDecimal.valueOf(0.25), 1000, BigDecimal.valueOf(250.0), QuoteStatus.PENDING, null, null, null);
 
         // When & Then
         mockMvc.perform(put("/quote-requests/{id}", quoteRequestId)
@@ -271,14 +463,17 @@ class QuoteRequestControllerTest {
                 .andExpect(jsonPath("$.requesterName", is("João Silva Atualizado")))
                 .andExpect(jsonPath("$.status", is("PENDING")));
 
-        verify(service, times(1)).update(eq(quoteRequestId), any(QuoteRequestDTO.class));
+        assertThat(quoteRequestRepository.findById(quoteRequestId).orElseThrow().getRequesterEmail())
+                .isEqualTo("joao.novo@email.com");
     }
 
     @Test
     @DisplayName("PUT /quote-requests/{id} - Deve retornar 400 com dados inválidos")
     void deveRetornar400QuandoAtualizarComDadosInvalidos() throws Exception {
         // Given - DTO inválido
-        QuoteRequestDTO invalidDTO = new QuoteRequestDTO();
+        salvar(null);
+        QuoteRequestDTO invalidDTO = new QuoteRequestDTO(null, null, null, null, null, null, null, null, null, null,
+                null, null, null, null, null, null);
 
         // When & Then
         mockMvc.perform(put("/quote-requests/{id}", quoteRequestId)
@@ -286,43 +481,39 @@ class QuoteRequestControllerTest {
                         .content(objectMapper.writeValueAsString(invalidDTO)))
                 .andExpect(status().isBadRequest());
 
-        verify(service, never()).update(any(UUID.class), any(QuoteRequestDTO.class));
+        assertThat(quoteRequestRepository.findById(quoteRequestId).orElseThrow().getRequesterName())
+                .isEqualTo("João Silva");
     }
 
     @Test
     @DisplayName("DELETE /quote-requests/{id} - Deve retornar 204 ao deletar")
     void deveRetornar204QuandoDeletar() throws Exception {
         // Given
-        doNothing().when(service).softDelete(quoteRequestId);
+        salvar(null);
 
         // When & Then
         mockMvc.perform(delete("/quote-requests/{id}", quoteRequestId)
                         .contentType(MediaType.APPLICATION_JSON))
                 .andExpect(status().isNoContent());
 
-        verify(service, times(1)).softDelete(quoteRequestId);
+        assertThat(quoteRequestRepository.findById(quoteRequestId).orElseThrow().getDeletedAt()).isNotNull();
     }
 
     @Test
     @DisplayName("DELETE /quote-requests/{id} - Deve retornar 500 quando não encontrar")
     void deveRetornar500QuandoDeletarInexistente() throws Exception {
-        // Given
-        doThrow(new RuntimeException("Solicitação não encontrada ou já deletada."))
-                .when(service).softDelete(quoteRequestId);
-
         // When & Then
         mockMvc.perform(delete("/quote-requests/{id}", quoteRequestId)
                         .contentType(MediaType.APPLICATION_JSON))
-                .andExpect(status().isInternalServerError());
-
-        verify(service, times(1)).softDelete(quoteRequestId);
+                .andExpect(status().isInternalServerError())
+                .andExpect(jsonPath("$.message", containsString("Solicitação não encontrada")));
     }
 
     @Test
     @DisplayName("GET /quote-requests/all - Deve retornar 200 (DEPRECATED)")
     void deveRetornar200QuandoListarTodos() throws Exception {
         // Given
-        when(service.getAll()).thenReturn(List.of(quoteRequestDTO));
+        salvar(null);
 
         // When & Then
         mockMvc.perform(get("/quote-requests/all")
@@ -330,7 +521,47 @@ class QuoteRequestControllerTest {
                 .andExpect(status().isOk())
                 .andExpect(jsonPath("$", hasSize(1)))
                 .andExpect(jsonPath("$[0].requesterName", is("João Silva")));
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    // Solicitação já contada, gravada direto no banco
+    private void salvar(OffsetDateTime deletedAt) {
+        QuoteRequest quoteRequest = new QuoteRequest();
+        quoteRequest.setBudgetType(budgetType);
+        quoteRequest.setRequesterName("João Silva");
+        quoteRequest.setRequesterEmail("joao@email.com");
+        quoteRequest.setDocumentOriginalName("contrato.pdf");
+        quoteRequest.setDocumentStorageKey("storage/key/123");
+        quoteRequest.setDocumentMimeType("application/pdf");
+        quoteRequest.setDocumentSizeBytes(1024L);
+        quoteRequest.setBillingMethodUsed("WORD");
+        quoteRequest.setFeeUsed(BigDecimal.valueOf(0.25));
+        quoteRequest.setCountedUnits(1000);
+        quoteRequest.setEstimatedTotal(BigDecimal.valueOf(250.0));
+        quoteRequest.setStatus(QuoteStatus.PENDING);
+        quoteRequest.setDeletedAt(deletedAt);
+        quoteRequestId = quoteRequestRepository.save(quoteRequest).getId();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    @TestConfiguration
+    static class ControllerConfig {
+
+        // Os eventos de criação e PUT chegam ao pipeline, mas nada é executado
+        @Bean
+        TaskExecutor quoteProcessingExecutor() {
+            return task -> { };
+        }
 
-        verify(service, times(1)).getAll();
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,70 @@
+package com.orcamento.api.dto;
+
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.lang.reflect.RecordComponent;
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.UUID;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do QuoteRequestFields")
+class QuoteRequestFieldsTest {
+
+    @Test
+    @DisplayName("Deve aceitar todos os componentes do QuoteRequestDTO, com os mesmos valores do record")
+    void deveCobrirTodosOsComponentesDoRecord() throws Exception {
+        // Given
+        QuoteRequestDTO dto = quote();
+        RecordComponent[] components = QuoteRequestDTO.class.getRecordComponents();
+        String all = String.join(",", Arrays.stream(components).map(RecordComponent::getName).toList());
+
+        // When
+        Map<String, Object> row = QuoteRequestFields.selector(all).apply(dto);
+
+        // Then
+        assertThat(row).hasSize(components.length);
+        for (RecordComponent component : components) {
+            assertThat(row.get(component.getName())).isEqualTo(component.getAccessor().invoke(dto));
+        }
+    }
+
+    @Test
+    @DisplayName("Deve manter a ordem pedida e ignorar espaços e repetidos")
+    void deveManterOrdemEIgnorarRepetidos() {
+        // When
+        Map<String, Object> row = QuoteRequestFields.selector(" status, id ,status,").apply(quote());
+
+        // Then
+        assertThat(row.keySet()).containsExactly("status", "id");
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção para campo desconhecido ou lista vazia")
+    void deveLancarExcecaoParaCampoInvalido() {
+        assertThatThrownBy(() -> QuoteRequestFields.selector("id,senha"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("senha");
+        assertThatThrownBy(() -> QuoteRequestFields.selector(" , "))
+                .isInstanceOf(IllegalArgumentException.class);
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private QuoteRequestDTO quote() {
+        OffsetDateTime now = OffsetDateTime.now();
+        return new QuoteRequestDTO(UUID.randomUUID(), UUID.randomUUID(), "João Silva", "joao@email.com",
+                "contrato.pdf", "storage/key/123", "application/pdf", 1024L, "WORD", new BigDecimal("0.25"), 1000,
+                new BigDecimal("250.00"), QuoteStatus.SENT, now, now, now);
+    }
+}
@@ -0,0 +1,287 @@
+package com.orcamento.api.messaging;
+
+import com.orcamento.api.dto.NotificationEventDTO;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.OutboxMessage;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.repository.BudgetTypeRepository;
+import com.orcamento.api.repository.OutboxMessageRepository;
+import com.orcamento.api.repository.QuoteRequestRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Relay com os repositórios de verdade no H2 e um publicador que responde na hora, sem RabbitMQ.
+ * Cada chamada confirma a própria transação, como em produção.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "notifications.outbox.batch-size=100",
+        "notifications.outbox.lease-ms=300000",
+        "notifications.outbox.confirm-wait-ms=1000",
+        "notifications.outbox.retry-delay-ms=30000",
+        "notifications.outbox.max-attempts=3"})
+@Import({NotificationOutboxRelay.class, NotificationOutboxRelayTest.RelayConfig.class})
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do NotificationOutboxRelay")
+class NotificationOutboxRelayTest {
+
+    @Autowired
+    private NotificationOutboxRelay relay;
+
+    @Autowired
+    private ScriptedProducer producer;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private BudgetTypeRepository budgetTypeRepository;
+
+    private BudgetType budgetType;
+
+    @BeforeEach
+    void setUp() {
+        outboxMessageRepository.deleteAll();
+        quoteRequestRepository.deleteAll();
+        producer.reset();
+
+        budgetType = new BudgetType();
+        budgetType.setBudgetTypeName("Tradução por Palavra");
+        budgetType.setBillingMethod(BillingMethod.WORD);
+        budgetType.setFee(new BigDecimal("0.25"));
+        budgetType.setDescription("Teste");
+        budgetType.setTargetEmail("teste@email.com");
+        budgetType = budgetTypeRepository.save(budgetType);
+    }
+
+    @Test
+    @DisplayName("Deve publicar o lote, remover do outbox e marcar as solicitações como SENT")
+    void devePublicarLoteEMarcarComoSent() {
+        // Given
+        OutboxMessage first = mensagem(0);
+        OutboxMessage second = mensagem(1);
+        // Durante a publicação o lease já está gravado e nenhuma transação fica aberta
+        producer.duringSend(() -> {
+            assertThat(TransactionSynchronizationManager.isActualTransactionActive()).isFalse();
+            assertThat(outboxMessageRepository.findAll()).allSatisfy(message ->
+                    assertThat(message.getAvailableAt()).isAfter(OffsetDateTime.now().plusMinutes(4)));
+        });
+
+        // When
+        int claimed = relay.relayBatch();
+
+        // Then
+        assertThat(claimed).isEqualTo(2);
+        assertThat(producer.sent()).extracting(NotificationEventDTO::getExternalReferenceId)
+                .containsExactly(first.getQuoteRequestId(), second.getQuoteRequestId());
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+        for (OutboxMessage message : List.of(first, second)) {
+            QuoteRequest quote = quoteRequestRepository.findById(message.getQuoteRequestId()).orElseThrow();
+            assertThat(quote.getStatus()).isEqualTo(QuoteStatus.SENT);
+            assertThat(quote.getNotifiedAt()).isNotNull();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve reagendar as mensagens cuja publicação falhou")
+    void deveReagendarMensagensComFalha() {
+        // Given
+        OutboxMessage ok = mensagem(0);
+        OutboxMessage failed = mensagem(0);
+        producer.answer(failed.getQuoteRequestId(),
+                () -> CompletableFuture.failedFuture(new RuntimeException("nack do broker")));
+
+        // When
+        relay.relayBatch();
+
+        // Then - a que falhou volta depois do retry-delay, com a tentativa contada
+        assertThat(status(ok)).isEqualTo(QuoteStatus.SENT);
+        assertThat(status(failed)).isEqualTo(QuoteStatus.PENDING);
+        List<OutboxMessage> remaining = outboxMessageRepository.findAll();
+        assertThat(remaining).extracting(OutboxMessage::getId).containsExactly(failed.getId());
+        assertThat(remaining.get(0).getAttempts()).isEqualTo(1);
+        assertThat(remaining.get(0).getAvailableAt())
+                .isBetween(OffsetDateTime.now().plusSeconds(20), OffsetDateTime.now().plusSeconds(30));
+    }
+
+    @Test
+    @DisplayName("Deve marcar como FAILED as mensagens que esgotaram as tentativas")
+    void deveMarcarComoFailedAoEsgotarTentativas() {
+        // Given
+        OutboxMessage exhausted = mensagem(3);
+
+        // When
+        int claimed = relay.relayBatch();
+
+        // Then
+        assertThat(claimed).isZero();
+        assertThat(status(exhausted)).isEqualTo(QuoteStatus.FAILED);
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+        assertThat(producer.sent()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve devolver sem contar tentativa as mensagens que não couberam no buffer do publicador")
+    void deveDevolverMensagensQuandoBufferCheio() {
+        // Given
+        OutboxMessage accepted = mensagem(0);
+        OutboxMessage rejected = mensagem(0);
+        producer.answer(rejected.getQuoteRequestId(), () -> {
+            throw new RejectedExecutionException("Buffer de notificações cheio");
+        });
+
+        // When
+        int offered = relay.relayBatch();
+
+        // Then - a rejeitada volta já disponível e com a tentativa desfeita; o ciclo não pega outro lote
+        assertThat(offered).isEqualTo(1);
+        assertThat(status(accepted)).isEqualTo(QuoteStatus.SENT);
+        List<OutboxMessage> remaining = outboxMessageRepository.findAll();
+        assertThat(remaining).extracting(OutboxMessage::getId).containsExactly(rejected.getId());
+        assertThat(remaining.get(0).getAttempts()).isZero();
+        assertThat(remaining.get(0).getAvailableAt()).isBeforeOrEqualTo(OffsetDateTime.now());
+    }
+
+    @Test
+    @DisplayName("Deve continuar pegando lotes enquanto vierem cheios")
+    void deveContinuarEnquantoLotesVieremCheios() {
+        // Given
+        int batchSize = (int) ReflectionTestUtils.getField(relay, "batchSize");
+        ReflectionTestUtils.setField(relay, "batchSize", 1);
+        mensagem(0);
+        mensagem(0);
+
+        try {
+            // When
+            relay.relay();
+        } finally {
+            ReflectionTestUtils.setField(relay, "batchSize", batchSize);
+        }
+
+        // Then
+        assertThat(producer.sent()).hasSize(2);
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    // Solicitação PENDING e a notificação dela no outbox, na versão gravada
+    private OutboxMessage mensagem(int attempts) {
+        QuoteRequest quote = new QuoteRequest();
+        quote.setBudgetType(budgetType);
+        quote.setRequesterName("João Silva");
+        quote.setRequesterEmail("joao@email.com");
+        quote.setDocumentOriginalName("documento.pdf");
+        quote.setDocumentStorageKey("storage/documento.pdf");
+        quote.setDocumentMimeType("application/pdf");
+        quote.setDocumentSizeBytes(1024L);
+        quote.setBillingMethodUsed("WORD");
+        quote.setFeeUsed(new BigDecimal("0.25"));
+        quote.setCountedUnits(1000);
+        quote.setEstimatedTotal(new BigDecimal("250.00"));
+        quote.setStatus(QuoteStatus.PENDING);
+        quote = quoteRequestRepository.save(quote);
+
+        OffsetDateTime version = quoteRequestRepository.findUpdatedAtById(quote.getId(), quote.getCreatedAt());
+        OutboxMessage message = new OutboxMessage(quote.getId(), version, new NotificationEventDTO(
+                quote.getId(), "joao@email.com", "João Silva", "Seu orçamento foi criado!", "<p>Olá</p>"));
+        message.setAttempts(attempts);
+        return outboxMessageRepository.save(message);
+    }
+
+    private QuoteStatus status(OutboxMessage message) {
+        return quoteRequestRepository.findById(message.getQuoteRequestId()).orElseThrow().getStatus();
+    }
+
+    /*** Publicador sem RabbitMQ: confirma na hora, a não ser que o teste defina outra resposta ***/
+    static class ScriptedProducer extends NotificationProducerService {
+
+        private final List<NotificationEventDTO> sent = new CopyOnWriteArrayList<>();
+        private final Map<UUID, Supplier<CompletableFuture<Void>>> answers = new ConcurrentHashMap<>();
+        private volatile Runnable duringSend = () -> { };
+
+        ScriptedProducer() {
+            super(new RabbitTemplate(), new SimpleMeterRegistry(), 10);
+        }
+
+        @Override
+        public CompletableFuture<Void> sendNotification(NotificationEventDTO event) {
+            CompletableFuture<Void> result = answers
+                    .getOrDefault(event.getExternalReferenceId(), () -> CompletableFuture.completedFuture(null))
+                    .get();
+            sent.add(event);
+            duringSend.run();
+            return result;
+        }
+
+        @Override
+        public boolean isAutoStartup() {
+            return false;
+        }
+
+        List<NotificationEventDTO> sent() {
+            return sent;
+        }
+
+        void answer(UUID quoteRequestId, Supplier<CompletableFuture<Void>> answer) {
+            answers.put(quoteRequestId, answer);
+        }
+
+        void duringSend(Runnable action) {
+            this.duringSend = action;
+        }
+
+        void reset() {
+            sent.clear();
+            answers.clear();
+            duringSend = () -> { };
+        }
+    }
+
+    @TestConfiguration
+    static class RelayConfig {
+
+        @Bean
+        ScriptedProducer notificationProducerService() {
+            return new ScriptedProducer();
+        }
+    }
+}
@@ -0,0 +1,244 @@
+package com.orcamento.api.messaging;
+
+import com.orcamento.api.dto.NotificationEventDTO;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.messaging.NotificationProducerService.PendingNotification;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.amqp.AmqpConnectException;
+import org.springframework.amqp.AmqpException;
+import org.springframework.amqp.rabbit.connection.CachingConnectionFactory;
+import org.springframework.amqp.rabbit.connection.CorrelationData;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.net.ConnectException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do NotificationProducerService")
+class NotificationProducerServiceTest {
+
+    private static final String QUEUE = "notifications";
+
+    private RecordingRabbitTemplate rabbitTemplate;
+    private SimpleMeterRegistry meterRegistry;
+    private NotificationProducerService service;
+
+    @BeforeEach
+    void setUp() {
+        rabbitTemplate = new RecordingRabbitTemplate();
+        meterRegistry = new SimpleMeterRegistry();
+        service = newService(10);
+    }
+
+    @Test
+    @DisplayName("Deve publicar o lote num único canal e completar só depois do ack")
+    void devePublicarLoteECompletarAposAck() throws InterruptedException {
+        // Given
+        comConfirmacoes();
+        List<CompletableFuture<Void>> futures = List.of(
+                service.sendNotification(evento()), service.sendNotification(evento()), service.sendNotification(evento()));
+
+        // When
+        assertThat(service.publishBatch(proximoLote())).isTrue();
+
+        // Then
+        assertThat(rabbitTemplate.invocations()).isEqualTo(1);
+        List<CorrelationData> correlations = correlacoesPublicadas(3);
+        assertThat(futures).noneMatch(CompletableFuture::isDone);
+
+        correlations.forEach(c -> c.getFuture().complete(new CorrelationData.Confirm(true, null)));
+        assertThat(futures).allMatch(f -> f.isDone() && !f.isCompletedExceptionally());
+        assertThat(meterRegistry.get("notifications.publisher.batch.size").summary().totalAmount()).isEqualTo(3);
+        assertThat(meterRegistry.get("notifications.publisher.confirm.latency").timer().count()).isEqualTo(3);
+        assertThat(meterRegistry.get("notifications.publisher.published").counter().count()).isEqualTo(3);
+        assertThat(correlations).extracting(CorrelationData::getId).doesNotHaveDuplicates();
+    }
+
+    @Test
+    @DisplayName("Deve recolocar no buffer e republicar quando o broker responder nack")
+    void deveRepublicarAposNack() throws InterruptedException {
+        // Given
+        comConfirmacoes();
+        CompletableFuture<Void> future = service.sendNotification(evento());
+        service.publishBatch(proximoLote());
+
+        // When
+        correlacoesPublicadas(1).get(0).getFuture().complete(new CorrelationData.Confirm(false, "fila cheia"));
+
+        // Then
+        assertThat(future).isNotDone();
+        assertThat(meterRegistry.get("notifications.publisher.queue.depth").gauge().value()).isEqualTo(1);
+        assertThat(meterRegistry.get("notifications.publisher.retries").counter().count()).isEqualTo(1);
+
+        service.publishBatch(proximoLote());
+        correlacoesPublicadas(2).get(1).getFuture().complete(new CorrelationData.Confirm(true, null));
+        assertThat(future).isCompleted();
+    }
+
+    @Test
+    @DisplayName("Deve falhar o future depois de esgotar as tentativas")
+    void deveFalharDepoisDeEsgotarTentativas() throws InterruptedException {
+        // Given
+        ReflectionTestUtils.setField(service, "maxAttempts", 2);
+        comConfirmacoes();
+        CompletableFuture<Void> future = service.sendNotification(evento());
+
+        // When
+        for (int attempt = 1; attempt <= 2; attempt++) {
+            service.publishBatch(proximoLote());
+            correlacoesPublicadas(attempt).get(attempt - 1).getFuture()
+                    .complete(new CorrelationData.Confirm(false, "recusada"));
+        }
+
+        // Then
+        assertThat(future).isCompletedExceptionally();
+        assertThat(meterRegistry.get("notifications.publisher.failures").counter().count()).isEqualTo(1);
+        assertThat(meterRegistry.get("notifications.publisher.published").counter().count()).isZero();
+        assertThat(meterRegistry.get("notifications.publisher.queue.depth").gauge().value()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve recolocar o lote inteiro no buffer quando não conseguir publicar")
+    void deveRecolocarLoteQuandoBrokerIndisponivel() throws InterruptedException {
+        // Given
+        rabbitTemplate.failWith(new AmqpConnectException(new ConnectException("recusada")));
+        CompletableFuture<Void> first = service.sendNotification(evento());
+        CompletableFuture<Void> second = service.sendNotification(evento());
+
+        // When
+        boolean published = service.publishBatch(proximoLote());
+
+        // Then
+        assertThat(published).isFalse();
+        assertThat(first).isNotDone();
+        assertThat(second).isNotDone();
+        assertThat(meterRegistry.get("notifications.publisher.queue.depth").gauge().value()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve recusar novas notificações com o buffer cheio")
+    void deveRecusarComBufferCheio() {
+        // Given
+        service = newService(2);
+        service.sendNotification(evento());
+        service.sendNotification(evento());
+
+        // When / Then
+        assertThatThrownBy(() -> service.sendNotification(evento()))
+                .isInstanceOf(RejectedExecutionException.class);
+    }
+
+    @Test
+    @DisplayName("Deve publicar pela thread do publicador e esvaziar o buffer ao parar")
+    void devePublicarPelaThreadDoPublicador() throws Exception {
+        // Given - sem publisher confirms o envio vale como confirmação
+        service.start();
+
+        // When
+        CompletableFuture<Void> future = service.sendNotification(evento());
+        future.get(5, TimeUnit.SECONDS);
+        CompletableFuture<Void> last = service.sendNotification(evento());
+        service.stop();
+
+        // Then
+        assertThat(last).isCompleted();
+        assertThat(service.isRunning()).isFalse();
+        assertThat(rabbitTemplate.routingKeys()).containsExactly(QUEUE, QUEUE);
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private NotificationProducerService newService(int capacity) {
+        NotificationProducerService created = new NotificationProducerService(rabbitTemplate, meterRegistry, capacity);
+        ReflectionTestUtils.setField(created, "notificationQueue", QUEUE);
+        ReflectionTestUtils.setField(created, "lingerMs", 0L);
+        ReflectionTestUtils.setField(created, "retryBackoffMs", 10L);
+        return created;
+    }
+
+    private void comConfirmacoes() {
+        rabbitTemplate.publisherConfirms();
+    }
+
+    private List<PendingNotification> proximoLote() throws InterruptedException {
+        List<PendingNotification> batch = new ArrayList<>();
+        service.collectBatch(batch);
+        return batch;
+    }
+
+    private List<CorrelationData> correlacoesPublicadas(int expected) {
+        assertThat(rabbitTemplate.routingKeys()).hasSize(expected).containsOnly(QUEUE);
+        return rabbitTemplate.correlations();
+    }
+
+    private NotificationEventDTO evento() {
+        return new NotificationEventDTO(UUID.randomUUID(), "joao@email.com", "João Silva",
+                "Seu orçamento foi criado!", "<p>Olá</p>");
+    }
+
+    /*** RabbitTemplate sem broker: o invoke roda o callback no próprio template e cada envio fica registrado ***/
+    static class RecordingRabbitTemplate extends RabbitTemplate {
+
+        private final List<String> routingKeys = new CopyOnWriteArrayList<>();
+        private final List<CorrelationData> correlations = new CopyOnWriteArrayList<>();
+        private final AtomicInteger invocations = new AtomicInteger();
+        private volatile AmqpException failure;
+
+        // O serviço só lê a configuração da connection factory; nenhuma conexão é aberta
+        RecordingRabbitTemplate() {
+            super(new CachingConnectionFactory());
+        }
+
+        void publisherConfirms() {
+            ((CachingConnectionFactory) getConnectionFactory())
+                    .setPublisherConfirmType(CachingConnectionFactory.ConfirmType.CORRELATED);
+        }
+
+        @Override
+        public <T> T invoke(OperationsCallback<T> action) {
+            invocations.incrementAndGet();
+            if (failure != null) {
+                throw failure;
+            }
+            return action.doInRabbit(this);
+        }
+
+        @Override
+        public void convertAndSend(String routingKey, Object message, CorrelationData correlationData) {
+            routingKeys.add(routingKey);
+            correlations.add(correlationData);
+        }
+
+        void failWith(AmqpException failure) {
+            this.failure = failure;
+        }
+
+        int invocations() {
+            return invocations.get();
+        }
+
+        List<String> routingKeys() {
+            return routingKeys;
+        }
+
+        List<CorrelationData> correlations() {
+            return correlations;
+        }
+    }
+}
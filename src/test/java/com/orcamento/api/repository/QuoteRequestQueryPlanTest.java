@@ -0,0 +1,272 @@
+package com.orcamento.api.repository;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.util.QuoteRequestIds;
+
+import org.hibernate.cfg.AvailableSettings;
+import org.hibernate.resource.jdbc.spi.StatementInspector;
+import org.junit.jupiter.api.BeforeAll;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.orm.jpa.HibernatePropertiesCustomizer;
+import org.springframework.boot.test.autoconfigure.jdbc.AutoConfigureTestDatabase;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.boot.testcontainers.service.connection.ServiceConnection;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import javax.sql.DataSource;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.Predicate;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * Planos de execução das consultas do repositório sobre uma tabela com {@value #ROWS} linhas, num
+ * PostgreSQL de verdade com as migrações do Flyway. O SQL é o que o Hibernate realmente envia
+ * (capturado por um StatementInspector) e o plano é o genérico ({@code plan_cache_mode = force_generic_plan}),
+ * o que um comando preparado passa a usar depois das primeiras execuções. Falha se alguma consulta fizer
+ * Seq Scan em quote_requests.
+ * <p>
+ * Precisa de Docker; sem ele a classe é pulada.
+ */
+@DataJpaTest
+@AutoConfigureTestDatabase(replace = AutoConfigureTestDatabase.Replace.NONE)
+@Testcontainers(disabledWithoutDocker = true)
+@DisplayName("Planos de execução do QuoteRequestRepository")
+class QuoteRequestQueryPlanTest {
+
+    static final int ROWS = 1_000_000;
+
+    private static final ObjectMapper MAPPER = new ObjectMapper();
+
+    @Container
+    @ServiceConnection
+    static PostgreSQLContainer<?> postgres = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private SqlRecorder sqlRecorder;
+
+    /*
+     * Fora da transação do teste: os dados ficam para todos os métodos e o VACUUM ANALYZE
+     * (que não roda em transação) deixa estatísticas e visibility map como os de produção.
+     * 1 em cada 20 linhas deletada, 2% PENDING e 2% FAILED, created_at crescente.
+     */
+    @BeforeAll
+    static void seed(@Autowired DataSource dataSource) {
+        JdbcTemplate jdbc = new JdbcTemplate(dataSource);
+        jdbc.update("INSERT INTO quote_requests (budget_type_id, requester_name, requester_email, "
+                + "document_original_name, document_storage_key, status, created_at, updated_at, deleted_at) "
+                + "SELECT bt.id, 'Cliente ' || g, 'cliente' || g || '@email.com', 'documento-' || g || '.pdf', "
+                + "'storage/' || g, "
+                + "CASE g % 50 WHEN 0 THEN 'PENDING' WHEN 1 THEN 'FAILED' ELSE 'SENT' END, "
+                + "t.ts, t.ts + interval '5 minutes', CASE WHEN g % 20 = 0 THEN t.ts + interval '1 day' END "
+                + "FROM generate_series(1, ?) g "
+                + "CROSS JOIN (SELECT id FROM budget_types LIMIT 1) bt "
+                + "CROSS JOIN LATERAL (SELECT timestamptz '2023-01-01 00:00:00+00' + g * interval '1 minute' AS ts) t",
+                ROWS);
+        jdbc.execute("VACUUM ANALYZE quote_requests");
+    }
+
+    @BeforeEach
+    void setUp() {
+        sqlRecorder.clear();
+    }
+
+    @Test
+    @DisplayName("Listagem paginada de ativas por createdAt não faz Seq Scan")
+    void listagemAtivasPorCreatedAt() {
+        PageRequest desc = PageRequest.of(3, 20, Sort.by(Sort.Direction.DESC, "createdAt"));
+        PageRequest asc = PageRequest.of(3, 20, Sort.by(Sort.Direction.ASC, "createdAt"));
+
+        quoteRequestRepository.findAllByDeletedAtIsNull(desc);
+        quoteRequestRepository.findActiveAsDTO(desc);
+        quoteRequestRepository.findActiveAsDTO(asc);
+
+        // O COUNT da página lê ~95% da tabela; para ele o Seq Scan (paralelo) é o plano certo
+        assertSemSeqScan(sql -> !sql.startsWith("select count("));
+    }
+
+    @Test
+    @DisplayName("Listagem paginada de deletadas por deletedAt não faz Seq Scan")
+    void listagemDeletadasPorDeletedAt() {
+        PageRequest desc = PageRequest.of(3, 20, Sort.by(Sort.Direction.DESC, "deletedAt"));
+
+        quoteRequestRepository.findAllByDeletedAtIsNotNull(desc);
+        quoteRequestRepository.findDeletedAsDTO(desc);
+
+        assertSemSeqScan();
+    }
+
+    @Test
+    @DisplayName("Listagem por cursor não faz Seq Scan")
+    void listagemPorCursor() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        quoteRequestRepository.findActiveFirst(PageRequest.ofSize(20));
+        quoteRequestRepository.findActiveBefore(createdAt, UUID.randomUUID(), PageRequest.ofSize(20));
+
+        assertSemSeqScan();
+    }
+
+    @Test
+    @DisplayName("Listagem por cursor descarta as partições mais novas que o cursor")
+    void listagemPorCursorPodaParticoes() {
+        OffsetDateTime createdAt = OffsetDateTime.of(2024, 1, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+
+        quoteRequestRepository.findActiveBefore(createdAt, UUID.randomUUID(), PageRequest.ofSize(20));
+
+        // Os dados semeados ficam na legacy; as partições mensais (a partir do corte da V9) são podadas
+        List<String> statements = sqlRecorder.selects();
+        assertThat(statements).hasSize(1);
+        JsonNode plan = explain(statements.get(0));
+        assertThat(plan.findValues("Subplans Removed"))
+                .as("Sem poda de partições:%n%s", plan.toPrettyString())
+                .anyMatch(removed -> removed.asInt() > 0);
+    }
+
+    @Test
+    @DisplayName("Busca por ID descarta as partições fora do instante embutido no ID")
+    void buscaPorIdPodaParticoes() {
+        quoteRequestRepository.findById(QuoteRequestIds.newId(OffsetDateTime.now()));
+
+        List<String> statements = sqlRecorder.selects();
+        assertThat(statements).hasSize(1);
+        JsonNode plan = explain(statements.get(0));
+        assertThat(plan.findValues("Subplans Removed"))
+                .as("Sem poda de partições:%n%s", plan.toPrettyString())
+                .anyMatch(removed -> removed.asInt() > 0);
+    }
+
+    @Test
+    @DisplayName("Busca por ID e reenfileiramento de PENDING não fazem Seq Scan")
+    void buscasPontuais() {
+        quoteRequestRepository.findActiveDTOById(UUID.randomUUID());
+        quoteRequestRepository.findStaleIds(QuoteStatus.PENDING, OffsetDateTime.now().minusMinutes(10),
+                PageRequest.ofSize(100));
+
+        assertSemSeqScan();
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private void assertSemSeqScan() {
+        assertSemSeqScan(sql -> true);
+    }
+
+    private void assertSemSeqScan(Predicate<String> verificar) {
+        List<String> statements = sqlRecorder.selects();
+        assertThat(statements).isNotEmpty();
+        for (String sql : statements) {
+            if (!verificar.test(sql)) {
+                continue;
+            }
+            JsonNode plan = explain(sql);
+            // Partição vazia (os meses futuros) custa zero no Seq Scan: só conta tabela com linhas
+            List<String> scanned = seqScans(plan.get("Plan"), new ArrayList<>()).stream()
+                    .filter(relation -> jdbcTemplate.queryForObject(
+                            "SELECT reltuples > 0 FROM pg_class WHERE oid = to_regclass(?)", Boolean.class, relation))
+                    .toList();
+            assertThat(scanned)
+                    .as("Seq Scan em quote_requests para:%n%s%n%s", sql, plan.toPrettyString())
+                    .isEmpty();
+        }
+    }
+
+    // Plano genérico: os "?" do JDBC viram $1..$n, sem valores, como num comando preparado
+    private JsonNode explain(String sql) {
+        StringBuilder numbered = new StringBuilder(sql.length() + 16);
+        int param = 0;
+        for (int i = 0; i < sql.length(); i++) {
+            char c = sql.charAt(i);
+            if (c == '?') {
+                numbered.append('$').append(++param);
+            } else {
+                numbered.append(c);
+            }
+        }
+        // O valor dos parâmetros não muda um plano genérico; NULL só preenche o EXECUTE
+        jdbcTemplate.execute("SET LOCAL plan_cache_mode = force_generic_plan");
+        jdbcTemplate.execute("PREPARE plano AS " + numbered);
+        String json;
+        try {
+            String args = param == 0 ? "" : "(" + String.join(", ", Collections.nCopies(param, "NULL")) + ")";
+            json = jdbcTemplate.queryForObject("EXPLAIN (FORMAT JSON) EXECUTE plano" + args, String.class);
+        } finally {
+            jdbcTemplate.execute("DEALLOCATE plano");
+        }
+        try {
+            return MAPPER.readTree(json).get(0);
+        } catch (Exception e) {
+            throw new IllegalStateException("Plano inválido: " + json, e);
+        }
+    }
+
+    private static List<String> seqScans(JsonNode node, List<String> found) {
+        // A tabela é particionada (V10): o Seq Scan aparece com o nome da partição
+        String relation = node.path("Relation Name").asText();
+        if ("Seq Scan".equals(node.path("Node Type").asText())
+                && (relation.equals("quote_requests") || relation.startsWith("quote_requests_"))) {
+            found.add(relation);
+        }
+        for (JsonNode child : node.path("Plans")) {
+            seqScans(child, found);
+        }
+        return found;
+    }
+
+    static class SqlRecorder implements StatementInspector {
+
+        private final List<String> statements = new CopyOnWriteArrayList<>();
+
+        @Override
+        public String inspect(String sql) {
+            statements.add(sql);
+            return sql;
+        }
+
+        List<String> selects() {
+            return statements.stream().filter(sql -> sql.stripLeading().regionMatches(true, 0, "select", 0, 6)).toList();
+        }
+
+        void clear() {
+            statements.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class SqlRecorderConfig {
+
+        @Bean
+        SqlRecorder sqlRecorder() {
+            return new SqlRecorder();
+        }
+
+        @Bean
+        HibernatePropertiesCustomizer sqlRecorderCustomizer(SqlRecorder sqlRecorder) {
+            return properties -> properties.put(AvailableSettings.STATEMENT_INSPECTOR, sqlRecorder);
+        }
+    }
+}
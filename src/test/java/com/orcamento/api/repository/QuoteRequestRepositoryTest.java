@@ -1,9 +1,16 @@
 package com.orcamento.api.repository;
 
+import com.orcamento.api.dto.NotificationEventDTO;
+import com.orcamento.api.dto.QuoteRequestDTO;
 import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.OutboxMessage;
 import com.orcamento.api.entity.QuoteRequest;
 import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.util.QuoteRequestIds;
+import com.orcamento.api.util.QuoteRequestIds.CreatedAtRange;
 
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
@@ -13,13 +20,17 @@ import org.springframework.boot.test.autoconfigure.orm.jpa.TestEntityManager;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.test.context.ActiveProfiles;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.tuple;
 
 import com.orcamento.api.entity.enums.QuoteStatus;
 
@@ -194,7 +205,210 @@ class QuoteRequestRepositoryTest {
         assertThat(result).isEmpty();
     }
 
-    // ===== MÉTODO AUXILIAR =====
+    @Test
+    @DisplayName("Deve gerar ID v7 com o instante do createdAt e buscar só na faixa dele")
+    void deveGerarIdComInstanteDoCreatedAt() {
+        // Given
+        QuoteRequest quote = criarQuoteRequest("Fernanda", "fernanda@email.com");
+        quote.setId(null);
+
+        // When
+        QuoteRequest saved = quoteRequestRepository.save(quote);
+        entityManager.flush();
+        entityManager.clear();
+
+        // Then
+        assertThat(saved.getId().version()).isEqualTo(7);
+        CreatedAtRange range = QuoteRequestIds.createdAtRange(saved.getId());
+        assertThat(saved.getCreatedAt().toInstant())
+                .isAfterOrEqualTo(range.from().toInstant())
+                .isBefore(range.to().toInstant());
+        Statistics statistics = statistics();
+        assertThat(quoteRequestRepository.findById(saved.getId())).isPresent();
+        assertThat(statistics.getQueryExecutionCount()).as("findById pela consulta com a faixa").isEqualTo(1);
+        // Fora da faixa do ID a linha não aparece: é esse filtro que poda as partições
+        assertThat(quoteRequestRepository.findByIdCreatedIn(saved.getId(), range.to(), range.to().plusDays(1)))
+                .isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve achar pelo ID as solicitações antigas, com UUID v4 gerado pelo banco")
+    void deveAcharSolicitacaoComIdV4() {
+        // Given - linha anterior aos IDs v7, criada há meses
+        UUID legacyId = UUID.randomUUID();
+        OffsetDateTime createdAt = OffsetDateTime.now().minusMonths(5);
+        entityManager.getEntityManager().createNativeQuery("INSERT INTO quote_requests (id, budget_type_id, "
+                        + "requester_name, document_original_name, document_storage_key, billing_method_used, fee_used, "
+                        + "counted_units, estimated_total, status, created_at, updated_at) "
+                        + "VALUES (?1, ?2, 'Antiga', 'antiga.pdf', 'storage/antiga', 'WORD', 0.25, 0, 0, 'PENDING', ?3, ?3)")
+                .setParameter(1, legacyId)
+                .setParameter(2, budgetType.getId())
+                .setParameter(3, createdAt)
+                .executeUpdate();
+
+        // When & Then
+        assertThat(quoteRequestRepository.findById(legacyId)).isPresent();
+        assertThat(quoteRequestRepository.findActiveDTOById(legacyId)).isPresent();
+        assertThat(quoteRequestRepository.softDeleteAll(new UUID[] {legacyId})).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve montar a página de DTOs com um SELECT e um COUNT, sem carregar BudgetType")
+    void deveProjetarPaginaSemCarregarBudgetType() {
+        // Given
+        for (int i = 1; i <= 5; i++) {
+            quoteRequestRepository.save(criarQuoteRequest("Usuário " + i, "user" + i + "@email.com"));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = statistics();
+
+        // When
+        Page<QuoteRequestDTO> page = quoteRequestRepository.findActiveAsDTO(PageRequest.of(0, 3));
+
+        // Then
+        assertThat(page.getContent()).hasSize(3);
+        assertThat(page.getTotalElements()).isEqualTo(5);
+        assertThat(page.getContent()).allSatisfy(dto -> assertThat(dto.budgetTypeId()).isEqualTo(budgetType.getId()));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(2);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve buscar a entidade por ID sem carregar o BudgetType associado")
+    void deveBuscarPorIdSemCarregarBudgetType() {
+        // Given
+        QuoteRequest quote = quoteRequestRepository.save(criarQuoteRequest("Fernanda", "fernanda@email.com"));
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = statistics();
+
+        // When
+        QuoteRequest found = quoteRequestRepository.findById(quote.getId()).orElseThrow();
+
+        // Then
+        assertThat(found.getBudgetType().getId()).isEqualTo(budgetType.getId());
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve percorrer todas as solicitações por cursor sem repetir nem pular, uma consulta por página")
+    void devePercorrerPorCursorSemRepetirNemPular() {
+        // Given
+        for (int i = 1; i <= 7; i++) {
+            quoteRequestRepository.save(criarQuoteRequest("Usuário " + i, "user" + i + "@email.com"));
+        }
+        entityManager.flush();
+        entityManager.clear();
+        Statistics statistics = statistics();
+
+        // When
+        List<UUID> seen = new ArrayList<>();
+        Slice<QuoteRequestDTO> slice = quoteRequestRepository.findActiveFirst(PageRequest.of(0, 3));
+        slice.forEach(dto -> seen.add(dto.id()));
+        int pages = 1;
+        while (slice.hasNext()) {
+            QuoteRequestDTO last = slice.getContent().get(slice.getNumberOfElements() - 1);
+            slice = quoteRequestRepository.findActiveBefore(last.createdAt(), last.id(), PageRequest.of(0, 3));
+            slice.forEach(dto -> seen.add(dto.id()));
+            pages++;
+        }
+
+        // Then
+        assertThat(pages).isEqualTo(3);
+        assertThat(seen).hasSize(7).doesNotHaveDuplicates();
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve fazer soft delete em lote ignorando IDs já deletados ou inexistentes")
+    void deveFazerSoftDeleteEmLote() {
+        // Given
+        QuoteRequest ativa1 = quoteRequestRepository.save(criarQuoteRequest("Lucas", "lucas@email.com"));
+        QuoteRequest ativa2 = quoteRequestRepository.save(criarQuoteRequest("Bia", "bia@email.com"));
+        QuoteRequest mantida = quoteRequestRepository.save(criarQuoteRequest("Rafa", "rafa@email.com"));
+        QuoteRequest jaDeletada = criarQuoteRequest("Gui", "gui@email.com");
+        jaDeletada.setDeletedAt(OffsetDateTime.now());
+        quoteRequestRepository.save(jaDeletada);
+        entityManager.flush();
+
+        // When
+        int deleted = quoteRequestRepository.softDeleteAll(
+                new UUID[] {ativa1.getId(), ativa2.getId(), jaDeletada.getId(), UUID.randomUUID()});
+
+        // Then
+        assertThat(deleted).isEqualTo(2);
+        assertThat(quoteRequestRepository.findAllActiveAsDTO())
+                .extracting(QuoteRequestDTO::id)
+                .containsExactly(mantida.getId());
+    }
+
+    @Test
+    @DisplayName("Deve contar as solicitações ativas por status")
+    void deveContarAtivasPorStatus() {
+        // Given
+        quoteRequestRepository.save(criarQuoteRequest("Ana", "ana@email.com"));
+        quoteRequestRepository.save(criarQuoteRequest("Bruno", "bruno@email.com"));
+        QuoteRequest enviada = criarQuoteRequest("Caio", "caio@email.com");
+        enviada.setStatus(QuoteStatus.SENT);
+        quoteRequestRepository.save(enviada);
+        QuoteRequest deletada = criarQuoteRequest("Duda", "duda@email.com");
+        deletada.setDeletedAt(OffsetDateTime.now());
+        quoteRequestRepository.save(deletada);
+
+        // When
+        List<QuoteRequestRepository.StatusCount> counts = quoteRequestRepository.countActiveByStatus();
+
+        // Then
+        assertThat(counts)
+                .extracting(QuoteRequestRepository.StatusCount::getStatus, QuoteRequestRepository.StatusCount::getTotal)
+                .containsExactlyInAnyOrder(tuple(QuoteStatus.PENDING, 2L), tuple(QuoteStatus.SENT, 1L));
+    }
+
+    @Test
+    @DisplayName("Deve marcar como SENT só a solicitação que ainda está na versão gravada no outbox")
+    void deveMarcarComoSentSoNaVersaoDoOutbox() {
+        // Given - duas notificações gravadas; depois disso a segunda solicitação mudou (PUT)
+        QuoteRequest mesmaVersao = quoteRequestRepository.save(criarQuoteRequest("Ana", "ana@email.com"));
+        QuoteRequest alterada = quoteRequestRepository.save(criarQuoteRequest("Bruno", "bruno@email.com"));
+        entityManager.flush();
+        OutboxMessage primeira = entityManager.persist(notificacao(mesmaVersao));
+        OutboxMessage segunda = entityManager.persist(notificacao(alterada));
+        alterada.setUpdatedAt(alterada.getUpdatedAt().plusSeconds(1));
+        entityManager.flush();
+
+        // When
+        int marked = quoteRequestRepository.markNotified(List.of(mesmaVersao.getId(), alterada.getId()),
+                List.of(primeira.getId(), segunda.getId()), QuoteStatus.PENDING, QuoteStatus.SENT, OffsetDateTime.now());
+
+        // Then
+        assertThat(marked).isEqualTo(1);
+        assertThat(quoteRequestRepository.findById(mesmaVersao.getId()).orElseThrow())
+                .extracting(QuoteRequest::getStatus, quote -> quote.getNotifiedAt() != null)
+                .containsExactly(QuoteStatus.SENT, true);
+        assertThat(quoteRequestRepository.findById(alterada.getId()).orElseThrow())
+                .extracting(QuoteRequest::getStatus, QuoteRequest::getNotifiedAt)
+                .containsExactly(QuoteStatus.PENDING, null);
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    // Notificação gravada na versão atual da solicitação, como faz o pipeline
+    private OutboxMessage notificacao(QuoteRequest quote) {
+        return new OutboxMessage(quote.getId(),
+                quoteRequestRepository.findUpdatedAtById(quote.getId(), quote.getCreatedAt()),
+                new NotificationEventDTO(quote.getId(), quote.getRequesterEmail(), quote.getRequesterName(),
+                        "Seu orçamento foi criado!", "<p>Olá</p>"));
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManager.getEntityManager().getEntityManagerFactory()
+                .unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
 
     private QuoteRequest criarQuoteRequest(String nome, String email) {
         QuoteRequest quote = new QuoteRequest();
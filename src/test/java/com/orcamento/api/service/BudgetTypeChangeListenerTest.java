@@ -0,0 +1,33 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.extension.MemoryMonitorExtension;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do BudgetTypeChangeListener")
+class BudgetTypeChangeListenerTest {
+
+    @Test
+    @DisplayName("Não deve iniciar a thread de LISTEN quando o datasource não é PostgreSQL")
+    void naoDeveEscutarForaDoPostgres() {
+        // Given
+        DataSourceProperties properties = new DataSourceProperties();
+        properties.setUrl("jdbc:h2:mem:testdb");
+        BudgetTypeChangeListener listener = new BudgetTypeChangeListener();
+        ReflectionTestUtils.setField(listener, "dataSourceProperties", properties);
+
+        // When
+        listener.start();
+
+        // Then
+        assertThat(listener.isRunning()).isFalse();
+        assertThat(ReflectionTestUtils.getField(listener, "thread")).isNull();
+    }
+}
@@ -2,36 +2,60 @@ package com.orcamento.api.service;
 
 import com.orcamento.api.dto.BudgetTypeDTO;
 import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.mapper.BudgetTypeMapperImpl;
 import com.orcamento.api.repository.BudgetTypeRepository;
+import com.orcamento.api.repository.OutboxMessageRepository;
+import com.orcamento.api.repository.QuoteRequestRepository;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
-import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 import com.orcamento.api.entity.enums.BillingMethod;
 
 import java.math.BigDecimal;
 import java.time.OffsetDateTime;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
 
-@ExtendWith(MockitoExtension.class)
+/**
+ * Serviço, cache e mapper de verdade sobre o H2. Sem transação do teste: as gravações confirmam
+ * como em produção e o cache é invalidado no commit.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({BudgetTypeService.class, BudgetTypeCache.class, BudgetTypeMapperImpl.class})
 @DisplayName("Testes do BudgetTypeService")
 class BudgetTypeServiceTest {
 
-    @Mock
+    @Autowired
+    private BudgetTypeService service;
+
+    @Autowired
+    private BudgetTypeCache budgetTypeCache;
+
+    @Autowired
     private BudgetTypeRepository budgetTypeRepository;
 
-    @InjectMocks
-    private BudgetTypeService service;
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
 
     private UUID budgetTypeId;
     private BudgetType budgetType;
@@ -39,11 +63,17 @@ class BudgetTypeServiceTest {
 
     @BeforeEach
     void setUp() {
+        // Limpa o banco e o snapshot do cache, compartilhado entre os testes do contexto
+        outboxMessageRepository.deleteAll();
+        quoteRequestRepository.deleteAll();
+        budgetTypeRepository.deleteAll();
+        budgetTypeCache.invalidate();
+
+        // ID de um tipo que não existe; os testes que gravam o BudgetType trocam pelo ID gerado
         budgetTypeId = UUID.randomUUID();
 
-        // Cria BudgetType mock
+        // Cria BudgetType (gravado pelos testes que precisam dele no banco)
         budgetType = new BudgetType();
-        budgetType.setId(budgetTypeId);
         budgetType.setBudgetTypeName("Tradução Juramentada");
         budgetType.setBillingMethod(BillingMethod.WORD);
         budgetType.setFee(BigDecimal.valueOf(0.30));
@@ -54,61 +84,47 @@ class BudgetTypeServiceTest {
         budgetType.setDeletedAt(null);
 
         // Cria DTO
-        budgetTypeDTO = new BudgetTypeDTO();
-        budgetTypeDTO.setBudgetTypeName("Tradução Juramentada");
-        budgetTypeDTO.setBillingMethod(BillingMethod.WORD);
-        budgetTypeDTO.setFee(BigDecimal.valueOf(0.30));
-        budgetTypeDTO.setDescription("Tradução oficial");
-        budgetTypeDTO.setTargetEmail("contato@empresa.com");
+        budgetTypeDTO = new BudgetTypeDTO(null, "Tradução Juramentada", BillingMethod.WORD, BigDecimal.valueOf(0.30),
+                "Tradução oficial", "contato@empresa.com", null, null, null);
     }
 
     @Test
     @DisplayName("Deve criar BudgetType com sucesso")
     void deveCriarBudgetTypeComSucesso() {
-        // Given
-        when(budgetTypeRepository.save(any(BudgetType.class))).thenReturn(budgetType);
-
         // When
         BudgetTypeDTO result = service.create(budgetTypeDTO);
 
         // Then
         assertThat(result).isNotNull();
-        assertThat(result.getBudgetTypeName()).isEqualTo("Tradução Juramentada");
-        assertThat(result.getBillingMethod()).isEqualTo(BillingMethod.WORD);
-        assertThat(result.getFee()).isEqualByComparingTo(BigDecimal.valueOf(0.30));
-        
-        verify(budgetTypeRepository, times(1)).save(any(BudgetType.class));
+        assertThat(result.budgetTypeName()).isEqualTo("Tradução Juramentada");
+        assertThat(result.billingMethod()).isEqualTo(BillingMethod.WORD);
+        assertThat(result.fee()).isEqualByComparingTo(BigDecimal.valueOf(0.30));
+
+        assertThat(budgetTypeRepository.findById(result.id())).isPresent();
     }
 
     @Test
     @DisplayName("Deve buscar BudgetType por ID com sucesso")
     void deveBuscarBudgetTypePorId() {
         // Given
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.of(budgetType));
+        budgetTypeId = budgetTypeRepository.save(budgetType).getId();
 
         // When
         BudgetTypeDTO result = service.getById(budgetTypeId);
 
         // Then
         assertThat(result).isNotNull();
-        assertThat(result.getBudgetTypeName()).isEqualTo("Tradução Juramentada");
-        assertThat(result.getId()).isEqualTo(budgetTypeId);
-        
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
+        assertThat(result.budgetTypeName()).isEqualTo("Tradução Juramentada");
+        assertThat(result.id()).isEqualTo(budgetTypeId);
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao buscar BudgetType inexistente")
     void deveLancarExcecaoQuandoBudgetTypeNaoExiste() {
-        // Given
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.empty());
-
         // When & Then
         assertThatThrownBy(() -> service.getById(budgetTypeId))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("BudgetType não encontrado");
-
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
     }
 
     @Test
@@ -116,14 +132,12 @@ class BudgetTypeServiceTest {
     void deveLancarExcecaoQuandoBudgetTypeDeletado() {
         // Given
         budgetType.setDeletedAt(OffsetDateTime.now());
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.of(budgetType));
+        budgetTypeId = budgetTypeRepository.save(budgetType).getId();
 
         // When & Then
         assertThatThrownBy(() -> service.getById(budgetTypeId))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("BudgetType não encontrado");
-
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
     }
 
     @Test
@@ -131,7 +145,6 @@ class BudgetTypeServiceTest {
     void deveListarTodosBudgetTypes() {
         // Given
         BudgetType budgetType2 = new BudgetType();
-        budgetType2.setId(UUID.randomUUID());
         budgetType2.setBudgetTypeName("Tradução Técnica");
         budgetType2.setBillingMethod(BillingMethod.PAGE);
         budgetType2.setFee(BigDecimal.valueOf(15.0));
@@ -139,8 +152,7 @@ class BudgetTypeServiceTest {
         budgetType2.setTargetEmail("tecnica@empresa.com");
         budgetType2.setCreatedAt(OffsetDateTime.now());
         budgetType2.setUpdatedAt(OffsetDateTime.now());
-
-        when(budgetTypeRepository.findAllByDeletedAtIsNull()).thenReturn(List.of(budgetType, budgetType2));
+        budgetTypeRepository.saveAll(List.of(budgetType, budgetType2));
 
         // When
         List<BudgetTypeDTO> result = service.getAll();
@@ -148,10 +160,8 @@ class BudgetTypeServiceTest {
         // Then
         assertThat(result).hasSize(2);
         assertThat(result)
-                .extracting(BudgetTypeDTO::getBudgetTypeName)
+                .extracting(BudgetTypeDTO::budgetTypeName)
                 .containsExactlyInAnyOrder("Tradução Juramentada", "Tradução Técnica");
-        
-        verify(budgetTypeRepository, times(1)).findAllByDeletedAtIsNull();
     }
 
     @Test
@@ -159,71 +169,59 @@ class BudgetTypeServiceTest {
     void deveListarBudgetTypesDeletados() {
         // Given
         budgetType.setDeletedAt(OffsetDateTime.now());
-        when(budgetTypeRepository.findAllByDeletedAtIsNotNull()).thenReturn(List.of(budgetType));
+        budgetTypeId = budgetTypeRepository.save(budgetType).getId();
+        service.create(new BudgetTypeDTO(null, "Tradução Técnica", BillingMethod.PAGE, BigDecimal.valueOf(15.0),
+                "Tradução técnica", "tecnica@empresa.com", null, null, null));
 
         // When
         List<BudgetTypeDTO> result = service.getAllDeleted();
 
         // Then
         assertThat(result).hasSize(1);
-        assertThat(result.get(0).getBudgetTypeName()).isEqualTo("Tradução Juramentada");
-        assertThat(result.get(0).getDeletedAt()).isNotNull();
-        
-        verify(budgetTypeRepository, times(1)).findAllByDeletedAtIsNotNull();
+        assertThat(result.get(0).budgetTypeName()).isEqualTo("Tradução Juramentada");
+        assertThat(result.get(0).deletedAt()).isNotNull();
     }
 
     @Test
     @DisplayName("Deve retornar lista vazia quando não houver BudgetTypes")
     void deveRetornarListaVaziaQuandoNaoHouverDados() {
-        // Given
-        when(budgetTypeRepository.findAllByDeletedAtIsNull()).thenReturn(List.of());
-
         // When
         List<BudgetTypeDTO> result = service.getAll();
 
         // Then
         assertThat(result).isEmpty();
-        
-        verify(budgetTypeRepository, times(1)).findAllByDeletedAtIsNull();
     }
 
     @Test
     @DisplayName("Deve atualizar BudgetType com sucesso")
     void deveAtualizarBudgetTypeComSucesso() {
         // Given
-        BudgetTypeDTO updateDTO = new BudgetTypeDTO();
-        updateDTO.setBudgetTypeName("Tradução Juramentada Atualizada");
-        updateDTO.setBillingMethod(BillingMethod.PAGE);
-        updateDTO.setFee(BigDecimal.valueOf(20.0));
-        updateDTO.setDescription("Nova descrição");
-        updateDTO.setTargetEmail("novo@empresa.com");
-
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.of(budgetType));
-        when(budgetTypeRepository.save(any(BudgetType.class))).thenReturn(budgetType);
+        budgetTypeId = budgetTypeRepository.save(budgetType).getId();
+        BudgetTypeDTO updateDTO = new BudgetTypeDTO(null, "Tradução Juramentada Atualizada", BillingMethod.PAGE,
+                BigDecimal.valueOf(20.0), "Nova descrição", "novo@empresa.com", null, null, null);
 
         // When
         BudgetTypeDTO result = service.update(budgetTypeId, updateDTO);
 
         // Then
         assertThat(result).isNotNull();
-        
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
-        verify(budgetTypeRepository, times(1)).save(any(BudgetType.class));
+        assertThat(result.budgetTypeName()).isEqualTo("Tradução Juramentada Atualizada");
+
+        BudgetType saved = budgetTypeRepository.findById(budgetTypeId).orElseThrow();
+        assertThat(saved.getBudgetTypeName()).isEqualTo("Tradução Juramentada Atualizada");
+        assertThat(saved.getBillingMethod()).isEqualTo(BillingMethod.PAGE);
+        assertThat(saved.getFee()).isEqualByComparingTo(BigDecimal.valueOf(20.0));
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao atualizar BudgetType inexistente")
     void deveLancarExcecaoAoAtualizarBudgetTypeInexistente() {
-        // Given
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.empty());
-
         // When & Then
         assertThatThrownBy(() -> service.update(budgetTypeId, budgetTypeDTO))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("BudgetType não encontrado");
 
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
-        verify(budgetTypeRepository, never()).save(any(BudgetType.class));
+        assertThat(budgetTypeRepository.count()).isZero();
     }
 
     @Test
@@ -231,60 +229,103 @@ class BudgetTypeServiceTest {
     void deveLancarExcecaoAoAtualizarBudgetTypeDeletado() {
         // Given
         budgetType.setDeletedAt(OffsetDateTime.now());
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.of(budgetType));
+        budgetTypeId = budgetTypeRepository.save(budgetType).getId();
+        BudgetTypeDTO updateDTO = new BudgetTypeDTO(null, "Outro nome", BillingMethod.PAGE,
+                BigDecimal.valueOf(20.0), "Nova descrição", "novo@empresa.com", null, null, null);
 
         // When & Then
-        assertThatThrownBy(() -> service.update(budgetTypeId, budgetTypeDTO))
+        assertThatThrownBy(() -> service.update(budgetTypeId, updateDTO))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("BudgetType não encontrado");
 
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
-        verify(budgetTypeRepository, never()).save(any(BudgetType.class));
+        assertThat(budgetTypeRepository.findById(budgetTypeId).orElseThrow().getBudgetTypeName())
+                .isEqualTo("Tradução Juramentada");
     }
 
     @Test
     @DisplayName("Deve fazer soft delete de BudgetType")
     void deveFazerSoftDelete() {
         // Given
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.of(budgetType));
-        when(budgetTypeRepository.save(any(BudgetType.class))).thenReturn(budgetType);
+        budgetTypeId = budgetTypeRepository.save(budgetType).getId();
 
         // When
         service.softDelete(budgetTypeId);
 
         // Then
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
-        verify(budgetTypeRepository, times(1)).save(any(BudgetType.class));
+        assertThat(budgetTypeRepository.findById(budgetTypeId).orElseThrow().getDeletedAt()).isNotNull();
+        assertThat(service.getAll()).isEmpty();
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao deletar BudgetType inexistente")
     void deveLancarExcecaoAoDeletarBudgetTypeInexistente() {
-        // Given
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.empty());
-
         // When & Then
         assertThatThrownBy(() -> service.softDelete(budgetTypeId))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("BudgetType não encontrado");
 
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
-        verify(budgetTypeRepository, never()).save(any(BudgetType.class));
+        assertThat(budgetTypeRepository.count()).isZero();
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao deletar BudgetType já deletado")
     void deveLancarExcecaoAoDeletarBudgetTypeJaDeletado() {
         // Given
-        budgetType.setDeletedAt(OffsetDateTime.now());
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.of(budgetType));
+        budgetType.setDeletedAt(OffsetDateTime.now().minusDays(1));
+        budgetTypeId = budgetTypeRepository.save(budgetType).getId();
 
         // When & Then
         assertThatThrownBy(() -> service.softDelete(budgetTypeId))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("BudgetType não encontrado");
 
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
-        verify(budgetTypeRepository, never()).save(any(BudgetType.class));
+        // A data da primeira exclusão continua a mesma
+        assertThat(budgetTypeRepository.findById(budgetTypeId).orElseThrow().getDeletedAt())
+                .isBefore(OffsetDateTime.now().minusHours(1));
+    }
+
+    @Test
+    @DisplayName("Deve servir listagem e busca do cache sem consultar o banco de novo")
+    void deveServirDoCacheSemConsultarBanco() {
+        // Given
+        budgetTypeId = budgetTypeRepository.save(budgetType).getId();
+        Statistics statistics = statistics();
+
+        // When
+        service.getAll();
+        service.getAll();
+        BudgetTypeDTO result = service.getById(budgetTypeId);
+
+        // Then - só a carga do snapshot vai ao banco
+        assertThat(result.budgetTypeName()).isEqualTo("Tradução Juramentada");
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve recarregar o cache depois de uma alteração")
+    void deveRecarregarCacheDepoisDeAlteracao() {
+        // Given
+        budgetTypeId = budgetTypeRepository.save(budgetType).getId();
+        assertThat(service.getAll()).extracting(BudgetTypeDTO::fee)
+                .usingElementComparator(BigDecimal::compareTo).containsExactly(BigDecimal.valueOf(0.30));
+
+        // When
+        service.update(budgetTypeId, new BudgetTypeDTO(null, "Tradução Juramentada", BillingMethod.WORD,
+                BigDecimal.valueOf(0.45), "Tradução oficial", "contato@empresa.com", null, null, null));
+
+        // Then - snapshot antigo descartado: a listagem seguinte recarrega do banco
+        Statistics statistics = statistics();
+        assertThat(service.getAll()).extracting(BudgetTypeDTO::fee)
+                .usingElementComparator(BigDecimal::compareTo).containsExactly(BigDecimal.valueOf(0.45));
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
     }
-}
\ No newline at end of file
+}
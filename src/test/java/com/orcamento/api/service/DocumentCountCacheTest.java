@@ -0,0 +1,216 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.entity.DocumentCountEntry;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.service.document.DocumentCounts;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.dao.QueryTimeoutException;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do DocumentCountCache")
+class DocumentCountCacheTest {
+
+    // Conteúdo de exemplo: 5 palavras, 29 caracteres sem espaços
+    private static final String CONTENT = "contrato de prestação de serviços";
+
+    private static final String TEXT = DocumentProcessingService.MIME_TEXT;
+
+    @TempDir
+    Path storageDir;
+
+    private InMemoryDocumentCountRepository documentCountRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private DocumentCountCache cache;
+    private AtomicInteger countings;
+    private Supplier<DocumentCounts> counter;
+
+    @BeforeEach
+    void setUp() {
+        documentCountRepository = new InMemoryDocumentCountRepository();
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new DocumentCountCache(documentCountRepository, meterRegistry, 100);
+        countings = new AtomicInteger();
+        counter = () -> {
+            countings.incrementAndGet();
+            return new DocumentCounts(5, 1, 29, 1);
+        };
+    }
+
+    @Test
+    @DisplayName("Deve contar uma vez, gravar no banco e responder da memória depois")
+    void deveContarUmaVezEResponderDaMemoria() throws IOException {
+        // Given
+        Path path = write("a.txt", CONTENT);
+
+        // When
+        DocumentCounts first = cache.getOrCount("a.txt", path, TEXT, counter);
+        DocumentCounts second = cache.getOrCount("a.txt", path, TEXT, counter);
+
+        // Then
+        assertThat(second).isSameAs(first);
+        assertThat(countings).hasValue(1);
+        assertThat(documentCountRepository.saved()).singleElement().satisfies(saved -> {
+            assertThat(saved.getKey().contentSha256()).hasSize(64);
+            assertThat(saved.getKey().documentType()).isEqualTo(TEXT);
+            assertThat(saved.getKey().counterVersion()).isEqualTo(DocumentCountCache.COUNTER_VERSION);
+            assertThat(saved.getCharacters()).isEqualTo(29);
+        });
+        assertThat(metric("miss", "none")).isEqualTo(1);
+        assertThat(metric("hit", "memory")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve reaproveitar a contagem de bytes idênticos enviados com outra chave")
+    void deveReaproveitarConteudoIdenticoComOutraChave() throws IOException {
+        // Given
+        Path original = write("2026/original.txt", CONTENT);
+        Path copy = write("2026/copia.txt", CONTENT);
+
+        // When
+        cache.getOrCount("2026/original.txt", original, TEXT, counter);
+        DocumentCounts counts = cache.getOrCount("2026/copia.txt", copy, TEXT, counter);
+
+        // Then
+        assertThat(counts.getWords()).isEqualTo(5);
+        assertThat(countings).hasValue(1);
+        assertThat(metric("hit", "memory")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve usar o nível persistente quando a memória não tiver a contagem")
+    void deveUsarNivelPersistente() throws IOException {
+        // Given
+        Path path = write("b.txt", CONTENT);
+        String hash = cache.contentHash("b.txt", path);
+        documentCountRepository.put(new DocumentCountEntry(
+                new DocumentCountEntry.Key(hash, TEXT, DocumentCountCache.COUNTER_VERSION), 7, 2, 40, 3));
+
+        // When
+        DocumentCounts counts = cache.getOrCount("b.txt", path, TEXT, counter);
+
+        // Then
+        assertThat(counts.getWords()).isEqualTo(7);
+        assertThat(counts.getPages()).isEqualTo(3);
+        assertThat(countings).hasValue(0);
+        assertThat(documentCountRepository.saved()).isEmpty();
+        assertThat(metric("hit", "database")).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve contar de novo os mesmos bytes detectados com outro tipo")
+    void deveContarDeNovoComOutroTipo() throws IOException {
+        // Given - contado como texto
+        Path path = write("f.pdf", CONTENT);
+        cache.getOrCount("f.pdf", path, TEXT, counter);
+
+        // When - os mesmos bytes com o tipo de PDF passam por outro extrator
+        cache.getOrCount("f.pdf", path, DocumentProcessingService.MIME_PDF, counter);
+
+        // Then
+        assertThat(countings).hasValue(2);
+        assertThat(documentCountRepository.saved())
+                .extracting(saved -> saved.getKey().documentType())
+                .containsExactly(TEXT, DocumentProcessingService.MIME_PDF);
+    }
+
+    @Test
+    @DisplayName("Não deve usar contagem gravada por outra versão dos contadores")
+    void naoDeveUsarContagemDeOutraVersao() throws IOException {
+        // Given
+        Path path = write("g.txt", CONTENT);
+        String hash = cache.contentHash("g.txt", path);
+        documentCountRepository.put(new DocumentCountEntry(
+                new DocumentCountEntry.Key(hash, TEXT, DocumentCountCache.COUNTER_VERSION - 1), 7, 2, 40, 3));
+
+        // When
+        DocumentCounts counts = cache.getOrCount("g.txt", path, TEXT, counter);
+
+        // Then
+        assertThat(counts.getWords()).isEqualTo(5);
+        assertThat(countings).hasValue(1);
+        assertThat(metric("hit", "database")).isEqualTo(0);
+    }
+
+    @Test
+    @DisplayName("Deve contar de novo quando o arquivo da mesma chave mudar")
+    void deveContarDeNovoQuandoArquivoMudar() throws IOException {
+        // Given
+        Path path = write("c.txt", CONTENT);
+        cache.getOrCount("c.txt", path, TEXT, counter);
+
+        // When - conteúdo e tamanho diferentes na mesma chave
+        write("c.txt", CONTENT + " e cláusulas adicionais");
+        cache.getOrCount("c.txt", path, TEXT, counter);
+
+        // Then
+        assertThat(countings).hasValue(2);
+        assertThat(documentCountRepository.saved()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("Deve contar normalmente quando o banco estiver indisponível ou a linha já existir")
+    void deveContarQuandoBancoFalhar() throws IOException {
+        // Given
+        Path path = write("d.txt", CONTENT);
+        documentCountRepository.failReads(new QueryTimeoutException("timeout"));
+        documentCountRepository.failWrites(new DataIntegrityViolationException("duplicate key"));
+
+        // When
+        DocumentCounts counts = cache.getOrCount("d.txt", path, TEXT, counter);
+
+        // Then
+        assertThat(counts.getWords()).isEqualTo(5);
+        assertThat(countings).hasValue(1);
+    }
+
+    @Test
+    @DisplayName("Deve descartar a entrada menos usada quando a memória estiver cheia")
+    void deveDescartarEntradaMenosUsada() throws IOException {
+        // Given - cabe só uma contagem em memória
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new DocumentCountCache(documentCountRepository, meterRegistry, 1);
+        Path first = write("e1.txt", CONTENT);
+        Path second = write("e2.txt", "outro documento");
+
+        // When
+        cache.getOrCount("e1.txt", first, TEXT, counter);
+        cache.getOrCount("e2.txt", second, TEXT, counter);
+        cache.getOrCount("e1.txt", first, TEXT, counter);
+
+        // Then - e1 saiu da memória e volta do nível persistente, sem contar de novo
+        assertThat(countings).hasValue(2);
+        assertThat(metric("hit", "memory")).isEqualTo(0);
+        assertThat(metric("hit", "database")).isEqualTo(1);
+        assertThat(meterRegistry.get(DocumentCountCache.METRIC_NAME + ".size").gauge().value()).isEqualTo(1);
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private Path write(String key, String content) throws IOException {
+        Path path = storageDir.resolve(key);
+        Files.createDirectories(path.getParent());
+        Files.writeString(path, content);
+        return path;
+    }
+
+    private double metric(String result, String tier) {
+        return meterRegistry.get(DocumentCountCache.METRIC_NAME)
+                .tag("result", result).tag("tier", tier).counter().count();
+    }
+}
@@ -0,0 +1,57 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.extension.MemoryMonitorExtension;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.concurrent.ForkJoinPool;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do DocumentParsersWarmup")
+class DocumentParsersWarmupTest {
+
+    private DocumentProcessingService documentProcessingService;
+    private DocumentParsersWarmup warmup;
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(2);
+        documentProcessingService = new DocumentProcessingService();
+        ReflectionTestUtils.setField(documentProcessingService, "pdfParallelThresholdPages", 64);
+        ReflectionTestUtils.setField(documentProcessingService, "pdfPagesPerTask", 16);
+        ReflectionTestUtils.setField(documentProcessingService, "documentCountingPool", pool);
+        ReflectionTestUtils.setField(documentProcessingService, "docxMode", "streaming");
+
+        warmup = new DocumentParsersWarmup();
+        ReflectionTestUtils.setField(warmup, "documentProcessingService", documentProcessingService);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    @DisplayName("Deve contar o PDF e o DOCX de aquecimento com a leitura em fluxo")
+    void deveAquecerComLeituraEmFluxo() {
+        assertThat(warmup.warmUp()).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve gerar um DOCX aceito também pela leitura DOM (XWPFDocument)")
+    void deveAquecerComLeituraDom() {
+        // Given
+        ReflectionTestUtils.setField(documentProcessingService, "docxMode", DocumentProcessingService.DOCX_MODE_DOM);
+
+        // When & Then
+        assertThat(warmup.warmUp()).isTrue();
+    }
+}
@@ -0,0 +1,326 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.service.document.DocumentCounts;
+import com.orcamento.api.service.document.PartialCount;
+import com.orcamento.api.service.document.UnitCounter;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.apache.pdfbox.pdmodel.PDDocument;
+import org.apache.pdfbox.pdmodel.PDPage;
+import org.apache.pdfbox.pdmodel.PDPageContentStream;
+import org.apache.pdfbox.pdmodel.font.PDType1Font;
+import org.apache.pdfbox.pdmodel.font.Standard14Fonts;
+import org.apache.poi.xwpf.usermodel.XWPFDocument;
+import org.apache.poi.xwpf.usermodel.XWPFRun;
+import org.apache.poi.xwpf.usermodel.XWPFTable;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do DocumentProcessingService")
+class DocumentProcessingServiceTest {
+
+    @TempDir
+    Path storageDir;
+
+    private DocumentProcessingService service;
+
+    private ForkJoinPool pool;
+
+    @BeforeEach
+    void setUp() {
+        pool = new ForkJoinPool(4);
+        service = new DocumentProcessingService();
+        ReflectionTestUtils.setField(service, "storageBasePath", storageDir.toString());
+        ReflectionTestUtils.setField(service, "pdfParallelThresholdPages", 64);
+        ReflectionTestUtils.setField(service, "pdfPagesPerTask", 16);
+        ReflectionTestUtils.setField(service, "documentCountingPool", pool);
+        ReflectionTestUtils.setField(service, "documentCountCache",
+                new DocumentCountCache(new InMemoryDocumentCountRepository(), new SimpleMeterRegistry(), 100));
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdown();
+    }
+
+    @Test
+    @DisplayName("Deve contar palavras, caracteres e parágrafos de texto puro")
+    void deveContarTextoPuro() throws IOException {
+        // Given
+        Files.writeString(storageDir.resolve("doc.txt"),
+                "Olá mundo\ncontrato de prestação\n\nSegundo parágrafo aqui.\n",
+                StandardCharsets.UTF_8);
+
+        // When
+        DocumentCounts counts = service.countStoredDocument("doc.txt", "text/plain");
+
+        // Then
+        assertThat(counts.getWords()).isEqualTo(8);
+        assertThat(counts.getParagraphs()).isEqualTo(2);
+        assertThat(counts.getCharacters()).isEqualTo(48);
+        assertThat(counts.getPages()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve contar PDF página a página")
+    void deveContarPdf() throws IOException {
+        // Given
+        writePdf(storageDir.resolve("contrato.pdf"), List.of(
+                List.of("Primeira linha do contrato", "segunda linha"),
+                List.of("Pagina dois"),
+                List.of("Pagina tres com quatro")));
+
+        // When
+        DocumentCounts counts = service.countStoredDocument("contrato.pdf", "application/pdf");
+
+        // Then
+        assertThat(counts.getPages()).isEqualTo(3);
+        assertThat(counts.getWords()).isEqualTo(12);
+        assertThat(counts.getCharacters()).isEqualTo(64);
+        assertThat(counts.getParagraphs()).isGreaterThanOrEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve produzir o mesmo resultado contando o PDF em paralelo por intervalos de páginas")
+    void deveContarPdfEmParaleloComMesmoResultado() throws IOException {
+        // Given - palavra hifenizada atravessando a borda entre páginas
+        List<List<String>> pages = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            pages.add(List.of("Clausula " + i + " do contrato de presta-", "cao de servicos juridicos"));
+        }
+        pages.add(List.of("Fim do contra-"));
+        pages.add(List.of("to assinado"));
+        Path path = storageDir.resolve("grande.pdf");
+        writePdf(path, pages);
+
+        // Conta direto pelo caminho (sem o cache de contagens) para comparar os dois modos
+        DocumentCounts sequential = service.count(path, "application/pdf");
+
+        // When - força a divisão em intervalos de 1 página
+        ReflectionTestUtils.setField(service, "pdfParallelThresholdPages", 2);
+        ReflectionTestUtils.setField(service, "pdfPagesPerTask", 1);
+        DocumentCounts parallel = service.count(path, "application/pdf");
+
+        // Then
+        assertThat(parallel).usingRecursiveComparison().isEqualTo(sequential);
+        assertThat(parallel.getPages()).isEqualTo(42);
+        assertThat(parallel.getWords()).isEqualTo(40 * 9 + 4);
+    }
+
+    @Test
+    @DisplayName("Deve juntar contagens parciais de qualquer divisão do texto sem contar palavras em dobro")
+    void deveJuntarContagensParciais() {
+        String text = "Primeiro paragrafo com pala-\nvra hifenizada." + UnitCounter.PARAGRAPH_SEPARATOR
+                + "\nSegundo  paragrafo\n\ncontinua aqui" + UnitCounter.PARAGRAPH_SEPARATOR
+                + UnitCounter.PARAGRAPH_SEPARATOR + "  Terceiro-\n\nfim\n";
+
+        UnitCounter whole = new UnitCounter(false);
+        whole.write(text);
+        DocumentCounts expected = whole.toPartial().toCounts(1);
+
+        for (int first = 0; first <= text.length(); first++) {
+            for (int second = first; second <= text.length(); second++) {
+                PartialCount merged = partial(text.substring(0, first))
+                        .merge(partial(text.substring(first, second)))
+                        .merge(partial(text.substring(second)));
+
+                assertThat(merged.toCounts(1))
+                        .as("divisão em %d/%d", first, second)
+                        .usingRecursiveComparison()
+                        .isEqualTo(expected);
+            }
+        }
+    }
+
+    @Test
+    @DisplayName("Deve contar DOCX incluindo texto dentro de tabelas")
+    void deveContarDocx() throws IOException {
+        // Given
+        Path path = storageDir.resolve("proposta.docx");
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = Files.newOutputStream(path)) {
+            document.createParagraph().createRun().setText("Proposta comercial");
+            document.createParagraph().createRun().setText("Valor total do serviço");
+            document.createParagraph(); // parágrafo vazio não conta
+            XWPFTable table = document.createTable(1, 2);
+            table.getRow(0).getCell(0).setText("Item");
+            table.getRow(0).getCell(1).setText("Preço unitário");
+            document.write(out);
+        }
+
+        // When
+        DocumentCounts counts = service.countStoredDocument("proposta.docx", null);
+
+        // Then
+        assertThat(counts.getWords()).isEqualTo(9);
+        assertThat(counts.getParagraphs()).isEqualTo(4);
+        assertThat(counts.getCharacters()).isEqualTo(53);
+        assertThat(counts.getPages()).isEqualTo(1);
+        assertThat(counts.unitsFor(BillingMethod.WORD)).isEqualTo(9);
+    }
+
+    @Test
+    @DisplayName("Deve contar DOCX em fluxo (StAX) com o mesmo resultado da leitura DOM")
+    void deveContarDocxEmFluxoIgualAoDom() throws IOException {
+        // Given - tabulação, quebra de linha e tabela aninhada
+        Path path = storageDir.resolve("contrato.docx");
+        try (XWPFDocument document = new XWPFDocument(); OutputStream out = Files.newOutputStream(path)) {
+            XWPFRun run = document.createParagraph().createRun();
+            run.setText("Cláusula primeira");
+            run.addTab();
+            run.setText("objeto");
+            run.addBreak();
+            run.setText("do contrato");
+            XWPFTable table = document.createTable(2, 2);
+            table.getRow(0).getCell(0).setText("Serviço");
+            table.getRow(1).getCell(1).setText("Tradução juramentada");
+            document.createParagraph().createRun().setText("Assinaturas");
+            document.getProperties().getExtendedProperties().getUnderlyingProperties().setPages(3);
+            document.write(out);
+        }
+
+        // When
+        DocumentCounts streaming = service.count(path, DocumentProcessingService.MIME_DOCX);
+        ReflectionTestUtils.setField(service, "docxMode", DocumentProcessingService.DOCX_MODE_DOM);
+        DocumentCounts dom = service.count(path, DocumentProcessingService.MIME_DOCX);
+
+        // Then
+        assertThat(streaming).usingRecursiveComparison().isEqualTo(dom);
+        assertThat(streaming.getWords()).isEqualTo(9);
+        assertThat(streaming.getParagraphs()).isEqualTo(4);
+        assertThat(streaming.getPages()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Deve contar caixa de texto uma vez só, sem quebrar o parágrafo que a ancora")
+    void deveContarCaixaDeTextoUmaVez() throws IOException {
+        // Given - caixa de texto como o Word grava: mc:Choice (DrawingML) e mc:Fallback (VML) com o mesmo texto
+        Path path = storageDir.resolve("caixa.docx");
+        String caixa = "<w:p><w:r><w:t>Texto dentro da caixa</w:t></w:r></w:p>";
+        writeDocx(path, "<w:p><w:r><w:t>Veja a figura:</w:t></w:r><w:r><mc:AlternateContent>"
+                + "<mc:Choice Requires=\"wps\"><w:drawing><wps:wsp><wps:txbx><w:txbxContent>" + caixa
+                + "</w:txbxContent></wps:txbx></wps:wsp></w:drawing></mc:Choice>"
+                + "<mc:Fallback><w:pict><v:shape><v:textbox><w:txbxContent>" + caixa
+                + "</w:txbxContent></v:textbox></v:shape></w:pict></mc:Fallback>"
+                + "</mc:AlternateContent></w:r></w:p>"
+                + "<w:p><w:r><w:t>Segundo parágrafo</w:t></w:r></w:p>");
+
+        // When
+        DocumentCounts streaming = service.count(path, DocumentProcessingService.MIME_DOCX);
+        ReflectionTestUtils.setField(service, "docxMode", DocumentProcessingService.DOCX_MODE_DOM);
+        DocumentCounts dom = service.count(path, DocumentProcessingService.MIME_DOCX);
+
+        // Then - mesmos parágrafos do DOM; o texto da caixa (que o XWPFDocument ignora) entra uma vez
+        assertThat(dom.getParagraphs()).isEqualTo(2);
+        assertThat(streaming.getParagraphs()).isEqualTo(2);
+        assertThat(dom.getWords()).isEqualTo(5);
+        assertThat(streaming.getWords()).isEqualTo(5 + 4);
+        assertThat(streaming.getCharacters()).isEqualTo(dom.getCharacters() + "Textodentrodacaixa".length());
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar chave de armazenamento fora do diretório base")
+    void deveRejeitarChaveForaDoDiretorio() {
+        assertThatThrownBy(() -> service.countStoredDocument("../segredo.txt", "text/plain"))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Chave de armazenamento inválida");
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção quando o documento não existe")
+    void deveLancarExcecaoQuandoDocumentoNaoExiste() {
+        assertThatThrownBy(() -> service.countStoredDocument("inexistente.pdf", "application/pdf"))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Documento não encontrado");
+    }
+
+    @Test
+    @DisplayName("Deve rejeitar tipo de documento não suportado")
+    void deveRejeitarTipoNaoSuportado() throws IOException {
+        Files.writeString(storageDir.resolve("planilha.xlsx"), "x");
+
+        assertThatThrownBy(() -> service.countStoredDocument("planilha.xlsx", null))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("não suportado");
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private static PartialCount partial(String text) {
+        UnitCounter counter = new UnitCounter(false);
+        counter.write(text);
+        return counter.toPartial();
+    }
+
+    // DOCX mínimo (só as partes que o Word e o POI exigem) com o corpo dado em WordprocessingML
+    private static void writeDocx(Path path, String bodyXml) throws IOException {
+        try (ZipOutputStream zip = new ZipOutputStream(Files.newOutputStream(path))) {
+            zipEntry(zip, "[Content_Types].xml", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<Types xmlns=\"http://schemas.openxmlformats.org/package/2006/content-types\">"
+                    + "<Default Extension=\"rels\" ContentType=\"application/vnd.openxmlformats-package.relationships+xml\"/>"
+                    + "<Default Extension=\"xml\" ContentType=\"application/xml\"/>"
+                    + "<Override PartName=\"/word/document.xml\" ContentType="
+                    + "\"application/vnd.openxmlformats-officedocument.wordprocessingml.document.main+xml\"/></Types>");
+            zipEntry(zip, "_rels/.rels", "<?xml version=\"1.0\" encoding=\"UTF-8\"?>"
+                    + "<Relationships xmlns=\"http://schemas.openxmlformats.org/package/2006/relationships\">"
+                    + "<Relationship Id=\"rId1\" Target=\"word/document.xml\" Type="
+                    + "\"http://schemas.openxmlformats.org/officeDocument/2006/relationships/officeDocument\"/>"
+                    + "</Relationships>");
+            zipEntry(zip, "word/document.xml", "<?xml version=\"1.0\" encoding=\"UTF-8\" standalone=\"yes\"?>"
+                    + "<w:document xmlns:w=\"http://schemas.openxmlformats.org/wordprocessingml/2006/main\""
+                    + " xmlns:mc=\"http://schemas.openxmlformats.org/markup-compatibility/2006\""
+                    + " xmlns:wps=\"http://schemas.microsoft.com/office/word/2010/wordprocessingShape\""
+                    + " xmlns:v=\"urn:schemas-microsoft-com:vml\" mc:Ignorable=\"wps\">"
+                    + "<w:body>" + bodyXml + "</w:body></w:document>");
+        }
+    }
+
+    private static void zipEntry(ZipOutputStream zip, String name, String content) throws IOException {
+        zip.putNextEntry(new ZipEntry(name));
+        zip.write(content.getBytes(StandardCharsets.UTF_8));
+        zip.closeEntry();
+    }
+
+    static void writePdf(Path path, List<List<String>> pages) throws IOException {
+        try (PDDocument document = new PDDocument()) {
+            PDType1Font font = new PDType1Font(Standard14Fonts.FontName.HELVETICA);
+            for (List<String> lines : pages) {
+                PDPage page = new PDPage();
+                document.addPage(page);
+                try (PDPageContentStream content = new PDPageContentStream(document, page)) {
+                    content.beginText();
+                    content.setFont(font, 12);
+                    content.setLeading(16);
+                    content.newLineAtOffset(72, 700);
+                    for (String line : lines) {
+                        content.showText(line);
+                        content.newLine();
+                    }
+                    content.endText();
+                }
+            }
+            document.save(path.toFile());
+        }
+    }
+}
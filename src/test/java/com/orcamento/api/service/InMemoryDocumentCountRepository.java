@@ -0,0 +1,59 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.entity.DocumentCountEntry;
+import com.orcamento.api.repository.DocumentCountRepository;
+
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+/**
+ * DocumentCountRepository em memória para os testes do cache de contagens: um Map com as duas operações
+ * do repositório. Sem Mockito, roda também no {@code nativeTest}.
+ */
+class InMemoryDocumentCountRepository implements DocumentCountRepository {
+
+    private final Map<DocumentCountEntry.Key, DocumentCountEntry> entries = new ConcurrentHashMap<>();
+    private final List<DocumentCountEntry> saved = new CopyOnWriteArrayList<>();
+
+    // Quando definidas, lançadas no lugar da leitura/gravação (banco fora do ar, chave duplicada)
+    private volatile RuntimeException readFailure;
+    private volatile RuntimeException writeFailure;
+
+    void put(DocumentCountEntry entry) {
+        entries.put(entry.getKey(), entry);
+    }
+
+    /*** Entidades recebidas por save, na ordem, inclusive as que falharam ***/
+    List<DocumentCountEntry> saved() {
+        return saved;
+    }
+
+    void failReads(RuntimeException failure) {
+        this.readFailure = failure;
+    }
+
+    void failWrites(RuntimeException failure) {
+        this.writeFailure = failure;
+    }
+
+    @Override
+    public Optional<DocumentCountEntry> findById(DocumentCountEntry.Key key) {
+        if (readFailure != null) {
+            throw readFailure;
+        }
+        return Optional.ofNullable(entries.get(key));
+    }
+
+    @Override
+    public <S extends DocumentCountEntry> S save(S entry) {
+        saved.add(entry);
+        if (writeFailure != null) {
+            throw writeFailure;
+        }
+        entries.put(entry.getKey(), entry);
+        return entry;
+    }
+}
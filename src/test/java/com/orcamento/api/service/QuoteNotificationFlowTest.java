@@ -0,0 +1,261 @@
+package com.orcamento.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orcamento.api.config.DocumentProcessingConfig;
+import com.orcamento.api.dto.NotificationEventDTO;
+import com.orcamento.api.dto.QuoteRequestDTO;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.OutboxMessage;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.mapper.QuoteRequestMapperImpl;
+import com.orcamento.api.messaging.NotificationOutboxRelay;
+import com.orcamento.api.messaging.NotificationProducerService;
+import com.orcamento.api.repository.BudgetTypeRepository;
+import com.orcamento.api.repository.OutboxMessageRepository;
+import com.orcamento.api.repository.QuoteRequestRepository;
+import com.orcamento.api.template.TemplateEngine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.amqp.rabbit.core.RabbitTemplate;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.OffsetDateTime;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CopyOnWriteArrayList;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+/**
+ * PUT intercalado com o pipeline e o relay do outbox, com os serviços e repositórios de verdade no H2.
+ * Cada chamada confirma a própria transação, como em produção; o PUT "durante a publicação" roda
+ * dentro do publicador, entre a transação do lease e a do resultado.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = "documents.storage.base-path=" + QuoteNotificationFlowTest.STORAGE)
+@Import({QuoteRequestService.class, QuoteProcessingService.class, NotificationOutboxRelay.class,
+        BudgetTypeCache.class, DocumentProcessingService.class, DocumentCountCache.class,
+        DocumentProcessingConfig.class, TemplateEngine.class, QuoteRequestMapperImpl.class,
+        QuoteNotificationFlowTest.FlowConfig.class})
+@DisplayName("Notificação de solicitações alteradas por PUT")
+class QuoteNotificationFlowTest {
+
+    static final String STORAGE = "target/quote-notification-flow";
+
+    @Autowired
+    private QuoteRequestService quoteRequestService;
+
+    @Autowired
+    private QuoteProcessingService quoteProcessingService;
+
+    @Autowired
+    private NotificationOutboxRelay relay;
+
+    @Autowired
+    private RecordingProducer producer;
+
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private BudgetTypeRepository budgetTypeRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private BudgetType budgetType;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        outboxMessageRepository.deleteAll();
+        quoteRequestRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM document_counts");
+        producer.reset();
+
+        // Por palavra, R$ 2,00: v1 tem 3 palavras, v2 tem 5
+        Path storage = Files.createDirectories(Path.of(STORAGE));
+        Files.writeString(storage.resolve("v1.txt"), "um dois três");
+        Files.writeString(storage.resolve("v2.txt"), "um dois três quatro cinco");
+
+        budgetType = new BudgetType();
+        budgetType.setBudgetTypeName("Tradução por Palavra");
+        budgetType.setBillingMethod(BillingMethod.WORD);
+        budgetType.setFee(new BigDecimal("2.00"));
+        budgetType.setDescription("Teste");
+        budgetType.setTargetEmail("teste@email.com");
+        budgetType = budgetTypeRepository.save(budgetType);
+    }
+
+    @Test
+    @DisplayName("PUT antes da publicação troca a notificação pendente pela da versão nova")
+    void deveTrocarNotificacaoPendentePelaDaVersaoNova() {
+        // Given - v1 contada, notificação no outbox
+        UUID id = quoteRequestService.create(solicitacao("v1.txt")).id();
+        quoteProcessingService.process(id);
+        assertThat(outboxMessageRepository.findAll()).hasSize(1);
+
+        // When - PUT com outro documento antes de o relay rodar
+        quoteRequestService.update(id, solicitacao("v2.txt"));
+
+        // Then - a notificação da v1 saiu do outbox e nada é publicado até a v2 ser contada
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+        relay.relay();
+        assertThat(producer.sent()).isEmpty();
+        assertThat(quoteRequestRepository.findById(id).orElseThrow().getStatus()).isEqualTo(QuoteStatus.PENDING);
+
+        quoteProcessingService.process(id);
+        relay.relay();
+        QuoteRequest quote = quoteRequestRepository.findById(id).orElseThrow();
+        assertThat(quote.getStatus()).isEqualTo(QuoteStatus.SENT);
+        assertThat(quote.getEstimatedTotal()).isEqualByComparingTo("10.00");
+        assertThat(quote.getNotifiedAt()).isNotNull();
+        assertThat(producer.sent()).extracting(NotificationEventDTO::getExternalReferenceId).containsExactly(id);
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("PUT durante a publicação não deixa a notificação antiga marcar a versão nova como SENT")
+    void naoDeveMarcarVersaoNovaComNotificacaoAntiga() {
+        // Given - v1 contada; enquanto o relay publica a notificação dela, chega o PUT e a v2 é contada
+        UUID id = quoteRequestService.create(solicitacao("v1.txt")).id();
+        quoteProcessingService.process(id);
+        producer.duringSend(() -> {
+            quoteRequestService.update(id, solicitacao("v2.txt"));
+            quoteProcessingService.process(id);
+        });
+
+        // When
+        relay.relay();
+
+        // Then - a v1 já tinha saído para o broker, mas a solicitação continua PENDING com a notificação da v2
+        QuoteRequest quote = quoteRequestRepository.findById(id).orElseThrow();
+        assertThat(quote.getStatus()).isEqualTo(QuoteStatus.PENDING);
+        assertThat(quote.getEstimatedTotal()).isEqualByComparingTo("10.00");
+        assertThat(quote.getNotifiedAt()).isNull();
+        List<OutboxMessage> pending = outboxMessageRepository.findAll();
+        assertThat(pending).hasSize(1);
+        assertThat(pending.get(0).getQuoteUpdatedAt()).isEqualTo(quote.getUpdatedAt());
+
+        // E a notificação da v2 a leva para SENT no ciclo seguinte
+        producer.duringSend(() -> { });
+        relay.relay();
+        assertThat(quoteRequestRepository.findById(id).orElseThrow().getStatus()).isEqualTo(QuoteStatus.SENT);
+        assertThat(producer.sent()).hasSize(2);
+    }
+
+    @Test
+    @DisplayName("PUT em solicitação já notificada recalcula o preço sem enviar outro e-mail")
+    void naoDeveReenviarNotificacaoAposPutEmSolicitacaoNotificada() {
+        // Given - v1 contada e notificada
+        UUID id = quoteRequestService.create(solicitacao("v1.txt")).id();
+        quoteProcessingService.process(id);
+        relay.relay();
+        assertThat(producer.sent()).hasSize(1);
+
+        // When
+        quoteRequestService.update(id, solicitacao("v2.txt"));
+        quoteProcessingService.process(id);
+        relay.relay();
+
+        // Then
+        QuoteRequest quote = quoteRequestRepository.findById(id).orElseThrow();
+        assertThat(quote.getStatus()).isEqualTo(QuoteStatus.SENT);
+        assertThat(quote.getEstimatedTotal()).isEqualByComparingTo("10.00");
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+        assertThat(producer.sent()).hasSize(1);
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private QuoteRequestDTO solicitacao(String storageKey) {
+        return new QuoteRequestDTO(null, budgetType.getId(), "João Silva", "joao@email.com", storageKey,
+                storageKey, "text/plain", 32L, null, null, null, null, null, null, null, null);
+    }
+
+    /*** Publicador que confirma na hora, sem RabbitMQ; o gancho roda no meio da publicação ***/
+    static class RecordingProducer extends NotificationProducerService {
+
+        private final List<NotificationEventDTO> sent = new CopyOnWriteArrayList<>();
+        private volatile Runnable duringSend = () -> { };
+
+        RecordingProducer() {
+            super(new RabbitTemplate(), new SimpleMeterRegistry(), 10);
+        }
+
+        @Override
+        public CompletableFuture<Void> sendNotification(NotificationEventDTO event) {
+            sent.add(event);
+            duringSend.run();
+            return CompletableFuture.completedFuture(null);
+        }
+
+        @Override
+        public boolean isAutoStartup() {
+            return false;
+        }
+
+        List<NotificationEventDTO> sent() {
+            return sent;
+        }
+
+        void duringSend(Runnable action) {
+            this.duringSend = action;
+        }
+
+        void reset() {
+            sent.clear();
+            duringSend = () -> { };
+        }
+    }
+
+    @TestConfiguration
+    static class FlowConfig {
+
+        @Bean
+        RecordingProducer notificationProducerService() {
+            return new RecordingProducer();
+        }
+
+        // O teste chama o pipeline direto; os eventos de criação e PUT não disparam nada
+        @Bean
+        TaskExecutor quoteProcessingExecutor() {
+            return task -> { };
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+}
@@ -0,0 +1,630 @@
+package com.orcamento.api.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.orcamento.api.config.DocumentProcessingConfig;
+import com.orcamento.api.dto.NotificationEventDTO;
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.DocumentCountEntry;
+import com.orcamento.api.entity.OutboxMessage;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.exception.ProcessingBacklogFullException;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.repository.BudgetTypeRepository;
+import com.orcamento.api.repository.DocumentCountRepository;
+import com.orcamento.api.repository.OutboxMessageRepository;
+import com.orcamento.api.repository.QuoteRequestRepository;
+import com.orcamento.api.service.document.DocumentCounts;
+import com.orcamento.api.template.TemplateEngine;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.ApplicationContext;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.core.task.TaskRejectedException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.TestPropertySource;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.OffsetDateTime;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.catchThrowableOfType;
+
+/**
+ * Pipeline com os repositórios, o contador de documentos e o template de verdade no H2. O pool é um
+ * executor controlado pelo teste; cada teste usa uma instância nova do serviço, então a fila e o backlog
+ * não passam de um teste para outro.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@TestPropertySource(properties = {
+        "documents.storage.base-path=" + QuoteProcessingServiceTest.STORAGE,
+        // Qualquer PENDING sem notificação no outbox já conta como parada para a varredura
+        "quotes.processing.stale-after-ms=0",
+        "quotes.processing.sweep-batch-size=100",
+        "quotes.processing.backlog-capacity=20000",
+        "quotes.processing.backlog-retry-after-seconds=30"})
+@Import({BudgetTypeCache.class, DocumentCountCache.class, DocumentProcessingConfig.class, TemplateEngine.class,
+        QuoteProcessingServiceTest.PipelineConfig.class})
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do QuoteProcessingService")
+class QuoteProcessingServiceTest {
+
+    static final String STORAGE = "target/quote-processing-service";
+
+    @Autowired
+    private ApplicationContext applicationContext;
+
+    @Autowired
+    private ScriptedExecutor quoteProcessingExecutor;
+
+    @Autowired
+    private HookedDocumentProcessingService documentProcessingService;
+
+    @Autowired
+    private DocumentCountCache documentCountCache;
+
+    @Autowired
+    private BudgetTypeCache budgetTypeCache;
+
+    @Autowired
+    private TemplateEngine templateEngine;
+
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private BudgetTypeRepository budgetTypeRepository;
+
+    @Autowired
+    private DocumentCountRepository documentCountRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private QuoteProcessingService service;
+
+    private UUID quoteRequestId;
+    private BudgetType budgetType;
+    private QuoteRequest quoteRequest;
+
+    @BeforeEach
+    void setUp() throws IOException {
+        outboxMessageRepository.deleteAll();
+        quoteRequestRepository.deleteAll();
+        budgetTypeRepository.deleteAll();
+        jdbcTemplate.update("DELETE FROM document_counts");
+        documentCountCache.clearMemory();
+        budgetTypeCache.invalidate();
+        quoteProcessingExecutor.reset();
+        documentProcessingService.duringCount(() -> { });
+
+        service = applicationContext.getAutowireCapableBeanFactory().createBean(QuoteProcessingService.class);
+
+        templateEngine.register(QuoteProcessingService.TEMPLATE_NAME,
+                "<p>Olá, {{NOME_CLIENTE}}! Orçamento {{ID_ORCAMENTO}} de {{TIPO_ORCAMENTO}}.</p>");
+
+        // 1000 palavras: 4 páginas estimadas
+        Path storage = Files.createDirectories(Path.of(STORAGE));
+        Files.writeString(storage.resolve("contrato.txt"), "palavra ".repeat(1000));
+        Files.writeString(storage.resolve("enorme.txt"), "conteúdo contado antes, em outra solicitação");
+
+        budgetType = new BudgetType();
+        budgetType.setBudgetTypeName("Tradução por Página");
+        budgetType.setBillingMethod(BillingMethod.PAGE);
+        budgetType.setFee(BigDecimal.valueOf(15.50));
+        budgetType.setDescription("Teste");
+        budgetType.setTargetEmail("teste@email.com");
+        budgetType = budgetTypeRepository.save(budgetType);
+
+        quoteRequest = new QuoteRequest();
+        quoteRequest.setBudgetType(budgetType);
+        quoteRequest.setRequesterName("João Silva");
+        quoteRequest.setRequesterEmail("joao@email.com");
+        quoteRequest.setDocumentOriginalName("contrato.txt");
+        quoteRequest.setDocumentStorageKey("contrato.txt");
+        quoteRequest.setDocumentMimeType("text/plain");
+        quoteRequest.setDocumentSizeBytes(8000L);
+        quoteRequest.setBillingMethodUsed("PAGE");
+        quoteRequest.setFeeUsed(BigDecimal.valueOf(15.50));
+        quoteRequest.setCountedUnits(0);
+        quoteRequest.setEstimatedTotal(BigDecimal.ZERO);
+        quoteRequest.setStatus(QuoteStatus.PENDING);
+    }
+
+    @Test
+    @DisplayName("Deve contar, calcular o preço e gravar a notificação no outbox na mesma transação")
+    void deveProcessarEGravarNotificacaoNoOutbox() {
+        // Given
+        salvar();
+
+        // When
+        service.process(quoteRequestId);
+
+        // Then - contagem e total gravados; o SENT fica para o relay, depois do ack do broker
+        QuoteRequest saved = recarregar();
+        assertThat(saved.getStatus()).isEqualTo(QuoteStatus.PENDING);
+        assertThat(saved.getCountedUnits()).isEqualTo(4);
+        assertThat(saved.getEstimatedTotal()).isEqualByComparingTo("62.00");
+        assertThat(saved.getNotifiedAt()).isNull();
+
+        // A linha do outbox leva a versão gravada pelo UPDATE, conferida pelo relay antes do SENT
+        List<OutboxMessage> outbox = outboxMessageRepository.findAll();
+        assertThat(outbox).hasSize(1);
+        assertThat(outbox.get(0).getQuoteRequestId()).isEqualTo(quoteRequestId);
+        assertThat(outbox.get(0).getQuoteUpdatedAt()).isEqualTo(saved.getUpdatedAt());
+        NotificationEventDTO notification = outbox.get(0).getPayload();
+        assertThat(notification.getExternalReferenceId()).isEqualTo(quoteRequestId);
+        assertThat(notification.getRecipientEmail()).isEqualTo("joao@email.com");
+        assertThat(notification.getBodyHtml())
+                .isEqualTo("<p>Olá, João Silva! Orçamento " + quoteRequestId + " de Tradução por Página.</p>");
+    }
+
+    @Test
+    @DisplayName("Deve marcar como FAILED quando uma etapa falhar, sem notificar")
+    void deveMarcarComoFailedQuandoEtapaFalhar() {
+        // Given - documento fora do armazenamento
+        quoteRequest.setDocumentStorageKey("inexistente.txt");
+        salvar();
+
+        // When
+        service.process(quoteRequestId);
+
+        // Then
+        assertThat(recarregar().getStatus()).isEqualTo(QuoteStatus.FAILED);
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve recusar como FAILED, sem notificar, documento com mais unidades que a coluna comporta")
+    void deveRecusarContagemAcimaDoLimite() throws Exception {
+        // Given - 3 bilhões de caracteres não cabem em counted_units (integer)
+        quoteRequest.setBillingMethodUsed("CHARACTER");
+        quoteRequest.setFeeUsed(new BigDecimal("0.01"));
+        quoteRequest.setDocumentStorageKey("enorme.txt");
+        salvar();
+        contagemGravada("enorme.txt", new DocumentCounts(500_000_000L, 10, 3_000_000_000L, 4));
+
+        // When
+        service.process(quoteRequestId);
+
+        // Then
+        QuoteRequest saved = recarregar();
+        assertThat(saved.getStatus()).isEqualTo(QuoteStatus.FAILED);
+        assertThat(saved.getCountedUnits()).isZero();
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve recusar como FAILED quando o total passa do que estimated_total comporta")
+    void deveRecusarTotalAcimaDoLimite() throws Exception {
+        // Given - 2 bilhões de palavras a R$ 10,00 = R$ 20 bilhões
+        quoteRequest.setBillingMethodUsed("WORD");
+        quoteRequest.setFeeUsed(BigDecimal.TEN);
+        quoteRequest.setDocumentStorageKey("enorme.txt");
+        salvar();
+        contagemGravada("enorme.txt", new DocumentCounts(2_000_000_000L, 10, 5000, 4));
+
+        // When
+        service.process(quoteRequestId);
+
+        // Then
+        QuoteRequest saved = recarregar();
+        assertThat(saved.getStatus()).isEqualTo(QuoteStatus.FAILED);
+        assertThat(saved.getEstimatedTotal()).isEqualByComparingTo("0");
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve ignorar solicitação que já saiu de PENDING")
+    void deveIgnorarSolicitacaoJaProcessada() {
+        // Given - o documento nem existe: se fosse contado, a solicitação iria para FAILED
+        quoteRequest.setStatus(QuoteStatus.SENT);
+        quoteRequest.setDocumentStorageKey("inexistente.txt");
+        salvar();
+        OffsetDateTime version = recarregar().getUpdatedAt();
+
+        // When
+        service.process(quoteRequestId);
+
+        // Then
+        QuoteRequest saved = recarregar();
+        assertThat(saved.getStatus()).isEqualTo(QuoteStatus.SENT);
+        assertThat(saved.getUpdatedAt()).isEqualTo(version);
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve executar o pipeline ao receber o evento de criação")
+    void deveExecutarPipelineAoReceberEvento() {
+        // Given
+        quoteProcessingExecutor.runImmediately();
+        salvar();
+
+        // When
+        service.onQuoteCreated(new QuoteCreatedEvent(quoteRequestId));
+
+        // Then
+        assertThat(outboxMessageRepository.findAll()).hasSize(1);
+        // Depois de terminar, a solicitação pode ser enfileirada de novo
+        quoteProcessingExecutor.hold();
+        assertThat(service.submit(quoteRequestId)).isTrue();
+    }
+
+    @Test
+    @DisplayName("Deve desfazer o preço e marcar como FAILED quando não conseguir gravar no outbox")
+    void deveMarcarComoFailedQuandoOutboxFalhar() {
+        // Given - uma linha da mesma solicitação já no outbox: o índice único recusa a segunda
+        salvar();
+        outboxMessageRepository.save(new OutboxMessage(quoteRequestId, OffsetDateTime.now(),
+                new NotificationEventDTO(quoteRequestId, "joao@email.com", "João Silva", "Antiga", "<p>Olá</p>")));
+
+        // When
+        service.process(quoteRequestId);
+
+        // Then - o UPDATE do preço voltou junto com o INSERT que falhou
+        QuoteRequest saved = recarregar();
+        assertThat(saved.getStatus()).isEqualTo(QuoteStatus.FAILED);
+        assertThat(saved.getCountedUnits()).isZero();
+        assertThat(saved.getEstimatedTotal()).isEqualByComparingTo("0");
+        assertThat(outboxMessageRepository.findAll()).extracting(m -> m.getPayload().getSubject())
+                .containsExactly("Antiga");
+    }
+
+    @Test
+    @DisplayName("Deve usar a tarifa gravada na criação mesmo que a do tipo de orçamento tenha mudado")
+    void deveUsarTarifaGravadaNaCriacao() {
+        // Given - tarifa do tipo mudou de 15,50 para 99,00 depois da criação
+        salvar();
+        budgetType.setFee(BigDecimal.valueOf(99));
+        budgetTypeRepository.save(budgetType);
+        budgetTypeCache.invalidate();
+
+        // When
+        service.process(quoteRequestId);
+
+        // Then
+        QuoteRequest saved = recarregar();
+        assertThat(saved.getCountedUnits()).isEqualTo(4);
+        assertThat(saved.getEstimatedTotal()).isEqualByComparingTo("62.00");
+    }
+
+    @Test
+    @DisplayName("Deve descartar o resultado sem notificar quando a solicitação mudou durante a contagem")
+    void deveDescartarResultadoQuandoSolicitacaoMudou() {
+        // Given - atualizada por outra requisição enquanto o documento era contado
+        salvar();
+        documentProcessingService.duringCount(() -> {
+            QuoteRequest changed = recarregar();
+            changed.setRequesterName("João da Silva");
+            quoteRequestRepository.save(changed);
+        });
+
+        // When
+        service.process(quoteRequestId);
+
+        // Then - a versão nova continua PENDING, sem preço e sem notificação, para a próxima contagem
+        QuoteRequest saved = recarregar();
+        assertThat(saved.getRequesterName()).isEqualTo("João da Silva");
+        assertThat(saved.getStatus()).isEqualTo(QuoteStatus.PENDING);
+        assertThat(saved.getCountedUnits()).isZero();
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Não deve notificar de novo a solicitação já notificada: o recálculo volta direto para SENT")
+    void naoDeveNotificarDeNovoSolicitacaoJaNotificada() {
+        // Given - PUT depois do SENT: a solicitação voltou para PENDING, mas o e-mail já foi
+        quoteRequest.setNotifiedAt(OffsetDateTime.now().minusDays(1));
+        salvar();
+
+        // When
+        service.process(quoteRequestId);
+
+        // Then
+        QuoteRequest saved = recarregar();
+        assertThat(saved.getStatus()).isEqualTo(QuoteStatus.SENT);
+        assertThat(saved.getCountedUnits()).isEqualTo(4);
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve enfileirar de novo a solicitação atualizada enquanto estava em processamento")
+    void deveReenfileirarSolicitacaoAtualizadaEmProcessamento() {
+        // Given - primeira execução fica retida; o PUT chega enquanto ela está na fila
+        salvar();
+        service.submit(quoteRequestId);
+
+        // When
+        service.onQuoteUpdated(new QuoteUpdatedEvent(quoteRequestId));
+        quoteProcessingExecutor.runNext();
+
+        // Then
+        assertThat(quoteProcessingExecutor.held()).hasSize(1);
+        assertThat(quoteProcessingExecutor.calls()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve manter PENDING quando a fila do pipeline estiver cheia")
+    void deveManterPendingQuandoFilaCheia() {
+        // Given
+        quoteProcessingExecutor.reject();
+        salvar();
+
+        // When
+        boolean accepted = service.submit(quoteRequestId);
+
+        // Then
+        assertThat(accepted).isFalse();
+        assertThat(recarregar().getStatus()).isEqualTo(QuoteStatus.PENDING);
+        // A rejeição libera a solicitação para a próxima tentativa
+        assertThat(service.submit(quoteRequestId)).isFalse();
+        assertThat(quoteProcessingExecutor.calls()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve guardar no backlog o restante do lote e enfileirar conforme os workers terminam")
+    void deveEsvaziarBacklogDoLoteConformeWorkersTerminam() {
+        // Given - pool com uma vaga só: aceita enquanto estiver livre
+        quoteProcessingExecutor.singleSlot();
+        List<UUID> ids = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+
+        // When
+        service.onQuoteBatchCreated(new QuoteBatchCreatedEvent(ids));
+
+        // Then - um no pool, três no backlog; cada worker que termina puxa o próximo
+        assertThat(quoteProcessingExecutor.held()).hasSize(1);
+        for (int processed = 1; processed < ids.size(); processed++) {
+            quoteProcessingExecutor.runNext();
+            assertThat(quoteProcessingExecutor.held()).as("após %d processada(s)", processed).hasSize(1);
+        }
+        quoteProcessingExecutor.runNext();
+        assertThat(quoteProcessingExecutor.held()).isEmpty();
+        assertThat(quoteProcessingExecutor.calls()).isEqualTo(4 + 3); // 4 aceitas + 3 recusas
+    }
+
+    @Test
+    @DisplayName("Não deve reenfileirar pela varredura o que ainda está no backlog")
+    void naoDeveReenfileirarPelaVarreduraOQueEstaNoBacklog() {
+        // Given - pool cheio: o lote inteiro fica no backlog; a solicitação está PENDING e parada
+        quoteProcessingExecutor.reject();
+        salvar();
+        service.onQuoteBatchCreated(new QuoteBatchCreatedEvent(List.of(quoteRequestId)));
+
+        // When
+        service.resubmitStalePending();
+
+        // Then - a varredura tenta o backlog (pool ainda cheio) e não duplica o ID
+        assertThat(service.submit(quoteRequestId)).isFalse();
+        assertThat(quoteProcessingExecutor.calls()).isEqualTo(2);
+    }
+
+    @Test
+    @DisplayName("Deve recusar o lote que não cabe no backlog e deixar o excedente PENDING para a varredura")
+    void deveLimitarBacklogDoLote() {
+        // Given - pool cheio, backlog para 3
+        ReflectionTestUtils.setField(service, "backlogCapacity", 3);
+        quoteProcessingExecutor.reject();
+        quoteRequestId = UUID.randomUUID();
+        service.onQuoteBatchCreated(new QuoteBatchCreatedEvent(List.of(UUID.randomUUID(), UUID.randomUUID())));
+
+        // When & Then - ainda cabe 1; 2 não
+        service.checkBacklogCapacity(1);
+        ProcessingBacklogFullException full = catchThrowableOfType(
+                () -> service.checkBacklogCapacity(2), ProcessingBacklogFullException.class);
+        assertThat(full).hasMessageContaining("2 solicitação(ões) aguardando");
+        assertThat(full.getRetryAfterSeconds()).isEqualTo(30);
+
+        // Lotes que passaram juntos pela checagem: o que excede fica fora do backlog e da fila desta instância
+        UUID overflow = UUID.randomUUID();
+        service.onQuoteBatchCreated(new QuoteBatchCreatedEvent(List.of(quoteRequestId, overflow)));
+        assertThatThrownBy(() -> service.checkBacklogCapacity(1)).isInstanceOf(ProcessingBacklogFullException.class);
+        assertThat(service.submit(quoteRequestId)).isFalse();
+        assertThat(service.submit(overflow)).isFalse();
+        // overflow não estava em inFlight, então o submit tentou o pool
+        assertThat(quoteProcessingExecutor.calls()).isEqualTo(3);
+    }
+
+    @Test
+    @DisplayName("Não deve enfileirar a mesma solicitação duas vezes")
+    void naoDeveEnfileirarDuasVezes() {
+        // When - executor aceita mas ainda não executou
+        quoteRequestId = UUID.randomUUID();
+        boolean first = service.submit(quoteRequestId);
+        boolean second = service.submit(quoteRequestId);
+
+        // Then
+        assertThat(first).isTrue();
+        assertThat(second).isFalse();
+        assertThat(quoteProcessingExecutor.calls()).isEqualTo(1);
+    }
+
+    @Test
+    @DisplayName("Deve reenfileirar solicitações PENDING paradas")
+    void deveReenfileirarPendingParadas() {
+        // Given - duas PENDING sem notificação e uma já enviada
+        salvar();
+        UUID outra = salvarOutra(QuoteStatus.PENDING);
+        salvarOutra(QuoteStatus.SENT);
+
+        // When
+        service.resubmitStalePending();
+
+        // Then
+        assertThat(quoteProcessingExecutor.calls()).isEqualTo(2);
+        assertThat(service.submit(quoteRequestId)).isFalse();
+        assertThat(service.submit(outra)).isFalse();
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private void salvar() {
+        quoteRequest = quoteRequestRepository.save(quoteRequest);
+        quoteRequestId = quoteRequest.getId();
+    }
+
+    private UUID salvarOutra(QuoteStatus status) {
+        QuoteRequest other = new QuoteRequest();
+        other.setBudgetType(budgetType);
+        other.setRequesterName("Maria Souza");
+        other.setRequesterEmail("maria@email.com");
+        other.setDocumentOriginalName("contrato.txt");
+        other.setDocumentStorageKey("contrato.txt");
+        other.setDocumentMimeType("text/plain");
+        other.setDocumentSizeBytes(8000L);
+        other.setBillingMethodUsed("PAGE");
+        other.setFeeUsed(BigDecimal.valueOf(15.50));
+        other.setCountedUnits(0);
+        other.setEstimatedTotal(BigDecimal.ZERO);
+        other.setStatus(status);
+        return quoteRequestRepository.save(other).getId();
+    }
+
+    private QuoteRequest recarregar() {
+        return quoteRequestRepository.findById(quoteRequestId).orElseThrow();
+    }
+
+    // Contagem gravada no cache persistente por outra solicitação com o mesmo conteúdo
+    private void contagemGravada(String storageKey, DocumentCounts counts)
+            throws IOException, NoSuchAlgorithmException {
+        byte[] content = Files.readAllBytes(Path.of(STORAGE, storageKey));
+        String sha256 = HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(content));
+        documentCountRepository.save(new DocumentCountEntry(
+                new DocumentCountEntry.Key(sha256, DocumentProcessingService.MIME_TEXT,
+                        DocumentCountCache.COUNTER_VERSION),
+                counts.getWords(), counts.getParagraphs(), counts.getCharacters(), counts.getPages()));
+    }
+
+    /*** Pool do pipeline controlado pelo teste: retém as tarefas, executa na hora ou recusa ***/
+    static class ScriptedExecutor implements TaskExecutor {
+
+        private enum Mode { HOLD, RUN, REJECT, SINGLE_SLOT }
+
+        private final List<Runnable> held = new CopyOnWriteArrayList<>();
+        private final AtomicInteger calls = new AtomicInteger();
+        private volatile Mode mode = Mode.HOLD;
+
+        @Override
+        public void execute(Runnable task) {
+            calls.incrementAndGet();
+            switch (mode) {
+                case RUN -> task.run();
+                case REJECT -> throw new TaskRejectedException("fila cheia");
+                case SINGLE_SLOT -> {
+                    if (!held.isEmpty()) {
+                        throw new TaskRejectedException("fila cheia");
+                    }
+                    held.add(task);
+                }
+                default -> held.add(task);
+            }
+        }
+
+        void hold() {
+            mode = Mode.HOLD;
+        }
+
+        void runImmediately() {
+            mode = Mode.RUN;
+        }
+
+        void reject() {
+            mode = Mode.REJECT;
+        }
+
+        // Uma vaga só: aceita enquanto não houver tarefa retida
+        void singleSlot() {
+            mode = Mode.SINGLE_SLOT;
+        }
+
+        /*** Tira a tarefa mais antiga da fila e a executa na thread do teste ***/
+        void runNext() {
+            held.remove(0).run();
+        }
+
+        List<Runnable> held() {
+            return held;
+        }
+
+        /*** Chamadas a execute, aceitas ou recusadas ***/
+        int calls() {
+            return calls.get();
+        }
+
+        void reset() {
+            held.clear();
+            calls.set(0);
+            mode = Mode.HOLD;
+        }
+    }
+
+    /*** Contador de verdade com um gancho que roda antes da contagem, fora de transação ***/
+    static class HookedDocumentProcessingService extends DocumentProcessingService {
+
+        private volatile Runnable duringCount = () -> { };
+
+        @Override
+        public DocumentCounts countStoredDocument(String storageKey, String mimeType) {
+            duringCount.run();
+            return super.countStoredDocument(storageKey, mimeType);
+        }
+
+        void duringCount(Runnable action) {
+            this.duringCount = action;
+        }
+    }
+
+    @TestConfiguration
+    static class PipelineConfig {
+
+        @Bean
+        ScriptedExecutor quoteProcessingExecutor() {
+            return new ScriptedExecutor();
+        }
+
+        @Bean
+        HookedDocumentProcessingService documentProcessingService() {
+            return new HookedDocumentProcessingService();
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return new ObjectMapper();
+        }
+    }
+}
@@ -0,0 +1,103 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.service.QuoteRequestPartitionMaintenance.Partition;
+
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+
+import java.time.OffsetDateTime;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do QuoteRequestPartitionMaintenance")
+class QuoteRequestPartitionMaintenanceTest {
+
+    private static final YearMonth OUTUBRO = YearMonth.of(2026, 10);
+
+    @Test
+    @DisplayName("Não deve criar partição para meses ainda cobertos pela legacy")
+    void naoDeveCriarMesesCobertosPelaLegacy() {
+        // Given: legacy até 01/12 e partição de dezembro criada pela migração
+        List<Partition> partitions = List.of(
+                new Partition("quote_requests_legacy", null, inicio(2026, 12), false),
+                mensal(2026, 12));
+
+        // When
+        List<YearMonth> months = QuoteRequestPartitionMaintenance.monthsToCreate(partitions, OUTUBRO, 3);
+
+        // Then: outubro e novembro estão na legacy, dezembro já existe
+        assertThat(months).containsExactly(YearMonth.of(2027, 1));
+    }
+
+    @Test
+    @DisplayName("Deve criar o mês atual e os próximos quando faltarem")
+    void deveCriarMesesQueFaltam() {
+        // Given
+        List<Partition> partitions = List.of(mensal(2026, 9), mensal(2026, 11));
+
+        // When
+        List<YearMonth> months = QuoteRequestPartitionMaintenance.monthsToCreate(partitions, OUTUBRO, 2);
+
+        // Then
+        assertThat(months).containsExactly(YearMonth.of(2026, 10), YearMonth.of(2026, 12));
+    }
+
+    @Test
+    @DisplayName("Não deve desanexar nada sem retenção configurada")
+    void naoDeveDesanexarSemRetencao() {
+        // Given
+        List<Partition> partitions = List.of(
+                new Partition("quote_requests_legacy", null, inicio(2020, 1), false),
+                mensal(2020, 1));
+
+        // When / Then
+        assertThat(QuoteRequestPartitionMaintenance.toDetach(partitions, OUTUBRO, 0)).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve desanexar só as partições que terminam antes do mês de corte")
+    void deveDesanexarParticoesAlemDaRetencao() {
+        // Given: retenção de 12 meses em outubro/2026 -> corte em 01/10/2025
+        Partition legacy = new Partition("quote_requests_legacy", null, inicio(2025, 9), false);
+        Partition agosto = mensal(2025, 8);
+        Partition setembro = mensal(2025, 9);
+        Partition outubro = mensal(2025, 10);
+
+        // When
+        List<Partition> detach = QuoteRequestPartitionMaintenance.toDetach(
+                List.of(legacy, agosto, setembro, outubro), OUTUBRO, 12);
+
+        // Then: setembro termina exatamente no corte; outubro/2025 ainda está na retenção
+        assertThat(detach).containsExactly(legacy, agosto, setembro);
+    }
+
+    @Test
+    @DisplayName("Deve concluir DETACH pendente mesmo dentro da retenção")
+    void deveConcluirDetachPendente() {
+        // Given
+        Partition pendente = new Partition("quote_requests_p2026_09", inicio(2026, 9), inicio(2026, 10), true);
+
+        // When
+        List<Partition> detach = QuoteRequestPartitionMaintenance.toDetach(List.of(pendente), OUTUBRO, 0);
+
+        // Then
+        assertThat(detach).containsExactly(pendente);
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private static Partition mensal(int year, int month) {
+        OffsetDateTime from = inicio(year, month);
+        return new Partition(String.format("quote_requests_p%d_%02d", year, month), from, from.plusMonths(1), false);
+    }
+
+    private static OffsetDateTime inicio(int year, int month) {
+        return OffsetDateTime.of(year, month, 1, 0, 0, 0, 0, ZoneOffset.UTC);
+    }
+}
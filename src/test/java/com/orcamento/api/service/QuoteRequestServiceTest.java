@@ -1,53 +1,114 @@
 package com.orcamento.api.service;
 
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.orcamento.api.config.DocumentProcessingConfig;
+import com.orcamento.api.dto.CursorPageDTO;
+import com.orcamento.api.dto.NotificationEventDTO;
 import com.orcamento.api.dto.QuoteRequestDTO;
 import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.OutboxMessage;
 import com.orcamento.api.entity.QuoteRequest;
-import com.orcamento.api.entity.enums.QuoteStatus;
 import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.exception.ProcessingBacklogFullException;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.mapper.QuoteRequestMapperImpl;
 import com.orcamento.api.repository.BudgetTypeRepository;
+import com.orcamento.api.repository.OutboxMessageRepository;
 import com.orcamento.api.repository.QuoteRequestRepository;
-
+import com.orcamento.api.template.TemplateEngine;
+import com.orcamento.api.util.KeysetCursor;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.EntityManagerFactory;
+import org.hibernate.Session;
+import org.hibernate.SessionFactory;
+import org.hibernate.engine.spi.EntityKey;
+import org.hibernate.stat.Statistics;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
-import org.mockito.Mock;
-import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Import;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.data.domain.Page;
-import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
-
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.OffsetDateTime;
+import java.util.ArrayList;
 import java.util.List;
-import java.util.Optional;
 import java.util.UUID;
+import java.util.concurrent.CopyOnWriteArrayList;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
-import static org.mockito.ArgumentMatchers.any;
-import static org.mockito.Mockito.*;
 
-import com.orcamento.api.extension.MemoryMonitorExtension;
-import com.orcamento.api.entity.enums.QuoteStatus;
-
-@ExtendWith(MockitoExtension.class)
+/**
+ * Serviço, cache de tipos e mapper de verdade no H2. Cada chamada confirma a própria transação, como em
+ * produção; os eventos publicados são gravados por um listener do teste e o pool do pipeline não executa nada.
+ */
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+@Import({QuoteRequestService.class, QuoteProcessingService.class, BudgetTypeCache.class,
+        DocumentProcessingService.class, DocumentCountCache.class, DocumentProcessingConfig.class,
+        TemplateEngine.class, QuoteRequestMapperImpl.class, QuoteRequestServiceTest.ServiceConfig.class})
 @ExtendWith(MemoryMonitorExtension.class)
-@ExtendWith(MockitoExtension.class)
 @DisplayName("Testes do QuoteRequestService")
 class QuoteRequestServiceTest {
 
-    @Mock
+    @Autowired
+    private QuoteRequestService service;
+
+    @Autowired
+    private QuoteProcessingService quoteProcessingService;
+
+    @Autowired
+    private BudgetTypeCache budgetTypeCache;
+
+    @Autowired
+    private RecordedEvents events;
+
+    @Autowired
     private QuoteRequestRepository quoteRequestRepository;
 
-    @Mock
+    @Autowired
     private BudgetTypeRepository budgetTypeRepository;
 
-    @InjectMocks
-    private QuoteRequestService service;
+    @Autowired
+    private OutboxMessageRepository outboxMessageRepository;
+
+    @Autowired
+    private EntityManager entityManager;
+
+    @Autowired
+    private EntityManagerFactory entityManagerFactory;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
 
     private UUID budgetTypeId;
     private UUID quoteRequestId;
@@ -57,23 +118,25 @@ class QuoteRequestServiceTest {
 
     @BeforeEach
     void setUp() {
-        budgetTypeId = UUID.randomUUID();
-        quoteRequestId = UUID.randomUUID();
-
-        // Cria BudgetType mock
+        // Limpa o banco e o snapshot do cache de tipos, compartilhado entre os testes do contexto
+        outboxMessageRepository.deleteAll();
+        quoteRequestRepository.deleteAll();
+        budgetTypeRepository.deleteAll();
+        budgetTypeCache.invalidate();
+        events.clear();
+
+        // Cria BudgetType
         budgetType = new BudgetType();
-        budgetType.setId(budgetTypeId);
         budgetType.setBudgetTypeName("Tradução por Palavra");
         budgetType.setBillingMethod(BillingMethod.WORD);
         budgetType.setFee(BigDecimal.valueOf(0.25));
         budgetType.setDescription("Teste");
         budgetType.setTargetEmail("teste@email.com");
-        budgetType.setCreatedAt(OffsetDateTime.now());
-        budgetType.setUpdatedAt(OffsetDateTime.now());
+        budgetType = budgetTypeRepository.save(budgetType);
+        budgetTypeId = budgetType.getId();
 
-        // Cria QuoteRequest mock
+        // Cria QuoteRequest (gravada pelos testes que precisam dela no banco)
         quoteRequest = new QuoteRequest();
-        quoteRequest.setId(quoteRequestId);
         quoteRequest.setBudgetType(budgetType);
         quoteRequest.setRequesterName("João Silva");
         quoteRequest.setRequesterEmail("joao@email.com");
@@ -86,98 +149,167 @@ class QuoteRequestServiceTest {
         quoteRequest.setCountedUnits(1000);
         quoteRequest.setEstimatedTotal(BigDecimal.valueOf(250.0));
         quoteRequest.setStatus(QuoteStatus.PENDING);
-        quoteRequest.setCreatedAt(OffsetDateTime.now());
-        quoteRequest.setUpdatedAt(OffsetDateTime.now());
+
+        // ID de uma solicitação que não existe; os testes que gravam a QuoteRequest trocam pelo ID gerado
+        quoteRequestId = UUID.randomUUID();
 
         // Cria DTO
-        quoteRequestDTO = new QuoteRequestDTO();
-        quoteRequestDTO.setBudgetTypeId(budgetTypeId);
-        quoteRequestDTO.setRequesterName("João Silva");
-        quoteRequestDTO.setRequesterEmail("joao@email.com");
-        quoteRequestDTO.setDocumentOriginalName("contrato.pdf");
-        quoteRequestDTO.setDocumentStorageKey("storage/key/123");
-        quoteRequestDTO.setDocumentMimeType("application/pdf");
-        quoteRequestDTO.setDocumentSizeBytes(1024L);
-        quoteRequestDTO.setBillingMethodUsed("WORD");
-        quoteRequestDTO.setFeeUsed(BigDecimal.valueOf(0.25));
-        quoteRequestDTO.setCountedUnits(1000);
-        quoteRequestDTO.setEstimatedTotal(BigDecimal.valueOf(250.0));
-        quoteRequestDTO.setStatus(QuoteStatus.PENDING);
+        quoteRequestDTO = new QuoteRequestDTO(null, budgetTypeId, "João Silva", "joao@email.com", "contrato.pdf",
+                "storage/key/123", "application/pdf", 1024L, "WORD", BigDecimal.valueOf(0.25), 1000,
+                BigDecimal.valueOf(250.0), QuoteStatus.PENDING, null, null, null);
     }
 
     @Test
     @DisplayName("Deve criar QuoteRequest com sucesso")
     void deveCriarQuoteRequestComSucesso() {
-        // Given
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.of(budgetType));
-        when(quoteRequestRepository.save(any(QuoteRequest.class))).thenReturn(quoteRequest);
-
         // When
         QuoteRequestDTO result = service.create(quoteRequestDTO);
 
         // Then
         assertThat(result).isNotNull();
-        assertThat(result.getRequesterName()).isEqualTo("João Silva");
-        assertThat(result.getRequesterEmail()).isEqualTo("joao@email.com");
-        assertThat(result.getStatus()).isEqualTo(QuoteStatus.PENDING);
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
-        verify(quoteRequestRepository, times(1)).save(any(QuoteRequest.class));
+        assertThat(result.requesterName()).isEqualTo("João Silva");
+        assertThat(result.requesterEmail()).isEqualTo("joao@email.com");
+        assertThat(result.status()).isEqualTo(QuoteStatus.PENDING);
+        assertThat(quoteRequestRepository.findById(result.id())).isPresent();
+    }
+
+    @Test
+    @DisplayName("Deve gravar como PENDING sem contar o documento e publicar evento para o pipeline")
+    void deveCriarComoPendingSemProcessarDocumento() {
+        // Given - cliente tenta enviar status e valores próprios
+        quoteRequestDTO = new QuoteRequestDTO(null, budgetTypeId, "João Silva", "joao@email.com", "contrato.pdf",
+                "storage/key/123", "application/pdf", 1024L, "WORD", BigDecimal.valueOf(0.25), 1,
+                BigDecimal.ONE, QuoteStatus.SENT, null, null, null);
+        Statistics statistics = statistics();
+
+        // When
+        QuoteRequestDTO result = service.create(quoteRequestDTO);
+
+        // Then
+        assertThat(result.status()).isEqualTo(QuoteStatus.PENDING);
+        assertThat(result.budgetTypeId()).isEqualTo(budgetTypeId);
+        // Tipo de orçamento vem do cache: nenhuma busca de budget_types por ID
+        assertThat(statistics.getEntityStatistics(BudgetType.class.getName()).getFetchCount()).isZero();
+        assertThat(result.billingMethodUsed()).isEqualTo("WORD");
+        assertThat(result.feeUsed()).isEqualByComparingTo("0.25");
+        assertThat(result.countedUnits()).isZero();
+        assertThat(result.estimatedTotal()).isEqualByComparingTo("0");
+
+        assertThat(events.published()).singleElement().isInstanceOfSatisfying(QuoteCreatedEvent.class,
+                event -> assertThat(event.getQuoteRequestId()).isEqualTo(result.id()));
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao criar QuoteRequest com BudgetType inexistente")
     void deveLancarExcecaoQuandoBudgetTypeNaoExiste() {
         // Given
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.empty());
+        quoteRequestDTO = new QuoteRequestDTO(null, UUID.randomUUID(), "João Silva", "joao@email.com",
+                "contrato.pdf", "storage/key/123", "application/pdf", 1024L, null, null, null, null, null, null,
+                null, null);
 
         // When & Then
         assertThatThrownBy(() -> service.create(quoteRequestDTO))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Tipo de orçamento");
 
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
-        verify(quoteRequestRepository, never()).save(any(QuoteRequest.class));
+        assertThat(quoteRequestRepository.count()).isZero();
+        assertThat(events.published()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Deve criar em lote esvaziando o contexto de persistência a cada lote do JDBC")
+    void deveCriarEmLoteComFlushPorLote() {
+        // Given
+        ReflectionTestUtils.setField(service, "jdbcBatchSize", 2);
+        List<QuoteRequestDTO> result = new ArrayList<>();
+        Statistics statistics = statistics();
+        int managedAtTheEnd;
+        try {
+            // When - na transação do teste, para olhar o contexto de persistência no fim
+            managedAtTheEnd = transactionTemplate.execute(status -> {
+                result.addAll(service.createAll(List.of(quoteRequestDTO, quoteRequestDTO, quoteRequestDTO,
+                        quoteRequestDTO, quoteRequestDTO)));
+                return managedQuoteRequests();
+            });
+        } finally {
+            ReflectionTestUtils.setField(service, "jdbcBatchSize", 100);
+        }
+
+        // Then - esvaziado depois da 2ª e da 4ª; só a 5ª continua no contexto
+        assertThat(result).hasSize(5).allMatch(dto -> dto.status() == QuoteStatus.PENDING);
+        assertThat(quoteRequestRepository.count()).isEqualTo(5);
+        assertThat(managedAtTheEnd).isEqualTo(1);
+        // Tipo de orçamento resolvido pelo cache: nenhuma busca de budget_types por ID
+        assertThat(statistics.getEntityStatistics(BudgetType.class.getName()).getFetchCount()).isZero();
+
+        assertThat(events.published()).singleElement().isInstanceOfSatisfying(QuoteBatchCreatedEvent.class,
+                event -> assertThat(event.getQuoteRequestIds())
+                        .containsExactlyElementsOf(result.stream().map(QuoteRequestDTO::id).toList()));
+    }
+
+    @Test
+    @DisplayName("Não deve gravar nada do lote quando o backlog do pipeline estiver cheio")
+    void naoDeveCriarLoteComBacklogCheio() {
+        // Given - backlog para 1
+        ReflectionTestUtils.setField(quoteProcessingService, "backlogCapacity", 1);
+        try {
+            // When & Then
+            assertThatThrownBy(() -> service.createAll(List.of(quoteRequestDTO, quoteRequestDTO)))
+                    .isInstanceOf(ProcessingBacklogFullException.class);
+        } finally {
+            ReflectionTestUtils.setField(quoteProcessingService, "backlogCapacity", 20000);
+        }
+        assertThat(quoteRequestRepository.count()).isZero();
+        assertThat(events.published()).isEmpty();
+    }
+
+    @Test
+    @DisplayName("Não deve gravar nada do lote quando um BudgetType não existir")
+    void naoDeveCriarLoteComBudgetTypeInexistente() {
+        // Given
+        QuoteRequestDTO invalid = new QuoteRequestDTO(null, UUID.randomUUID(), null, null, null, null, null, null,
+                null, null, null, null, null, null, null, null);
+
+        // When & Then - a exceção desfaz a transação inteira
+        assertThatThrownBy(() -> service.createAll(List.of(quoteRequestDTO, invalid)))
+                .isInstanceOf(RuntimeException.class)
+                .hasMessageContaining("Tipo de orçamento");
+        assertThat(quoteRequestRepository.count()).isZero();
+        assertThat(events.published()).isEmpty();
     }
 
     @Test
     @DisplayName("Deve buscar QuoteRequest por ID com sucesso")
     void deveBuscarQuoteRequestPorId() {
         // Given
-        when(quoteRequestRepository.findById(quoteRequestId)).thenReturn(Optional.of(quoteRequest));
+        salvar();
+        Statistics statistics = statistics();
 
         // When
         QuoteRequestDTO result = service.getById(quoteRequestId);
 
-        // Then
+        // Then - direto na projeção, sem carregar a entidade
         assertThat(result).isNotNull();
-        assertThat(result.getRequesterName()).isEqualTo("João Silva");
-        assertThat(result.getStatus()).isEqualTo(QuoteStatus.PENDING);
-        
-        verify(quoteRequestRepository, times(1)).findById(quoteRequestId);
+        assertThat(result.requesterName()).isEqualTo("João Silva");
+        assertThat(result.status()).isEqualTo(QuoteStatus.PENDING);
+        assertThat(statistics.getEntityLoadCount()).isZero();
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao buscar QuoteRequest inexistente")
     void deveLancarExcecaoQuandoQuoteRequestNaoExiste() {
-        // Given
-        when(quoteRequestRepository.findById(quoteRequestId)).thenReturn(Optional.empty());
-
         // When & Then
         assertThatThrownBy(() -> service.getById(quoteRequestId))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Solicitação não encontrada");
-
-        verify(quoteRequestRepository, times(1)).findById(quoteRequestId);
     }
 
     @Test
     @DisplayName("Deve retornar página de QuoteRequests não deletadas")
     void deveRetornarPaginaDeQuoteRequests() {
         // Given
+        salvar();
         Pageable pageable = PageRequest.of(0, 10);
-        Page<QuoteRequest> page = new PageImpl<>(List.of(quoteRequest), pageable, 1);
-        
-        when(quoteRequestRepository.findAllByDeletedAtIsNull(pageable)).thenReturn(page);
 
         // When
         Page<QuoteRequestDTO> result = service.getAllPaginated(pageable);
@@ -186,87 +318,219 @@ class QuoteRequestServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(1);
         assertThat(result.getContent()).hasSize(1);
-        assertThat(result.getContent().get(0).getRequesterName()).isEqualTo("João Silva");
-        
-        verify(quoteRequestRepository, times(1)).findAllByDeletedAtIsNull(pageable);
+        assertThat(result.getContent().get(0).requesterName()).isEqualTo("João Silva");
+        assertThat(result.getContent().get(0).budgetTypeId()).isEqualTo(budgetTypeId);
+    }
+
+    @Test
+    @DisplayName("Deve retornar a primeira página por cursor com o token da próxima")
+    void deveRetornarPrimeiraPaginaPorCursor() {
+        // Given - a mais nova vem primeiro
+        salvarOutra("Maria Souza");
+        salvar();
+
+        // When
+        CursorPageDTO<QuoteRequestDTO> result = service.getAllByCursor(null, 1);
+
+        // Then
+        assertThat(result.content()).extracting(QuoteRequestDTO::id).containsExactly(quoteRequestId);
+        assertThat(result.hasNext()).isTrue();
+        KeysetCursor next = KeysetCursor.decode(result.nextCursor());
+        assertThat(next.createdAt()).isEqualTo(result.content().get(0).createdAt());
+        assertThat(next.id()).isEqualTo(quoteRequestId);
+    }
+
+    @Test
+    @DisplayName("Deve continuar a partir do cursor e não devolver token na última página")
+    void deveContinuarAPartirDoCursor() {
+        // Given
+        UUID older = salvarOutra("Maria Souza");
+        salvar();
+        String cursor = service.getAllByCursor(null, 1).nextCursor();
+
+        // When
+        CursorPageDTO<QuoteRequestDTO> result = service.getAllByCursor(cursor, 10);
+
+        // Then
+        assertThat(result.content()).extracting(QuoteRequestDTO::id).containsExactly(older);
+        assertThat(result.hasNext()).isFalse();
+        assertThat(result.nextCursor()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve recusar cursor inválido")
+    void deveRecusarCursorInvalido() {
+        assertThatThrownBy(() -> service.getAllByCursor("nao-e-um-cursor", 10))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Cursor inválido");
+    }
+
+    @Test
+    @DisplayName("Deve exportar em NDJSON uma linha por solicitação, desanexando cada entidade")
+    void deveExportarEmNdjson() throws IOException {
+        // Given
+        salvar();
+        salvarOutra("Maria Souza");
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When - na transação do teste, para olhar o contexto de persistência no fim
+        int managedAtTheEnd = transactionTemplate.execute(status -> {
+            assertThat(export(QuoteExportFormat.NDJSON, output)).isEqualTo(2);
+            return managedQuoteRequests();
+        });
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(objectMapper.readTree(lines[0]).get("id").asText()).isEqualTo(quoteRequestId.toString());
+        assertThat(objectMapper.readTree(lines[1]).get("requesterName").asText()).isEqualTo("Maria Souza");
+        assertThat(managedAtTheEnd).isZero();
+    }
+
+    @Test
+    @DisplayName("Deve exportar em CSV com cabeçalho e valores escapados")
+    void deveExportarEmCsv() {
+        // Given
+        quoteRequest.setRequesterName("Silva, João \"Jota\"");
+        salvar();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        export(QuoteExportFormat.CSV, output);
+
+        // Then
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines).hasSize(2);
+        assertThat(lines[0]).startsWith("id,budgetTypeId,requesterName,");
+        assertThat(lines[1]).startsWith(quoteRequestId + "," + budgetTypeId + ",\"Silva, João \"\"Jota\"\"\",joao@email.com,");
+        assertThat(lines[1]).contains(",1000,250.00,PENDING,");
+    }
+
+    @Test
+    @DisplayName("Deve neutralizar no CSV textos que a planilha leria como fórmula")
+    void deveNeutralizarFormulasNoCsv() {
+        // Given
+        quoteRequest.setRequesterName("=HYPERLINK(\"http://x\",\"clique\")");
+        quoteRequest.setRequesterEmail("@SUM(A1)");
+        quoteRequest.setDocumentOriginalName("-2+3.pdf");
+        quoteRequest.setDocumentStorageKey("\tstorage/key/123");
+        salvar();
+        ByteArrayOutputStream output = new ByteArrayOutputStream();
+
+        // When
+        export(QuoteExportFormat.CSV, output);
+
+        // Then - prefixo ' antes das aspas do RFC 4180; números continuam como estão
+        String[] lines = output.toString(StandardCharsets.UTF_8).split("\n");
+        assertThat(lines[1]).startsWith(quoteRequestId + "," + budgetTypeId
+                + ",\"'=HYPERLINK(\"\"http://x\"\",\"\"clique\"\")\",'@SUM(A1),'-2+3.pdf,'\tstorage/key/123,");
+        assertThat(lines[1]).contains(",1000,250.00,PENDING,");
     }
 
     @Test
     @DisplayName("Deve atualizar QuoteRequest com sucesso")
     void deveAtualizarQuoteRequestComSucesso() {
-        // Given
-        QuoteRequestDTO updateDTO = new QuoteRequestDTO();
-        updateDTO.setBudgetTypeId(budgetTypeId);
-        updateDTO.setRequesterName("João Silva Atualizado");
-        updateDTO.setRequesterEmail("joao.novo@email.com");
-        updateDTO.setDocumentOriginalName("contrato.pdf");
-        updateDTO.setDocumentStorageKey("storage/key/123");
-        updateDTO.setDocumentMimeType("application/pdf");
-        updateDTO.setDocumentSizeBytes(1024L);
-        updateDTO.setBillingMethodUsed("WORD");
-        updateDTO.setFeeUsed(BigDecimal.valueOf(0.25));
-        updateDTO.setCountedUnits(1000);
-        updateDTO.setEstimatedTotal(BigDecimal.valueOf(250.0));
-        updateDTO.setStatus(QuoteStatus.PENDING);
-
-        when(quoteRequestRepository.findById(quoteRequestId)).thenReturn(Optional.of(quoteRequest));
-        when(budgetTypeRepository.findById(budgetTypeId)).thenReturn(Optional.of(budgetType));
-        when(quoteRequestRepository.save(any(QuoteRequest.class))).thenReturn(quoteRequest);
+        // Given - notificação da versão atual ainda no outbox
+        salvar();
+        outboxMessageRepository.save(new OutboxMessage(quoteRequestId, OffsetDateTime.now(), new NotificationEventDTO(
+                quoteRequestId, "joao@email.com", "João Silva", "Seu orçamento foi criado!", "<p>Olá</p>")));
+        QuoteRequestDTO updateDTO = new QuoteRequestDTO(null, budgetTypeId, "João Silva Atualizado",
+                "joao.novo@email.com", "contrato.pdf", "storage/key/123", "application/pdf", 1024L, "WORD",
+                BigDecimal.valueOf(0.25), 1000, BigDecimal.valueOf(250.0), QuoteStatus.PENDING, null, null, null);
 
         // When
         QuoteRequestDTO result = service.update(quoteRequestId, updateDTO);
 
         // Then
         assertThat(result).isNotNull();
-        
-        verify(quoteRequestRepository, times(1)).findById(quoteRequestId);
-        verify(budgetTypeRepository, times(1)).findById(budgetTypeId);
-        verify(quoteRequestRepository, times(1)).save(any(QuoteRequest.class));
+        QuoteRequest saved = recarregar();
+        assertThat(saved.getRequesterName()).isEqualTo("João Silva Atualizado");
+        assertThat(saved.getRequesterEmail()).isEqualTo("joao.novo@email.com");
+        // A notificação ainda não publicada era da versão anterior; a nova sai depois da contagem
+        assertThat(outboxMessageRepository.findAll()).isEmpty();
+        assertThat(saved.getNotifiedAt()).isNull();
+    }
+
+    @Test
+    @DisplayName("Deve devolver para PENDING com a tarifa atual e reenviar ao pipeline ao atualizar, sem contar o documento")
+    void deveDevolverParaPendingAoAtualizar() {
+        // Given - já processada com a tarifa antiga; a tarifa do tipo mudou desde a criação
+        quoteRequest.setStatus(QuoteStatus.SENT);
+        salvar();
+        budgetType.setFee(BigDecimal.valueOf(0.30));
+        budgetTypeRepository.save(budgetType);
+        budgetTypeCache.invalidate();
+        QuoteRequestDTO updateDTO = new QuoteRequestDTO(null, budgetTypeId, "João Silva", "joao@email.com",
+                "contrato-v2.pdf", "storage/key/456", "application/pdf", 2048L, "WORD",
+                BigDecimal.ONE, 1, BigDecimal.ONE, QuoteStatus.SENT, null, null, null);
+
+        // When
+        QuoteRequestDTO result = service.update(quoteRequestId, updateDTO);
+
+        // Then
+        assertThat(result.status()).isEqualTo(QuoteStatus.PENDING);
+        assertThat(result.documentStorageKey()).isEqualTo("storage/key/456");
+        assertThat(result.feeUsed()).isEqualByComparingTo("0.30");
+        assertThat(result.countedUnits()).isZero();
+        assertThat(result.estimatedTotal()).isEqualByComparingTo("0");
+        // Já notificada: o recálculo não gera outro e-mail
+        assertThat(recarregar().getNotifiedAt()).isNotNull();
+
+        assertThat(events.published()).singleElement().isInstanceOfSatisfying(QuoteUpdatedEvent.class,
+                event -> assertThat(event.getQuoteRequestId()).isEqualTo(quoteRequestId));
     }
 
     @Test
     @DisplayName("Deve lançar exceção ao atualizar QuoteRequest inexistente")
     void deveLancarExcecaoAoAtualizarQuoteRequestInexistente() {
-        // Given
-        when(quoteRequestRepository.findById(quoteRequestId)).thenReturn(Optional.empty());
-
         // When & Then
         assertThatThrownBy(() -> service.update(quoteRequestId, quoteRequestDTO))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Solicitação não encontrada");
 
-        verify(quoteRequestRepository, times(1)).findById(quoteRequestId);
-        verify(quoteRequestRepository, never()).save(any(QuoteRequest.class));
+        assertThat(quoteRequestRepository.count()).isZero();
+        assertThat(events.published()).isEmpty();
     }
 
     @Test
     @DisplayName("Deve fazer soft delete de QuoteRequest")
     void deveFazerSoftDelete() {
         // Given
-        when(quoteRequestRepository.findById(quoteRequestId)).thenReturn(Optional.of(quoteRequest));
-        when(quoteRequestRepository.save(any(QuoteRequest.class))).thenReturn(quoteRequest);
+        salvar();
 
         // When
         service.softDelete(quoteRequestId);
 
         // Then
-        verify(quoteRequestRepository, times(1)).findById(quoteRequestId);
-        verify(quoteRequestRepository, times(1)).save(any(QuoteRequest.class));
+        assertThat(recarregar().getDeletedAt()).isNotNull();
+        assertThatThrownBy(() -> service.getById(quoteRequestId)).isInstanceOf(RuntimeException.class);
     }
 
     @Test
-    @DisplayName("Deve lançar exceção ao deletar QuoteRequest inexistente")
-    void deveLancarExcecaoAoDeletarQuoteRequestInexistente() {
+    @DisplayName("Deve fazer soft delete em lote com um único UPDATE")
+    void deveFazerSoftDeleteEmLote() {
         // Given
-        when(quoteRequestRepository.findById(quoteRequestId)).thenReturn(Optional.empty());
+        salvar();
+        UUID other = UUID.randomUUID();
+        Statistics statistics = statistics();
+
+        // When
+        int deleted = service.softDeleteAll(List.of(quoteRequestId, other));
 
+        // Then - sem carregar as entidades
+        assertThat(deleted).isEqualTo(1);
+        assertThat(statistics.getPrepareStatementCount()).isEqualTo(1);
+        assertThat(statistics.getEntityLoadCount()).isZero();
+        assertThat(recarregar().getDeletedAt()).isNotNull();
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção ao deletar QuoteRequest inexistente")
+    void deveLancarExcecaoAoDeletarQuoteRequestInexistente() {
         // When & Then
         assertThatThrownBy(() -> service.softDelete(quoteRequestId))
                 .isInstanceOf(RuntimeException.class)
                 .hasMessageContaining("Solicitação não encontrada");
-
-        verify(quoteRequestRepository, times(1)).findById(quoteRequestId);
-        verify(quoteRequestRepository, never()).save(any(QuoteRequest.class));
     }
 
     @Test
@@ -274,10 +538,9 @@ class QuoteRequestServiceTest {
     void deveRetornarPaginaDeQuoteRequestsDeletadas() {
         // Given
         quoteRequest.setDeletedAt(OffsetDateTime.now());
+        salvar();
+        salvarOutra("Maria Souza");
         Pageable pageable = PageRequest.of(0, 10);
-        Page<QuoteRequest> page = new PageImpl<>(List.of(quoteRequest), pageable, 1);
-        
-        when(quoteRequestRepository.findAllByDeletedAtIsNotNull(pageable)).thenReturn(page);
 
         // When
         Page<QuoteRequestDTO> result = service.getAllDeletedPaginated(pageable);
@@ -285,9 +548,7 @@ class QuoteRequestServiceTest {
         // Then
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isEqualTo(1);
-        assertThat(result.getContent()).hasSize(1);
-        
-        verify(quoteRequestRepository, times(1)).findAllByDeletedAtIsNotNull(pageable);
+        assertThat(result.getContent()).extracting(QuoteRequestDTO::id).containsExactly(quoteRequestId);
     }
 
     @Test
@@ -295,9 +556,6 @@ class QuoteRequestServiceTest {
     void deveRetornarPaginaVaziaQuandoNaoHouverQuotes() {
         // Given
         Pageable pageable = PageRequest.of(0, 10);
-        Page<QuoteRequest> emptyPage = new PageImpl<>(List.of(), pageable, 0);
-        
-        when(quoteRequestRepository.findAllByDeletedAtIsNull(pageable)).thenReturn(emptyPage);
 
         // When
         Page<QuoteRequestDTO> result = service.getAllPaginated(pageable);
@@ -306,7 +564,101 @@ class QuoteRequestServiceTest {
         assertThat(result).isNotNull();
         assertThat(result.getTotalElements()).isZero();
         assertThat(result.getContent()).isEmpty();
-        
-        verify(quoteRequestRepository, times(1)).findAllByDeletedAtIsNull(pageable);
     }
-}
\ No newline at end of file
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private void salvar() {
+        quoteRequest = quoteRequestRepository.save(quoteRequest);
+        quoteRequestId = quoteRequest.getId();
+    }
+
+    private UUID salvarOutra(String requesterName) {
+        QuoteRequest other = new QuoteRequest();
+        other.setBudgetType(budgetType);
+        other.setRequesterName(requesterName);
+        other.setRequesterEmail("maria@email.com");
+        other.setDocumentOriginalName("laudo.pdf");
+        other.setDocumentStorageKey("storage/key/789");
+        other.setDocumentMimeType("application/pdf");
+        other.setDocumentSizeBytes(2048L);
+        other.setBillingMethodUsed("WORD");
+        other.setFeeUsed(BigDecimal.valueOf(0.25));
+        other.setCountedUnits(500);
+        other.setEstimatedTotal(BigDecimal.valueOf(125.0));
+        other.setStatus(QuoteStatus.SENT);
+        return quoteRequestRepository.save(other).getId();
+    }
+
+    private QuoteRequest recarregar() {
+        return quoteRequestRepository.findById(quoteRequestId).orElseThrow();
+    }
+
+    private long export(QuoteExportFormat format, ByteArrayOutputStream output) {
+        try {
+            return service.exportActive(format, output);
+        } catch (IOException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    // QuoteRequests no contexto de persistência da transação corrente
+    private int managedQuoteRequests() {
+        return (int) entityManager.unwrap(Session.class).getStatistics().getEntityKeys().stream()
+                .filter(key -> ((EntityKey) key).getEntityName().equals(QuoteRequest.class.getName()))
+                .count();
+    }
+
+    private Statistics statistics() {
+        Statistics statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+        statistics.clear();
+        return statistics;
+    }
+
+    /*** Eventos publicados pelo serviço, na ordem ***/
+    static class RecordedEvents {
+
+        private final List<Object> published = new CopyOnWriteArrayList<>();
+
+        @EventListener({QuoteCreatedEvent.class, QuoteBatchCreatedEvent.class, QuoteUpdatedEvent.class})
+        void record(Object event) {
+            published.add(event);
+        }
+
+        List<Object> published() {
+            return published;
+        }
+
+        void clear() {
+            published.clear();
+        }
+    }
+
+    @TestConfiguration
+    static class ServiceConfig {
+
+        @Bean
+        RecordedEvents recordedEvents() {
+            return new RecordedEvents();
+        }
+
+        // Os eventos de criação e PUT chegam ao pipeline, mas nada é executado
+        @Bean
+        TaskExecutor quoteProcessingExecutor() {
+            return task -> { };
+        }
+
+        @Bean
+        MeterRegistry meterRegistry() {
+            return new SimpleMeterRegistry();
+        }
+
+        @Bean
+        ObjectMapper objectMapper() {
+            return JsonMapper.builder()
+                    .addModule(new JavaTimeModule())
+                    .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS)
+                    .build();
+        }
+    }
+}
@@ -0,0 +1,126 @@
+package com.orcamento.api.service;
+
+import com.orcamento.api.entity.BudgetType;
+import com.orcamento.api.entity.QuoteRequest;
+import com.orcamento.api.entity.enums.BillingMethod;
+import com.orcamento.api.entity.enums.QuoteStatus;
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.repository.BudgetTypeRepository;
+import com.orcamento.api.repository.QuoteRequestRepository;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+
+import java.math.BigDecimal;
+import java.time.OffsetDateTime;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do QuoteStatusMetrics")
+class QuoteStatusMetricsTest {
+
+    @Autowired
+    private QuoteRequestRepository quoteRequestRepository;
+
+    @Autowired
+    private BudgetTypeRepository budgetTypeRepository;
+
+    private SimpleMeterRegistry meterRegistry;
+    private QuoteStatusMetrics metrics;
+    private BudgetType budgetType;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        metrics = new QuoteStatusMetrics(quoteRequestRepository, meterRegistry);
+
+        budgetType = new BudgetType();
+        budgetType.setBudgetTypeName("Tradução por Palavra");
+        budgetType.setBillingMethod(BillingMethod.WORD);
+        budgetType.setFee(BigDecimal.valueOf(0.25));
+        budgetType.setDescription("Teste");
+        budgetType.setTargetEmail("teste@email.com");
+        budgetType = budgetTypeRepository.save(budgetType);
+    }
+
+    @Test
+    @DisplayName("Deve registrar um gauge por status, zerado antes da primeira contagem")
+    void deveRegistrarGaugePorStatus() {
+        // Given - linhas no banco não entram no gauge antes do refresh
+        salvar(QuoteStatus.PENDING, 2);
+
+        // Then
+        for (QuoteStatus status : QuoteStatus.values()) {
+            assertThat(gauge(status)).isZero();
+        }
+    }
+
+    @Test
+    @DisplayName("Deve atualizar os gauges com a contagem e zerar status que sumiram")
+    void deveAtualizarGauges() {
+        // Given - a solicitação deletada não conta
+        List<QuoteRequest> pending = salvar(QuoteStatus.PENDING, 12);
+        List<QuoteRequest> failed = salvar(QuoteStatus.FAILED, 1);
+        QuoteRequest deleted = salvar(QuoteStatus.PENDING, 1).get(0);
+        deleted.setDeletedAt(OffsetDateTime.now());
+        quoteRequestRepository.saveAndFlush(deleted);
+
+        // When
+        metrics.refresh();
+
+        // Then
+        assertThat(gauge(QuoteStatus.PENDING)).isEqualTo(12);
+        assertThat(gauge(QuoteStatus.SENT)).isZero();
+        assertThat(gauge(QuoteStatus.FAILED)).isEqualTo(1);
+
+        // When - próxima contagem, com todas enviadas
+        pending.forEach(quote -> quote.setStatus(QuoteStatus.SENT));
+        failed.forEach(quote -> quote.setStatus(QuoteStatus.SENT));
+        quoteRequestRepository.saveAllAndFlush(pending);
+        quoteRequestRepository.saveAllAndFlush(failed);
+        metrics.refresh();
+
+        // Then
+        assertThat(gauge(QuoteStatus.PENDING)).isZero();
+        assertThat(gauge(QuoteStatus.SENT)).isEqualTo(13);
+        assertThat(gauge(QuoteStatus.FAILED)).isZero();
+    }
+
+    // ===== MÉTODOS AUXILIARES =====
+
+    private double gauge(QuoteStatus status) {
+        return meterRegistry.get(QuoteStatusMetrics.METRIC_NAME).tag("status", status.name()).gauge().value();
+    }
+
+    private List<QuoteRequest> salvar(QuoteStatus status, int total) {
+        List<QuoteRequest> quotes = new ArrayList<>();
+        for (int i = 0; i < total; i++) {
+            QuoteRequest quote = new QuoteRequest();
+            quote.setBudgetType(budgetType);
+            quote.setRequesterName("João Silva");
+            quote.setRequesterEmail("joao@email.com");
+            quote.setDocumentOriginalName("documento.pdf");
+            quote.setDocumentStorageKey("storage/documento-" + i + ".pdf");
+            quote.setDocumentMimeType("application/pdf");
+            quote.setDocumentSizeBytes(1024L);
+            quote.setBillingMethodUsed("WORD");
+            quote.setFeeUsed(BigDecimal.valueOf(0.25));
+            quote.setCountedUnits(1000);
+            quote.setEstimatedTotal(BigDecimal.valueOf(250.0));
+            quote.setStatus(status);
+            quotes.add(quote);
+        }
+        return quoteRequestRepository.saveAllAndFlush(quotes);
+    }
+}
@@ -0,0 +1,129 @@
+package com.orcamento.api.template;
+
+import com.orcamento.api.extension.MemoryMonitorExtension;
+import com.orcamento.api.util.TemplateUtils;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.io.IOException;
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+@ExtendWith(MemoryMonitorExtension.class)
+@DisplayName("Testes do TemplateEngine")
+class TemplateEngineTest {
+
+    private TemplateEngine engine;
+
+    @BeforeEach
+    void setUp() {
+        engine = new TemplateEngine();
+    }
+
+    @Test
+    @DisplayName("Deve substituir placeholders com qualquer nome, inclusive repetidos")
+    void deveSubstituirPlaceholders() {
+        // Given
+        engine.register("t.html", "<h1>{{ TITULO }}</h1><p>{{nome_cliente}}, {{valor.total}} - {{nome_cliente}}</p>");
+
+        // When
+        String html = engine.render("t.html", Map.of(
+                "TITULO", "Orçamento", "nome_cliente", "Ana", "valor.total", "R$ 10,00"));
+
+        // Then
+        assertThat(html).isEqualTo("<h1>Orçamento</h1><p>Ana, R$ 10,00 - Ana</p>");
+    }
+
+    @Test
+    @DisplayName("Deve escapar os valores para HTML")
+    void deveEscaparValores() {
+        // Given
+        engine.register("t.html", "<p title=\"{{NOME}}\">{{NOME}}</p>");
+
+        // When
+        String html = engine.render("t.html", Map.of("NOME", "<script>alert('x')</script> & \"Cia\""));
+
+        // Then
+        assertThat(html).isEqualTo("<p title=\"&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &amp; &quot;Cia&quot;\">"
+                + "&lt;script&gt;alert(&#39;x&#39;)&lt;/script&gt; &amp; &quot;Cia&quot;</p>");
+    }
+
+    @Test
+    @DisplayName("Deve manter placeholder sem valor e tratar valor nulo como vazio")
+    void deveManterPlaceholderSemValor() {
+        // Given
+        engine.register("t.html", "{{A}}|{{B}}|{{C}}");
+        Map<String, Object> values = new HashMap<>();
+        values.put("A", 42);
+        values.put("B", null);
+
+        // When
+        String html = engine.render("t.html", values);
+
+        // Then
+        assertThat(html).isEqualTo("42||{{C}}");
+    }
+
+    @Test
+    @DisplayName("Deve tratar marcações inválidas ou não fechadas como texto")
+    void deveTratarMarcacoesInvalidasComoTexto() {
+        // Given
+        CompiledTemplate template = CompiledTemplate.compile("a {{}} b {{com espaço}} c {{X}} d {{aberto");
+
+        // When
+        StringBuilder out = new StringBuilder();
+        template.render(Map.of("X", "x"), out);
+
+        // Then
+        assertThat(template.placeholders()).containsExactly("X");
+        assertThat(out.toString()).isEqualTo("a {{}} b {{com espaço}} c x d {{aberto");
+    }
+
+    @Test
+    @DisplayName("Deve reutilizar o buffer sem vazar conteúdo entre renderizações")
+    void deveReutilizarBufferSemVazarConteudo() {
+        // Given
+        engine.register("t.html", "<p>{{NOME}}</p>");
+
+        // When
+        String first = engine.render("t.html", Map.of("NOME", "um nome bem comprido"));
+        String second = engine.render("t.html", Map.of("NOME", "curto"));
+
+        // Then
+        assertThat(first).isEqualTo("<p>um nome bem comprido</p>");
+        assertThat(second).isEqualTo("<p>curto</p>");
+    }
+
+    @Test
+    @DisplayName("Deve carregar os templates do classpath e renderizar igual ao TemplateUtils")
+    @SuppressWarnings("deprecation")
+    void deveCarregarDoClasspathIgualAoTemplateUtils() throws IOException {
+        // Given
+        ReflectionTestUtils.setField(engine, "location", "classpath*:templates/*.html");
+        engine.loadTemplates();
+        String source = TemplateUtils.loadTemplateFromClasspath("templates/orcamento_benchmark.html");
+
+        // When
+        String html = engine.render("orcamento_benchmark.html", Map.of(
+                "NOME_CLIENTE", "Maria Souza", "TIPO_ORCAMENTO", "Tradução Técnica", "ID_ORCAMENTO", "123"));
+
+        // Then
+        assertThat(engine.contains("orcamento_criado.html")).isTrue();
+        assertThat(html).isEqualTo(TemplateUtils.processTemplate(source, "Maria Souza", "Tradução Técnica", "123"));
+    }
+
+    @Test
+    @DisplayName("Deve lançar exceção para template inexistente")
+    void deveLancarExcecaoParaTemplateInexistente() {
+        assertThatThrownBy(() -> engine.render("nao_existe.html", Map.of()))
+                .isInstanceOf(IllegalArgumentException.class)
+                .hasMessageContaining("Template não encontrado");
+    }
+}